@@ -11,4 +11,18 @@ export const getSolarBodyByName = async (name) => {
         console.error(`Error fetching ${name}:`, error);
         throw error;
     }
-};
\ No newline at end of file
+};
+
+// Wiele ciał jednym zapytaniem (np. scena główna): tablica w kolejności nazw, bez nieznalezionych.
+// Długie listy idą POST-em (limit długości URL).
+export const getSolarBodiesByNames = async (names) => {
+    try {
+        const response = names.length > 50
+            ? await axios.post(`${API_BASE_URL}/batch`, names)
+            : await axios.get(API_BASE_URL, { params: { names: names.join(',') } });
+        return response.data;
+    } catch (error) {
+        console.error(`Error fetching ${names.join(', ')}:`, error);
+        throw error;
+    }
+};
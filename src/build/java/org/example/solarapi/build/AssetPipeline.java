@@ -0,0 +1,279 @@
+package org.example.solarapi.build;
+
+import org.example.solarapi.mapper.AssetManifest;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Krok buildu (exec-maven-plugin, faza process-classes) na target/classes. Leży w src/build/java, poza
+ * źródłami aplikacji – exec uruchamia go jako pojedynczy plik źródłowy (java Plik.java), więc nie trafia do jara:
+ * - pomniejszone warianty tekstur (AssetManifest.TEXTURE_LODS, np. "earth_surface@2k.jpg") dla słabszych
+ *   klientów – tylko poziomy mniejsze od oryginału; wybierane przez ?lod= w API,
+ * - odcisk treści (AssetManifest.fingerprint) każdego pliku ze static/assets do META-INF/asset-manifest.properties,
+ *   z którego AssetManifest buduje adresy "nazwa-<hash>.ext" (serwowane z Cache-Control: immutable),
+ * - obok plików, które się kompresują (modele .ply/.gltf/.obj, svg, json...), siostrzany .gz – tylko jeśli
+ *   oszczędza co najmniej 10%; JPG/PNG/WebP i zwykle GLB (osadzone JPEG-i) już są skompresowane.
+ * Brotli pomijamy – JDK nie ma kodera, a dodatkowa natywna zależność w buildzie nie jest tego warta.
+ * Oryginały zostają pod starymi nazwami (frontend ma część ścieżek wpisanych na sztywno).
+ */
+public final class AssetPipeline {
+
+    private static final Logger logger = Logger.getLogger(AssetPipeline.class.getName());
+
+    private static final Set<String> COMPRESSIBLE = Set.of("ply", "obj", "gltf", "glb", "svg", "json", "txt", "hdr", "mtl");
+    private static final double MIN_SAVING = 0.10;
+    private static final Set<String> TEXTURE_FORMATS = Set.of("jpg", "jpeg", "png");
+    private static final float JPEG_QUALITY = 0.85f;
+
+    private AssetPipeline() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: AssetPipeline <classes directory>");
+        }
+        Path classes = Paths.get(args[0]);
+        Path staticRoot = classes.resolve("static");
+        Path assets = classes.resolve(AssetManifest.LOCATION);
+        if (!Files.isDirectory(assets)) {
+            logger.info("No " + assets + ", skipping");
+            return;
+        }
+
+        int lods = generateTextureLods(assets.resolve("textures"));
+
+        Map<String, String> fingerprints = new TreeMap<>();
+        int compressed = 0;
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(assets)) {
+            files = walk.filter(Files::isRegularFile).filter(file -> !isEncodedSibling(file)).sorted().toList();
+        }
+        for (Path file : files) {
+            String logical = staticRoot.relativize(file).toString().replace('\\', '/');
+            try (InputStream in = Files.newInputStream(file)) {
+                fingerprints.put(logical, AssetManifest.fingerprint(in));
+            }
+            if (COMPRESSIBLE.contains(extension(file)) && gzipSibling(file)) {
+                compressed++;
+            }
+        }
+
+        Path manifest = classes.resolve(AssetManifest.MANIFEST_LOCATION);
+        Files.createDirectories(manifest.getParent());
+        try (Writer out = Files.newBufferedWriter(manifest, StandardCharsets.UTF_8)) {
+            out.write("# generated by AssetPipeline – logical path = content fingerprint\n");
+            for (Map.Entry<String, String> entry : fingerprints.entrySet()) {
+                out.write(escape(entry.getKey()) + "=" + entry.getValue() + "\n");
+            }
+        }
+        logger.info(lods + " texture LODs, " + fingerprints.size()
+                + " assets fingerprinted, " + compressed + " gzip variants");
+    }
+
+    private static int generateTextureLods(Path textures) throws IOException {
+        if (!Files.isDirectory(textures)) {
+            return 0;
+        }
+        List<Path> sources;
+        try (Stream<Path> walk = Files.walk(textures)) {
+            sources = walk.filter(Files::isRegularFile)
+                    .filter(file -> TEXTURE_FORMATS.contains(extension(file)))
+                    .filter(file -> !file.getFileName().toString().contains("@"))
+                    .sorted().toList();
+        }
+        // od największego poziomu – każdy następny skalowany z poprzedniego, nie z oryginału
+        List<Map.Entry<String, Integer>> tiers = new ArrayList<>(AssetManifest.TEXTURE_LODS.entrySet());
+        tiers.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()));
+        int generated = 0;
+        for (Path source : sources) {
+            try {
+                generated += generateLods(source, tiers);
+            } catch (IOException | RuntimeException e) {
+                // jedna nieczytelna tekstura nie przerywa buildu – zostaje tylko oryginał
+                logger.warning("Skipping LODs for " + source + ": " + e);
+            }
+        }
+        return generated;
+    }
+
+    private static int generateLods(Path source, List<Map.Entry<String, Integer>> tiers) throws IOException {
+        int sourceWidth = imageWidth(source);
+        List<Map.Entry<String, Integer>> stale = new ArrayList<>();
+        int current = 0;
+        for (Map.Entry<String, Integer> tier : tiers) {
+            if (tier.getValue() >= sourceWidth) {
+                continue;
+            }
+            current++;
+            Path target = lodFile(source, tier.getKey());
+            if (!Files.exists(target)
+                    || Files.getLastModifiedTime(target).compareTo(Files.getLastModifiedTime(source)) < 0) {
+                stale.add(tier);
+            }
+        }
+        if (stale.isEmpty()) {
+            return current;
+        }
+        BufferedImage image = ImageIO.read(source.toFile());
+        if (image == null) {
+            throw new IOException("no ImageIO reader (WebP under a .jpg/.png name?)");
+        }
+        boolean jpeg = !"png".equals(extension(source));
+        for (Map.Entry<String, Integer> tier : tiers) {
+            if (tier.getValue() >= sourceWidth) {
+                continue;
+            }
+            image = scale(image, tier.getValue(), jpeg);
+            if (stale.contains(tier)) {
+                write(image, lodFile(source, tier.getKey()), jpeg);
+            }
+        }
+        return current;
+    }
+
+    private static Path lodFile(Path source, String lod) {
+        return source.resolveSibling(AssetManifest.lodPath(source.getFileName().toString(), lod));
+    }
+
+    // szerokość z nagłówka, bez dekodowania całego obrazu
+    private static int imageWidth(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("no ImageIO reader (WebP under a .jpg/.png name?)");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                return reader.getWidth(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // kolejne połowienia (dwuliniowo) – jedno duże zmniejszenie gubiłoby szczegóły jak nearest neighbour
+    private static BufferedImage scale(BufferedImage image, int targetWidth, boolean jpeg) {
+        BufferedImage current = image;
+        int width = current.getWidth();
+        while (width > targetWidth) {
+            width = Math.max(width / 2, targetWidth);
+            int height = Math.max(1, (int) Math.round((double) image.getHeight() * width / image.getWidth()));
+            BufferedImage scaled = new BufferedImage(width, height, imageType(image, jpeg));
+            Graphics2D graphics = scaled.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = scaled;
+        }
+        return current;
+    }
+
+    // mapy wysokości/normalnych w skali szarości zostają szare (także 16-bitowe); JPEG bez kanału alfa
+    private static int imageType(BufferedImage image, boolean jpeg) {
+        return switch (image.getType()) {
+            case BufferedImage.TYPE_BYTE_GRAY, BufferedImage.TYPE_USHORT_GRAY -> image.getType();
+            default -> !jpeg && image.getColorModel().hasAlpha()
+                    ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        };
+    }
+
+    private static void write(BufferedImage image, Path target, boolean jpeg) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        if (jpeg) {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+        } else if (!ImageIO.write(image, "png", temp.toFile())) {
+            throw new IOException("no PNG writer");
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // true = jest aktualny .gz obok pliku; przy ponownym buildzie niezmienione pliki są pomijane
+    private static boolean gzipSibling(Path file) throws IOException {
+        Path gzip = file.resolveSibling(file.getFileName() + ".gz");
+        if (Files.exists(gzip) && Files.getLastModifiedTime(gzip).compareTo(Files.getLastModifiedTime(file)) >= 0) {
+            return true;
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".gz.tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp)) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            Files.copy(file, out);
+        }
+        if (Files.size(temp) <= Files.size(file) * (1 - MIN_SAVING)) {
+            Files.move(temp, gzip, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        }
+        Files.delete(temp);
+        Files.deleteIfExists(gzip);
+        return false;
+    }
+
+    private static boolean isEncodedSibling(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(".gz") || name.endsWith(".br") || name.endsWith(".tmp");
+    }
+
+    private static String extension(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 ? name.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+    }
+
+    // klucze .properties: spacje, ':' i '=' trzeba poprzedzić '\'
+    private static String escape(String key) {
+        StringBuilder escaped = new StringBuilder(key.length() + 8);
+        for (char c : key.toCharArray()) {
+            if (c == ' ' || c == ':' || c == '=' || c == '\\' || c == '#' || c == '!') {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -1,15 +1,35 @@
 package org.example.solarapi;
 
+import org.example.solarapi.snapshot.SnapshotExportRunner;
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
 
 @SpringBootApplication
-@EnableJpaRepositories
 public class SolarApiApplication {
 
     public static void main(String[] args) {
+        if (Arrays.stream(args).anyMatch(arg -> arg.startsWith("--" + SnapshotExportRunner.EXPORT_PROPERTY + "="))) {
+            System.exit(export(args));
+        }
         SpringApplication.run(SolarApiApplication.class, args);
     }
 
+    // Eksport katalogu (SnapshotExportRunner) jako polecenie: bez serwera WWW, kod wyjścia zamiast działającego procesu
+    private static int export(String[] args) {
+        ConfigurableApplicationContext context;
+        try {
+            context = new SpringApplicationBuilder(SolarApiApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run(args);
+        } catch (RuntimeException e) {
+            // SpringApplication już zalogował przyczynę i zamknął kontekst
+            return 1;
+        }
+        return SpringApplication.exit(context);
+    }
 }
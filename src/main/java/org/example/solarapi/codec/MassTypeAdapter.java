@@ -0,0 +1,46 @@
+package org.example.solarapi.codec;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.example.solarapi.model.Mass;
+
+import java.io.IOException;
+
+/**
+ * {"massValue": 5.97237, "massExponent": 24}
+ */
+final class MassTypeAdapter extends TypeAdapter<Mass> {
+
+    @Override
+    public Mass read(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        Mass mass = new Mass();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "massValue" -> mass.setMassValue(JsonReaders.nextDoubleOrNull(reader));
+                case "massExponent" -> mass.setMassExponent(JsonReaders.nextIntOrNull(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return mass;
+    }
+
+    @Override
+    public void write(JsonWriter writer, Mass mass) throws IOException {
+        if (mass == null) {
+            writer.nullValue();
+            return;
+        }
+        writer.beginObject();
+        JsonReaders.writeNumber(writer, "massValue", mass.getMassValue());
+        JsonReaders.writeNumber(writer, "massExponent", mass.getMassExponent());
+        writer.endObject();
+    }
+}
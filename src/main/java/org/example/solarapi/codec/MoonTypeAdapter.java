@@ -0,0 +1,47 @@
+package org.example.solarapi.codec;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.example.solarapi.model.Moon;
+
+import java.io.IOException;
+
+/**
+ * Element tablicy "moons": {"moon": "La Lune", "rel": "https://api.le-systeme-solaire.net/rest/bodies/lune"}
+ */
+final class MoonTypeAdapter extends TypeAdapter<Moon> {
+
+    @Override
+    public Moon read(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        Moon moon = new Moon();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "moon" -> moon.setMoon(JsonReaders.nextStringOrNull(reader));
+                case "rel" -> moon.setRel(JsonReaders.nextStringOrNull(reader));
+                case "originalName" -> moon.setOriginalName(JsonReaders.nextStringOrNull(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return moon;
+    }
+
+    @Override
+    public void write(JsonWriter writer, Moon moon) throws IOException {
+        if (moon == null) {
+            writer.nullValue();
+            return;
+        }
+        writer.beginObject();
+        JsonReaders.writeString(writer, "moon", moon.getMoon());
+        JsonReaders.writeString(writer, "rel", moon.getRel());
+        writer.endObject();
+    }
+}
@@ -0,0 +1,59 @@
+package org.example.solarapi.codec;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.stream.JsonReader;
+import org.example.solarapi.dto.SolarBodiesResponse;
+import org.example.solarapi.model.Mass;
+import org.example.solarapi.model.Moon;
+import org.example.solarapi.model.SolarBodies;
+import org.example.solarapi.model.Vol;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Jeden współdzielony koder/dekoder odpowiedzi z api.le-systeme-solaire.net.
+ * Gson jest budowany raz (jest thread-safe), a SolarBodies, Mass, Vol, Moon i SolarBodiesResponse
+ * mają własne adaptery zamiast mapowania przez refleksję.
+ */
+public final class SolarBodiesCodec {
+
+    private static final SolarBodiesTypeAdapter SOLAR_BODIES_ADAPTER = new SolarBodiesTypeAdapter();
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(SolarBodies.class, SOLAR_BODIES_ADAPTER)
+            .registerTypeAdapter(SolarBodiesResponse.class, new SolarBodiesResponseTypeAdapter(SOLAR_BODIES_ADAPTER))
+            .registerTypeAdapter(Moon.class, new MoonTypeAdapter())
+            .registerTypeAdapter(Mass.class, new MassTypeAdapter())
+            .registerTypeAdapter(Vol.class, new VolTypeAdapter())
+            .registerTypeAdapter(
+                    LocalDateTime.class,
+                    (JsonDeserializer<LocalDateTime>) (json, type, context) -> {
+                        var dateTimeJson = json.getAsJsonPrimitive().getAsLong();
+                        return LocalDateTime.ofInstant(Instant.ofEpochMilli(dateTimeJson), ZoneId.systemDefault());
+                    }
+            )
+            .create();
+
+    private SolarBodiesCodec() {
+    }
+
+    public static Gson gson() {
+        return GSON;
+    }
+
+    public static <T> T fromJson(String json, Class<T> type) {
+        return GSON.fromJson(json, type);
+    }
+
+    /**
+     * Odczyt pojedynczego ciała z bieżącej pozycji readera (używane przy parsowaniu strumieniowym).
+     */
+    public static SolarBodies readSolarBody(JsonReader reader) throws IOException {
+        return SOLAR_BODIES_ADAPTER.read(reader);
+    }
+}
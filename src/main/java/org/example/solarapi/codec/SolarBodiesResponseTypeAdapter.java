@@ -0,0 +1,66 @@
+package org.example.solarapi.codec;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.example.solarapi.dto.SolarBodiesResponse;
+import org.example.solarapi.model.SolarBodies;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Odpowiedź /rest/bodies/: {"bodies": [ ... ]}
+ */
+final class SolarBodiesResponseTypeAdapter extends TypeAdapter<SolarBodiesResponse> {
+
+    private final SolarBodiesTypeAdapter bodyAdapter;
+
+    SolarBodiesResponseTypeAdapter(SolarBodiesTypeAdapter bodyAdapter) {
+        this.bodyAdapter = bodyAdapter;
+    }
+
+    @Override
+    public SolarBodiesResponse read(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        SolarBodiesResponse response = new SolarBodiesResponse();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("bodies".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                List<SolarBodies> bodies = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    bodies.add(bodyAdapter.read(reader));
+                }
+                reader.endArray();
+                response.setBodies(bodies);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return response;
+    }
+
+    @Override
+    public void write(JsonWriter writer, SolarBodiesResponse response) throws IOException {
+        if (response == null) {
+            writer.nullValue();
+            return;
+        }
+        writer.beginObject();
+        if (response.getBodies() != null) {
+            writer.name("bodies").beginArray();
+            for (SolarBodies body : response.getBodies()) {
+                bodyAdapter.write(writer, body);
+            }
+            writer.endArray();
+        }
+        writer.endObject();
+    }
+}
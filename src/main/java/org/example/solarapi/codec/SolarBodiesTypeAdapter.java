@@ -0,0 +1,138 @@
+package org.example.solarapi.codec;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.example.solarapi.model.Moon;
+import org.example.solarapi.model.SolarBodies;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Ręcznie napisany adapter dla jednego ciała z /rest/bodies – mapuje nazwy pól z API
+ * (semimajorAxis, mass.massValue, moons[].moon/rel, ...) bez refleksji.
+ * Pola, których nie przechowujemy (density, flattening, aroundPlanet, ...), są pomijane.
+ */
+final class SolarBodiesTypeAdapter extends TypeAdapter<SolarBodies> {
+
+    private final MoonTypeAdapter moonAdapter = new MoonTypeAdapter();
+    private final MassTypeAdapter massAdapter = new MassTypeAdapter();
+    private final VolTypeAdapter volAdapter = new VolTypeAdapter();
+
+    @Override
+    public SolarBodies read(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        SolarBodies body = new SolarBodies();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                // stabilny identyfikator z API (np. "terre") – klucz bulk upsertu; bez niego zostaje losowy UUID
+                case "id" -> {
+                    String id = JsonReaders.nextStringOrNull(reader);
+                    if (id != null && !id.isBlank()) {
+                        body.setExternalId(id);
+                    }
+                }
+                case "englishName" -> body.setEnglishName(JsonReaders.nextStringOrNull(reader));
+                case "bodyType" -> body.setBodyType(JsonReaders.nextStringOrNull(reader));
+                case "isPlanet" -> body.setPlanet(JsonReaders.nextBoolean(reader));
+                case "moons" -> body.setMoons(readMoons(reader));
+                case "semimajorAxis" -> body.setSemimajorAxis(JsonReaders.nextLongOrNull(reader));
+                case "perihelion" -> body.setPerihelion(JsonReaders.nextLongOrNull(reader));
+                case "aphelion" -> body.setAphelion(JsonReaders.nextLongOrNull(reader));
+                case "eccentricity" -> body.setEccentricity(JsonReaders.nextDoubleOrNull(reader));
+                case "inclination" -> body.setInclination(JsonReaders.nextDoubleOrNull(reader));
+                case "mass" -> body.setMass(massAdapter.read(reader));
+                case "vol" -> body.setVol(volAdapter.read(reader));
+                case "gravity" -> body.setGravity(JsonReaders.nextDoubleOrNull(reader));
+                case "escape" -> body.setEscape(JsonReaders.nextDoubleOrNull(reader));
+                case "meanRadius" -> body.setMeanRadius(JsonReaders.nextDoubleOrNull(reader));
+                case "equaRadius" -> body.setEquaRadius(JsonReaders.nextDoubleOrNull(reader));
+                case "polarRadius" -> body.setPolarRadius(JsonReaders.nextDoubleOrNull(reader));
+                case "sideralOrbit" -> body.setSideralOrbit(JsonReaders.nextDoubleOrNull(reader));
+                case "sideralRotation" -> body.setSideralRotation(JsonReaders.nextDoubleOrNull(reader));
+                case "discoveredBy" -> body.setDiscoveredBy(JsonReaders.nextStringOrNull(reader));
+                case "discoveryDate" -> body.setDiscoveryDate(JsonReaders.nextStringOrNull(reader));
+                case "alternativeName" -> body.setAlternativeName(JsonReaders.nextStringOrNull(reader));
+                case "axialTilt" -> body.setAxialTilt(JsonReaders.nextDoubleOrNull(reader));
+                case "avgTemp" -> body.setAvgTemp(JsonReaders.nextDoubleOrNull(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return body;
+    }
+
+    /**
+     * "moons" w API to null albo tablica {moon, rel}. setMoons ustawia też odniesienie zwrotne
+     * i moonCount, czego refleksyjny Gson (zapis prosto do pola) nie robił.
+     */
+    private Set<Moon> readMoons(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        Set<Moon> moons = new HashSet<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            Moon moon = moonAdapter.read(reader);
+            if (moon != null) {
+                moons.add(moon);
+            }
+        }
+        reader.endArray();
+        return moons;
+    }
+
+    @Override
+    public void write(JsonWriter writer, SolarBodies body) throws IOException {
+        if (body == null) {
+            writer.nullValue();
+            return;
+        }
+        writer.beginObject();
+        JsonReaders.writeString(writer, "id", body.getExternalId());
+        JsonReaders.writeString(writer, "englishName", body.getEnglishName());
+        JsonReaders.writeString(writer, "bodyType", body.getBodyType());
+        writer.name("isPlanet").value(body.isPlanet());
+        if (body.getMoons() != null) {
+            writer.name("moons").beginArray();
+            for (Moon moon : body.getMoons()) {
+                moonAdapter.write(writer, moon);
+            }
+            writer.endArray();
+        }
+        JsonReaders.writeNumber(writer, "semimajorAxis", body.getSemimajorAxis());
+        JsonReaders.writeNumber(writer, "perihelion", body.getPerihelion());
+        JsonReaders.writeNumber(writer, "aphelion", body.getAphelion());
+        JsonReaders.writeNumber(writer, "eccentricity", body.getEccentricity());
+        JsonReaders.writeNumber(writer, "inclination", body.getInclination());
+        if (body.getMass() != null) {
+            writer.name("mass");
+            massAdapter.write(writer, body.getMass());
+        }
+        if (body.getVol() != null) {
+            writer.name("vol");
+            volAdapter.write(writer, body.getVol());
+        }
+        JsonReaders.writeNumber(writer, "gravity", body.getGravity());
+        JsonReaders.writeNumber(writer, "escape", body.getEscape());
+        JsonReaders.writeNumber(writer, "meanRadius", body.getMeanRadius());
+        JsonReaders.writeNumber(writer, "equaRadius", body.getEquaRadius());
+        JsonReaders.writeNumber(writer, "polarRadius", body.getPolarRadius());
+        JsonReaders.writeNumber(writer, "sideralOrbit", body.getSideralOrbit());
+        JsonReaders.writeNumber(writer, "sideralRotation", body.getSideralRotation());
+        JsonReaders.writeString(writer, "discoveredBy", body.getDiscoveredBy());
+        JsonReaders.writeString(writer, "discoveryDate", body.getDiscoveryDate());
+        JsonReaders.writeString(writer, "alternativeName", body.getAlternativeName());
+        JsonReaders.writeNumber(writer, "axialTilt", body.getAxialTilt());
+        JsonReaders.writeNumber(writer, "avgTemp", body.getAvgTemp());
+        writer.endObject();
+    }
+}
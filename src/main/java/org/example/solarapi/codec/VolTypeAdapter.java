@@ -0,0 +1,46 @@
+package org.example.solarapi.codec;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.example.solarapi.model.Vol;
+
+import java.io.IOException;
+
+/**
+ * {"volValue": 1.08321, "volExponent": 12}
+ */
+final class VolTypeAdapter extends TypeAdapter<Vol> {
+
+    @Override
+    public Vol read(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        Vol vol = new Vol();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "volValue" -> vol.setVolValue(JsonReaders.nextDoubleOrNull(reader));
+                case "volExponent" -> vol.setVolExponent(JsonReaders.nextIntOrNull(reader));
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return vol;
+    }
+
+    @Override
+    public void write(JsonWriter writer, Vol vol) throws IOException {
+        if (vol == null) {
+            writer.nullValue();
+            return;
+        }
+        writer.beginObject();
+        JsonReaders.writeNumber(writer, "volValue", vol.getVolValue());
+        JsonReaders.writeNumber(writer, "volExponent", vol.getVolExponent());
+        writer.endObject();
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.solarapi.configuration;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.solarapi.mapper.AssetManifest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.AbstractVersionStrategy;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.VersionPathStrategy;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serwowanie /assets/** (tekstury, modele):
+ * - "nazwa-<hash>.ext" (adresy z API, patrz AssetManifest.url) -> plik "nazwa.ext", o ile hash zgadza się z treścią;
+ *   Cache-Control: immutable na rok – nowa treść = nowy adres,
+ * - adresy bez wersji (frontend ma część wpisanych na sztywno) działają jak dotąd, z no-cache (rewalidacja po Last-Modified),
+ * - Accept-Encoding: gzip -> gotowy "plik.gz" z AssetPipeline, jeśli jest (bez kompresji w locie).
+ */
+@Configuration
+public class AssetsConfig {
+
+    private static final Logger logger = Logger.getLogger(AssetsConfig.class.getName());
+
+    private static final Pattern VERSIONED = Pattern.compile(
+            "-([0-9a-f]{" + AssetManifest.FINGERPRINT_LENGTH + "})(\\.[^./]+)?$");
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    @Bean
+    public WebMvcConfigurer assetsConfigurer() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addResourceHandlers(ResourceHandlerRegistry registry) {
+                // EncodedResourceResolver przed VersionResourceResolver – wersja liczona z oryginału, nie z .gz
+                registry.addResourceHandler("/assets/**")
+                        .addResourceLocations("classpath:/static/assets/")
+                        .resourceChain(true)
+                        .addResolver(new EncodedResourceResolver())
+                        .addResolver(new VersionResourceResolver()
+                                .addVersionStrategy(new ManifestVersionStrategy(), "/**"));
+            }
+
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new AssetCacheControlInterceptor()).addPathPatterns("/assets/**");
+            }
+        };
+    }
+
+    static class AssetCacheControlInterceptor implements HandlerInterceptor {
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            boolean versioned = VERSIONED.matcher(request.getRequestURI()).find();
+            response.setHeader(HttpHeaders.CACHE_CONTROL, versioned ? IMMUTABLE : "no-cache");
+            return true;
+        }
+    }
+
+    /**
+     * Wersja = odcisk z manifestu buildu; bez niego (np. po zmianie plików w trybie dev) liczony z treści.
+     */
+    static class ManifestVersionStrategy extends AbstractVersionStrategy {
+
+        ManifestVersionStrategy() {
+            super(new HashSuffixPathStrategy());
+        }
+
+        @Override
+        public String getResourceVersion(Resource resource) {
+            if (resource instanceof ClassPathResource classPathResource
+                    && classPathResource.getPath().startsWith("static/")) {
+                String fingerprint = AssetManifest.current()
+                        .fingerprint(classPathResource.getPath().substring("static/".length()));
+                if (fingerprint != null) {
+                    return fingerprint;
+                }
+            }
+            try (InputStream in = resource.getInputStream()) {
+                return AssetManifest.fingerprint(in);
+            } catch (IOException e) {
+                AssetsConfig.logger.log(Level.WARNING, "Could not fingerprint " + resource, e);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * "-<hash>" tuż przed rozszerzeniem. Własna zamiast FileNameVersionPathStrategy, bo tamta bierze wszystko od
+     * pierwszego '-' (np. "circle-red-<hash>.webp" dawałoby wersję "red-<hash>").
+     */
+    static class HashSuffixPathStrategy implements VersionPathStrategy {
+
+        @Override
+        public String extractVersion(String requestPath) {
+            Matcher matcher = VERSIONED.matcher(requestPath);
+            return matcher.find() ? matcher.group(1) : null;
+        }
+
+        @Override
+        public String removeVersion(String requestPath, String version) {
+            Matcher matcher = VERSIONED.matcher(requestPath);
+            if (!matcher.find() || !matcher.group(1).equals(version)) {
+                return requestPath;
+            }
+            String extension = matcher.group(2) != null ? matcher.group(2) : "";
+            return requestPath.substring(0, matcher.start()) + extension;
+        }
+
+        @Override
+        public String addVersion(String requestPath, String version) {
+            int slash = requestPath.lastIndexOf('/');
+            int dot = requestPath.lastIndexOf('.');
+            if (dot <= slash) {
+                return requestPath + "-" + version;
+            }
+            return requestPath.substring(0, dot) + "-" + version + requestPath.substring(dot);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.solarapi.configuration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Repozytoria JPA – poza profilem "snapshot", który startuje bez bazy (katalog z pliku, patrz SnapshotCatalog).
+ * Wcześniej @EnableJpaRepositories siedziało na SolarApiApplication i wymuszało EntityManagerFactory zawsze.
+ */
+@Configuration
+@Profile("!snapshot")
+@EnableJpaRepositories(basePackages = "org.example.solarapi.repository")
+public class JpaConfig {
+}
@@ -0,0 +1,105 @@
+package org.example.solarapi.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseDataSource;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Podział odczyt/zapis: primary z spring.datasource.*, repliki z solar.datasource.replica.urls (po przecinku).
+ * Każdy cel ma własną pulę Hikari (solar-primary, solar-replica-0, ...), Liquibase zawsze idzie na primary.
+ * Domyślnie wyłączone (solar.datasource.routing.enabled=false) – wtedy działa zwykły DataSource Spring Boota.
+ */
+@Configuration
+@ConditionalOnProperty(name = "solar.datasource.routing.enabled", havingValue = "true")
+public class ReadReplicaRoutingConfig {
+
+    @Value("${solar.datasource.primary.pool-size:10}")
+    private int primaryPoolSize;
+
+    @Value("${solar.datasource.replica.urls:}")
+    private List<String> replicaUrls;
+
+    @Value("${solar.datasource.replica.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${solar.datasource.replica.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${solar.datasource.replica.pool-size:10}")
+    private int replicaPoolSize;
+
+    @Value("${solar.datasource.replica.max-lag-ms:5000}")
+    private long maxLagMillis;
+
+    @Value("${solar.datasource.replica.lag-check-interval-ms:2000}")
+    private long lagCheckIntervalMillis;
+
+    // Puste = SHOW REPLICA STATUS; inaczej zapytanie zwracające opóźnienie w ms
+    @Value("${solar.datasource.replica.lag-query:}")
+    private String lagQuery;
+
+    @Bean
+    @LiquibaseDataSource
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("solar-primary");
+        dataSource.setMaximumPoolSize(primaryPoolSize);
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(HikariDataSource primaryDataSource,
+                                                                DataSourceProperties properties) {
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = new HikariDataSource();
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            if (properties.getDriverClassName() != null) {
+                replica.setDriverClassName(properties.getDriverClassName());
+            }
+            replica.setPoolName("solar-replica-" + replicas.size());
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            replicas.put("replica-" + replicas.size(), replica);
+        }
+
+        ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(new LinkedHashMap<String, DataSource>(replicas),
+                maxLagMillis, lagCheckIntervalMillis, lagQuery);
+        lagMonitor.start();
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas, lagMonitor);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    /**
+     * Spring Boot trzyma połączenie w sesji Hibernate do końca żądania (open-in-view), więc kolejna transakcja
+     * w tym samym żądaniu dostałaby połączenie wybrane przez poprzednią. Oddajemy je po każdej transakcji,
+     * żeby każda była routowana osobno.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put("hibernate.connection.handling_mode",
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.solarapi.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transakcje @Transactional(readOnly = true) idą na zdrową replikę (ReplicaLagMonitor), cała reszta na primary.
+ * Gdy żadna replika się nie nadaje (opóźnienie > solar.datasource.replica.max-lag-ms albo brak połączenia),
+ * odczyt idzie na primary i liczy się jako "fallback".
+ * Musi być opakowany w LazyConnectionDataSourceProxy – inaczej połączenie jest pobierane na starcie
+ * transakcji, zanim Spring oznaczy ją jako read-only.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+    private final ReplicaLagMonitor lagMonitor;
+    private final Map<String, LongAdder> routed = new ConcurrentHashMap<>();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public ReadWriteRoutingDataSource(HikariDataSource primary, Map<String, HikariDataSource> replicas,
+                                      ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        pools.put(PRIMARY, primary);
+        pools.putAll(replicas);
+        Map<Object, Object> targets = new HashMap<>(pools);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String target = PRIMARY;
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            String replica = lagMonitor.nextHealthyReplica();
+            if (replica != null) {
+                target = replica;
+            } else {
+                fallbacks.increment();
+            }
+        }
+        routed.computeIfAbsent(target, key -> new LongAdder()).increment();
+        return target;
+    }
+
+    /**
+     * Pula primary z pominięciem routingu – dla czytających, które muszą widzieć najnowszy stan (eksport snapshotu).
+     */
+    public HikariDataSource getPrimary() {
+        return pools.get(PRIMARY);
+    }
+
+    public ReplicaLagMonitor getLagMonitor() {
+        return lagMonitor;
+    }
+
+    /**
+     * Liczniki routingu, stan replik i pul Hikari per cel (do /api/diagnostics/datasources).
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("maxLagMs", lagMonitor.getMaxLagMillis());
+        snapshot.put("fallbacksToPrimary", fallbacks.sum());
+        Map<String, ReplicaLagMonitor.ReplicaState> states = lagMonitor.getStates();
+
+        Map<String, Object> targets = new LinkedHashMap<>();
+        pools.forEach((name, pool) -> {
+            Map<String, Object> target = new LinkedHashMap<>();
+            LongAdder count = routed.get(name);
+            target.put("routedConnections", count != null ? count.sum() : 0L);
+            ReplicaLagMonitor.ReplicaState state = states.get(name);
+            if (state != null) {
+                target.put("healthy", state.healthy());
+                target.put("lagMs", state.lagMillis());
+                target.put("checkedAt", String.valueOf(state.checkedAt()));
+                if (state.error() != null) {
+                    target.put("error", state.error());
+                }
+            }
+            target.put("pool", poolStats(pool));
+            targets.put(name, target);
+        });
+        snapshot.put("targets", targets);
+        return snapshot;
+    }
+
+    public void close() {
+        lagMonitor.stop();
+        pools.values().forEach(HikariDataSource::close);
+    }
+
+    private static Map<String, Object> poolStats(HikariDataSource pool) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", pool.getPoolName());
+        stats.put("maxSize", pool.getMaximumPoolSize());
+        HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+        if (mxBean != null) { // null, dopóki pula nie otworzyła pierwszego połączenia
+            stats.put("active", mxBean.getActiveConnections());
+            stats.put("idle", mxBean.getIdleConnections());
+            stats.put("total", mxBean.getTotalConnections());
+            stats.put("awaiting", mxBean.getThreadsAwaitingConnection());
+        }
+        return stats;
+    }
+}
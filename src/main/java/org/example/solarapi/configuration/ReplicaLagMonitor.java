@@ -0,0 +1,133 @@
+package org.example.solarapi.configuration;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Okresowo sprawdza opóźnienie replikacji każdej repliki i wybiera (round-robin) zdrowe repliki do odczytu.
+ * Replika jest zdrowa, gdy odpowiada i jej opóźnienie nie przekracza maxLagMillis.
+ * Domyślnie opóźnienie to Seconds_Behind_Source z SHOW REPLICA STATUS (MySQL 8); lagQuery pozwala podać
+ * własne zapytanie zwracające opóźnienie w milisekundach (np. tabela heartbeat albo test na H2).
+ * Dopóki replika nie przeszła sprawdzenia, nie dostaje ruchu.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = Logger.getLogger(ReplicaLagMonitor.class.getName());
+
+    public record ReplicaState(boolean healthy, long lagMillis, Instant checkedAt, String error) {
+    }
+
+    private final Map<String, JdbcTemplate> replicas = new LinkedHashMap<>();
+    private final Map<String, ReplicaState> states = new ConcurrentHashMap<>();
+    private final long maxLagMillis;
+    private final long checkIntervalMillis;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private volatile List<String> healthy = List.of();
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(Map<String, DataSource> replicas, long maxLagMillis, long checkIntervalMillis, String lagQuery) {
+        replicas.forEach((name, dataSource) -> {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.setQueryTimeout(5);
+            this.replicas.put(name, jdbcTemplate);
+        });
+        this.maxLagMillis = maxLagMillis;
+        this.checkIntervalMillis = checkIntervalMillis;
+        this.lagQuery = lagQuery;
+    }
+
+    public void start() {
+        refresh();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, checkIntervalMillis, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Sprawdza wszystkie repliki teraz (wołane też z harmonogramu).
+     */
+    public synchronized void refresh() {
+        List<String> nowHealthy = new ArrayList<>();
+        replicas.forEach((name, jdbcTemplate) -> {
+            ReplicaState state = check(name, jdbcTemplate);
+            ReplicaState previous = states.put(name, state);
+            if (previous != null && previous.healthy() != state.healthy()) {
+                logger.warning("Replica " + name + " is now " + (state.healthy() ? "healthy" : "unhealthy")
+                        + " (lag=" + state.lagMillis() + " ms" + (state.error() != null ? ", " + state.error() : "") + ")");
+            }
+            if (state.healthy()) {
+                nowHealthy.add(name);
+            }
+        });
+        healthy = List.copyOf(nowHealthy);
+    }
+
+    /**
+     * Następna zdrowa replika albo null, gdy żadna się nie nadaje (odczyt idzie wtedy na primary).
+     */
+    public String nextHealthyReplica() {
+        List<String> candidates = healthy;
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    public Map<String, ReplicaState> getStates() {
+        return Map.copyOf(states);
+    }
+
+    public long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+
+    private ReplicaState check(String name, JdbcTemplate jdbcTemplate) {
+        try {
+            Long lag = lagQuery == null || lagQuery.isBlank() ? mysqlReplicaLag(jdbcTemplate) : customLag(jdbcTemplate);
+            if (lag == null) {
+                return new ReplicaState(false, -1, Instant.now(), "replication not running");
+            }
+            return new ReplicaState(lag <= maxLagMillis, lag, Instant.now(), null);
+        } catch (Exception e) {
+            return new ReplicaState(false, -1, Instant.now(), e.getMessage());
+        }
+    }
+
+    private Long customLag(JdbcTemplate jdbcTemplate) {
+        Number lag = jdbcTemplate.queryForObject(lagQuery, Number.class);
+        return lag != null ? lag.longValue() : null;
+    }
+
+    // Seconds_Behind_Source = NULL, gdy wątek replikacji stoi; brak wiersza = serwer nie jest repliką
+    private static Long mysqlReplicaLag(JdbcTemplate jdbcTemplate) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("SHOW REPLICA STATUS");
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object seconds = rows.get(0).get("Seconds_Behind_Source");
+        return seconds instanceof Number number ? number.longValue() * 1000 : null;
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.solarapi.controller;
+
+import org.example.solarapi.snapshot.ColumnarCatalog;
+import org.example.solarapi.snapshot.ColumnarCatalogFile;
+import org.example.solarapi.snapshot.SnapshotExporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Filtry i statystyki z pliku kolumnowego (ColumnarCatalog) – bez encji i bez zapytań do bazy.
+ * 404 = pliku jeszcze nie ma (najpierw POST /api/analytics/export), 400 = nieznana albo nieliczbowa kolumna.
+ */
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private static final Logger logger = Logger.getLogger(AnalyticsController.class.getName());
+
+    @Autowired
+    private ColumnarCatalog columnarCatalog;
+
+    // Brak w profilu "snapshot" (nie ma bazy, z której można eksportować)
+    @Autowired(required = false)
+    private SnapshotExporter snapshotExporter;
+
+    @GetMapping("/columns")
+    public ResponseEntity<Map<String, Object>> columns() {
+        ColumnarCatalogFile.Reader reader = columnarCatalog.reader();
+        if (reader == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        return ResponseEntity.ok(columnarCatalog.describe(reader));
+    }
+
+    @GetMapping("/stats/{column}")
+    public ResponseEntity<ColumnarCatalogFile.Stats> stats(@PathVariable String column,
+                                                           @RequestParam(required = false) String bodyType,
+                                                           @RequestParam(required = false) Boolean planet,
+                                                           @RequestParam(required = false) Double min,
+                                                           @RequestParam(required = false) Double max) {
+        ColumnarCatalogFile.Reader reader = columnarCatalog.reader();
+        if (reader == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        ColumnarCatalogFile.Stats stats = columnarCatalog.stats(reader, column,
+                new ColumnarCatalog.Filter(bodyType, planet, min, max));
+        if (stats == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/bodies")
+    public ResponseEntity<List<Map<String, Object>>> bodies(@RequestParam String column,
+                                                            @RequestParam(required = false) String bodyType,
+                                                            @RequestParam(required = false) Boolean planet,
+                                                            @RequestParam(required = false) Double min,
+                                                            @RequestParam(required = false) Double max,
+                                                            @RequestParam(defaultValue = "100") int limit) {
+        ColumnarCatalogFile.Reader reader = columnarCatalog.reader();
+        if (reader == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        List<Map<String, Object>> rows = columnarCatalog.filter(reader, column,
+                new ColumnarCatalog.Filter(bodyType, planet, min, max), Math.max(0, limit));
+        if (rows == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(rows);
+    }
+
+    // Eksport Solar_Bodies do solar.columnar.path; po podmianie pliku od razu nowe mapowanie
+    @PostMapping("/export")
+    public ResponseEntity<Map<String, Object>> export() {
+        if (snapshotExporter == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        try {
+            int rows = snapshotExporter.exportColumnar(columnarCatalog.getPath());
+            columnarCatalog.reload();
+            return ResponseEntity.ok(Map.of("path", columnarCatalog.getPath().toString(), "rows", rows));
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Columnar export failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
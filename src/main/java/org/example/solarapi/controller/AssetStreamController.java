@@ -0,0 +1,300 @@
+package org.example.solarapi.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.solarapi.mapper.AssetManifest;
+import org.example.solarapi.service.AssetStore;
+import org.example.solarapi.service.AssetStreamMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+
+/**
+ * GET /stream/{ścieżka z API}, np. /stream/assets/models/3D_models/Himalia-<hash>.glb – duże modele i tekstury
+ * z plików na dysku (AssetStore) zamiast przez bufory handlera zasobów:
+ * - Range (także wiele zakresów – multipart/byteranges) i If-Range, żeby klient mógł wznawiać i pobierać równolegle,
+ * - pełny plik i pojedynczy zakres przez sendfile Tomcata: wątek HTTP tylko ustawia nagłówki i wraca do puli,
+ *   bajty wysyła poller (jądro, bez kopiowania przez stertę),
+ * - bez sendfile (inny kontener, multipart) FileChannel.transferTo z limitem jednoczesnych transferów
+ *   (solar.assets.stream.max-copies) – nadmiar dostaje 503 z Retry-After zamiast zajmować wątki API,
+ * - gotowy .gz z AssetPipeline dla żądań bez Range.
+ * Liczniki i histogram czasu: AssetStreamMetrics (/api/diagnostics/assets).
+ */
+@RestController
+public class AssetStreamController {
+
+    private static final String PREFIX = "/stream/";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    // formaty modeli, których nie zna mime.types Springa
+    private static final Map<String, String> MODEL_TYPES = Map.of(
+            "glb", "model/gltf-binary",
+            "gltf", "model/gltf+json",
+            "ply", "application/octet-stream");
+
+    @Autowired
+    private AssetStore assetStore;
+
+    @Autowired
+    private AssetStreamMetrics metrics;
+
+    private final Semaphore copyPermits;
+
+    public AssetStreamController(@Value("${solar.assets.stream.max-copies:8}") int maxCopies) {
+        this.copyPermits = new Semaphore(Math.max(1, maxCopies));
+    }
+
+    @GetMapping(PREFIX + "**")
+    public void stream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long startNanos = System.nanoTime();
+        try {
+            serve(request, response);
+        } finally {
+            metrics.recordRequest(startNanos);
+        }
+    }
+
+    private void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String url = UriUtils.decode(request.getRequestURI().substring(request.getContextPath().length() + PREFIX.length()),
+                StandardCharsets.UTF_8);
+        AssetManifest assets = AssetManifest.current();
+        String path = assets.resolveUrl(url);
+        Path file = path != null ? assetStore.resolve(path) : null;
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis() / 1000 * 1000;
+        String fingerprint = assets.fingerprint(path);
+        // odcisk z buildu albo rozmiar+data (pliki zmieniane w trybie dev)
+        String etag = "\"" + (fingerprint != null ? fingerprint
+                : Long.toHexString(size) + "-" + Long.toHexString(lastModified)) + "\"";
+        Path gzip = file.resolveSibling(file.getFileName() + ".gz");
+        boolean hasGzip = Files.isRegularFile(gzip);
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        boolean versioned = fingerprint != null && assets.url(path).equals(url);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, versioned ? IMMUTABLE : "no-cache");
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        if (hasGzip) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        String contentType = contentType(file);
+
+        String range = request.getHeader(HttpHeaders.RANGE);
+        boolean useGzip = hasGzip && range == null
+                && EncodedResponses.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String representationEtag = useGzip ? etag.substring(0, etag.length() - 1) + "-gzip\"" : etag;
+        response.setHeader(HttpHeaders.ETAG, representationEtag);
+        if (notModified(request, etag, lastModified)) {
+            metrics.recordNotModified();
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        if (range != null && rangeStillValid(request, etag, lastModified)) {
+            List<long[]> ranges = parseRanges(range, size);
+            if (ranges == null) {
+                metrics.recordNotSatisfiable();
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            metrics.recordPartial();
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            if (ranges.size() == 1) {
+                long[] only = ranges.get(0);
+                response.setContentType(contentType);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + only[0] + "-" + only[1] + "/" + size);
+                send(request, response, file, only[0], only[1] - only[0] + 1);
+            } else {
+                sendMultipart(request, response, file, ranges, size, contentType);
+            }
+            return;
+        }
+
+        response.setContentType(contentType);
+        if (useGzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            send(request, response, gzip, 0, Files.size(gzip));
+        } else {
+            send(request, response, file, 0, size);
+        }
+    }
+
+    private void send(HttpServletRequest request, HttpServletResponse response, Path file, long start, long length)
+            throws IOException {
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            metrics.recordBody(length, true);
+            return;
+        }
+        if (!copyPermits.tryAcquire()) {
+            reject(response);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            transfer(channel, start, length, Channels.newChannel(response.getOutputStream()));
+            metrics.recordBody(length, false);
+        } finally {
+            copyPermits.release();
+        }
+    }
+
+    private void sendMultipart(HttpServletRequest request, HttpServletResponse response, Path file,
+                               List<long[]> ranges, long size, String contentType) throws IOException {
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        if (!copyPermits.tryAcquire()) {
+            reject(response);
+            return;
+        }
+        long length = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            OutputStream out = response.getOutputStream();
+            WritableByteChannel target = Channels.newChannel(out);
+            for (long[] range : ranges) {
+                out.write(("\r\n--" + boundary + "\r\n"
+                        + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                        + HttpHeaders.CONTENT_RANGE + ": bytes " + range[0] + "-" + range[1] + "/" + size + "\r\n\r\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+                transfer(channel, range[0], range[1] - range[0] + 1, target);
+                length += range[1] - range[0] + 1;
+            }
+            out.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+            metrics.recordBody(length, false);
+        } finally {
+            copyPermits.release();
+        }
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        metrics.recordRejected();
+        response.reset();
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+    }
+
+    private static void transfer(FileChannel channel, long start, long length, WritableByteChannel target)
+            throws IOException {
+        long position = start;
+        long end = start + length;
+        while (position < end) {
+            long sent = channel.transferTo(position, end - position, target);
+            if (sent <= 0) {
+                throw new IOException("transferTo made no progress at " + position);
+            }
+            position += sent;
+        }
+    }
+
+    // [początek, koniec] włącznie; zakresy zaczynające się za końcem pliku są pomijane;
+    // null = 416 (błędna składnia, żaden zakres nie trafia w plik albo suma większa niż plik)
+    private static List<long[]> parseRanges(String header, long size) {
+        try {
+            List<long[]> result = new ArrayList<>();
+            long total = 0;
+            for (HttpRange range : HttpRange.parseRanges(header)) {
+                // getRangeStart nie sprawdza początku względem rozmiaru – "bytes=<size>-" dałoby start > end
+                long start = range.getRangeStart(size);
+                long end = range.getRangeEnd(size);
+                if (start >= size || start > end) {
+                    continue;
+                }
+                total += end - start + 1;
+                result.add(new long[]{start, end});
+            }
+            return result.isEmpty() || total > size ? null : result;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            String bare = etag.substring(0, etag.length() - 1);
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                // ten sam plik niezależnie od kodowania (wariant -gzip)
+                if (tag.equals("*") || tag.equals(etag) || tag.equals(bare + "-gzip\"")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+    }
+
+    // If-Range: zakres tylko dla niezmienionej wersji (silny ETag albo dokładna data), inaczej cały plik
+    private static boolean rangeStillValid(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        ifRange = ifRange.trim();
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        return dateHeader(request, HttpHeaders.IF_RANGE) == lastModified;
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static String contentType(Path file) {
+        String name = file.getFileName().toString();
+        String extension = name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        String modelType = MODEL_TYPES.get(extension);
+        if (modelType != null) {
+            return modelType;
+        }
+        return MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.solarapi.controller;
+
+import org.example.solarapi.configuration.ReadWriteRoutingDataSource;
+import org.example.solarapi.service.AssetStreamMetrics;
+import org.example.solarapi.service.NegativeLookupCache;
+import org.example.solarapi.service.SecondLevelCacheService;
+import org.example.solarapi.service.SolarBodiesService;
+import org.example.solarapi.service.SolarBodyDtoCache;
+import org.example.solarapi.service.TokenBucketRateLimiter;
+import org.example.solarapi.service.UpstreamResilience;
+import org.example.solarapi.service.UpstreamResponseCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Podgląd stanu wewnętrznych mechanizmów (liczniki, circuit breakery, cache) – do diagnozy na produkcji.
+ */
+@RestController
+@RequestMapping("/api/diagnostics")
+@Profile("!snapshot")
+public class DiagnosticsController {
+
+    @Autowired
+    private UpstreamResilience upstreamResilience;
+
+    @Autowired
+    private UpstreamResponseCache upstreamResponseCache;
+
+    @Autowired
+    private TokenBucketRateLimiter tokenBucketRateLimiter;
+
+    @Autowired
+    private SolarBodiesService solarBodiesService;
+
+    @Autowired
+    private NegativeLookupCache negativeLookupCache;
+
+    @Autowired
+    private SecondLevelCacheService secondLevelCacheService;
+
+    @Autowired
+    private SolarBodyDtoCache solarBodyDtoCache;
+
+    @Autowired
+    private AssetStreamMetrics assetStreamMetrics;
+
+    // Tylko przy solar.datasource.routing.enabled=true
+    @Autowired(required = false)
+    private ReadWriteRoutingDataSource readWriteRoutingDataSource;
+
+    @GetMapping("/upstream")
+    public Map<String, Object> upstream() {
+        Map<String, Object> result = new LinkedHashMap<>(upstreamResilience.snapshot());
+
+        Map<String, Object> cache = new LinkedHashMap<>();
+        cache.put("enabled", upstreamResponseCache.isEnabled());
+        cache.put("offline", upstreamResponseCache.isOffline());
+        cache.put("hits", upstreamResponseCache.getHits());
+        cache.put("revalidated", upstreamResponseCache.getRevalidated());
+        cache.put("misses", upstreamResponseCache.getMisses());
+        cache.put("stored", upstreamResponseCache.getStored());
+        result.put("responseCache", cache);
+        result.put("rateLimiter", tokenBucketRateLimiter.snapshot());
+        result.put("singleFlight", solarBodiesService.upstreamFetchSnapshot());
+        result.put("negativeCache", negativeLookupCache.snapshot());
+        return result;
+    }
+
+    @GetMapping("/datasources")
+    public Map<String, Object> datasources() {
+        if (readWriteRoutingDataSource == null) {
+            return Map.of("routing", false);
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("routing", true);
+        result.putAll(readWriteRoutingDataSource.snapshot());
+        return result;
+    }
+
+    @GetMapping("/cache")
+    public Map<String, Object> cache() {
+        Map<String, Object> result = new LinkedHashMap<>(secondLevelCacheService.snapshot());
+        result.put("dtoCache", solarBodyDtoCache.snapshot());
+        return result;
+    }
+
+    // /stream/**: bajty, sendfile vs kopiowanie, zakresy, odrzucone (503), histogram czasu obsługi
+    @GetMapping("/assets")
+    public Map<String, Object> assets() {
+        return assetStreamMetrics.snapshot();
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.solarapi.controller;
+
+import org.example.solarapi.dto.CatalogFilter;
+import org.example.solarapi.dto.CatalogPage;
+import org.example.solarapi.dto.SolarBodyDTO;
+import org.example.solarapi.mapper.AssetManifest;
+import org.example.solarapi.model.Moon;
+import org.example.solarapi.service.AssetStreamMetrics;
+import org.example.solarapi.snapshot.SnapshotCatalog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Odczyty w profilu "snapshot" – te same ścieżki, parametry (lista z filtrami, ?lod=) i ten sam JSON
+ * co SolarBodiesController, ale z pamięci.
+ * Zapisy i /sync nie istnieją w tym trybie (nie ma bazy); nowy stan = nowy plik z eksportu i restart.
+ */
+@RestController
+@Profile("snapshot")
+public class SnapshotSolarBodiesController {
+
+    @Autowired
+    private SnapshotCatalog snapshotCatalog;
+
+    @Autowired
+    private AssetStreamMetrics assetStreamMetrics;
+
+    // Maksymalna liczba nazw w GET ?names= / POST /batch
+    @Value("${solar.batch.max-names:200}")
+    private int maxBatchNames;
+
+    // lod=1k|2k|4k – adresy pomniejszonych tekstur, jak w SolarBodiesController
+    @GetMapping("/api/solarbodies/{englishName}")
+    public ResponseEntity<SolarBodyDTO> getSolarBodyByName(@PathVariable String englishName,
+                                                           @RequestParam(required = false) String lod) {
+        if (lod != null && !AssetManifest.TEXTURE_LODS.containsKey(lod)) {
+            return ResponseEntity.badRequest().build();
+        }
+        SolarBodyDTO dto = snapshotCatalog.findDto(englishName, lod);
+        if (dto == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        return ResponseEntity.ok(dto);
+    }
+
+    // Lista katalogu z filtrami i kursorem – parametry i format jak w SolarBodiesController (CatalogFilter)
+    @GetMapping("/api/solarbodies")
+    public ResponseEntity<CatalogPage> listSolarBodies(@ModelAttribute CatalogFilter filter) {
+        try {
+            return ResponseEntity.ok(snapshotCatalog.list(filter));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping(value = "/api/solarbodies", params = "names")
+    public ResponseEntity<List<SolarBodyDTO>> getSolarBodiesByNames(@RequestParam List<String> names,
+                                                                    @RequestParam(required = false) String lod) {
+        return findAll(names, lod);
+    }
+
+    @PostMapping("/api/solarbodies/batch")
+    public ResponseEntity<List<SolarBodyDTO>> getSolarBodiesByNamesPost(@RequestBody List<String> names,
+                                                                        @RequestParam(required = false) String lod) {
+        return findAll(names, lod);
+    }
+
+    // jak w SolarBodiesController: kolejność nazw, bez powtórzeń i nieznalezionych
+    private ResponseEntity<List<SolarBodyDTO>> findAll(List<String> names, String lod) {
+        if (names == null || names.size() > maxBatchNames
+                || (lod != null && !AssetManifest.TEXTURE_LODS.containsKey(lod))) {
+            return ResponseEntity.badRequest().build();
+        }
+        Map<String, SolarBodyDTO> found = new LinkedHashMap<>();
+        for (String name : names) {
+            SolarBodyDTO dto = name != null ? snapshotCatalog.findDto(name.trim(), lod) : null;
+            if (dto != null) {
+                found.putIfAbsent(dto.getEnglishName(), dto);
+            }
+        }
+        return ResponseEntity.ok(new ArrayList<>(found.values()));
+    }
+
+    @GetMapping("/api/solarbodies/{englishName}/moons")
+    public List<Moon> getMoonsBySolarBodyName(@PathVariable String englishName) {
+        return snapshotCatalog.findMoons(englishName);
+    }
+
+    @GetMapping("/api/diagnostics/snapshot")
+    public Map<String, Object> snapshot() {
+        return snapshotCatalog.info();
+    }
+
+    // DiagnosticsController nie istnieje w tym profilu
+    @GetMapping("/api/diagnostics/assets")
+    public Map<String, Object> assets() {
+        return assetStreamMetrics.snapshot();
+    }
+}
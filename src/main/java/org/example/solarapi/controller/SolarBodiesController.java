@@ -1,72 +1,230 @@
 package org.example.solarapi.controller;
 
+import org.example.solarapi.dto.CatalogFilter;
+import org.example.solarapi.dto.CatalogPage;
 import org.example.solarapi.dto.SolarBodyDTO;
+import org.example.solarapi.dto.SyncReport;
+import org.example.solarapi.mapper.AssetManifest;
 import org.example.solarapi.mapper.SolarBodyMapper;
-import org.example.solarapi.model.Moon;
 import org.example.solarapi.model.SolarBodies;
-import org.example.solarapi.service.HttpClientService;
+import org.example.solarapi.repository.MoonSummary;
+import org.example.solarapi.service.EncodedResponse;
+import org.example.solarapi.service.MoonLinkBackfill;
+import org.example.solarapi.service.SolarBodiesCatalogService;
 import org.example.solarapi.service.SolarBodiesService;
+import org.example.solarapi.service.SolarBodiesSyncService;
+import org.example.solarapi.service.SolarBodyDtoCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.bind.annotation.PatchMapping;
 
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
 
 
 @RestController
 @RequestMapping("/api/solarbodies")
+@Profile("!snapshot")
 public class SolarBodiesController {
     @Autowired
     private SolarBodiesService solarBodiesService;
 
     @Autowired
-    private HttpClientService<SolarBodies> httpClientService;
+    private SolarBodiesSyncService solarBodiesSyncService;
 
     @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private MoonLinkBackfill moonLinkBackfill;
+
+    @Autowired
+    private SolarBodyDtoCache solarBodyDtoCache;
+
+    @Autowired
+    private SolarBodiesCatalogService solarBodiesCatalogService;
+
+    // Maksymalna liczba nazw w GET ?names= / POST /batch
+    @Value("${solar.batch.max-names:200}")
+    private int maxBatchNames;
+
+    // force=true – zapis wszystkich ciał, nawet jeśli ich treść w API się nie zmieniła
     @GetMapping("/sync")
-    public String syncSolarBodiesData() {
+    public ResponseEntity<SyncReport> syncSolarBodiesData(@RequestParam(defaultValue = "false") boolean force) {
         List<String> planetNames = Arrays.asList("Mercury", "Venus", "Earth", "Mars", "Jupiter", "Saturn", "Uranus", "Neptune");
-        for (String planetName : planetNames) {
-            solarBodiesService.saveSolarBodiesData(planetName);
-        }
-        return "Data synchronized successfully";
+        return ResponseEntity.ok(solarBodiesSyncService.syncBodies(planetNames, force));
     }
 
     @GetMapping("/sync2")
-    public ResponseEntity<String> syncSolarBodiesDataAll() {
-        String url = "https://api.le-systeme-solaire.net/rest/bodies/";
-        List<SolarBodies> solarBodiesList = httpClientService.getAllSolarBodies(url);
-        if (solarBodiesList != null) {
-            solarBodiesService.saveAllSolarBodiesData(solarBodiesList);
-            return ResponseEntity.ok("Data synchronized successfully");
+    public ResponseEntity<SyncReport> syncSolarBodiesDataAll(@RequestParam(defaultValue = "false") boolean force) {
+        SyncReport report = solarBodiesSyncService.syncAll(force);
+        if (report != null) {
+            return ResponseEntity.ok(report);
         } else {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Failed to fetch data from API");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+    // Ręczne podpięcie księżyców pod ich rekordy (moon_body_id) – normalnie robi to każdy sync
+    @PostMapping("/moons/backfill")
+    public ResponseEntity<Map<String, Integer>> backfillMoonLinks() {
+        return ResponseEntity.ok(Map.of("rows", moonLinkBackfill.backfill()));
+    }
+
+    // Gotowe bajty JSON (i gzip) z SolarBodyDtoCache; If-None-Match z aktualnym ETagiem = 304 bez bazy i Jacksona.
+    // lod=1k|2k|4k – adresy pomniejszonych tekstur (słabsze urządzenia); brak = pełna rozdzielczość
     @GetMapping("/{englishName}")
-    public ResponseEntity<SolarBodyDTO> getSolarBodyByName(@PathVariable String englishName) {
-        SolarBodies solarBody = solarBodiesService.getSolarBodyByName(englishName);
-        if (solarBody == null) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    public ResponseEntity<byte[]> getSolarBodyByName(@PathVariable String englishName,
+                                                     @RequestParam(required = false) String lod,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                     @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (lod != null && !AssetManifest.TEXTURE_LODS.containsKey(lod)) {
+            return ResponseEntity.badRequest().build();
+        }
+        String cacheKey = cacheKey(englishName, lod);
+        SolarBodyDtoCache.CachedBody cached = solarBodyDtoCache.get(cacheKey);
+        if (cached == null) {
+            long generation = solarBodyDtoCache.generation();
+            SolarBodiesService.SolarBodyRead read = solarBodiesService.readSolarBody(englishName);
+            if (read == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            SolarBodyDTO dto = solarBodiesService.expandUnlinkedMoons(read);
+            if (lod != null) {
+                SolarBodyMapper.applyTextureLod(dto, lod);
+            }
+            cached = solarBodyDtoCache.put(cacheKey, dto, generation);
+            if (cached == null) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            }
         }
-        SolarBodyDTO dto = solarBodiesService.convertToDTOWithFullMoons(solarBody);
-        return ResponseEntity.ok(dto);
+        return EncodedResponses.respond(cached.response(), ifNoneMatch, acceptEncoding);
 
         // SolarBodyDTO dto = SolarBodyMapper.convertToDTO(solarBody);
         // return ResponseEntity.ok(dto);
     }
 
+    // Lista katalogu: ?bodyType=&isPlanet=&minMeanRadius=&maxMass=...&sort=meanRadius,desc&limit=50&cursor=...
+    // (opis parametrów: CatalogFilter); kolejna strona = ten sam URL z cursor=nextCursor
+    @GetMapping
+    public ResponseEntity<CatalogPage> listSolarBodies(@ModelAttribute CatalogFilter filter) {
+        try {
+            return ResponseEntity.ok(solarBodiesCatalogService.list(filter));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Wiele ciał w jednej odpowiedzi (np. scena główna zamiast zapytania na planetę): tablica w kolejności nazw,
+    // bez nieznalezionych. Braki w SolarBodyDtoCache czytane razem – stała liczba zapytań niezależnie od liczby nazw
+    @GetMapping(params = "names")
+    public ResponseEntity<byte[]> getSolarBodiesByNames(@RequestParam List<String> names,
+                                                        @RequestParam(required = false) String lod,
+                                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return solarBodiesBatch(names, lod, ifNoneMatch, acceptEncoding);
+    }
+
+    // To samo dla długich list (limit długości URL): body = ["Mercury", "Venus", ...]; ETag jak dla GET ?names=
+    @PostMapping("/batch")
+    public ResponseEntity<byte[]> getSolarBodiesByNamesPost(@RequestBody List<String> names,
+                                                            @RequestParam(required = false) String lod,
+                                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return solarBodiesBatch(names, lod, ifNoneMatch, acceptEncoding);
+    }
+
+    private ResponseEntity<byte[]> solarBodiesBatch(List<String> names, String lod, String ifNoneMatch,
+                                                    String acceptEncoding) {
+        // limit na surowej liście – przed deduplikacją, żeby milion powtórzeń nie był przetwarzany
+        if (names == null || names.size() > maxBatchNames
+                || (lod != null && !AssetManifest.TEXTURE_LODS.containsKey(lod))) {
+            return ResponseEntity.badRequest().build();
+        }
+        // małe litery -> nazwa jak w żądaniu (do zapytania); bez pustych i powtórzeń
+        Map<String, String> requested = new LinkedHashMap<>();
+        for (String name : names) {
+            if (name != null && !name.isBlank()) {
+                requested.putIfAbsent(name.trim().toLowerCase(Locale.ROOT), name.trim());
+            }
+        }
+
+        Map<String, SolarBodyDtoCache.CachedBody> found = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        requested.forEach((key, name) -> {
+            SolarBodyDtoCache.CachedBody cached = solarBodyDtoCache.get(cacheKey(name, lod));
+            if (cached != null) {
+                found.put(key, cached);
+            } else {
+                misses.add(name);
+            }
+        });
+        if (!misses.isEmpty()) {
+            long generation = solarBodyDtoCache.generation();
+            Map<String, SolarBodiesService.SolarBodyRead> reads = solarBodiesService.readSolarBodies(misses);
+            solarBodiesService.expandUnlinkedMoons(reads.values());
+            for (Map.Entry<String, SolarBodiesService.SolarBodyRead> entry : reads.entrySet()) {
+                SolarBodyDTO dto = entry.getValue().dto();
+                if (lod != null) {
+                    SolarBodyMapper.applyTextureLod(dto, lod);
+                }
+                SolarBodyDtoCache.CachedBody body = solarBodyDtoCache.put(cacheKey(dto.getEnglishName(), lod), dto, generation);
+                if (body == null) {
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+                }
+                found.put(entry.getKey(), body);
+            }
+        }
+
+        // tablica sklejona z gotowych bajtów pojedynczych ciał – bez ponownej serializacji
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        json.write('[');
+        boolean first = true;
+        for (String key : requested.keySet()) {
+            SolarBodyDtoCache.CachedBody body = found.get(key);
+            if (body == null) {
+                continue;
+            }
+            if (!first) {
+                json.write(',');
+            }
+            json.writeBytes(body.response().json());
+            first = false;
+        }
+        json.write(']');
+        return EncodedResponses.respond(EncodedResponse.of(json.toByteArray()), ifNoneMatch, acceptEncoding);
+    }
+
+    // osobny wpis na poziom tekstur – nazwy ciał nie zawierają '@'
+    private static String cacheKey(String englishName, String lod) {
+        return lod != null ? englishName + "@" + lod : englishName;
+    }
+
     @GetMapping("/{englishName}/moons")
-    public Set<Moon> getMoonsBySolarBodyName(@PathVariable String englishName) {
-        return solarBodiesService.getMoonsBySolarBodyName(englishName);
+    public ResponseEntity<byte[]> getMoonsBySolarBodyName(@PathVariable String englishName,
+                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        EncodedResponse moons = solarBodyDtoCache.getMoons(englishName);
+        if (moons == null) {
+            long generation = solarBodyDtoCache.generation();
+            List<MoonSummary> summaries = solarBodiesService.getMoonSummariesBySolarBodyName(englishName);
+            moons = solarBodyDtoCache.putMoons(englishName, summaries, generation);
+            if (moons == null) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            }
+        }
+        return EncodedResponses.respond(moons, ifNoneMatch, acceptEncoding);
     }
     @PostMapping
     public ResponseEntity<SolarBodyDTO> createSolarBody(@RequestBody SolarBodyDTO solarBodyDTO) {
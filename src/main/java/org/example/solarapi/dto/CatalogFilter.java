@@ -0,0 +1,32 @@
+package org.example.solarapi.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Parametry GET /api/solarbodies (bez ?names=): filtry, sortowanie i strona.
+ * Zakresy są domknięte (min <= wartość <= max); masa w kg.
+ * sort = "name" (domyślnie) albo meanRadius, mass, semimajorAxis, eccentricity, avgTemp, opcjonalnie z ",desc".
+ * cursor = nextCursor z poprzedniej strony (nieprzezroczysty; ten sam sort).
+ */
+@Getter
+@Setter
+public class CatalogFilter {
+    private String bodyType;
+    private Boolean isPlanet;
+
+    private Double minMeanRadius;
+    private Double maxMeanRadius;
+    private Double minMass;
+    private Double maxMass;
+    private Long minSemimajorAxis;
+    private Long maxSemimajorAxis;
+    private Double minEccentricity;
+    private Double maxEccentricity;
+    private Double minAvgTemp;
+    private Double maxAvgTemp;
+
+    private String sort;
+    private String cursor;
+    private Integer limit;
+}
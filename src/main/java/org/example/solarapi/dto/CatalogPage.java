@@ -0,0 +1,18 @@
+package org.example.solarapi.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Strona listy katalogu; nextCursor = null na ostatniej stronie.
+ */
+@Getter
+@Setter
+public class CatalogPage {
+    private List<SolarBodySummary> items;
+    private String sort;
+    private int limit;
+    private String nextCursor;
+}
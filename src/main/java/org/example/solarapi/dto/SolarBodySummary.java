@@ -0,0 +1,21 @@
+package org.example.solarapi.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Wiersz listy katalogu – tylko kolumny, po których można filtrować i sortować (pełne dane: GET /{englishName}).
+ */
+@Getter
+@Setter
+public class SolarBodySummary {
+    private String englishName;
+    private String bodyType;
+    private boolean planet;
+    private Double meanRadius;
+    private Double massKg;
+    private Long semimajorAxis;
+    private Double eccentricity;
+    private Double avgTemp;
+    private Integer moonCount;
+}
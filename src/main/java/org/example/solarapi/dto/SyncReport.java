@@ -0,0 +1,75 @@
+package org.example.solarapi.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Raport z jednej synchronizacji (/sync, /sync2): liczniki, czasy poszczególnych faz
+ * oraz przepustowość (ciała na sekundę).
+ */
+@Getter
+@Setter
+public class SyncReport {
+    private String mode;
+    private int requested;
+    private int fetched;
+    private int persisted;
+    private int failed;
+    private int concurrency;
+    private int batchSize;
+
+    // tryb delta: ile ciał wstawiono, zaktualizowano, a ile pominięto (ten sam content_hash)
+    private boolean delta;
+    private boolean force;
+    private int inserted;
+    private int updated;
+    private int unchanged;
+
+    // "jpa" (encje, persistDelta/upsertSolarBody) albo "bulk" (SolarBodiesBulkWriter) + liczba zapytań SQL zapisu (tylko bulk)
+    private String writer = "jpa";
+    private int writeStatements;
+
+    // nazwa fazy -> czas w milisekundach (w kolejności wykonania)
+    private Map<String, Long> phaseMillis = new LinkedHashMap<>();
+    private long totalMillis;
+    private double bodiesPerSecond;
+
+    public SyncReport(String mode) {
+        this.mode = mode;
+    }
+
+    public void addPhase(String phase, long startNanos) {
+        phaseMillis.merge(phase, (System.nanoTime() - startNanos) / 1_000_000, Long::sum);
+    }
+
+    public void addDelta(int inserted, int updated, int unchanged) {
+        this.inserted += inserted;
+        this.updated += updated;
+        this.unchanged += unchanged;
+    }
+
+    public void finish(long startNanos) {
+        this.totalMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        this.bodiesPerSecond = totalMillis > 0 ? persisted * 1000.0 / totalMillis : persisted;
+    }
+
+    @Override
+    public String toString() {
+        return "SyncReport{mode=" + mode
+                + ", requested=" + requested
+                + ", fetched=" + fetched
+                + ", persisted=" + persisted
+                + ", failed=" + failed
+                + (delta ? ", inserted=" + inserted + ", updated=" + updated + ", unchanged=" + unchanged
+                        + (force ? " (forced)" : "") : "")
+                + ", writer=" + writer
+                + ("bulk".equals(writer) ? ", writeStatements=" + writeStatements : "")
+                + ", phases=" + phaseMillis
+                + ", totalMillis=" + totalMillis
+                + ", bodiesPerSecond=" + String.format("%.2f", bodiesPerSecond)
+                + "}";
+    }
+}
@@ -0,0 +1,268 @@
+package org.example.solarapi.mapper;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Indeks plików z classpath:static/assets (tekstury, modele) budowany raz – zamiast Files.exists przy każdym DTO.
+ * Ścieżki względem static/ (np. "assets/textures/moon/Europa_surface.png"), tak jak je serwuje Spring i zwraca API.
+ * Wyszukiwanie najpierw dokładne, potem bez wielkości liter (pliki mają mieszane nazwy, a szukamy po lowercase);
+ * zwracana jest prawdziwa ścieżka pliku. Odświeżanie: AssetManifestWatcher (WatchService) podmienia instancję.
+ * Odciski treści z buildu (AssetPipeline -> META-INF/asset-manifest.properties) dają adresy "nazwa-<hash>.ext"
+ * (url), cache'owane przez przeglądarki na stałe; bez odcisku adres zostaje bez wersji.
+ */
+public final class AssetManifest {
+
+    private static final Logger logger = Logger.getLogger(AssetManifest.class.getName());
+
+    public static final String LOCATION = "static/assets";
+    public static final String MANIFEST_LOCATION = "META-INF/asset-manifest.properties";
+    // 16 znaków hex SHA-256 = 64 bity, kolizja między wersjami jednego pliku praktycznie niemożliwa
+    public static final int FINGERPRINT_LENGTH = 16;
+    // Poziomy szczegółowości tekstur z AssetPipeline: "earth_surface@2k.jpg" ma 2048 px szerokości
+    public static final Map<String, Integer> TEXTURE_LODS = Map.of("1k", 1024, "2k", 2048, "4k", 4096);
+    private static final String MODELS_DIRECTORY = "assets/models/3D_models/";
+    private static final Pattern DEFAULT_MODEL = Pattern.compile("default(\\d+)\\.glb", Pattern.CASE_INSENSITIVE);
+
+    private static volatile AssetManifest current;
+
+    private final Set<String> paths;
+    private final Map<String, String> byLowerCase;
+    private final List<String> defaultModels;
+    private final Map<String, String> fingerprints;
+    private final Map<String, String> pathsByUrl;
+    private final Instant builtAt = Instant.now();
+
+    public AssetManifest(Set<String> paths) {
+        this(paths, Map.of());
+    }
+
+    public AssetManifest(Set<String> paths, Map<String, String> fingerprints) {
+        this.paths = Set.copyOf(paths);
+        this.fingerprints = Map.copyOf(fingerprints);
+        this.pathsByUrl = new HashMap<>();
+        for (String path : this.fingerprints.keySet()) {
+            pathsByUrl.put(url(path), path);
+        }
+        this.byLowerCase = new HashMap<>();
+        List<String> defaults = new ArrayList<>();
+        // posortowane, żeby przy kolizji (X.glb i x.glb) wygrywał zawsze ten sam plik
+        for (String path : paths.stream().sorted().toList()) {
+            byLowerCase.putIfAbsent(path.toLowerCase(Locale.ROOT), path);
+            if (path.startsWith(MODELS_DIRECTORY)
+                    && DEFAULT_MODEL.matcher(path.substring(MODELS_DIRECTORY.length())).matches()) {
+                defaults.add(path);
+            }
+        }
+        defaults.sort(Comparator.comparingInt(AssetManifest::defaultModelNumber));
+        this.defaultModels = List.copyOf(defaults);
+    }
+
+    /**
+     * Aktualny indeks; przy pierwszym użyciu (także bez Springa, np. w testach) budowany z classpath.
+     */
+    public static AssetManifest current() {
+        AssetManifest manifest = current;
+        if (manifest == null) {
+            synchronized (AssetManifest.class) {
+                if (current == null) {
+                    current = scanClasspath();
+                }
+                manifest = current;
+            }
+        }
+        return manifest;
+    }
+
+    public static void replace(AssetManifest manifest) {
+        current = manifest;
+    }
+
+    /**
+     * Indeks z classpath:static/assets/** (katalog albo jar) z odciskami z buildu.
+     * Błąd skanowania = pusty indeks, jak brak plików.
+     */
+    public static AssetManifest scanClasspath() {
+        return scanClasspath(true);
+    }
+
+    /**
+     * withFingerprints = false: bez odcisków z buildu – po zmianie plików na dysku byłyby nieaktualne.
+     */
+    public static AssetManifest scanClasspath(boolean withFingerprints) {
+        Set<String> paths = new HashSet<>();
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver().getResources("classpath*:" + LOCATION + "/**");
+            for (Resource resource : resources) {
+                String url = resource.getURL().toString();
+                int start = url.lastIndexOf("/" + LOCATION + "/");
+                if (start < 0 || url.endsWith("/") || !resource.isReadable()) {
+                    continue; // katalogi
+                }
+                if (url.endsWith(".gz") || url.endsWith(".br")) {
+                    continue; // warianty skompresowane z AssetPipeline
+                }
+                paths.add(URLDecoder.decode(url.substring(start + "/static/".length()),
+                        StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not scan classpath:" + LOCATION, e);
+        }
+        AssetManifest manifest = new AssetManifest(paths, withFingerprints ? loadFingerprints() : Map.of());
+        logger.info("Asset manifest: " + paths.size() + " files, " + manifest.defaultModels.size()
+                + " default models, " + manifest.fingerprints.size() + " fingerprints");
+        return manifest;
+    }
+
+    private static Map<String, String> loadFingerprints() {
+        ClassPathResource resource = new ClassPathResource(MANIFEST_LOCATION);
+        if (!resource.exists()) {
+            return Map.of();
+        }
+        Properties properties = new Properties();
+        try (InputStream in = resource.getInputStream()) {
+            properties.load(new InputStreamReader(in, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not read " + MANIFEST_LOCATION + " – asset URLs will not be versioned", e);
+            return Map.of();
+        }
+        Map<String, String> fingerprints = new HashMap<>();
+        for (String path : properties.stringPropertyNames()) {
+            fingerprints.put(path, properties.getProperty(path));
+        }
+        return fingerprints;
+    }
+
+    /**
+     * Odcisk treści: pierwsze FINGERPRINT_LENGTH znaków hex SHA-256. Ten sam w buildzie i przy serwowaniu.
+     */
+    public static String fingerprint(InputStream in) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        try (DigestInputStream digesting = new DigestInputStream(in, digest)) {
+            digesting.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest()).substring(0, FINGERPRINT_LENGTH);
+    }
+
+    /**
+     * Prawdziwa ścieżka pliku (np. "assets/textures/moon/Europa_surface.png") albo null, jeśli go nie ma.
+     */
+    public String find(String relativePath) {
+        if (paths.contains(relativePath)) {
+            return relativePath;
+        }
+        return byLowerCase.get(relativePath.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Odcisk z buildu dla ścieżki zwróconej przez find albo null.
+     */
+    public String fingerprint(String path) {
+        return fingerprints.get(path);
+    }
+
+    /**
+     * Adres do zwrócenia w API: "assets/textures/moon/Europa_surface-<hash>.png", gdy znamy odcisk,
+     * inaczej ścieżka bez zmian (null -> null).
+     */
+    public String url(String path) {
+        String fingerprint = path != null ? fingerprints.get(path) : null;
+        if (fingerprint == null) {
+            return path;
+        }
+        int slash = path.lastIndexOf('/');
+        int dot = path.lastIndexOf('.');
+        if (dot <= slash) {
+            return path + "-" + fingerprint;
+        }
+        return path.substring(0, dot) + "-" + fingerprint + path.substring(dot);
+    }
+
+    /**
+     * Ścieżka pliku dla adresu z API – z odciskiem ("...-<hash>.glb", tylko aktualnym) albo bez;
+     * null dla wszystkiego spoza indeksu (także prób wyjścia z katalogu).
+     */
+    public String resolveUrl(String url) {
+        String path = pathsByUrl.get(url);
+        return path != null ? path : find(url);
+    }
+
+    /**
+     * Adres wariantu tekstury o danym poziomie (TEXTURE_LODS) dla adresu zwróconego przez url;
+     * bez zmian, jeśli wariantu nie ma (np. oryginał jest mniejszy niż poziom albo to nie tekstura).
+     */
+    public String lodUrl(String url, String lod) {
+        if (url == null) {
+            return null;
+        }
+        String lodPath = lodPath(pathsByUrl.getOrDefault(url, url), lod);
+        return paths.contains(lodPath) ? url(lodPath) : url;
+    }
+
+    /**
+     * "assets/textures/earth/earth_surface.jpg" + "2k" -> "assets/textures/earth/earth_surface@2k.jpg".
+     */
+    public static String lodPath(String path, String lod) {
+        int slash = path.lastIndexOf('/');
+        int dot = path.lastIndexOf('.');
+        if (dot <= slash) {
+            return path + "@" + lod;
+        }
+        return path.substring(0, dot) + "@" + lod + path.substring(dot);
+    }
+
+    /**
+     * Zastępczy model dla ciała bez własnego – wybór zależy tylko od klucza, więc odpowiedź jest powtarzalna
+     * (i cache'owalna); null, jeśli nie ma żadnego defaultN.glb.
+     */
+    public String defaultModel(String key) {
+        if (defaultModels.isEmpty()) {
+            return null;
+        }
+        return defaultModels.get(Math.floorMod(key.hashCode(), defaultModels.size()));
+    }
+
+    public int size() {
+        return paths.size();
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    private static int defaultModelNumber(String path) {
+        Matcher matcher = DEFAULT_MODEL.matcher(path.substring(MODELS_DIRECTORY.length()));
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : Integer.MAX_VALUE;
+    }
+}
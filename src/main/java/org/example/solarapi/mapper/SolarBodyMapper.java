@@ -7,6 +7,8 @@ import org.example.solarapi.model.Mass;
 import org.example.solarapi.model.Moon;
 import org.example.solarapi.model.SolarBodies;
 import org.example.solarapi.model.Vol;
+import org.example.solarapi.repository.MoonView;
+import org.example.solarapi.repository.SolarBodyView;
 
 import java.util.HashMap;
 import java.util.HashSet;
@@ -14,9 +16,6 @@ import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 
 public class SolarBodyMapper {
 
@@ -31,50 +30,7 @@ public class SolarBodyMapper {
     private static final String MODELS_BASE_PATH = "/assets/models/";
 
     public static SolarBodyDTO convertToDTO(SolarBodies solarBody) {
-        SolarBodyDTO dto = new SolarBodyDTO();
-        dto.setEnglishName(solarBody.getEnglishName());
-        dto.setBodyType(solarBody.getBodyType());
-        dto.setPlanet(solarBody.isPlanet());
-        dto.setMeanRadius(solarBody.getMeanRadius());
-        dto.setMoonCount(solarBody.getMoonCount());
-
-
-        dto.setSemiMajorAxis(solarBody.getSemimajorAxis() != null ? solarBody.getSemimajorAxis().intValue() : null);
-        dto.setPerihelion(solarBody.getPerihelion() != null ? solarBody.getPerihelion().intValue() : null);
-        dto.setAphelion(solarBody.getAphelion() != null ? solarBody.getAphelion().intValue() : null);
-        dto.setInclination(solarBody.getInclination());
-        dto.setGravity(solarBody.getGravity());
-        dto.setEscapeSpeed(solarBody.getEscape());
-        dto.setOrbitalPeriod(solarBody.getSideralOrbit());
-        dto.setRotationPeriod(solarBody.getSideralRotation());
-        dto.setDiscoveredBy(solarBody.getDiscoveredBy());
-        dto.setDiscoveryDate(solarBody.getDiscoveryDate());
-        dto.setAxialTilt(solarBody.getAxialTilt());
-        dto.setAvgTemp(solarBody.getAvgTemp());
-
-        // Przeliczenie masy względem masy Ziemi
-        if (solarBody.getMass() != null && solarBody.getMass().getMassValue() != null && solarBody.getMass().getMassExponent() != null) {
-            double bodyMass = solarBody.getMass().getMassValue() * Math.pow(10, solarBody.getMass().getMassExponent());
-            double earthMass = EARTH_MASS_VALUE * Math.pow(10, EARTH_MASS_EXPONENT);
-            double massRatio = bodyMass / earthMass;
-            dto.setMass(massRatio);
-        } else {
-            dto.setMass(null);
-        }
-
-        // Przeliczenie objętości względem objętości Ziemi
-        if (solarBody.getVol() != null && solarBody.getVol().getVolValue() != null && solarBody.getVol().getVolExponent() != null) {
-            double bodyVol = solarBody.getVol().getVolValue() * Math.pow(10, solarBody.getVol().getVolExponent());
-            double earthVol = EARTH_VOL_VALUE * Math.pow(10, EARTH_VOL_EXPONENT);
-            double volRatio = bodyVol / earthVol;
-            dto.setVol(volRatio);
-        } else {
-            dto.setVol(null);
-        }
-
-        dto.setTextures(generateTextures(solarBody.getEnglishName(), solarBody.getBodyType()));
-        String modelPath = generateModelPath(solarBody.getEnglishName(), solarBody.getBodyType());
-        dto.setModel(modelPath);
+        SolarBodyDTO dto = toBodyDTO(BodyValues.of(solarBody));
 
         // Mapowanie księżyców
         if (solarBody.getMoons() != null && !solarBody.getMoons().isEmpty()) {
@@ -89,6 +45,34 @@ public class SolarBodyMapper {
         return dto;
     }
 
+    /**
+     * Podmienia tekstury ciała i jego księżyców na warianty o danym poziomie szczegółowości (AssetManifest.TEXTURE_LODS);
+     * tekstury bez wariantu (mniejsze niż poziom) zostają. Modyfikuje przekazane DTO.
+     */
+    public static void applyTextureLod(SolarBodyDTO dto, String lod) {
+        AssetManifest assets = AssetManifest.current();
+        applyTextureLod(dto.getTextures(), lod, assets);
+        if (dto.getMoons() != null) {
+            for (MoonDTO moon : dto.getMoons()) {
+                applyTextureLod(moon.getTextures(), lod, assets);
+            }
+        }
+    }
+
+    private static void applyTextureLod(TexturesDTO textures, String lod, AssetManifest assets) {
+        if (textures == null) {
+            return;
+        }
+        textures.setSurfaceTexture(assets.lodUrl(textures.getSurfaceTexture(), lod));
+        textures.setAdditionalTexture(assets.lodUrl(textures.getAdditionalTexture(), lod));
+        textures.setCloudTexture(assets.lodUrl(textures.getCloudTexture(), lod));
+        textures.setAdditionalCloudTexture(assets.lodUrl(textures.getAdditionalCloudTexture(), lod));
+        textures.setBumpMapTexture(assets.lodUrl(textures.getBumpMapTexture(), lod));
+        textures.setNormalMapTexture(assets.lodUrl(textures.getNormalMapTexture(), lod));
+        textures.setAmbientOcclusionMapTexture(assets.lodUrl(textures.getAmbientOcclusionMapTexture(), lod));
+        textures.setSpecularMapTexture(assets.lodUrl(textures.getSpecularMapTexture(), lod));
+    }
+
     private static TexturesDTO generateTextures(String englishName, String bodyType) {
         TexturesDTO textures = new TexturesDTO();
         String baseName = englishName.replaceAll("\\s+", "_").toLowerCase();
@@ -110,16 +94,18 @@ public class SolarBodyMapper {
         textureSetters.put("_ao", textures::setAmbientOcclusionMapTexture);
         textureSetters.put("_specular", textures::setSpecularMapTexture);
 
-        // Dla każdego klucza sprawdzamy czy istnieje plik z rozszerzeniem .jpg lub .png
+        // Dla każdego klucza sprawdzamy czy istnieje plik z rozszerzeniem .jpg lub .png (lookup w AssetManifest)
+        AssetManifest assets = AssetManifest.current();
         for (Map.Entry<String, Consumer<String>> entry : textureSetters.entrySet()) {
             String baseTextureName = baseName + entry.getKey(); // np. earth_surface
-            String jpgPath = basePath + baseTextureName + ".jpg";
-            String pngPath = basePath + baseTextureName + ".png";
-
-            if (fileExists(jpgPath)) {
-                entry.getValue().accept(jpgPath);
-            } else if (fileExists(pngPath)) {
-                entry.getValue().accept(pngPath);
+            String jpgPath = assets.find(basePath + baseTextureName + ".jpg");
+            String pngPath = jpgPath == null ? assets.find(basePath + baseTextureName + ".png") : null;
+
+            // adres z odciskiem treści (jeśli build go policzył) – cache'owany przez przeglądarki na stałe
+            if (jpgPath != null) {
+                entry.getValue().accept(assets.url(jpgPath));
+            } else if (pngPath != null) {
+                entry.getValue().accept(assets.url(pngPath));
             }
         }
 
@@ -129,29 +115,20 @@ public class SolarBodyMapper {
         String folderName = getFolderNameFromBodyType(bodyType);
         String basePath = "assets/models/3D_models/";
         String baseName = englishName.replaceAll("\\s+", "_").toLowerCase();
+        AssetManifest assets = AssetManifest.current();
         // Najpierw sprawdzamy .glb
-        String glbPath = basePath + baseName + ".glb";
-        if (fileExists(glbPath)) {
-            return glbPath;
+        String glbPath = assets.find(basePath + baseName + ".glb");
+        if (glbPath != null) {
+            return assets.url(glbPath);
         }
 
         // Jeśli nie ma .glb, sprawdzamy .ply
-        String plyPath = basePath + baseName + ".ply";
-        if (fileExists(plyPath)) {
-            return plyPath;
-        }
-        int randDefault = (int)(Math.random() * 5) + 1;
-        String defaultModel = basePath + "default" + randDefault + ".glb";
-        if (fileExists(defaultModel)) {
-            return defaultModel;
+        String plyPath = assets.find(basePath + baseName + ".ply");
+        if (plyPath != null) {
+            return assets.url(plyPath);
         }
-        return null;
-    }
-    private static boolean fileExists(String relativePath) {
-        Path projectDir = Paths.get(System.getProperty("user.dir"));
-        Path fullPath = projectDir.resolve("frontend").resolve("public").resolve(relativePath);
-
-        return Files.exists(fullPath);
+        // defaultN.glb wybierany po nazwie, nie losowo – ta sama odpowiedź za każdym razem
+        return assets.url(assets.defaultModel(baseName));
     }
 
     public static MoonDTO convertMoonToDTO(Moon moon) {
@@ -237,48 +214,146 @@ public class SolarBodyMapper {
         return moon;
     }
     public static MoonDTO convertSolarBodyToMoonDTO(SolarBodies moonBody) {
-        MoonDTO moonDTO = new MoonDTO();
-        moonDTO.setEnglishName(moonBody.getEnglishName());
-        moonDTO.setBodyType(moonBody.getBodyType());
-        moonDTO.setMeanRadius(moonBody.getMeanRadius());
-        moonDTO.setSemimajorAxis(moonBody.getSemimajorAxis());
-        moonDTO.setPerihelion(moonBody.getPerihelion());
-        moonDTO.setAphelion(moonBody.getAphelion());
-        moonDTO.setEccentricity(moonBody.getEccentricity());
-        moonDTO.setGravity(moonBody.getGravity());
-        moonDTO.setEscapeSpeed(moonBody.getEscape());
-        moonDTO.setInclination(moonBody.getInclination());
-        moonDTO.setAxialTilt(moonBody.getAxialTilt());
-        moonDTO.setAvgTemp(moonBody.getAvgTemp());
-        moonDTO.setOrbitalPeriod(moonBody.getSideralOrbit());
-        moonDTO.setRotationPeriod(moonBody.getSideralRotation());
-        moonDTO.setDiscoveredBy(moonBody.getDiscoveredBy());
-        moonDTO.setDiscoveryDate(moonBody.getDiscoveryDate());
-        // Przeliczenia masy
-        if (moonBody.getMass() != null && moonBody.getMass().getMassValue() != null && moonBody.getMass().getMassExponent() != null) {
-            double bodyMass = moonBody.getMass().getMassValue() * Math.pow(10, moonBody.getMass().getMassExponent());
-            double earthMass = EARTH_MASS_VALUE * Math.pow(10, EARTH_MASS_EXPONENT);
-            double massRatio = bodyMass / earthMass;
-            moonDTO.setMass(massRatio);
-        } else {
-            moonDTO.setMass(null);
+        return toMoonDTO(BodyValues.of(moonBody));
+    }
+
+    /**
+     * SolarBodyDTO z projekcji (bez encji); księżyce uzupełnia wywołujący – tu pusty set.
+     */
+    public static SolarBodyDTO convertViewToDTO(SolarBodyView view) {
+        SolarBodyDTO dto = toBodyDTO(BodyValues.of(view));
+        dto.setMoons(new HashSet<>());
+        return dto;
+    }
+
+    /**
+     * MoonDTO z projekcji: pełne dane, gdy księżyc jest podpięty (moon_body_id), inaczej "surowe" jak convertMoonToDTO.
+     */
+    public static MoonDTO convertMoonViewToDTO(MoonView view) {
+        if (view.getMoonBodyId() == null) {
+            MoonDTO moonDTO = new MoonDTO();
+            moonDTO.setEnglishName(view.getMoon());
+            moonDTO.setRel(view.getRel());
+            moonDTO.setTextures(generateTextures(view.getMoon(), "moon"));
+            moonDTO.setModel(generateModelPath(view.getMoon(), "moon"));
+            return moonDTO;
         }
-        // Przeliczenia objętości
-        if (moonBody.getVol() != null && moonBody.getVol().getVolValue() != null && moonBody.getVol().getVolExponent() != null) {
-            double bodyVol = moonBody.getVol().getVolValue() * Math.pow(10, moonBody.getVol().getVolExponent());
-            double earthVol = EARTH_VOL_VALUE * Math.pow(10, EARTH_VOL_EXPONENT);
-            double volRatio = bodyVol / earthVol;
-            moonDTO.setVol(volRatio);
-        } else {
-            moonDTO.setVol(null);
+        return toMoonDTO(BodyValues.ofMoonBody(view));
+    }
+
+    /**
+     * Kolumny ciała potrzebne do DTO – wspólne wejście dla encji i projekcji, żeby mapowanie
+     * (i przeliczenia względem Ziemi) było w jednym miejscu: toBodyDTO / toMoonDTO.
+     * Nowe pole DTO = pole tutaj + po jednej linii w fabrykach i w toBodyDTO/toMoonDTO.
+     */
+    private record BodyValues(String englishName, String bodyType, boolean planet, Double meanRadius, Integer moonCount,
+                              Long semimajorAxis, Long perihelion, Long aphelion, Double eccentricity,
+                              Double inclination, Double gravity, Double escapeSpeed,
+                              Double sideralOrbit, Double sideralRotation, String discoveredBy, String discoveryDate,
+                              Double axialTilt, Double avgTemp,
+                              Double massValue, Integer massExponent, Double volValue, Integer volExponent) {
+
+        static BodyValues of(SolarBodies body) {
+            Mass mass = body.getMass();
+            Vol vol = body.getVol();
+            return new BodyValues(body.getEnglishName(), body.getBodyType(), body.isPlanet(), body.getMeanRadius(),
+                    body.getMoonCount(), body.getSemimajorAxis(), body.getPerihelion(), body.getAphelion(),
+                    body.getEccentricity(), body.getInclination(), body.getGravity(), body.getEscape(),
+                    body.getSideralOrbit(), body.getSideralRotation(), body.getDiscoveredBy(), body.getDiscoveryDate(),
+                    body.getAxialTilt(), body.getAvgTemp(),
+                    mass != null ? mass.getMassValue() : null, mass != null ? mass.getMassExponent() : null,
+                    vol != null ? vol.getVolValue() : null, vol != null ? vol.getVolExponent() : null);
+        }
+
+        // SolarBodyView nie ma eccentricity – SolarBodyDTO jej nie zawiera
+        static BodyValues of(SolarBodyView view) {
+            return new BodyValues(view.getEnglishName(), view.getBodyType(), Boolean.TRUE.equals(view.getPlanet()),
+                    view.getMeanRadius(), view.getMoonCount(), view.getSemimajorAxis(), view.getPerihelion(),
+                    view.getAphelion(), null, view.getInclination(), view.getGravity(), view.getEscapeSpeed(),
+                    view.getSideralOrbit(), view.getSideralRotation(), view.getDiscoveredBy(), view.getDiscoveryDate(),
+                    view.getAxialTilt(), view.getAvgTemp(),
+                    view.getMassValue(), view.getMassExponent(), view.getVolValue(), view.getVolExponent());
         }
 
-        moonDTO.setTextures(generateTextures(moonBody.getEnglishName(), moonBody.getBodyType()));
-        moonDTO.setModel(generateModelPath(moonBody.getEnglishName(), moonBody.getBodyType()));
+        // rekord ciała podpiętego księżyca (kolumny mb.* z MoonView); planet/moonCount nie trafiają do MoonDTO
+        static BodyValues ofMoonBody(MoonView view) {
+            return new BodyValues(view.getBodyEnglishName(), view.getBodyType(), false, view.getMeanRadius(), null,
+                    view.getSemimajorAxis(), view.getPerihelion(), view.getAphelion(), view.getEccentricity(),
+                    view.getInclination(), view.getGravity(), view.getEscapeSpeed(),
+                    view.getSideralOrbit(), view.getSideralRotation(), view.getDiscoveredBy(), view.getDiscoveryDate(),
+                    view.getAxialTilt(), view.getAvgTemp(),
+                    view.getMassValue(), view.getMassExponent(), view.getVolValue(), view.getVolExponent());
+        }
+    }
 
+    // Bez księżyców – uzupełnia wywołujący
+    private static SolarBodyDTO toBodyDTO(BodyValues values) {
+        SolarBodyDTO dto = new SolarBodyDTO();
+        dto.setEnglishName(values.englishName());
+        dto.setBodyType(values.bodyType());
+        dto.setPlanet(values.planet());
+        dto.setMeanRadius(values.meanRadius());
+        dto.setMoonCount(values.moonCount());
+        dto.setSemiMajorAxis(values.semimajorAxis() != null ? values.semimajorAxis().intValue() : null);
+        dto.setPerihelion(values.perihelion() != null ? values.perihelion().intValue() : null);
+        dto.setAphelion(values.aphelion() != null ? values.aphelion().intValue() : null);
+        dto.setInclination(values.inclination());
+        dto.setGravity(values.gravity());
+        dto.setEscapeSpeed(values.escapeSpeed());
+        dto.setOrbitalPeriod(values.sideralOrbit());
+        dto.setRotationPeriod(values.sideralRotation());
+        dto.setDiscoveredBy(values.discoveredBy());
+        dto.setDiscoveryDate(values.discoveryDate());
+        dto.setAxialTilt(values.axialTilt());
+        dto.setAvgTemp(values.avgTemp());
+        dto.setMass(earthMassRatio(values.massValue(), values.massExponent()));
+        dto.setVol(earthVolRatio(values.volValue(), values.volExponent()));
+        dto.setTextures(generateTextures(values.englishName(), values.bodyType()));
+        dto.setModel(generateModelPath(values.englishName(), values.bodyType()));
+        return dto;
+    }
+
+    private static MoonDTO toMoonDTO(BodyValues values) {
+        MoonDTO moonDTO = new MoonDTO();
+        moonDTO.setEnglishName(values.englishName());
+        moonDTO.setBodyType(values.bodyType());
+        moonDTO.setMeanRadius(values.meanRadius());
+        moonDTO.setSemimajorAxis(values.semimajorAxis());
+        moonDTO.setPerihelion(values.perihelion());
+        moonDTO.setAphelion(values.aphelion());
+        moonDTO.setEccentricity(values.eccentricity());
+        moonDTO.setGravity(values.gravity());
+        moonDTO.setEscapeSpeed(values.escapeSpeed());
+        moonDTO.setInclination(values.inclination());
+        moonDTO.setAxialTilt(values.axialTilt());
+        moonDTO.setAvgTemp(values.avgTemp());
+        moonDTO.setOrbitalPeriod(values.sideralOrbit());
+        moonDTO.setRotationPeriod(values.sideralRotation());
+        moonDTO.setDiscoveredBy(values.discoveredBy());
+        moonDTO.setDiscoveryDate(values.discoveryDate());
+        moonDTO.setMass(earthMassRatio(values.massValue(), values.massExponent()));
+        moonDTO.setVol(earthVolRatio(values.volValue(), values.volExponent()));
+        moonDTO.setTextures(generateTextures(values.englishName(), values.bodyType()));
+        moonDTO.setModel(generateModelPath(values.englishName(), values.bodyType()));
         return moonDTO;
     }
 
+    // Masa względem masy Ziemi (null, gdy brak którejś części)
+    private static Double earthMassRatio(Double massValue, Integer massExponent) {
+        if (massValue == null || massExponent == null) {
+            return null;
+        }
+        return massValue * Math.pow(10, massExponent) / (EARTH_MASS_VALUE * Math.pow(10, EARTH_MASS_EXPONENT));
+    }
+
+    // Objętość względem objętości Ziemi (null, gdy brak którejś części)
+    private static Double earthVolRatio(Double volValue, Integer volExponent) {
+        if (volValue == null || volExponent == null) {
+            return null;
+        }
+        return volValue * Math.pow(10, volExponent) / (EARTH_VOL_VALUE * Math.pow(10, EARTH_VOL_EXPONENT));
+    }
+
     private static String getFolderNameFromBodyType(String bodyType) {
         return switch (bodyType.toLowerCase()) {
             case "planet" -> "planet";
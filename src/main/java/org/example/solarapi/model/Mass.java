@@ -19,4 +19,12 @@ public class Mass {
     //Wyjaśnienie: Wykładnik potęgi 10, do której należy przemnożyć massValue, aby uzyskać masę w jednostkach podstawowych.
     @Column(name = "mass_exponent")
     private Integer massExponent;
+
+    // Masa w kg (massValue * 10^massExponent) albo null, jeśli którejś części brakuje
+    public Double toKilograms() {
+        if (massValue == null || massExponent == null) {
+            return null;
+        }
+        return massValue * Math.pow(10, massExponent);
+    }
 }
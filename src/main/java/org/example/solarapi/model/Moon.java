@@ -6,6 +6,8 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.lang.reflect.Array;
 import java.util.Date;
@@ -15,6 +17,8 @@ import java.util.Date;
 @Entity
 @Table(name = "Moons")
 @ToString
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Moon {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -27,5 +31,13 @@ public class Moon {
     @ManyToOne
     @JoinColumn(name = "solar_bodies_id")
     @JsonBackReference
+    @ToString.Exclude // SolarBodies.toString() wypisuje księżyce – bez tego rekurencja w nieskończoność
     private SolarBodies solarBodies;
+
+    // Własny rekord księżyca w Solar_Bodies (moon_body_id) – null, dopóki nie został pobrany z API
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "moon_body_id")
+    @JsonIgnore
+    @ToString.Exclude
+    private SolarBodies moonBody;
 }
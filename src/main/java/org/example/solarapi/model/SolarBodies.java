@@ -5,7 +5,12 @@ import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
+import java.time.Instant;
 import java.util.*;
 
 @Getter
@@ -13,6 +18,10 @@ import java.util.*;
 @Entity
 @Table(name = "Solar_Bodies")
 @ToString
+// Cache drugiego poziomu (Caffeine przez JCache, regiony w application.conf); englishName to klucz naturalny
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 public class SolarBodies {
 
     @Id
@@ -23,6 +32,7 @@ public class SolarBodies {
     @Column(name = "external_id", unique = true, nullable = false)
     private String externalId;
 
+    @NaturalId(mutable = true) // PUT/PATCH mogą zmienić nazwę
     @Column(name = "english_name")
     private String englishName;
 
@@ -34,6 +44,7 @@ public class SolarBodies {
 
     @OneToMany(mappedBy = "solarBodies", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private Set<Moon> moons;
 
     @Column(name = "semimajor_axis")
@@ -47,6 +58,10 @@ public class SolarBodies {
     @Embedded
     private Mass mass;
 
+    // Masa w kg wyliczana z mass (PrePersist/PreUpdate, SolarBodiesBulkWriter) – do filtrów i sortowania listy katalogu
+    @Column(name = "mass_kg")
+    private Double massKg;
+
     @Embedded
     private Vol vol;
 
@@ -75,9 +90,23 @@ public class SolarBodies {
     @Column(name = "moon_count")
     private Integer moonCount;
 
+    // SHA-256 treści ostatnio zapisanej z API (SolarBodyContentHash) – null, jeśli nieznana
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // Kiedy ostatnio widzieliśmy ten rekord w odpowiedzi z API (także gdy nic się nie zmieniło)
+    @Column(name = "last_fetched_at")
+    private Instant lastFetchedAt;
+
     @Transient
     private List<Map<String, String>> moonsApiData; // Tymczasowe dane z API
 
+    @PrePersist
+    @PreUpdate
+    void updateMassKg() {
+        this.massKg = mass != null ? mass.toKilograms() : null;
+    }
+
     // Konstruktor bezargumentowy
     public SolarBodies() {
         this.externalId = UUID.randomUUID().toString();
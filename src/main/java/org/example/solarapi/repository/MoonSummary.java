@@ -0,0 +1,11 @@
+package org.example.solarapi.repository;
+
+/**
+ * Projekcja dla GET /api/solarbodies/{name}/moons – te same pola w JSON co encja Moon.
+ */
+public interface MoonSummary {
+    Long getId();
+    String getMoon();
+    String getOriginalName();
+    String getRel();
+}
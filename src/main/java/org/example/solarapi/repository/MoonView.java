@@ -0,0 +1,36 @@
+package org.example.solarapi.repository;
+
+/**
+ * Projekcja księżyca razem z kolumnami jego własnego rekordu (Moons.moon_body_id -> Solar_Bodies),
+ * czyli wszystko, czego potrzebuje pełne MoonDTO – jednym joinem.
+ * Gdy księżyc nie jest podpięty, moonBodyId i pola ciała są null.
+ */
+public interface MoonView {
+    // Moons.id
+    Long getId();
+    // id ciała, do którego należy księżyc (Moons.solar_bodies_id)
+    Long getOwnerId();
+    String getMoon();
+    String getRel();
+    Long getMoonBodyId();
+    String getBodyEnglishName();
+    String getBodyType();
+    Double getMeanRadius();
+    Long getSemimajorAxis();
+    Long getPerihelion();
+    Long getAphelion();
+    Double getEccentricity();
+    Double getInclination();
+    Double getGravity();
+    Double getEscapeSpeed();
+    Double getSideralOrbit();
+    Double getSideralRotation();
+    String getDiscoveredBy();
+    String getDiscoveryDate();
+    Double getAxialTilt();
+    Double getAvgTemp();
+    Double getMassValue();
+    Integer getMassExponent();
+    Double getVolValue();
+    Integer getVolExponent();
+}
@@ -0,0 +1,11 @@
+package org.example.solarapi.repository;
+
+import org.example.solarapi.model.SolarBodies;
+
+/**
+ * Wyszukiwanie po kluczu naturalnym (englishName) przez Hibernate – korzysta z cache natural-id
+ * i cache encji, więc powtarzane odczyty nie idą do bazy (w przeciwieństwie do findByEnglishName).
+ */
+public interface SolarBodiesNaturalIdRepository {
+    SolarBodies findByNaturalId(String englishName);
+}
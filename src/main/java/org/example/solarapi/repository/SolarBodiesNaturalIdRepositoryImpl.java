@@ -0,0 +1,22 @@
+package org.example.solarapi.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.example.solarapi.model.SolarBodies;
+import org.hibernate.Session;
+
+class SolarBodiesNaturalIdRepositoryImpl implements SolarBodiesNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public SolarBodies findByNaturalId(String englishName) {
+        if (englishName == null) {
+            return null;
+        }
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(SolarBodies.class)
+                .load(englishName);
+    }
+}
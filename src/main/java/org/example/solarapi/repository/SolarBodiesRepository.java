@@ -1,15 +1,102 @@
 package org.example.solarapi.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.solarapi.model.SolarBodies;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface SolarBodiesRepository extends JpaRepository<SolarBodies, Long> {
+public interface SolarBodiesRepository extends JpaRepository<SolarBodies, Long>, SolarBodiesNaturalIdRepository {
     SolarBodies findByEnglishName(String englishName);
     Optional<SolarBodies> findById(Long id);
-}
 
+    // Jedno zapytanie na całą paczkę zamiast findByEnglishName dla każdego ciała
+    List<SolarBodies> findByEnglishNameIn(Collection<String> englishNames);
+
+    // external_id = id ciała w API (ostatni segment "rel"), np. "europe" dla księżyca Europa
+    List<SolarBodies> findByExternalIdIn(Collection<String> externalIds);
+
+    // Projekcje dla endpointów do odczytu: tylko kolumny z DTO, bez encji w kontekście persystencji
+    @Query("""
+            select b.idNumber as idNumber, b.englishName as englishName, b.bodyType as bodyType, b.isPlanet as planet,
+                   b.meanRadius as meanRadius, b.moonCount as moonCount, b.semimajorAxis as semimajorAxis,
+                   b.perihelion as perihelion, b.aphelion as aphelion, b.inclination as inclination,
+                   b.gravity as gravity, b.escape as escapeSpeed, b.sideralOrbit as sideralOrbit,
+                   b.sideralRotation as sideralRotation, b.discoveredBy as discoveredBy,
+                   b.discoveryDate as discoveryDate, b.axialTilt as axialTilt, b.avgTemp as avgTemp,
+                   b.mass.massValue as massValue, b.mass.massExponent as massExponent,
+                   b.vol.volValue as volValue, b.vol.volExponent as volExponent
+            from SolarBodies b
+            where b.englishName = :englishName""")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Optional<SolarBodyView> findViewByEnglishName(@Param("englishName") String englishName);
+
+    // Księżyce ciała + kolumny ich własnych rekordów (moon_body_id) – jeden join zamiast wyszukiwania po nazwach
+    @Query("""
+            select m.id as id, m.solarBodies.idNumber as ownerId, m.moon as moon, m.rel as rel,
+                   mb.idNumber as moonBodyId, mb.englishName as bodyEnglishName,
+                   mb.bodyType as bodyType, mb.meanRadius as meanRadius, mb.semimajorAxis as semimajorAxis,
+                   mb.perihelion as perihelion, mb.aphelion as aphelion, mb.eccentricity as eccentricity,
+                   mb.inclination as inclination, mb.gravity as gravity, mb.escape as escapeSpeed,
+                   mb.sideralOrbit as sideralOrbit, mb.sideralRotation as sideralRotation,
+                   mb.discoveredBy as discoveredBy, mb.discoveryDate as discoveryDate,
+                   mb.axialTilt as axialTilt, mb.avgTemp as avgTemp,
+                   mb.mass.massValue as massValue, mb.mass.massExponent as massExponent,
+                   mb.vol.volValue as volValue, mb.vol.volExponent as volExponent
+            from Moon m left join m.moonBody mb
+            where m.solarBodies.idNumber = :bodyId""")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<MoonView> findMoonViewsByBodyId(@Param("bodyId") Long bodyId);
+
+    // Wiele ciał naraz (GET /api/solarbodies?names=...) – te same kolumny co findViewByEnglishName
+    @Query("""
+            select b.idNumber as idNumber, b.englishName as englishName, b.bodyType as bodyType, b.isPlanet as planet,
+                   b.meanRadius as meanRadius, b.moonCount as moonCount, b.semimajorAxis as semimajorAxis,
+                   b.perihelion as perihelion, b.aphelion as aphelion, b.inclination as inclination,
+                   b.gravity as gravity, b.escape as escapeSpeed, b.sideralOrbit as sideralOrbit,
+                   b.sideralRotation as sideralRotation, b.discoveredBy as discoveredBy,
+                   b.discoveryDate as discoveryDate, b.axialTilt as axialTilt, b.avgTemp as avgTemp,
+                   b.mass.massValue as massValue, b.mass.massExponent as massExponent,
+                   b.vol.volValue as volValue, b.vol.volExponent as volExponent
+            from SolarBodies b
+            where b.englishName in :englishNames""")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<SolarBodyView> findViewsByEnglishNameIn(@Param("englishNames") Collection<String> englishNames);
+
+    // Księżyce wielu ciał jednym zapytaniem; ownerId mówi, do którego ciała należą
+    @Query("""
+            select m.id as id, m.solarBodies.idNumber as ownerId, m.moon as moon, m.rel as rel,
+                   mb.idNumber as moonBodyId, mb.englishName as bodyEnglishName,
+                   mb.bodyType as bodyType, mb.meanRadius as meanRadius, mb.semimajorAxis as semimajorAxis,
+                   mb.perihelion as perihelion, mb.aphelion as aphelion, mb.eccentricity as eccentricity,
+                   mb.inclination as inclination, mb.gravity as gravity, mb.escape as escapeSpeed,
+                   mb.sideralOrbit as sideralOrbit, mb.sideralRotation as sideralRotation,
+                   mb.discoveredBy as discoveredBy, mb.discoveryDate as discoveryDate,
+                   mb.axialTilt as axialTilt, mb.avgTemp as avgTemp,
+                   mb.mass.massValue as massValue, mb.mass.massExponent as massExponent,
+                   mb.vol.volValue as volValue, mb.vol.volExponent as volExponent
+            from Moon m left join m.moonBody mb
+            where m.solarBodies.idNumber in :bodyIds""")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<MoonView> findMoonViewsByBodyIdIn(@Param("bodyIds") Collection<Long> bodyIds);
+
+    @Query("select m.id as id, m.moon as moon, m.originalName as originalName, m.rel as rel "
+            + "from Moon m where m.solarBodies.englishName = :englishName")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<MoonSummary> findMoonSummariesByEnglishName(@Param("englishName") String englishName);
+
+    // Delta sync: niezmienione ciała dostają tylko nowy last_fetched_at – jednym UPDATE na paczkę
+    @Modifying
+    @Query("update SolarBodies b set b.lastFetchedAt = :fetchedAt where b.idNumber in :ids")
+    int touchLastFetchedAt(@Param("ids") Collection<Long> ids, @Param("fetchedAt") Instant fetchedAt);
+}
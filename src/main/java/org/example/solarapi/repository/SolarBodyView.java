@@ -0,0 +1,30 @@
+package org.example.solarapi.repository;
+
+/**
+ * Projekcja ciała na potrzeby SolarBodyDTO – tylko kolumny, które trafiają do odpowiedzi
+ * (bez księżyców, content_hash, last_fetched_at itd.). Nazwy = aliasy w zapytaniach SolarBodiesRepository.
+ */
+public interface SolarBodyView {
+    Long getIdNumber();
+    String getEnglishName();
+    String getBodyType();
+    Boolean getPlanet();
+    Double getMeanRadius();
+    Integer getMoonCount();
+    Long getSemimajorAxis();
+    Long getPerihelion();
+    Long getAphelion();
+    Double getInclination();
+    Double getGravity();
+    Double getEscapeSpeed();
+    Double getSideralOrbit();
+    Double getSideralRotation();
+    String getDiscoveredBy();
+    String getDiscoveryDate();
+    Double getAxialTilt();
+    Double getAvgTemp();
+    Double getMassValue();
+    Integer getMassExponent();
+    Double getVolValue();
+    Integer getVolExponent();
+}
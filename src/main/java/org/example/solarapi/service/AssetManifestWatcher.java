@@ -0,0 +1,150 @@
+package org.example.solarapi.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.solarapi.mapper.AssetManifest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Buduje AssetManifest na starcie i – gdy static/assets leży na dysku (uruchomienie z IDE / mvn spring-boot:run) –
+ * pilnuje go WatchService-em: dodanie, usunięcie albo zmiana pliku = nowy indeks i wyczyszczony cache DTO
+ * (ścieżki tekstur i modeli siedzą w gotowych odpowiedziach). Z jara zasoby się nie zmieniają, więc bez obserwacji.
+ */
+@Component
+public class AssetManifestWatcher {
+
+    private static final Logger logger = Logger.getLogger(AssetManifestWatcher.class.getName());
+
+    // seria zmian (np. kopiowanie katalogu) = jedno przebudowanie
+    private static final long DEBOUNCE_MS = 250;
+
+    @Value("${solar.assets.watch:true}")
+    private boolean watch;
+
+    // Brak w profilu "snapshot"
+    @Autowired(required = false)
+    private SolarBodyDtoCache solarBodyDtoCache;
+
+    private WatchService watchService;
+    private Thread watcherThread;
+
+    @PostConstruct
+    void start() {
+        AssetManifest.replace(AssetManifest.scanClasspath());
+        Path root = assetsDirectory();
+        if (!watch || root == null) {
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            registerTree(root);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not watch " + root + " – asset manifest will not refresh", e);
+            return;
+        }
+        watcherThread = new Thread(this::watchLoop, "asset-manifest-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+        logger.info("Watching " + root + " for asset changes");
+    }
+
+    @PreDestroy
+    void stop() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.log(Level.FINE, "Closing asset watch service failed", e);
+            }
+        }
+    }
+
+    // odciski z buildu po zmianie plików są nieaktualne – do następnego buildu adresy bez wersji
+    public void rebuild() {
+        AssetManifest.replace(AssetManifest.scanClasspath(false));
+        if (solarBodyDtoCache != null) {
+            solarBodyDtoCache.invalidateAll();
+        }
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = drain(key);
+                // zbierz resztę serii, zanim przebudujemy
+                WatchKey next;
+                while ((next = watchService.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(next);
+                }
+                if (changed) {
+                    rebuild();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // zamknięcie kontekstu
+        }
+    }
+
+    private boolean drain(WatchKey key) {
+        boolean changed = false;
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+                continue;
+            }
+            changed = true;
+            Path child = directory.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(child)) {
+                try {
+                    registerTree(child);
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Could not watch new directory " + child, e);
+                }
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    private void registerTree(Path root) throws IOException {
+        try (Stream<Path> directories = Files.walk(root)) {
+            for (Path directory : (Iterable<Path>) directories.filter(Files::isDirectory)::iterator) {
+                directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        }
+    }
+
+    // katalog static/assets na dysku albo null (zasoby w jarze)
+    private static Path assetsDirectory() {
+        try {
+            URL url = new ClassPathResource("static/assets").getURL();
+            return "file".equals(url.getProtocol()) ? Paths.get(url.toURI()) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
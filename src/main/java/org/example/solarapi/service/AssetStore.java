@@ -0,0 +1,156 @@
+package org.example.solarapi.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Pliki static/assets na dysku – dla /stream/** (sendfile / FileChannel.transferTo wymagają prawdziwego pliku).
+ * Zasoby już leżące na dysku (IDE, mvn spring-boot:run) są używane w miejscu; z jara rozpakowywane na starcie
+ * do solar.assets.store-dir, tylko pliki o innym rozmiarze albo dacie niż w jarze. Pliki, których nie ma
+ * w bieżącym jarze (zasoby z poprzednich wersji, porzucone .tmp), są z tego katalogu usuwane.
+ */
+@Component
+public class AssetStore {
+
+    private static final Logger logger = Logger.getLogger(AssetStore.class.getName());
+
+    private static final String LOCATION = "static/assets";
+
+    @Value("${solar.assets.store-dir:${user.home}/.solar-api/assets}")
+    private String storeDir;
+
+    // katalog odpowiadający "assets/" z adresów API; null = brak plików
+    private volatile Path root;
+
+    @PostConstruct
+    void init() {
+        Path onDisk = classpathDirectory();
+        if (onDisk != null) {
+            root = onDisk;
+            logger.info("Asset store: serving " + root + " in place");
+            return;
+        }
+        Path target = Paths.get(storeDir).toAbsolutePath().normalize();
+        try {
+            int copied = extract(target);
+            root = target;
+            logger.info("Asset store: " + target + " (" + copied + " files extracted)");
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Could not extract assets to " + target + " – /stream/** disabled", e);
+        }
+    }
+
+    /**
+     * Plik dla ścieżki z AssetManifest ("assets/models/3D_models/Himalia.glb") albo null.
+     */
+    public Path resolve(String relativePath) {
+        Path base = root;
+        if (base == null || relativePath == null || !relativePath.startsWith("assets/")) {
+            return null;
+        }
+        Path file = base.resolve(relativePath.substring("assets/".length())).normalize();
+        return file.startsWith(base) && Files.isRegularFile(file) ? file : null;
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    int extract(Path target) throws IOException {
+        int copied = 0;
+        Set<Path> current = new HashSet<>();
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources("classpath*:" + LOCATION + "/**");
+        for (Resource resource : resources) {
+            String url = resource.getURL().toString();
+            int start = url.lastIndexOf("/" + LOCATION + "/");
+            if (start < 0 || url.endsWith("/") || !resource.isReadable()) {
+                continue; // katalogi
+            }
+            String relative = URLDecoder.decode(url.substring(start + LOCATION.length() + 2), StandardCharsets.UTF_8);
+            Path file = target.resolve(relative).normalize();
+            if (!file.startsWith(target)) {
+                continue;
+            }
+            current.add(file);
+            long lastModified = resource.lastModified();
+            if (Files.isRegularFile(file) && Files.size(file) == resource.contentLength()
+                    && Files.getLastModifiedTime(file).toMillis() == lastModified) {
+                continue;
+            }
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (InputStream in = resource.getInputStream()) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.setLastModifiedTime(temp, FileTime.fromMillis(lastModified));
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            copied++;
+        }
+        if (!current.isEmpty()) { // pusta lista zasobów = problem z classpath, nie powód do czyszczenia katalogu
+            prune(target, current);
+        }
+        return copied;
+    }
+
+    // usuwa z katalogu pliki spoza bieżącego jara, potem puste katalogi (od najgłębszych)
+    private static void prune(Path target, Set<Path> current) throws IOException {
+        if (!Files.isDirectory(target)) {
+            return;
+        }
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(target)) {
+            paths = walk.sorted(Comparator.reverseOrder()).toList();
+        }
+        int removed = 0;
+        for (Path path : paths) {
+            if (path.equals(target)) {
+                continue;
+            }
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> children = Files.list(path)) {
+                    if (children.findAny().isEmpty()) {
+                        Files.delete(path);
+                    }
+                }
+            } else if (!current.contains(path)) {
+                Files.delete(path);
+                removed++;
+            }
+        }
+        if (removed > 0) {
+            logger.info("Asset store: removed " + removed + " stale files from " + target);
+        }
+    }
+
+    // katalog static/assets na dysku albo null (zasoby w jarze)
+    private static Path classpathDirectory() {
+        try {
+            URL url = new ClassPathResource(LOCATION).getURL();
+            return "file".equals(url.getProtocol()) ? Paths.get(url.toURI()).toAbsolutePath().normalize() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.solarapi.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Liczniki /stream/**: bajty, odpowiedzi wg rodzaju i histogram czasu obsługi w wątku HTTP.
+ * Przy sendfile czas kończy się na przekazaniu pliku do Tomcata – samo wysyłanie idzie już poza wątkiem.
+ */
+@Component
+public class AssetStreamMetrics {
+
+    // górne granice kubełków w ms; ostatni kubełek = wszystko powyżej
+    private static final long[] LATENCY_BUCKETS_MS = {1, 5, 10, 50, 100, 500, 1000, 5000};
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder partial = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder notSatisfiable = new LongAdder();
+    private final LongAdder sendfile = new LongAdder();
+    private final LongAdder copied = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder[] latency = new LongAdder[LATENCY_BUCKETS_MS.length + 1];
+    private final LongAdder latencyTotalNanos = new LongAdder();
+    private final AtomicLong latencyMaxNanos = new AtomicLong();
+
+    public AssetStreamMetrics() {
+        for (int i = 0; i < latency.length; i++) {
+            latency[i] = new LongAdder();
+        }
+    }
+
+    public void recordPartial() {
+        partial.increment();
+    }
+
+    public void recordNotModified() {
+        notModified.increment();
+    }
+
+    public void recordNotSatisfiable() {
+        notSatisfiable.increment();
+    }
+
+    public void recordRejected() {
+        rejected.increment();
+    }
+
+    public void recordBody(long length, boolean viaSendfile) {
+        bytes.add(length);
+        (viaSendfile ? sendfile : copied).increment();
+    }
+
+    public void recordRequest(long startNanos) {
+        long nanos = System.nanoTime() - startNanos;
+        requests.increment();
+        latencyTotalNanos.add(nanos);
+        latencyMaxNanos.accumulateAndGet(nanos, Math::max);
+        long millis = nanos / 1_000_000;
+        int bucket = 0;
+        while (bucket < LATENCY_BUCKETS_MS.length && millis >= LATENCY_BUCKETS_MS[bucket]) {
+            bucket++;
+        }
+        latency[bucket].increment();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        long count = requests.sum();
+        snapshot.put("requests", count);
+        snapshot.put("bytesServed", bytes.sum());
+        snapshot.put("sendfile", sendfile.sum());
+        snapshot.put("copied", copied.sum());
+        snapshot.put("partial", partial.sum());
+        snapshot.put("notModified", notModified.sum());
+        snapshot.put("rangeNotSatisfiable", notSatisfiable.sum());
+        snapshot.put("rejected", rejected.sum());
+        snapshot.put("avgLatencyMs", count > 0 ? latencyTotalNanos.sum() / count / 1_000_000.0 : 0.0);
+        snapshot.put("maxLatencyMs", latencyMaxNanos.get() / 1_000_000.0);
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < LATENCY_BUCKETS_MS.length; i++) {
+            histogram.put("<" + LATENCY_BUCKETS_MS[i] + "ms", latency[i].sum());
+        }
+        histogram.put(">=" + LATENCY_BUCKETS_MS[LATENCY_BUCKETS_MS.length - 1] + "ms",
+                latency[LATENCY_BUCKETS_MS.length].sum());
+        snapshot.put("latency", histogram);
+        return snapshot;
+    }
+}
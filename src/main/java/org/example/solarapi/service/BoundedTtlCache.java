@@ -0,0 +1,150 @@
+package org.example.solarapi.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prosty, bezpieczny wątkowo cache z limitem rozmiaru i czasem życia (TTL) ustawianym per wpis.
+ * Wpisy, których czas minął, są usuwane przy odczycie. Po przekroczeniu maxSize najpierw
+ * sprzątane są przeterminowane wpisy, a potem najstarsze (kolejność wstawienia – FIFO).
+ * Zlicza trafienia, chybienia, wygaśnięcia i eksmisje.
+ */
+public class BoundedTtlCache<K, V> {
+
+    private record Entry<K, V>(K key, V value, long expiresAtNanos) {
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+
+    private final int maxSize;
+    private final ConcurrentHashMap<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+    // kolejność wstawienia (może zawierać nieaktualne wpisy – pomijane przy eksmisji)
+    private final Queue<Entry<K, V>> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public BoundedTtlCache(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * Zwraca wartość albo null, jeśli klucza nie ma lub jego TTL minął.
+     */
+    public V get(K key) {
+        Entry<K, V> entry = entries.get(key);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            if (entries.remove(key, entry)) {
+                expirations.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value();
+    }
+
+    public void put(K key, V value, long ttlMillis) {
+        if (ttlMillis <= 0) {
+            invalidate(key);
+            return;
+        }
+        Entry<K, V> entry = new Entry<>(key, value, System.nanoTime() + ttlMillis * 1_000_000);
+        entries.put(key, entry);
+        insertionOrder.add(entry);
+        if (queued.incrementAndGet() > maxSize * 2L) {
+            compactInsertionOrder();
+        }
+        if (entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+        insertionOrder.clear();
+        queued.set(0);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getExpirations() {
+        return expirations.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("size", size());
+        snapshot.put("maxSize", maxSize);
+        snapshot.put("hits", getHits());
+        snapshot.put("misses", getMisses());
+        snapshot.put("expirations", getExpirations());
+        snapshot.put("evictions", getEvictions());
+        return snapshot;
+    }
+
+    private void evict() {
+        long now = System.nanoTime();
+        entries.forEach((key, entry) -> {
+            if (entry.isExpired(now) && entries.remove(key, entry)) {
+                expirations.incrementAndGet();
+            }
+        });
+        while (entries.size() > maxSize) {
+            Entry<K, V> oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            // wpis mógł już zostać nadpisany albo usunięty – wtedy remove nic nie zrobi
+            if (entries.remove(oldest.key(), oldest)) {
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Nadpisywane i usuwane klucze zostawiają w kolejce nieaktualne wpisy – co jakiś czas je wyrzucamy,
+     * żeby kolejka nie rosła bez końca.
+     */
+    private void compactInsertionOrder() {
+        insertionOrder.removeIf(entry -> entries.get(entry.key()) != entry);
+        queued.set(insertionOrder.size());
+    }
+}
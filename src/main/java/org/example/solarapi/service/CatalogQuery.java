@@ -0,0 +1,164 @@
+package org.example.solarapi.service;
+
+import org.example.solarapi.dto.CatalogFilter;
+import org.example.solarapi.dto.CatalogPage;
+import org.example.solarapi.dto.SolarBodySummary;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sparsowane parametry listy katalogu (CatalogFilter): klucz i kierunek sortowania, limit, kursor – oraz złożenie
+ * strony z wierszy pobranych z limitem + 1. Wspólne dla SolarBodiesCatalogService (SQL) i SnapshotCatalog (pamięć),
+ * więc oba profile przyjmują te same parametry i wydają te same kursory.
+ * IllegalArgumentException = błędne parametry (nieznany sort, zły kursor, limit poza zakresem).
+ */
+public record CatalogQuery(SortKey sortKey, boolean descending, int limit, Cursor cursor) {
+
+    // Klucze sortowania -> kolumny; tylko z tej listy trafiają do SQL
+    public enum SortKey {
+        NAME("name", "english_name"),
+        MEAN_RADIUS("meanRadius", "mean_radius"),
+        MASS("mass", "mass_kg"),
+        SEMIMAJOR_AXIS("semimajorAxis", "semimajor_axis"),
+        ECCENTRICITY("eccentricity", "eccentricity"),
+        AVG_TEMP("avgTemp", "avg_temp");
+
+        final String param;
+        final String column;
+
+        SortKey(String param, String column) {
+            this.param = param;
+            this.column = column;
+        }
+
+        static SortKey of(String param) {
+            for (SortKey key : values()) {
+                if (key.param.equalsIgnoreCase(param)) {
+                    return key;
+                }
+            }
+            throw new IllegalArgumentException("Unknown sort key: " + param);
+        }
+
+        // wartość kolumny z kursora w typie kolumny (BIGINT porównywany z liczbą zmiennoprzecinkową gubi indeks)
+        Object parse(String value) {
+            return switch (this) {
+                case NAME -> value;
+                case SEMIMAJOR_AXIS -> Long.valueOf(value);
+                default -> Double.valueOf(value);
+            };
+        }
+
+        public Object value(SolarBodySummary summary) {
+            return switch (this) {
+                case NAME -> summary.getEnglishName();
+                case MEAN_RADIUS -> summary.getMeanRadius();
+                case MASS -> summary.getMassKg();
+                case SEMIMAJOR_AXIS -> summary.getSemimajorAxis();
+                case ECCENTRICITY -> summary.getEccentricity();
+                case AVG_TEMP -> summary.getAvgTemp();
+            };
+        }
+
+        /**
+         * Porządek jak w bazie: nazwy bez wielkości liter (kolacja MySQL), liczby naturalnie. Bez NULL-i.
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public int compare(Object a, Object b) {
+            if (this == NAME) {
+                return String.CASE_INSENSITIVE_ORDER.compare((String) a, (String) b);
+            }
+            return ((Comparable) a).compareTo(b);
+        }
+    }
+
+    public static CatalogQuery parse(CatalogFilter filter, int defaultLimit, int maxLimit) {
+        String[] sortParts = (filter.getSort() != null ? filter.getSort() : SortKey.NAME.param).split(",", 2);
+        SortKey sortKey = SortKey.of(sortParts[0].trim());
+        boolean descending = sortParts.length > 1 && parseDirection(sortParts[1].trim());
+        int limit = filter.getLimit() != null ? filter.getLimit() : defaultLimit;
+        if (limit < 1 || limit > maxLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxLimit);
+        }
+        Cursor cursor = null;
+        if (filter.getCursor() != null && !filter.getCursor().isBlank()) {
+            cursor = Cursor.decode(filter.getCursor());
+            if (cursor.sortKey() != sortKey || cursor.descending() != descending) {
+                throw new IllegalArgumentException("cursor was issued for a different sort");
+            }
+        }
+        return new CatalogQuery(sortKey, descending, limit, cursor);
+    }
+
+    /**
+     * Czy wiersz leży za kursorem (w kierunku sortowania) – odpowiednik warunku keyset z SQL.
+     */
+    public boolean isAfterCursor(long id, Object value) {
+        if (cursor == null) {
+            return true;
+        }
+        int byValue = sortKey.compare(value, cursor.value());
+        int order = byValue != 0 ? byValue : Long.compare(id, cursor.id());
+        return descending ? order < 0 : order > 0;
+    }
+
+    /**
+     * Strona z wierszy w kolejności sortowania, pobranych z limitem + 1 (nadmiarowy wiersz = jest następna strona).
+     */
+    public CatalogPage page(List<Row> rows) {
+        boolean hasMore = rows.size() > limit;
+        List<SolarBodySummary> items = new ArrayList<>(Math.min(rows.size(), limit));
+        for (int i = 0; i < rows.size() && i < limit; i++) {
+            items.add(rows.get(i).summary());
+        }
+
+        CatalogPage page = new CatalogPage();
+        page.setItems(items);
+        page.setSort(sortKey.param + (descending ? ",desc" : ",asc"));
+        page.setLimit(limit);
+        if (hasMore) {
+            Row last = rows.get(limit - 1);
+            page.setNextCursor(new Cursor(sortKey, descending, last.id(), sortKey.value(last.summary())).encode());
+        }
+        return page;
+    }
+
+    private static boolean parseDirection(String direction) {
+        return switch (direction.toLowerCase(Locale.ROOT)) {
+            case "asc" -> false;
+            case "desc" -> true;
+            default -> throw new IllegalArgumentException("Unknown sort direction: " + direction);
+        };
+    }
+
+    public record Row(long id, SolarBodySummary summary) {
+    }
+
+    /**
+     * Pozycja ostatniego zwróconego wiersza: klucz sortowania, kierunek, id i wartość kolumny.
+     * Base64url, żeby klient traktował go jako nieprzezroczysty token.
+     */
+    public record Cursor(SortKey sortKey, boolean descending, long id, Object value) {
+
+        String encode() {
+            String raw = sortKey.param + ":" + (descending ? "d" : "a") + ":" + id + ":" + value;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                // wartość na końcu – nazwa może zawierać ':'
+                String[] parts = raw.split(":", 4);
+                SortKey key = SortKey.of(parts[0]);
+                return new Cursor(key, "d".equals(parts[1]), Long.parseLong(parts[2]), key.parse(parts[3]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.solarapi.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Prosty circuit breaker dla jednego hosta.
+ * CLOSED – ruch normalny; po `failureThreshold` porażkach z rzędu przechodzi w OPEN i przez
+ * `openMillis` odrzuca zapytania od razu (fail fast). Potem HALF_OPEN – przepuszcza jedno zapytanie
+ * próbne: sukces zamyka obwód, porażka otwiera go ponownie.
+ */
+public class CircuitBreaker {
+
+    public enum State {CLOSED, OPEN, HALF_OPEN}
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    private long successes;
+    private long failures;
+    private long rejected;
+    private long timesOpened;
+
+    public CircuitBreaker(String name, int failureThreshold, long openMillis) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Czy wolno teraz wysłać zapytanie. false = obwód otwarty (albo trwa już próba w HALF_OPEN).
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openMillis) {
+                rejected++;
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                rejected++;
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    /**
+     * Zapytanie dopuszczone przez tryAcquire nie zostało wysłane – zwalnia próbę w HALF_OPEN.
+     */
+    public synchronized void release() {
+        trialInFlight = false;
+    }
+
+    public synchronized void recordSuccess() {
+        successes++;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = State.CLOSED;
+    }
+
+    public synchronized void recordFailure() {
+        failures++;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                timesOpened++;
+            }
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            trialInFlight = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("host", name);
+        snapshot.put("state", state);
+        snapshot.put("consecutiveFailures", consecutiveFailures);
+        snapshot.put("successes", successes);
+        snapshot.put("failures", failures);
+        snapshot.put("rejected", rejected);
+        snapshot.put("timesOpened", timesOpened);
+        return snapshot;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.solarapi.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gotowa odpowiedź JSON: bajty, wariant gzip (null, jeśli kompresja nic nie daje) i silne ETagi
+ * liczone z treści (SHA-256) – osobny dla każdej reprezentacji, jak wymaga RFC 9110.
+ */
+public record EncodedResponse(byte[] json, byte[] gzip, String etag, String gzipEtag) {
+
+    // poniżej tego rozmiaru nagłówki gzip zjadają zysk
+    private static final int MIN_GZIP_SIZE = 256;
+
+    public static EncodedResponse of(byte[] json) {
+        String hash = sha256(json).substring(0, 32);
+        byte[] gzip = json.length >= MIN_GZIP_SIZE ? gzip(json) : null;
+        if (gzip != null && gzip.length >= json.length) {
+            gzip = null;
+        }
+        return new EncodedResponse(json, gzip, "\"" + hash + "\"", gzip != null ? "\"" + hash + "-gzip\"" : null);
+    }
+
+    /**
+     * Czy którykolwiek ETag z If-None-Match pasuje do tej treści (porównanie słabe, jak dla GET w RFC 9110).
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals(gzipEtag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length / 3 + 32);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,13 +1,17 @@
 package org.example.solarapi.service;
 
-import com.google.gson.*;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.example.solarapi.codec.SolarBodiesCodec;
 import org.example.solarapi.dto.SolarBodiesResponse;
 import org.example.solarapi.model.SolarBodies;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
@@ -15,113 +19,459 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
-import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 @Service
 public class HttpClientService<T> {
     private static final HttpClient client = HttpClient.newHttpClient();
     private static final Logger logger = Logger.getLogger(HttpClientService.class.getName());
 
+    @Autowired
+    private UpstreamResponseCache responseCache;
+
+    @Autowired
+    private UpstreamResilience resilience;
+
+    @Autowired
+    private TokenBucketRateLimiter rateLimiter;
+
+    @Autowired
+    private NegativeLookupCache negativeLookupCache;
+
+    /**
+     * Jedno wywołanie do API: adres, wpis z cache (do nagłówków warunkowych), handler body,
+     * czy wolno wysłać zapytanie "hedged", numer próby i liczba wykonanych przekierowań.
+     */
+    private record Call<B>(String url, UpstreamResponseCache.CachedResponse cached,
+                           HttpResponse.BodyHandler<B> handler, boolean hedge, int attempt, int redirects) {
+
+        Call<B> nextAttempt() {
+            return new Call<>(url, cached, handler, hedge, attempt + 1, redirects);
+        }
+
+        Call<B> redirectTo(String target) {
+            // po przekierowaniu nie wysyłamy walidatorów – dotyczą oryginalnego adresu
+            return new Call<>(target, null, handler, hedge, attempt, redirects + 1);
+        }
+    }
+
+    /**
+     * Blokująca wersja – czeka na getPlanetDetailsAsync, ale najwyżej solar.upstream.call-timeout-ms
+     * (łącznie z ponowieniami i czekaniem na token). Ponowienia i tak są planowane
+     * asynchronicznie, więc wątek wywołujący nie śpi między próbami.
+     * Zwraca null dla 404 / pustego body, rzuca UpstreamException przy błędach i po przekroczeniu czasu.
+     */
     public T getPlanetDetails(String url, Class<T> responseClass) {
+        CompletableFuture<T> future = getPlanetDetailsAsync(url, responseClass);
         try {
-            String currentUrl = url;
-            HttpResponse<String> response;
-            int retryCount = 0;
-            while (retryCount < 5) {
-                var request = HttpRequest
-                        .newBuilder()
-                        .uri(new URI(currentUrl))
-                        .GET()
-                        .header("Accept", "application/json")
-                        .build();
-
-                response = client.send(request, HttpResponse.BodyHandlers.ofString());
-                var bodyAsString = response.body();
-                logger.info("API Response: " + bodyAsString);
-
-                if (response.statusCode() == 301 || response.statusCode() == 302) {
-                    // ...
-                } else if (response.statusCode() == 200) {
-
-                    // **DORZUĆ** logowanie:
-                    logger.info(
-                            "getPlanetDetails(): code=200, length(body)="
-                                    + (bodyAsString != null ? bodyAsString.length() : "null")
-                    );
-
-                    // **SPRAWDŹ**, czy ciało nie jest puste:
-                    if (bodyAsString == null || bodyAsString.isBlank()) {
-                        logger.warning("Body is null/blank from " + currentUrl + ", returning null...");
-                        return null;
-                    }
-
-                    final Gson gson = new GsonBuilder().registerTypeAdapter(
-                            LocalDateTime.class,
-                            (JsonDeserializer<LocalDateTime>) (json, type, context) -> {
-                                var dateTimeJson = json.getAsJsonPrimitive().getAsLong();
-                                return LocalDateTime.ofInstant(Instant.ofEpochMilli(dateTimeJson), ZoneId.systemDefault());
-                            }
-                    ).create();
+            return future.get(resilience.getCallTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            logger.severe("Timed out fetching " + url + " after " + resilience.getCallTimeoutMillis() + " ms");
+            throw new UpstreamException(url, -1, true, "Timed out after " + resilience.getCallTimeoutMillis() + " ms: " + url, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UpstreamException(url, -1, true, "Interrupted while fetching " + url, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            logger.severe("Error fetching data: " + cause.getMessage());
+            if (cause instanceof UpstreamException upstreamException) {
+                throw upstreamException;
+            }
+            throw new UpstreamException(url, -1, true, cause.getMessage(), cause);
+        }
+    }
 
-                    return gson.fromJson(bodyAsString, responseClass);
+    /**
+     * Asynchroniczna wersja getPlanetDetails oparta o HttpClient.sendAsync.
+     * Ponowienia (backoff z jitterem, Retry-After), przekierowania i circuit breaker obsługuje execute().
+     * Future kończy się wartością null dla 404 / pustego body, albo UpstreamException.
+     * Adresy, które niedawno zwróciły 404 lub błąd, są odrzucane od razu na podstawie NegativeLookupCache.
+     */
+    public CompletableFuture<T> getPlanetDetailsAsync(String url, Class<T> responseClass) {
+        UpstreamResponseCache.CachedResponse cached = responseCache.get(url);
+        if (responseCache.isOffline()) {
+            try {
+                return CompletableFuture.completedFuture(parseDetails(url, readCachedOffline(url, cached), responseClass));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        NegativeLookupCache.Reason knownFailure = negativeLookupCache.check(url);
+        if (knownFailure == NegativeLookupCache.Reason.NOT_FOUND) {
+            logger.fine("Skipping " + url + " - recently not found");
+            return CompletableFuture.completedFuture(null);
+        }
+        if (knownFailure == NegativeLookupCache.Reason.TRANSIENT) {
+            return CompletableFuture.failedFuture(
+                    new UpstreamException(url, -1, true, "Recent upstream failure for " + url + ", not retrying yet"));
+        }
+        return execute(new Call<>(url, cached, HttpResponse.BodyHandlers.ofByteArray(), true, 1, 0))
+                .thenCompose(response -> toDetails(url, cached, response, responseClass))
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        negativeLookupCache.recordFailure(url, error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error);
+                    } else if (result == null) {
+                        negativeLookupCache.recordNotFound(url);
+                    }
+                });
+    }
 
-                } else if (response.statusCode() == 404) {
-                    logger.warning("Resource not found: " + currentUrl);
-                    return null;
-                } else {
-                    logger.warning("Unexpected response code: " + response.statusCode());
-                    retryCount++;
-                    Thread.sleep(1000);
-                }
+    private CompletableFuture<T> toDetails(String url, UpstreamResponseCache.CachedResponse cached,
+                                           HttpResponse<byte[]> response, Class<T> responseClass) {
+        int statusCode = response.statusCode();
+        if (statusCode == 200 || statusCode == 304) {
+            try {
+                return CompletableFuture.completedFuture(parseDetails(url, resolveBody(url, response, cached), responseClass));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
             }
-        } catch (IOException | InterruptedException | URISyntaxException e) {
-            logger.severe("Error fetching data: " + e.getMessage());
-            throw new RuntimeException(e);
         }
-        return null;
+        if (statusCode == 404) {
+            logger.warning("Resource not found: " + url);
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.failedFuture(
+                new UpstreamException(url, statusCode, false, "Unexpected response code: " + statusCode + " for " + url));
+    }
+
+    private T parseDetails(String url, String bodyAsString, Class<T> responseClass) {
+        logger.fine("getPlanetDetails(): length(body)="
+                + (bodyAsString != null ? bodyAsString.length() : "null"));
+        if (bodyAsString == null || bodyAsString.isBlank()) {
+            logger.warning("Body is null/blank from " + url + ", returning null...");
+            return null;
+        }
+        return SolarBodiesCodec.fromJson(bodyAsString, responseClass);
     }
 
     public List<SolarBodies> getAllSolarBodies(String url) {
         try {
-            var request = HttpRequest
-                    .newBuilder()
-                    .uri(new URI(url))
-                    .GET()
-                    .header("Accept", "application/json")
-                    .build();
-
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-            var bodyAsString = response.body();
-            logger.info("API Response: " + bodyAsString);
-
-            if (response.statusCode() == 200) {
-                final Gson gson = new GsonBuilder().registerTypeAdapter(
-                        LocalDateTime.class,
-                        new JsonDeserializer<LocalDateTime>() {
-                            @Override
-                            public LocalDateTime deserialize(JsonElement json, Type type, JsonDeserializationContext jsonDeserializationContext) throws JsonParseException {
-                                var dateTimeJson = json.getAsJsonPrimitive().getAsLong();
-                                return LocalDateTime.ofInstant(Instant.ofEpochMilli(dateTimeJson), ZoneId.systemDefault());
-                            }
-                        }
-                ).create();
-                SolarBodiesResponse solarBodiesResponse = gson.fromJson(bodyAsString, SolarBodiesResponse.class);
+            UpstreamResponseCache.CachedResponse cached = responseCache.get(url);
+            String bodyAsString;
+            int statusCode;
+            if (responseCache.isOffline()) {
+                bodyAsString = readCachedOffline(url, cached);
+                statusCode = bodyAsString != null ? 200 : 404;
+            } else {
+                HttpResponse<byte[]> response = execute(new Call<>(url, cached, HttpResponse.BodyHandlers.ofByteArray(), false, 1, 0)).join();
+                bodyAsString = resolveBody(url, response, cached);
+                statusCode = response.statusCode();
+            }
+            logger.info("getAllSolarBodies(): code=" + statusCode
+                    + ", length(body)=" + (bodyAsString != null ? bodyAsString.length() : "null"));
+
+            if ((statusCode == 200 || statusCode == 304) && bodyAsString != null) {
+                SolarBodiesResponse solarBodiesResponse = SolarBodiesCodec.fromJson(bodyAsString, SolarBodiesResponse.class);
                 return solarBodiesResponse.getBodies();
             } else {
-                logger.warning("Unexpected response code: " + response.statusCode());
+                logger.warning("Unexpected response code: " + statusCode);
                 return null;
             }
-        } catch (IOException | InterruptedException | URISyntaxException e) {
+        } catch (CompletionException e) {
+            logger.severe("Error fetching data: " + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+            return null;
+        } catch (IOException e) {
             logger.severe("Error fetching data: " + e.getMessage());
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Strumieniowa wersja getAllSolarBodies: body nie jest wczytywane do jednego Stringa,
+     * tylko parsowane token po tokenie (JsonReader) prosto z InputStream.
+     * Ciała z tablicy "bodies" są przekazywane do chunkConsumer w paczkach po chunkSize,
+     * więc w pamięci jest naraz co najwyżej jedna paczka.
+     * Przy 304 / w trybie offline strumieniem jest plik z UpstreamResponseCache, a przy 200
+     * bajty są równolegle odkładane do cache.
+     * Zwraca liczbę sparsowanych ciał lub -1, jeśli API odpowiedziało innym kodem niż 200.
+     */
+    public long streamAllSolarBodies(String url, int chunkSize, Consumer<List<SolarBodies>> chunkConsumer) {
+        try {
+            UpstreamResponseCache.CachedResponse cached = responseCache.get(url);
+            if (responseCache.isOffline()) {
+                if (cached == null) {
+                    logger.warning("Offline mode - no cached response for " + url);
+                    return -1;
+                }
+                responseCache.markServedOffline();
+                try (InputStream body = cached.openBody()) {
+                    return readBodiesInChunks(body, Math.max(1, chunkSize), chunkConsumer);
+                }
+            }
+
+            HttpResponse<InputStream> response = execute(new Call<>(url, cached, HttpResponse.BodyHandlers.ofInputStream(), false, 1, 0)).join();
+            if (response.statusCode() == 304 && cached != null) {
+                response.body().close();
+                responseCache.markRevalidated();
+                logger.info("streamAllSolarBodies(): 304 Not Modified, streaming cached copy of " + url);
+                try (InputStream body = cached.openBody()) {
+                    return readBodiesInChunks(body, Math.max(1, chunkSize), chunkConsumer);
+                }
+            }
+            try (InputStream body = response.statusCode() == 200
+                    ? responseCache.teeToCache(url, response.body(), etagOf(response), lastModifiedOf(response))
+                    : response.body()) {
+                if (response.statusCode() != 200) {
+                    logger.warning("Unexpected response code: " + response.statusCode());
+                    return -1;
+                }
+                return readBodiesInChunks(body, Math.max(1, chunkSize), chunkConsumer);
+            }
+        } catch (CompletionException e) {
+            logger.severe("Error streaming data: " + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+            return -1;
+        } catch (IOException e) {
+            logger.severe("Error streaming data: " + e.getMessage());
+            throw new RuntimeException(e);
+        }
+    }
+
+    private long readBodiesInChunks(InputStream body, int chunkSize, Consumer<List<SolarBodies>> chunkConsumer) throws IOException {
+        long count = 0;
+        try (JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!"bodies".equals(reader.nextName()) || reader.peek() != JsonToken.BEGIN_ARRAY) {
+                    reader.skipValue();
+                    continue;
+                }
+                List<SolarBodies> chunk = new ArrayList<>(chunkSize);
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    chunk.add(SolarBodiesCodec.readSolarBody(reader));
+                    count++;
+                    if (chunk.size() >= chunkSize) {
+                        chunkConsumer.accept(chunk);
+                        chunk = new ArrayList<>(chunkSize);
+                    }
+                }
+                reader.endArray();
+                if (!chunk.isEmpty()) {
+                    chunkConsumer.accept(chunk);
+                }
+            }
+            reader.endObject();
+            // reszta po ostatnim nawiasie (np. białe znaki) – teeToCache zapisuje wpis tylko po dojściu do końca
+            body.transferTo(OutputStream.nullOutputStream());
+        }
+        logger.info("streamAllSolarBodies(): parsed " + count + " bodies");
+        return count;
+    }
+
+    // ---------------------- WARSTWA ODPORNOŚCI (retry / redirect / circuit breaker / hedging) ----------------------
+
+    /**
+     * Wysyła zapytanie i zwraca "ostateczną" odpowiedź: 2xx/304/4xx (poza 429) po ewentualnych
+     * przekierowaniach i ponowieniach. 5xx/429/błędy sieci są ponawiane z backoffem – opóźnienie
+     * realizuje CompletableFuture.delayedExecutor, więc żaden wątek nie jest usypiany.
+     * Gdy circuit breaker hosta jest otwarty, future od razu kończy się UpstreamException.
+     * Każda próba (także ponowienie) pobiera token z TokenBucketRateLimiter.
+     */
+    private <B> CompletableFuture<HttpResponse<B>> execute(Call<B> call) {
+        URI uri;
+        try {
+            uri = new URI(call.url());
+        } catch (URISyntaxException e) {
+            return CompletableFuture.failedFuture(
+                    new UpstreamException(call.url(), -1, false, "Invalid URL: " + call.url(), e));
+        }
+        CircuitBreaker breaker = resilience.breakerFor(uri);
+        if (!breaker.tryAcquire()) {
+            resilience.recordRejected();
+            return CompletableFuture.failedFuture(UpstreamException.circuitOpen(call.url(), uri.getHost()));
+        }
+        HttpRequest request = buildRequest(uri, call.cached());
+        // limit QPS: czekamy na token bez blokowania wątku, dopiero potem wysyłamy
+        CompletableFuture<Void> permit = rateLimiter.acquire();
+        if (permit.isCompletedExceptionally()) {
+            // lokalne przeciążenie, nie błąd hosta – bez ponowień i bez wpływu na circuit breaker
+            breaker.release();
+            return CompletableFuture.failedFuture(UpstreamException.rateLimited(call.url()));
+        }
+        return permit
+                .thenCompose(ignored -> {
+                    resilience.recordRequest();
+                    return send(request, call.handler(), call.hedge());
+                })
+                .handle((response, error) -> onResponse(call, uri, breaker, response, error))
+                .thenCompose(next -> next);
+    }
+
+    private <B> CompletableFuture<HttpResponse<B>> onResponse(Call<B> call, URI uri, CircuitBreaker breaker,
+                                                              HttpResponse<B> response, Throwable error) {
+        if (error != null) {
+            breaker.recordFailure();
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            return retryOrFail(call, null,
+                    new UpstreamException(call.url(), -1, true, "I/O error for " + call.url() + ": " + cause.getMessage(), cause));
+        }
+        int statusCode = response.statusCode();
+        if (UpstreamResilience.isRedirect(statusCode)) {
+            breaker.recordSuccess();
+            discard(response);
+            Optional<String> location = response.headers().firstValue("Location");
+            if (location.isEmpty() || call.redirects() >= resilience.getMaxRedirects()) {
+                resilience.recordFailure();
+                return CompletableFuture.failedFuture(new UpstreamException(call.url(), statusCode, false,
+                        "Cannot follow redirect from " + call.url() + " (location=" + location.orElse("none")
+                                + ", redirects=" + call.redirects() + ")"));
+            }
+            String target = uri.resolve(location.get()).toString();
+            resilience.recordRedirect();
+            logger.info("Following " + statusCode + " redirect: " + call.url() + " -> " + target);
+            return execute(call.redirectTo(target));
+        }
+        if (UpstreamResilience.isRetryable(statusCode)) {
+            breaker.recordFailure();
+            discard(response);
+            return retryOrFail(call, response,
+                    new UpstreamException(call.url(), statusCode, true, "Unexpected response code: " + statusCode + " for " + call.url()));
+        }
+        breaker.recordSuccess();
+        return CompletableFuture.completedFuture(response);
+    }
+
+    private <B> CompletableFuture<HttpResponse<B>> retryOrFail(Call<B> call, HttpResponse<?> response, UpstreamException failure) {
+        if (call.attempt() >= resilience.getMaxAttempts()) {
+            resilience.recordFailure();
+            logger.warning("Giving up on " + call.url() + " after " + call.attempt() + " attempts: " + failure.getMessage());
+            return CompletableFuture.failedFuture(failure);
+        }
+        long delay = resilience.backoffMillis(call.attempt(), response);
+        resilience.recordRetry();
+        logger.warning(failure.getMessage() + " (attempt " + call.attempt() + "/" + resilience.getMaxAttempts()
+                + "), retrying in " + delay + " ms");
+        return CompletableFuture
+                .runAsync(() -> { }, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                .thenCompose(ignored -> execute(call.nextAttempt()));
+    }
+
+    /**
+     * Wysyła zapytanie; przy włączonym hedgingu, jeśli odpowiedź nie przyjdzie w ciągu hedge.delay-ms,
+     * wysyła drugą kopię i bierze tę, która wróci pierwsza (tylko GET, więc to bezpieczne).
+     * Kopia też liczy się do limitu QPS – idzie tylko wtedy, gdy token jest dostępny od razu.
+     */
+    private <B> CompletableFuture<HttpResponse<B>> send(HttpRequest request, HttpResponse.BodyHandler<B> handler, boolean hedge) {
+        CompletableFuture<HttpResponse<B>> primary = client.sendAsync(request, handler);
+        if (!hedge || !resilience.isHedgingEnabled()) {
+            return primary;
+        }
+        CompletableFuture<HttpResponse<B>> result = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        primary.whenComplete((response, error) -> {
+            if (error == null) {
+                if (!result.complete(response)) {
+                    discard(response);
+                }
+            } else if (outstanding.decrementAndGet() == 0) {
+                result.completeExceptionally(error);
+            }
+        });
+        CompletableFuture.delayedExecutor(resilience.getHedgeDelayMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            if (!rateLimiter.tryAcquire()) {
+                resilience.recordHedgeSkipped();
+                return;
+            }
+            outstanding.incrementAndGet();
+            resilience.recordHedgeSent();
+            client.sendAsync(request, handler).whenComplete((response, error) -> {
+                if (error == null) {
+                    if (result.complete(response)) {
+                        resilience.recordHedgeWon();
+                    } else {
+                        discard(response);
+                    }
+                } else if (outstanding.decrementAndGet() == 0) {
+                    result.completeExceptionally(error);
+                }
+            });
+        });
+        return result;
+    }
+
+    private static void discard(HttpResponse<?> response) {
+        if (response != null && response.body() instanceof InputStream inputStream) {
+            try {
+                inputStream.close();
+            } catch (IOException ignored) {
+                // odpowiedź i tak jest porzucana
+            }
+        }
+    }
+
+    // ---------------------- CACHE ----------------------
+
+    /**
+     * Buduje GET z nagłówkami warunkowymi, jeśli mamy już odpowiedź w cache.
+     */
+    private HttpRequest buildRequest(URI uri, UpstreamResponseCache.CachedResponse cached) {
+        var builder = HttpRequest
+                .newBuilder()
+                .uri(uri)
+                .timeout(resilience.getRequestTimeout())
+                .GET()
+                .header("Accept", "application/json");
+        if (cached != null) {
+            if (cached.etag() != null) {
+                builder.header("If-None-Match", cached.etag());
+            }
+            if (cached.lastModified() != null) {
+                builder.header("If-Modified-Since", cached.lastModified());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * 200 – zapisuje bajty do cache i je zwraca; 304 – zwraca zapisaną wcześniej kopię;
+     * pozostałe kody – surowe body (do logowania).
+     */
+    private String resolveBody(String url, HttpResponse<byte[]> response, UpstreamResponseCache.CachedResponse cached) throws IOException {
+        if (response.statusCode() == 304 && cached != null) {
+            responseCache.markRevalidated();
+            return new String(cached.body(), StandardCharsets.UTF_8);
+        }
+        if (response.statusCode() == 200) {
+            responseCache.put(url, response.body(), etagOf(response), lastModifiedOf(response));
+        }
+        return response.body() != null ? new String(response.body(), StandardCharsets.UTF_8) : null;
+    }
+
+    private String readCachedOffline(String url, UpstreamResponseCache.CachedResponse cached) throws IOException {
+        if (cached == null) {
+            logger.warning("Offline mode - no cached response for " + url);
+            return null;
+        }
+        responseCache.markServedOffline();
+        return new String(cached.body(), StandardCharsets.UTF_8);
+    }
+
+    private static String etagOf(HttpResponse<?> response) {
+        return response.headers().firstValue("ETag").orElse(null);
+    }
+
+    private static String lastModifiedOf(HttpResponse<?> response) {
+        return response.headers().firstValue("Last-Modified").orElse(null);
+    }
+
     public static String encodeValue(String value) {
         return URLEncoder.encode(value, StandardCharsets.UTF_8);
     }
 }
-
@@ -0,0 +1,262 @@
+package org.example.solarapi.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Uzupełnia Moons.moon_body_id – bezpośrednie powiązanie księżyca z jego własnym rekordem w Solar_Bodies.
+ * Dopasowanie po id z API (ostatni segment "rel" = external_id) albo po nazwie (moon = english_name),
+ * tak samo jak w changesecie 09. Dotyka tylko wierszy, które jeszcze nie mają powiązania.
+ */
+@Component
+@Profile("!snapshot")
+public class MoonLinkBackfill {
+
+    private static final Logger logger = Logger.getLogger(MoonLinkBackfill.class.getName());
+
+    // ile wartości w jednym IN (...) / CASE
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String UNLINKED_MOONS_SQL = "SELECT id, moon, rel FROM Moons WHERE moon_body_id IS NULL";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private SecondLevelCacheService secondLevelCacheService;
+
+    @Autowired
+    private SolarBodyDtoCache solarBodyDtoCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // jeden wątek wystarczy – to krótkie UPDATE-y po kluczu głównym
+    private ExecutorService linkExecutor;
+
+    @PostConstruct
+    void startLinkExecutor() {
+        linkExecutor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(100),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "moon-link");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stopLinkExecutor() {
+        linkExecutor.shutdown();
+    }
+
+    /**
+     * Pełny backfill (po synchronizacji). Zwraca liczbę podpiętych księżyców.
+     * Zamiast skorelowanego podzapytania z LIKE (moons × bodies, bez indeksu): niepodpięte księżyce
+     * (idx_moons_moon_body_id), id z "rel" wyciągnięte w Javie i dwa zapytania IN po unikalnych
+     * external_id / english_name, a na koniec UPDATE po kluczu głównym.
+     */
+    public int backfill() {
+        Map<Long, String> externalIds = new LinkedHashMap<>();
+        Map<Long, String> names = new LinkedHashMap<>();
+        int[] unlinked = {0};
+        jdbcTemplate.query(UNLINKED_MOONS_SQL, rs -> {
+            unlinked[0]++;
+            long moonId = rs.getLong("id");
+            String externalId = externalIdFromRel(rs.getString("rel"));
+            if (externalId != null) {
+                externalIds.put(moonId, externalId);
+            }
+            if (rs.getString("moon") != null) {
+                names.put(moonId, rs.getString("moon"));
+            }
+        });
+
+        Map<String, Long> bodiesByExternalId = bodyIds("external_id", externalIds.values());
+        Map<String, Long> bodiesByName = bodyIds("english_name", names.values());
+        // jak lookupMoon: najpierw id z API, potem nazwa
+        Map<Long, Long> links = new LinkedHashMap<>();
+        externalIds.forEach((moonId, externalId) -> {
+            Long bodyId = bodiesByExternalId.get(key(externalId));
+            if (bodyId != null) {
+                links.put(moonId, bodyId);
+            }
+        });
+        names.forEach((moonId, name) -> {
+            Long bodyId = bodiesByName.get(key(name));
+            if (bodyId != null) {
+                links.putIfAbsent(moonId, bodyId);
+            }
+        });
+
+        int rows = linkMoons(links);
+        logger.info("Moon link backfill linked " + rows + " of " + unlinked[0] + " unlinked moons");
+        if (rows > 0) {
+            secondLevelCacheService.evictCatalogAfterCommit();
+            solarBodyDtoCache.invalidateAllAfterCommit();
+        }
+        return rows;
+    }
+
+    /**
+     * Podpina pod właśnie zapisane ciało te księżyce, które na nie wskazują (np. po fetchAndSaveByRel).
+     * Bez "rel LIKE '%/id'" (skan całej tabeli, a "_" i "%" w id działałyby jak wzorzec): tak jak w backfill()
+     * czytamy tylko niepodpięte księżyce, id z "rel" porównujemy w Javie, a zapis idzie po kluczu głównym.
+     */
+    public int linkBody(Long bodyId, String englishName, String externalId) {
+        if (bodyId == null || (englishName == null && externalId == null)) {
+            return 0;
+        }
+        String externalIdKey = externalId != null ? key(externalId) : null;
+        String nameKey = englishName != null ? key(englishName) : null;
+        Map<Long, Long> links = new LinkedHashMap<>();
+        jdbcTemplate.query(UNLINKED_MOONS_SQL, rs -> {
+            String moonExternalId = externalIdFromRel(rs.getString("rel"));
+            String moon = rs.getString("moon");
+            if ((externalIdKey != null && moonExternalId != null && externalIdKey.equals(key(moonExternalId)))
+                    || (nameKey != null && moon != null && nameKey.equals(key(moon)))) {
+                links.put(rs.getLong("id"), bodyId);
+            }
+        });
+        int rows = linkMoons(links);
+        if (rows > 0) {
+            secondLevelCacheService.evictCatalogAfterCommit();
+            solarBodyDtoCache.invalidateAllAfterCommit();
+        }
+        return rows;
+    }
+
+    /**
+     * Podpięcie księżyców znalezionych przy odczycie (GET). Odczyt idzie w transakcji read-only (replika),
+     * więc UPDATE trafia na osobny wątek po jej zakończeniu, we własnej transakcji na primary.
+     * DTO się przez to nie zmienia (odczyt już zwrócił rozwinięte księżyce), więc cache DTO zostaje –
+     * z L2 zdejmujemy tylko podpięte wiersze Moon. Pełna kolejka = pomijamy; spróbuje następny odczyt albo backfill.
+     */
+    public void linkMoonsAfterCommit(Map<Long, Long> links) {
+        Map<Long, Long> copy = Map.copyOf(links);
+        Runnable submit = () -> {
+            try {
+                linkExecutor.execute(() -> linkMoonsNow(copy));
+            } catch (RejectedExecutionException e) {
+                logger.fine("Moon link queue full, skipping " + copy.size() + " links");
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit.run();
+                }
+            });
+        } else {
+            submit.run();
+        }
+    }
+
+    private void linkMoonsNow(Map<Long, Long> links) {
+        try {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            Integer rows = transactionTemplate.execute(status -> {
+                int linked = linkMoons(links);
+                if (linked > 0) {
+                    secondLevelCacheService.evictMoonsAfterCommit(links.keySet());
+                }
+                return linked;
+            });
+            logger.fine("Linked " + rows + " moons found on read");
+        } catch (RuntimeException e) {
+            logger.warning("Linking " + links.size() + " moons failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Jeden UPDATE ... CASE id na paczkę: id księżyca (Moons.id) -> id jego rekordu w Solar_Bodies.
+     * Bez czyszczenia cache – to robi wołający.
+     */
+    int linkMoons(Map<Long, Long> links) {
+        List<Map.Entry<Long, Long>> entries = new ArrayList<>(links.entrySet());
+        int rows = 0;
+        for (int from = 0; from < entries.size(); from += CHUNK_SIZE) {
+            List<Map.Entry<Long, Long>> chunk = entries.subList(from, Math.min(from + CHUNK_SIZE, entries.size()));
+            StringBuilder sql = new StringBuilder("UPDATE Moons SET moon_body_id = CASE id");
+            List<Object> args = new ArrayList<>(chunk.size() * 3);
+            for (Map.Entry<Long, Long> link : chunk) {
+                sql.append(" WHEN ? THEN ?");
+                args.add(link.getKey());
+                args.add(link.getValue());
+            }
+            sql.append(" END WHERE moon_body_id IS NULL AND id IN (")
+                    .append(String.join(", ", Collections.nCopies(chunk.size(), "?")))
+                    .append(')');
+            chunk.forEach(link -> args.add(link.getKey()));
+            rows += jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+        return rows;
+    }
+
+    // wartość kolumny (małymi literami) -> id_number; kolumna musi być unikalna i zaindeksowana
+    private Map<String, Long> bodyIds(String column, Collection<String> values) {
+        List<String> distinct = values.stream().distinct().toList();
+        Map<String, Long> ids = new HashMap<>();
+        for (int from = 0; from < distinct.size(); from += CHUNK_SIZE) {
+            namedParameterJdbcTemplate.query(
+                    "SELECT id_number, " + column + " FROM Solar_Bodies WHERE " + column + " IN (:values)",
+                    new MapSqlParameterSource("values", distinct.subList(from, Math.min(from + CHUNK_SIZE, distinct.size()))),
+                    rs -> {
+                        ids.putIfAbsent(key(rs.getString(column)), rs.getLong("id_number"));
+                    });
+        }
+        return ids;
+    }
+
+    /**
+     * "https://api.le-systeme-solaire.net/rest/bodies/lune" -> "lune" (id ciała w API = external_id).
+     */
+    static String externalIdFromRel(String rel) {
+        if (rel == null || rel.isBlank()) {
+            return null;
+        }
+        String path = rel.trim();
+        while (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        int slash = path.lastIndexOf('/');
+        String id = slash >= 0 ? path.substring(slash + 1) : path;
+        return id.isEmpty() ? null : URLDecoder.decode(id, StandardCharsets.UTF_8);
+    }
+
+    private static String key(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
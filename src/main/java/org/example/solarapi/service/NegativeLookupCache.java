@@ -0,0 +1,114 @@
+package org.example.solarapi.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Pamięć nieudanych zapytań o szczegóły ciała (klucz: URL w API), współdzielona przez wszystkie
+ * ścieżki pobierania (po nazwie, po rel, synchronizacja) – zastępuje dawny HashSet alreadyFailedNames.
+ * NOT_FOUND (404, puste body, odpowiedź nie do ponowienia) trzymamy długo – nazwa raczej się nie pojawi.
+ * TRANSIENT (5xx, timeout, otwarty circuit breaker) tylko chwilę – żeby nie dobijać API
+ * lawiną powtórek tej samej porażki, ale szybko dać szansę kolejnej próbie.
+ */
+@Component
+public class NegativeLookupCache {
+
+    private static final Logger logger = Logger.getLogger(NegativeLookupCache.class.getName());
+
+    public enum Reason {
+        NOT_FOUND,
+        TRANSIENT
+    }
+
+    private final BoundedTtlCache<String, Reason> cache;
+    private final boolean enabled;
+    private final long notFoundTtlMillis;
+    private final long transientTtlMillis;
+
+    private final AtomicLong notFoundHits = new AtomicLong();
+    private final AtomicLong transientHits = new AtomicLong();
+
+    public NegativeLookupCache(@Value("${solar.negative-cache.enabled:true}") boolean enabled,
+                               @Value("${solar.negative-cache.max-size:2000}") int maxSize,
+                               @Value("${solar.negative-cache.not-found-ttl-ms:21600000}") long notFoundTtlMillis,
+                               @Value("${solar.negative-cache.transient-ttl-ms:30000}") long transientTtlMillis) {
+        this.enabled = enabled;
+        this.cache = new BoundedTtlCache<>(maxSize);
+        this.notFoundTtlMillis = notFoundTtlMillis;
+        this.transientTtlMillis = transientTtlMillis;
+    }
+
+    /**
+     * Zwraca powód, dla którego ostatnio nie udało się pobrać tego adresu, albo null (trzeba pytać API).
+     */
+    public Reason check(String url) {
+        if (!enabled || url == null) {
+            return null;
+        }
+        Reason reason = cache.get(keyFor(url));
+        if (reason == Reason.NOT_FOUND) {
+            notFoundHits.incrementAndGet();
+        } else if (reason == Reason.TRANSIENT) {
+            transientHits.incrementAndGet();
+        }
+        return reason;
+    }
+
+    public void recordNotFound(String url) {
+        if (enabled && url != null) {
+            cache.put(keyFor(url), Reason.NOT_FOUND, notFoundTtlMillis);
+        }
+    }
+
+    /**
+     * Zapamiętuje błąd – błąd przejściowy na krótko, błąd, którego ponawianie nic nie da, jak NOT_FOUND.
+     */
+    public void recordFailure(String url, Throwable error) {
+        if (!enabled || url == null) {
+            return;
+        }
+        boolean isTransient = !(error instanceof UpstreamException upstreamException) || upstreamException.isTransientFailure();
+        if (isTransient) {
+            cache.put(keyFor(url), Reason.TRANSIENT, transientTtlMillis);
+        } else {
+            logger.info("Remembering permanent upstream failure for " + url + ": " + error.getMessage());
+            cache.put(keyFor(url), Reason.NOT_FOUND, notFoundTtlMillis);
+        }
+    }
+
+    /**
+     * Usuwa wpis – np. gdy ciało zostało jednak pobrane albo dodane ręcznie.
+     */
+    public void invalidate(String url) {
+        if (url != null) {
+            cache.invalidate(keyFor(url));
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.putAll(cache.snapshot());
+        snapshot.put("notFoundHits", notFoundHits.get());
+        snapshot.put("transientHits", transientHits.get());
+        snapshot.put("notFoundTtlMs", notFoundTtlMillis);
+        snapshot.put("transientTtlMs", transientTtlMillis);
+        return snapshot;
+    }
+
+    // "https://api.../bodies/Lune/" i "https://api.../bodies/lune" to ten sam zasób
+    private static String keyFor(String url) {
+        String key = url.trim().toLowerCase(Locale.ROOT);
+        return key.endsWith("/") ? key.substring(0, key.length() - 1) : key;
+    }
+}
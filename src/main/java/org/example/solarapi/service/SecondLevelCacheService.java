@@ -0,0 +1,139 @@
+package org.example.solarapi.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.solarapi.model.Moon;
+import org.example.solarapi.model.SolarBodies;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Cache drugiego poziomu Hibernate dla katalogu (SolarBodies, Moon, kolekcja moons, natural-id englishName).
+ * Zapisy przez JPA (PUT/PATCH/DELETE, delta sync, fetchAndSave...) Hibernate unieważnia sam.
+ * Zapisy z pominięciem Hibernate (SolarBodiesBulkWriter, MoonLinkBackfill) muszą wołać evictCatalogAfterCommit –
+ * czyszczenie dopiero po commicie, żeby równoległy odczyt nie wrzucił z powrotem starych danych.
+ */
+@Component
+@Profile("!snapshot")
+public class SecondLevelCacheService {
+
+    private static final Logger logger = Logger.getLogger(SecondLevelCacheService.class.getName());
+
+    private static final String MOONS_COLLECTION_ROLE = SolarBodies.class.getName() + ".moons";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Czyści regiony katalogu po zatwierdzeniu bieżącej transakcji (albo od razu, jeśli jej nie ma).
+     */
+    public void evictCatalogAfterCommit() {
+        afterCommit(this::evictCatalog);
+    }
+
+    /**
+     * Czyści po commicie tylko wpisy podanych ciał (np. po UPDATE samego last_fetched_at) –
+     * reszta katalogu, kolekcje księżyców i regiony zapytań zostają.
+     */
+    public void evictBodiesAfterCommit(Collection<Long> ids) {
+        List<Long> copy = List.copyOf(ids);
+        afterCommit(() -> evictBodies(copy));
+    }
+
+    public void evictBodies(Collection<Long> ids) {
+        Cache cache = sessionFactory().getCache();
+        for (Long id : ids) {
+            cache.evictEntityData(SolarBodies.class, id);
+        }
+        logger.fine("Second-level cache: " + ids.size() + " SolarBodies entries evicted");
+    }
+
+    /**
+     * Po podpięciu księżyców (moon_body_id) – zmieniły się tylko te wiersze Moon.
+     */
+    public void evictMoonsAfterCommit(Collection<Long> moonIds) {
+        List<Long> copy = List.copyOf(moonIds);
+        afterCommit(() -> {
+            Cache cache = sessionFactory().getCache();
+            copy.forEach(id -> cache.evictEntityData(Moon.class, id));
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public void evictCatalog() {
+        Cache cache = sessionFactory().getCache();
+        cache.evictEntityData(SolarBodies.class);
+        cache.evictEntityData(Moon.class);
+        cache.evictCollectionData(MOONS_COLLECTION_ROLE);
+        cache.evictNaturalIdData(SolarBodies.class);
+        cache.evictQueryRegions();
+        logger.fine("Second-level cache: catalog regions evicted");
+    }
+
+    /**
+     * Trafienia/chybienia całego cache i per region (do /api/diagnostics/cache).
+     * Wymaga hibernate.generate_statistics=true – inaczej liczniki stoją na zerze.
+     */
+    public Map<String, Object> snapshot() {
+        Statistics statistics = sessionFactory().getStatistics();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        snapshot.put("hits", statistics.getSecondLevelCacheHitCount());
+        snapshot.put("misses", statistics.getSecondLevelCacheMissCount());
+        snapshot.put("puts", statistics.getSecondLevelCachePutCount());
+        snapshot.put("hitRate", hitRate(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount()));
+        snapshot.put("naturalIdHits", statistics.getNaturalIdCacheHitCount());
+        snapshot.put("naturalIdMisses", statistics.getNaturalIdCacheMissCount());
+        snapshot.put("naturalIdHitRate", hitRate(statistics.getNaturalIdCacheHitCount(), statistics.getNaturalIdCacheMissCount()));
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(regionName);
+            if (region == null) {
+                continue;
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("hits", region.getHitCount());
+            stats.put("misses", region.getMissCount());
+            stats.put("puts", region.getPutCount());
+            stats.put("hitRate", hitRate(region.getHitCount(), region.getMissCount()));
+            stats.put("elements", region.getElementCountInMemory());
+            regions.put(regionName, stats);
+        }
+        snapshot.put("regions", regions);
+        return snapshot;
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    private static double hitRate(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
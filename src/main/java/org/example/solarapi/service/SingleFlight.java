@@ -0,0 +1,55 @@
+package org.example.solarapi.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Deduplikacja równoległych operacji o tym samym kluczu ("single flight").
+ * Pierwszy wywołujący (leader) uruchamia operację, kolejni – dopóki trwa – dostają ten sam
+ * CompletableFuture. Po zakończeniu klucz jest zwalniany, więc następne wywołanie startuje od nowa.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong leaders = new AtomicLong();
+    private final AtomicLong followers = new AtomicLong();
+
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> operation) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            followers.incrementAndGet();
+            return existing;
+        }
+        leaders.incrementAndGet();
+        try {
+            operation.get().whenComplete((value, error) -> {
+                // najpierw zwolnij klucz, dopiero potem obudź czekających
+                inFlight.remove(key, created);
+                if (error != null) {
+                    created.completeExceptionally(error);
+                } else {
+                    created.complete(value);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    public long getLeaders() {
+        return leaders.get();
+    }
+
+    public long getFollowers() {
+        return followers.get();
+    }
+}
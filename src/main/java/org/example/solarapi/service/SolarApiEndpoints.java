@@ -0,0 +1,27 @@
+package org.example.solarapi.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adresy zasobów API api.le-systeme-solaire.net – jedno miejsce dla solar.api.base-url,
+ * wspólne dla odczytu pojedynczych ciał, dociągania brakujących i synchronizacji.
+ */
+@Component
+public class SolarApiEndpoints {
+
+    // Adres zasobu /rest/bodies/ w API (w testach – wbudowana atrapa API)
+    @Value("${solar.api.base-url:https://api.le-systeme-solaire.net/rest/bodies/}")
+    private String bodiesUrl;
+
+    public String getBodiesUrl() {
+        return bodiesUrl;
+    }
+
+    /**
+     * Szczegóły jednego ciała: /rest/bodies/{nazwa małymi literami, zakodowana do URL}.
+     */
+    public String bodyUrl(String name) {
+        return bodiesUrl + HttpClientService.encodeValue(name.toLowerCase());
+    }
+}
@@ -0,0 +1,341 @@
+package org.example.solarapi.service;
+
+import org.example.solarapi.model.Moon;
+import org.example.solarapi.model.SolarBodies;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Masowy zapis ciał i księżyców z API bezpośrednio przez JDBC – z pominięciem encji JPA.
+ * Encje mają GenerationType.IDENTITY, przez co Hibernate nie grupuje INSERT-ów w batche,
+ * a ścieżka JPA robiła findByEnglishName + save dla każdego ciała osobno.
+ * Tutaj każda paczka (solar.sync.bulk.chunk-size ciał, jedna transakcja) to stała liczba zapytań:
+ * - SELECT istniejących ciał paczki (id, content_hash),
+ * - jeden batch INSERT ... ON DUPLICATE KEY UPDATE dla nowych/zmienionych ciał
+ *   (z rewriteBatchedStatements=true sterownik MySQL wysyła go jako jeden wielowierszowy INSERT),
+ * - jeden UPDATE last_fetched_at dla niezmienionych,
+ * - SELECT id nowych ciał i ich obecnych księżyców,
+ * - batch INSERT ... ON DUPLICATE KEY UPDATE nowych/zmienionych księżyców i jeden DELETE tych, które zniknęły z API.
+ * Kluczem jest unikalne english_name (oraz external_id = "id" z API), dla księżyców (solar_bodies_id, moon).
+ */
+@Component
+@Profile("!snapshot")
+public class SolarBodiesBulkWriter {
+
+    private static final Logger logger = Logger.getLogger(SolarBodiesBulkWriter.class.getName());
+
+    private record Column(String name, int sqlType, Function<SolarBodies, Object> value) {
+    }
+
+    private static final List<Column> BODY_COLUMNS = List.of(
+            new Column("external_id", Types.VARCHAR, SolarBodies::getExternalId),
+            new Column("english_name", Types.VARCHAR, SolarBodies::getEnglishName),
+            new Column("body_type", Types.VARCHAR, SolarBodies::getBodyType),
+            new Column("is_planet", Types.BOOLEAN, SolarBodies::isPlanet),
+            new Column("semimajor_axis", Types.BIGINT, SolarBodies::getSemimajorAxis),
+            new Column("perihelion", Types.BIGINT, SolarBodies::getPerihelion),
+            new Column("aphelion", Types.BIGINT, SolarBodies::getAphelion),
+            new Column("eccentricity", Types.DOUBLE, SolarBodies::getEccentricity),
+            new Column("inclination", Types.DOUBLE, SolarBodies::getInclination),
+            new Column("mass_value", Types.DOUBLE, body -> body.getMass() != null ? body.getMass().getMassValue() : null),
+            new Column("mass_exponent", Types.INTEGER, body -> body.getMass() != null ? body.getMass().getMassExponent() : null),
+            new Column("mass_kg", Types.DOUBLE, body -> body.getMass() != null ? body.getMass().toKilograms() : null),
+            new Column("vol_value", Types.DOUBLE, body -> body.getVol() != null ? body.getVol().getVolValue() : null),
+            new Column("vol_exponent", Types.INTEGER, body -> body.getVol() != null ? body.getVol().getVolExponent() : null),
+            new Column("gravity", Types.DOUBLE, SolarBodies::getGravity),
+            new Column("escape", Types.DOUBLE, SolarBodies::getEscape),
+            new Column("mean_radius", Types.DOUBLE, SolarBodies::getMeanRadius),
+            new Column("equa_radius", Types.DOUBLE, SolarBodies::getEquaRadius),
+            new Column("polar_radius", Types.DOUBLE, SolarBodies::getPolarRadius),
+            new Column("sideral_orbit", Types.DOUBLE, SolarBodies::getSideralOrbit),
+            new Column("sideral_rotation", Types.DOUBLE, SolarBodies::getSideralRotation),
+            new Column("discovered_by", Types.VARCHAR, SolarBodies::getDiscoveredBy),
+            new Column("discovery_date", Types.VARCHAR, SolarBodies::getDiscoveryDate),
+            new Column("alternative_name", Types.VARCHAR, SolarBodies::getAlternativeName),
+            new Column("axial_tilt", Types.DOUBLE, SolarBodies::getAxialTilt),
+            new Column("avg_temp", Types.DOUBLE, SolarBodies::getAvgTemp),
+            new Column("moon_count", Types.INTEGER, SolarBodies::getMoonCount),
+            new Column("content_hash", Types.VARCHAR, SolarBodies::getContentHash),
+            new Column("last_fetched_at", Types.TIMESTAMP,
+                    body -> body.getLastFetchedAt() != null ? Timestamp.from(body.getLastFetchedAt()) : null)
+    );
+
+    private static final String UPSERT_BODY_SQL = "INSERT INTO Solar_Bodies ("
+            + BODY_COLUMNS.stream().map(Column::name).collect(Collectors.joining(", "))
+            + ") VALUES ("
+            + BODY_COLUMNS.stream().map(column -> "?").collect(Collectors.joining(", "))
+            + ") ON DUPLICATE KEY UPDATE "
+            + BODY_COLUMNS.stream().map(column -> column.name() + " = VALUES(" + column.name() + ")").collect(Collectors.joining(", "));
+
+    private static final String UPSERT_MOON_SQL = "INSERT INTO Moons (solar_bodies_id, moon, original_name, rel) VALUES (?, ?, ?, ?)"
+            + " ON DUPLICATE KEY UPDATE original_name = VALUES(original_name), rel = VALUES(rel)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SecondLevelCacheService secondLevelCacheService;
+
+    @Autowired
+    private SolarBodyDtoCache solarBodyDtoCache;
+
+    @Value("${solar.sync.bulk.chunk-size:250}")
+    private int chunkSize;
+
+    /**
+     * Wynik zapisu: liczniki jak w delta sync + liczba wysłanych zapytań SQL.
+     */
+    public record Result(int inserted, int updated, int unchanged, int failed, int statements) {
+
+        Result plus(Result other) {
+            return new Result(inserted + other.inserted, updated + other.updated, unchanged + other.unchanged,
+                    failed + other.failed, statements + other.statements);
+        }
+    }
+
+    public int getChunkSize() {
+        return Math.max(1, chunkSize);
+    }
+
+    /**
+     * Zapisuje listę paczkami po chunkSize, każda paczka w osobnej transakcji (REQUIRES_NEW – także wtedy,
+     * gdy wołający ma własną: dołączenie do niej oznaczyłoby ją przy błędzie paczki jako rollback-only
+     * i commit wołającego skończyłby się UnexpectedRollbackException).
+     * Błąd paczki jest logowany i liczony jako failed – nie przerywa pozostałych.
+     * force = true zapisuje ciała nawet wtedy, gdy ich content_hash się nie zmienił.
+     */
+    public Result write(List<SolarBodies> bodies, boolean force) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Result total = new Result(0, 0, 0, 0, 0);
+        int size = getChunkSize();
+        for (int from = 0; from < bodies.size(); from += size) {
+            List<SolarBodies> chunk = bodies.subList(from, Math.min(from + size, bodies.size()));
+            try {
+                total = total.plus(transactionTemplate.execute(status -> writeChunk(chunk, force)));
+            } catch (Exception e) {
+                logger.severe("Bulk upsert of " + chunk.size() + " bodies (starting at "
+                        + chunk.get(0).getEnglishName() + ") failed: " + e.getMessage());
+                total = total.plus(new Result(0, 0, 0, chunk.size(), 0));
+            }
+        }
+        return total;
+    }
+
+    private Result writeChunk(List<SolarBodies> chunk, boolean force) {
+        Instant fetchedAt = Instant.now();
+        int statements = 0;
+
+        // ostatnie wystąpienie nazwy w paczce wygrywa; klucz małymi literami – unikalny klucz w MySQL nie
+        // rozróżnia wielkości liter, więc "EARTH" z API to ten sam wiersz co zapisany "Earth"
+        Map<String, SolarBodies> incoming = new LinkedHashMap<>();
+        for (SolarBodies body : chunk) {
+            if (body.getEnglishName() == null) {
+                logger.warning("Skipping body without englishName: " + body.getExternalId());
+                continue;
+            }
+            if (body.getMoons() == null) {
+                body.setMoons(new HashSet<>());
+            }
+            body.setMoonCount(body.getMoons().size());
+            body.setContentHash(SolarBodyContentHash.of(body));
+            body.setLastFetchedAt(fetchedAt);
+            incoming.put(nameKey(body.getEnglishName()), body);
+        }
+        if (incoming.isEmpty()) {
+            return new Result(0, 0, 0, 0, 0);
+        }
+
+        Map<String, Long> ids = new HashMap<>();
+        Map<String, String> hashes = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+                "SELECT id_number, english_name, content_hash FROM Solar_Bodies WHERE english_name IN (:names)",
+                new MapSqlParameterSource("names", names(incoming.values())),
+                rs -> {
+                    ids.put(nameKey(rs.getString("english_name")), rs.getLong("id_number"));
+                    hashes.put(nameKey(rs.getString("english_name")), rs.getString("content_hash"));
+                });
+        statements++;
+
+        List<SolarBodies> toWrite = new ArrayList<>();
+        List<Long> unchangedIds = new ArrayList<>();
+        int inserted = 0;
+        for (SolarBodies body : incoming.values()) {
+            Long id = ids.get(nameKey(body.getEnglishName()));
+            if (id == null) {
+                toWrite.add(body);
+                inserted++;
+            } else if (force || !body.getContentHash().equals(hashes.get(nameKey(body.getEnglishName())))) {
+                toWrite.add(body);
+            } else {
+                unchangedIds.add(id);
+            }
+        }
+        int updated = toWrite.size() - inserted;
+
+        if (!toWrite.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_BODY_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    SolarBodies body = toWrite.get(i);
+                    for (int c = 0; c < BODY_COLUMNS.size(); c++) {
+                        Column column = BODY_COLUMNS.get(c);
+                        Object value = column.value().apply(body);
+                        if (value == null) {
+                            ps.setNull(c + 1, column.sqlType());
+                        } else {
+                            ps.setObject(c + 1, value, column.sqlType());
+                        }
+                    }
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return toWrite.size();
+                }
+            });
+            statements++;
+        }
+        if (!unchangedIds.isEmpty()) {
+            namedParameterJdbcTemplate.update(
+                    "UPDATE Solar_Bodies SET last_fetched_at = :fetchedAt WHERE id_number IN (:ids)",
+                    new MapSqlParameterSource("ids", unchangedIds).addValue("fetchedAt", Timestamp.from(fetchedAt)));
+            statements++;
+        }
+        if (!toWrite.isEmpty()) {
+            statements += writeMoons(toWrite, ids);
+            // zapis z pominięciem Hibernate – cache drugiego poziomu i cache DTO trzeba wyczyścić ręcznie (po commicie paczki)
+            secondLevelCacheService.evictCatalogAfterCommit();
+            solarBodyDtoCache.invalidateAllAfterCommit();
+        } else if (!unchangedIds.isEmpty()) {
+            // sam last_fetched_at: DTO go nie zawiera, w L2 wystarczy zdjąć te encje
+            secondLevelCacheService.evictBodiesAfterCommit(unchangedIds);
+        }
+        return new Result(inserted, updated, unchangedIds.size(), 0, statements);
+    }
+
+    /**
+     * Różnicowy zapis księżyców zapisanych właśnie ciał: wstawia nowe, poprawia zmienione
+     * (rel / original_name), usuwa te, których API już nie zwraca. Zwraca liczbę zapytań.
+     */
+    private int writeMoons(List<SolarBodies> written, Map<String, Long> ids) {
+        int statements = 0;
+        List<String> newNames = written.stream()
+                .map(SolarBodies::getEnglishName)
+                .filter(name -> !ids.containsKey(nameKey(name)))
+                .toList();
+        if (!newNames.isEmpty()) {
+            namedParameterJdbcTemplate.query(
+                    "SELECT id_number, english_name FROM Solar_Bodies WHERE english_name IN (:names)",
+                    new MapSqlParameterSource("names", newNames),
+                    rs -> {
+                        ids.put(nameKey(rs.getString("english_name")), rs.getLong("id_number"));
+                    });
+            statements++;
+        }
+
+        List<Long> bodyIds = written.stream()
+                .map(body -> ids.get(nameKey(body.getEnglishName())))
+                .filter(Objects::nonNull)
+                .toList();
+        if (bodyIds.isEmpty()) {
+            return statements;
+        }
+
+        // obecne księżyce: id ciała -> (klucz księżyca -> [id, rel, original_name])
+        Map<Long, Map<String, Object[]>> stored = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+                "SELECT id, solar_bodies_id, moon, original_name, rel FROM Moons WHERE solar_bodies_id IN (:ids)",
+                new MapSqlParameterSource("ids", bodyIds),
+                rs -> {
+                    stored.computeIfAbsent(rs.getLong("solar_bodies_id"), key -> new HashMap<>())
+                            .put(moonKey(rs.getString("moon")),
+                                    new Object[]{rs.getLong("id"), rs.getString("rel"), rs.getString("original_name")});
+                });
+        statements++;
+
+        List<Object[]> upserts = new ArrayList<>();
+        List<Long> toDelete = new ArrayList<>();
+        for (SolarBodies body : written) {
+            Long bodyId = ids.get(nameKey(body.getEnglishName()));
+            if (bodyId == null) {
+                continue;
+            }
+            Map<String, Object[]> current = stored.getOrDefault(bodyId, Map.of());
+            Set<String> seen = new HashSet<>();
+            for (Moon moon : body.getMoons()) {
+                String key = moonKey(moon.getMoon());
+                if (!seen.add(key)) {
+                    continue;
+                }
+                Object[] row = current.get(key);
+                if (row == null || !Objects.equals(row[1], moon.getRel()) || !Objects.equals(row[2], moon.getOriginalName())) {
+                    upserts.add(new Object[]{bodyId, moon.getMoon(), moon.getOriginalName(), moon.getRel()});
+                }
+            }
+            current.forEach((key, row) -> {
+                if (!seen.contains(key)) {
+                    toDelete.add((Long) row[0]);
+                }
+            });
+        }
+
+        if (!upserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_MOON_SQL, upserts,
+                    new int[]{Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR});
+            statements++;
+        }
+        if (!toDelete.isEmpty()) {
+            namedParameterJdbcTemplate.update("DELETE FROM Moons WHERE id IN (:ids)", new MapSqlParameterSource("ids", toDelete));
+            statements++;
+        }
+        return statements;
+    }
+
+    private static List<String> names(Collection<SolarBodies> bodies) {
+        return bodies.stream().map(SolarBodies::getEnglishName).toList();
+    }
+
+    // klucz map po english_name – jak w SolarBodyDtoCache
+    private static String nameKey(String englishName) {
+        return englishName.toLowerCase(Locale.ROOT);
+    }
+
+    private static String moonKey(String moonName) {
+        return Objects.toString(moonName, "").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.solarapi.service;
+
+import org.example.solarapi.dto.CatalogFilter;
+import org.example.solarapi.dto.CatalogPage;
+import org.example.solarapi.dto.SolarBodySummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lista katalogu (GET /api/solarbodies): filtry, sortowanie i stronicowanie keyset zamiast OFFSET.
+ * Kolejna strona zaczyna się za ostatnim wierszem poprzedniej: "kolumna > ? OR (kolumna = ? AND id > ?)",
+ * więc koszt strony nie rośnie z jej numerem. Każdy klucz sortowania ma indeks (kolumna, id_number)
+ * (changeset 10), przez który idą i zakres z filtra, i ORDER BY ... LIMIT; z filtrem isPlanet / bodyType
+ * – indeksy (is_planet | body_type, kolumna, id_number) z changesetu 11.
+ * Sortowanie pomija wiersze, w których kolumna sortowania jest pusta (NULL nie ma miejsca w kolejności) –
+ * dotyczy to też nazwy.
+ */
+@Service
+@Profile("!snapshot")
+public class SolarBodiesCatalogService {
+
+    private static final String COLUMNS = "id_number, english_name, body_type, is_planet, mean_radius, mass_kg, "
+            + "semimajor_axis, eccentricity, avg_temp, moon_count";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${solar.catalog.default-limit:50}")
+    private int defaultLimit;
+
+    @Value("${solar.catalog.max-limit:500}")
+    private int maxLimit;
+
+    /**
+     * Strona katalogu. IllegalArgumentException = błędne parametry (nieznany sort, zły kursor, limit poza zakresem).
+     */
+    @Transactional(readOnly = true)
+    public CatalogPage list(CatalogFilter filter) {
+        CatalogQuery query = CatalogQuery.parse(filter, defaultLimit, maxLimit);
+        CatalogQuery.SortKey sortKey = query.sortKey();
+        boolean descending = query.descending();
+
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM Solar_Bodies WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (filter.getBodyType() != null) {
+            sql.append(" AND body_type = ?");
+            args.add(filter.getBodyType());
+        }
+        if (filter.getIsPlanet() != null) {
+            sql.append(" AND is_planet = ?");
+            args.add(filter.getIsPlanet());
+        }
+        range(sql, args, "mean_radius", filter.getMinMeanRadius(), filter.getMaxMeanRadius());
+        range(sql, args, "mass_kg", filter.getMinMass(), filter.getMaxMass());
+        range(sql, args, "semimajor_axis", filter.getMinSemimajorAxis(), filter.getMaxSemimajorAxis());
+        range(sql, args, "eccentricity", filter.getMinEccentricity(), filter.getMaxEccentricity());
+        range(sql, args, "avg_temp", filter.getMinAvgTemp(), filter.getMaxAvgTemp());
+        // NULL nie ma miejsca w kolejności (ani w kursorze) – także english_name, która w schemacie może być pusta
+        sql.append(" AND ").append(sortKey.column).append(" IS NOT NULL");
+
+        if (query.cursor() != null) {
+            CatalogQuery.Cursor cursor = query.cursor();
+            // pierwszy warunek sam w sobie jest zakresem na indeksie; drugi odcina wiersze już zwrócone
+            String column = sortKey.column;
+            String op = descending ? "<" : ">";
+            sql.append(" AND ").append(column).append(descending ? " <= ?" : " >= ?")
+                    .append(" AND (").append(column).append(' ').append(op).append(" ? OR id_number ").append(op).append(" ?)");
+            args.add(cursor.value());
+            args.add(cursor.value());
+            args.add(cursor.id());
+        }
+
+        String direction = descending ? " DESC" : " ASC";
+        sql.append(" ORDER BY ").append(sortKey.column).append(direction).append(", id_number").append(direction);
+        // jeden wiersz ponad limit = wiemy, czy jest następna strona, bez COUNT(*)
+        sql.append(" LIMIT ?");
+        args.add(query.limit() + 1);
+
+        return query.page(jdbcTemplate.query(sql.toString(), (rs, rowNum) -> mapRow(rs), args.toArray()));
+    }
+
+    private static void range(StringBuilder sql, List<Object> args, String column, Object min, Object max) {
+        if (min != null) {
+            sql.append(" AND ").append(column).append(" >= ?");
+            args.add(min);
+        }
+        if (max != null) {
+            sql.append(" AND ").append(column).append(" <= ?");
+            args.add(max);
+        }
+    }
+
+    private static CatalogQuery.Row mapRow(ResultSet rs) throws SQLException {
+        SolarBodySummary summary = new SolarBodySummary();
+        summary.setEnglishName(rs.getString("english_name"));
+        summary.setBodyType(rs.getString("body_type"));
+        summary.setPlanet(rs.getBoolean("is_planet"));
+        summary.setMeanRadius(rs.getObject("mean_radius", Double.class));
+        summary.setMassKg(rs.getObject("mass_kg", Double.class));
+        summary.setSemimajorAxis(rs.getObject("semimajor_axis", Long.class));
+        summary.setEccentricity(rs.getObject("eccentricity", Double.class));
+        summary.setAvgTemp(rs.getObject("avg_temp", Double.class));
+        summary.setMoonCount(rs.getObject("moon_count", Integer.class));
+        return new CatalogQuery.Row(rs.getLong("id_number"), summary);
+    }
+}
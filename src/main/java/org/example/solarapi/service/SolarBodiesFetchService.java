@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Logger;
 
 @Service
@@ -17,6 +18,9 @@ public class SolarBodiesFetchService {
     @Autowired
     private HttpClientService<SolarBodies> httpClientService;
 
+    @Autowired
+    private SolarApiEndpoints solarApiEndpoints;
+
     /**
      * Mapa nazw „francuskich / włoskich” -> angielskie odpowiedniki,
      * gdy zewnętrzne API zwraca np. "La Lune" zamiast "Moon".
@@ -46,8 +50,7 @@ public class SolarBodiesFetchService {
         // Ewentualna korekta nazwy (próba w specialNameMap)
         String mappedName = specialNameMap.getOrDefault(englishName, englishName);
 
-        String encodedName = HttpClientService.encodeValue(mappedName.toLowerCase());
-        String url = "https://api.le-systeme-solaire.net/rest/bodies/" + encodedName;
+        String url = solarApiEndpoints.bodyUrl(mappedName);
 
         SolarBodies result = null;
         try {
@@ -95,6 +98,53 @@ public class SolarBodiesFetchService {
         }
     }
 
+    /**
+     * Asynchroniczny odpowiednik fetchByEnglishName – używany przez silnik synchronizacji,
+     * żeby wiele zapytań do API mogło lecieć równolegle.
+     * Future kończy się null, jeśli API nic nie zwróciło.
+     */
+    public CompletableFuture<SolarBodies> fetchByEnglishNameAsync(String englishName) {
+        if (englishName == null || englishName.isBlank()) {
+            logger.warning("englishName is null/blank, skipping fetch.");
+            return CompletableFuture.completedFuture(null);
+        }
+        String mappedName = specialNameMap.getOrDefault(englishName, englishName);
+        String url = solarApiEndpoints.bodyUrl(mappedName);
+
+        return httpClientService.getPlanetDetailsAsync(url, SolarBodies.class)
+                .thenApply(result -> {
+                    if (result == null) {
+                        logger.warning("fetchByEnglishNameAsync - No data returned for " + englishName);
+                    } else {
+                        normalizeMoons(result);
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * Asynchroniczny odpowiednik fetchByRel.
+     */
+    public CompletableFuture<SolarBodies> fetchByRelAsync(String rel) {
+        if (rel == null || rel.isBlank()) {
+            logger.warning("fetchByRelAsync - rel is null/blank.");
+            return CompletableFuture.completedFuture(null);
+        }
+        if (!(rel.startsWith("http://") || rel.startsWith("https://"))) {
+            logger.warning("fetchByRelAsync - rel does not start with http/https: " + rel);
+            return CompletableFuture.completedFuture(null);
+        }
+        return httpClientService.getPlanetDetailsAsync(rel, SolarBodies.class)
+                .thenApply(result -> {
+                    if (result == null) {
+                        logger.warning("fetchByRelAsync - No data returned for rel=" + rel);
+                    } else {
+                        normalizeMoons(result);
+                    }
+                    return result;
+                });
+    }
+
     /**
      * Metoda pomocnicza, która iteruje po liście księżyców w obiekcie `SolarBodies`
      * i zamienia ich nazwy (moon) wg mapy `specialNameMap`, np. "La Lune" -> "Moon".
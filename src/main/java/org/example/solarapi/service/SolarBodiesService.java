@@ -1,21 +1,46 @@
 package org.example.solarapi.service;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.example.solarapi.dto.MoonDTO;
 import org.example.solarapi.dto.SolarBodyDTO;
 import org.example.solarapi.mapper.SolarBodyMapper;
 import org.example.solarapi.model.Moon;
 import org.example.solarapi.model.SolarBodies;
+import org.example.solarapi.repository.MoonSummary;
+import org.example.solarapi.repository.MoonView;
 import org.example.solarapi.repository.SolarBodiesRepository;
+import org.example.solarapi.repository.SolarBodyView;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
+@Profile("!snapshot")
 public class SolarBodiesService {
 
     private static final Logger logger = Logger.getLogger(SolarBodiesService.class.getName());
@@ -29,14 +54,90 @@ public class SolarBodiesService {
     @Autowired
     private HttpClientService<SolarBodies> httpClientService; // też musisz mieć tę klasę w projekcie
 
-    private final Set<String> alreadyFailedNames = new HashSet<>();
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SolarBodiesBulkWriter solarBodiesBulkWriter;
+
+    @Autowired
+    private MoonLinkBackfill moonLinkBackfill;
+
+    @Autowired
+    private SolarApiEndpoints solarApiEndpoints;
+
+    @Autowired
+    private NegativeLookupCache negativeLookupCache;
+
+    // Trwające pobrania z API (klucz: znormalizowana nazwa albo rel) – współdzielone przez równoległe żądania
+    private final SingleFlight<String, SolarBodies> upstreamFetches = new SingleFlight<>();
+
+    // Ile księżyców naraz dociągamy z API przy rozwijaniu (expandUnlinkedMoons)
+    @Value("${solar.moons.expand.concurrency:8}")
+    private int moonExpandConcurrency;
+
+    // Jak długo żądanie czeka na brakujące księżyce (tryb synchroniczny)
+    @Value("${solar.moons.expand.timeout-ms:5000}")
+    private long moonExpandTimeoutMillis;
+
+    // true = nie czekamy na braki, uzupełniają się w tle
+    @Value("${solar.moons.expand.background:false}")
+    private boolean moonExpandInBackground;
+
+    private ExecutorService moonExpansionExecutor;
+
+    // Zapis ciał pobranych przez single-flight – poza wątkami HttpClient (nie trzymają transakcji ani połączeń z DB)
+    @Value("${solar.upstream.save.concurrency:4}")
+    private int upstreamSaveConcurrency;
+
+    private ExecutorService upstreamSaveExecutor;
+
+    // rel-e już zakolejkowane do uzupełnienia w tle (żeby każde odświeżenie strony nie dokładało kolejnych zadań)
+    private final Set<String> pendingFillIns = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void startMoonExpansionExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        moonExpansionExecutor = new ThreadPoolExecutor(
+                Math.max(1, moonExpandConcurrency), Math.max(1, moonExpandConcurrency),
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(1000),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "moon-expansion-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PostConstruct
+    void startUpstreamSaveExecutor() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        upstreamSaveExecutor = new ThreadPoolExecutor(
+                Math.max(1, upstreamSaveConcurrency), Math.max(1, upstreamSaveConcurrency),
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(1000),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "upstream-save-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    void stopMoonExpansionExecutor() {
+        moonExpansionExecutor.shutdownNow();
+    }
+
+    @PreDestroy
+    void stopUpstreamSaveExecutor() {
+        upstreamSaveExecutor.shutdown();
+    }
 
     // ---------------------- PODSTAWOWE METODY Z TWOJEGO KODU ----------------------
 
     @Transactional
     public void saveSolarBodiesData(String englishName) {
-        String encodedName = HttpClientService.encodeValue(englishName.toLowerCase());
-        String url = "https://api.le-systeme-solaire.net/rest/bodies/" + encodedName;
+        String url = solarApiEndpoints.bodyUrl(englishName);
         try {
             SolarBodies solarBodiesDetails = httpClientService.getPlanetDetails(url, SolarBodies.class);
             if (solarBodiesDetails == null) {
@@ -79,42 +180,181 @@ public class SolarBodiesService {
 
     /**
      * Metoda do masowego zapisu listy obiektów.
-     * Np. używana w kontrolerze do endpointu /sync2
+     * Zapis idzie przez SolarBodiesBulkWriter – kilka zapytań JDBC na paczkę zamiast find + save na każde ciało.
+     * Bez transakcji klasy: każda paczka ma własną, a zewnętrzna tylko trzymałaby drugie połączenie.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void saveAllSolarBodiesData(List<SolarBodies> solarBodiesList) {
         if (solarBodiesList == null || solarBodiesList.isEmpty()) {
             logger.warning("Received empty solar bodies list, skipping save operation.");
             return;
         }
 
-        for (SolarBodies solarBody : solarBodiesList) {
-            try {
-                if (solarBody.getMoons() == null) {
-                    solarBody.setMoons(new HashSet<>());
+        SolarBodiesBulkWriter.Result result = solarBodiesBulkWriter.write(solarBodiesList, false);
+        logger.info("saveAllSolarBodiesData: " + result);
+    }
+
+    /**
+     * Zapisuje obiekt pobrany z API: jeśli istnieje w bazie (po englishName) – aktualizuje
+     * księżyce i moonCount, jeśli nie – wstawia nowy rekord.
+     * Używane przez SolarBodiesSyncService (paczki w jednej transakcji, gdy bulk i delta są wyłączone)
+     * i przez single-flight (findOrFetchByEnglishName / fetchAndSaveByRel).
+     */
+    public SolarBodies upsertSolarBody(SolarBodies fromApi) {
+        if (fromApi.getMoons() == null) {
+            fromApi.setMoons(new HashSet<>());
+        }
+        fromApi.setMoonCount(fromApi.getMoons().size());
+
+        SolarBodies existing = solarBodiesRepository.findByEnglishName(fromApi.getEnglishName());
+        if (existing != null) {
+            existing.setMoons(fromApi.getMoons());
+            existing.setMoonCount(fromApi.getMoonCount());
+            // pozostałe pola nie są nadpisywane, więc rekord nie odpowiada już żadnemu skrótowi z API
+            existing.setContentHash(null);
+            existing.setLastFetchedAt(Instant.now());
+            return solarBodiesRepository.save(existing);
+        }
+        // Gson ustawia pole moons bezpośrednio, więc odniesienie zwrotne trzeba uzupełnić ręcznie
+        for (Moon moon : fromApi.getMoons()) {
+            moon.setSolarBodies(fromApi);
+        }
+        fromApi.setContentHash(SolarBodyContentHash.of(fromApi));
+        fromApi.setLastFetchedAt(Instant.now());
+        return solarBodiesRepository.save(fromApi);
+    }
+
+    /**
+     * Wynik zapisu paczki w trybie delta.
+     */
+    public record DeltaCounts(int inserted, int updated, int unchanged) {
+    }
+
+    /**
+     * Zapis paczki w trybie delta (wywoływany w transakcji paczki przez SolarBodiesSyncService).
+     * Dla każdego ciała liczony jest SolarBodyContentHash i porównywany z content_hash w bazie:
+     * - brak w bazie -> INSERT,
+     * - inny skrót (albo force) -> aktualizacja pól i różnicowa aktualizacja księżyców
+     *   (dodajemy nowe, usuwamy zniknięte, poprawiamy zmienione – bez kasowania całego zbioru),
+     * - ten sam skrót -> brak zapisu; tylko last_fetched_at, jednym UPDATE dla całej paczki.
+     */
+    public DeltaCounts persistDelta(List<SolarBodies> chunk, boolean force) {
+        Instant fetchedAt = Instant.now();
+        Set<String> names = chunk.stream()
+                .map(SolarBodies::getEnglishName)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, SolarBodies> existingByName = new HashMap<>();
+        for (SolarBodies existing : solarBodiesRepository.findByEnglishNameIn(names)) {
+            existingByName.putIfAbsent(existing.getEnglishName(), existing);
+        }
+
+        int inserted = 0;
+        int updated = 0;
+        List<Long> unchangedIds = new ArrayList<>();
+        for (SolarBodies fromApi : chunk) {
+            if (fromApi.getMoons() == null) {
+                fromApi.setMoons(new HashSet<>());
+            }
+            String hash = SolarBodyContentHash.of(fromApi);
+            SolarBodies existing = existingByName.get(fromApi.getEnglishName());
+
+            if (existing == null) {
+                for (Moon moon : fromApi.getMoons()) {
+                    moon.setSolarBodies(fromApi);
                 }
-                // Ustaw moonCount
-                solarBody.setMoonCount(solarBody.getMoons().size());
-
-                // Zapis
-                SolarBodies existing = solarBodiesRepository.findByEnglishName(solarBody.getEnglishName());
-                if (existing != null) {
-                    existing.setMoons(solarBody.getMoons());
-                    existing.setMoonCount(solarBody.getMoonCount());
-                    solarBodiesRepository.save(existing);
-                } else {
-                    solarBodiesRepository.save(solarBody);
+                fromApi.setMoonCount(fromApi.getMoons().size());
+                fromApi.setContentHash(hash);
+                fromApi.setLastFetchedAt(fetchedAt);
+                solarBodiesRepository.save(fromApi);
+                // to samo ciało drugi raz w tej samej paczce nie może być wstawione ponownie
+                existingByName.put(fromApi.getEnglishName(), fromApi);
+                inserted++;
+            } else if (!force && hash.equals(existing.getContentHash())) {
+                if (existing.getIdNumber() != null) {
+                    unchangedIds.add(existing.getIdNumber());
                 }
-            } catch (Exception e) {
-                logger.severe("Error saving data for " + solarBody.getEnglishName() + ": " + e.getMessage());
+            } else {
+                copyApiFields(fromApi, existing);
+                mergeMoons(existing, fromApi.getMoons());
+                existing.setContentHash(hash);
+                existing.setLastFetchedAt(fetchedAt);
+                updated++;
+            }
+        }
+        if (!unchangedIds.isEmpty()) {
+            solarBodiesRepository.touchLastFetchedAt(unchangedIds, fetchedAt);
+        }
+        return new DeltaCounts(inserted, updated, unchangedIds.size());
+    }
+
+    private static void copyApiFields(SolarBodies from, SolarBodies to) {
+        to.setBodyType(from.getBodyType());
+        to.setPlanet(from.isPlanet());
+        to.setSemimajorAxis(from.getSemimajorAxis());
+        to.setPerihelion(from.getPerihelion());
+        to.setAphelion(from.getAphelion());
+        to.setEccentricity(from.getEccentricity());
+        to.setInclination(from.getInclination());
+        to.setMass(from.getMass());
+        to.setVol(from.getVol());
+        to.setGravity(from.getGravity());
+        to.setEscape(from.getEscape());
+        to.setMeanRadius(from.getMeanRadius());
+        to.setEquaRadius(from.getEquaRadius());
+        to.setPolarRadius(from.getPolarRadius());
+        to.setSideralOrbit(from.getSideralOrbit());
+        to.setSideralRotation(from.getSideralRotation());
+        to.setDiscoveredBy(from.getDiscoveredBy());
+        to.setDiscoveryDate(from.getDiscoveryDate());
+        to.setAlternativeName(from.getAlternativeName());
+        to.setAxialTilt(from.getAxialTilt());
+        to.setAvgTemp(from.getAvgTemp());
+    }
+
+    /**
+     * Różnicowa aktualizacja księżyców (po nazwie). W przeciwieństwie do setMoons nie czyści zbioru,
+     * więc niezmienione wiersze w Moons zostają nietknięte.
+     */
+    private static void mergeMoons(SolarBodies existing, Set<Moon> incoming) {
+        Map<String, Moon> current = new HashMap<>();
+        for (Moon moon : existing.getMoons()) {
+            current.putIfAbsent(moonKey(moon), moon);
+        }
+        Set<String> seen = new HashSet<>();
+        for (Moon moon : incoming) {
+            String key = moonKey(moon);
+            if (!seen.add(key)) {
+                continue;
+            }
+            Moon stored = current.get(key);
+            if (stored == null) {
+                moon.setSolarBodies(existing);
+                existing.getMoons().add(moon);
+                continue;
+            }
+            if (!Objects.equals(stored.getRel(), moon.getRel())) {
+                stored.setRel(moon.getRel());
+            }
+            if (!Objects.equals(stored.getOriginalName(), moon.getOriginalName())) {
+                stored.setOriginalName(moon.getOriginalName());
             }
         }
+        // orphanRemoval usunie tylko te, których API już nie zwraca
+        existing.getMoons().removeIf(moon -> !seen.contains(moonKey(moon)));
+        existing.setMoonCount(existing.getMoons().size());
+    }
+
+    private static String moonKey(Moon moon) {
+        return Objects.toString(moon.getMoon(), "").toLowerCase(Locale.ROOT);
     }
 
     /**
      * Zwraca obiekt z bazy po englishName (lub null).
      */
+    @Transactional(readOnly = true)
     public SolarBodies getSolarBodyByName(String englishName) {
-        SolarBodies solarBody = solarBodiesRepository.findByEnglishName(englishName);
+        SolarBodies solarBody = solarBodiesRepository.findByNaturalId(englishName);
         if (solarBody == null) {
             logger.warning("No solar body found for: " + englishName);
         }
@@ -123,8 +363,7 @@ public class SolarBodiesService {
 
     private SolarBodies fetchAndSaveFromExternalAPI(String englishName) {
         try {
-            String encodedName = HttpClientService.encodeValue(englishName.toLowerCase());
-            String url = "https://api.le-systeme-solaire.net/rest/bodies/" + encodedName;
+            String url = solarApiEndpoints.bodyUrl(englishName);
             SolarBodies solarBodiesDetails = httpClientService.getPlanetDetails(url, SolarBodies.class);
             if (solarBodiesDetails == null) {
                 return null;
@@ -151,17 +390,118 @@ public class SolarBodiesService {
     }
 
     /**
-     * Zwraca set księżyców (encje Moon) powiązanych z obiektem w bazie,
-     * lub pusty set jeśli nie istnieje.
+     * Wynik odczytu na projekcjach: gotowe DTO + te księżyce, które nie są jeszcze podpięte (moon_body_id)
+     * i zostały w DTO w wersji "surowej" (MoonDTO -> Moons.id, do podpięcia po odczycie).
      */
-    public Set<Moon> getMoonsBySolarBodyName(String englishName) {
-        SolarBodies solarBody = solarBodiesRepository.findByEnglishName(englishName);
-        if (solarBody != null) {
-            return solarBody.getMoons();
-        } else {
+    public record SolarBodyRead(SolarBodyDTO dto, Map<MoonDTO, Long> unlinkedMoons) {
+    }
+
+    /**
+     * Odczyt dla GET /api/solarbodies/{name} bez ładowania encji: jedna projekcja ciała (tylko kolumny z DTO)
+     * i jedna projekcja księżyców z joinem do ich rekordów. Zwraca null, jeśli ciała nie ma w bazie.
+     */
+    @Transactional(readOnly = true)
+    public SolarBodyRead readSolarBody(String englishName) {
+        Optional<SolarBodyView> view = solarBodiesRepository.findViewByEnglishName(englishName);
+        if (view.isEmpty()) {
             logger.warning("No solar body found for: " + englishName);
-            return Collections.emptySet();
+            return null;
+        }
+        SolarBodyDTO dto = SolarBodyMapper.convertViewToDTO(view.get());
+        Map<MoonDTO, Long> unlinked = new LinkedHashMap<>();
+        for (MoonView moonView : solarBodiesRepository.findMoonViewsByBodyId(view.get().getIdNumber())) {
+            MoonDTO moonDTO = SolarBodyMapper.convertMoonViewToDTO(moonView);
+            dto.getMoons().add(moonDTO);
+            if (moonView.getMoonBodyId() == null) {
+                unlinked.put(moonDTO, moonView.getId());
+            }
+        }
+        return new SolarBodyRead(dto, unlinked);
+    }
+
+    /**
+     * Jak readSolarBody, ale dla wielu ciał naraz: dwa zapytania niezależnie od liczby nazw (ciała + wszystkie ich
+     * księżyce). Klucz = englishName małymi literami; ciał, których nie ma w bazie, po prostu brak w mapie.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, SolarBodyRead> readSolarBodies(Collection<String> englishNames) {
+        Map<String, SolarBodyRead> reads = new LinkedHashMap<>();
+        if (englishNames.isEmpty()) {
+            return reads;
+        }
+        Map<Long, SolarBodyRead> byId = new HashMap<>();
+        for (SolarBodyView view : solarBodiesRepository.findViewsByEnglishNameIn(englishNames)) {
+            SolarBodyRead read = new SolarBodyRead(SolarBodyMapper.convertViewToDTO(view), new LinkedHashMap<>());
+            byId.put(view.getIdNumber(), read);
+            reads.putIfAbsent(view.getEnglishName().toLowerCase(Locale.ROOT), read);
+        }
+        if (!byId.isEmpty()) {
+            for (MoonView moonView : solarBodiesRepository.findMoonViewsByBodyIdIn(byId.keySet())) {
+                SolarBodyRead read = byId.get(moonView.getOwnerId());
+                MoonDTO moonDTO = SolarBodyMapper.convertMoonViewToDTO(moonView);
+                read.dto().getMoons().add(moonDTO);
+                if (moonView.getMoonBodyId() == null) {
+                    read.unlinkedMoons().put(moonDTO, moonView.getId());
+                }
+            }
+        }
+        return reads;
+    }
+
+    /**
+     * expandUnlinkedMoons dla wielu odczytów – niepodpięte księżyce wszystkich ciał wyszukiwane razem
+     * (dwa zapytania), a nie osobno dla każdego ciała.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void expandUnlinkedMoons(Collection<SolarBodyRead> reads) {
+        Map<MoonDTO, Long> unlinked = new LinkedHashMap<>();
+        for (SolarBodyRead read : reads) {
+            unlinked.putAll(read.unlinkedMoons());
+        }
+        if (unlinked.isEmpty()) {
+            return;
+        }
+        Map<MoonDTO, SolarBodies> resolved = new LinkedHashMap<>();
+        resolveUnlinkedMoons(unlinked, resolved);
+        for (SolarBodyRead read : reads) {
+            Set<MoonDTO> moons = read.dto().getMoons();
+            for (MoonDTO basicMoon : read.unlinkedMoons().keySet()) {
+                SolarBodies moonBody = resolved.get(basicMoon);
+                if (moonBody != null) {
+                    moons.remove(basicMoon);
+                    moons.add(SolarBodyMapper.convertSolarBodyToMoonDTO(moonBody));
+                }
+            }
+        }
+    }
+
+    /**
+     * Uzupełnia niepodpięte księżyce z readSolarBody (wyszukanie w bazie, a w razie braku – API).
+     * Bez własnej transakcji: zapisy robią fetchAndSaveByRel i MoonLinkBackfill.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public SolarBodyDTO expandUnlinkedMoons(SolarBodyRead read) {
+        if (read.unlinkedMoons().isEmpty()) {
+            return read.dto();
         }
+        Map<MoonDTO, SolarBodies> resolved = new LinkedHashMap<>();
+        resolveUnlinkedMoons(read.unlinkedMoons(), resolved);
+        Set<MoonDTO> moons = read.dto().getMoons();
+        resolved.forEach((basicMoon, moonBody) -> {
+            if (moonBody != null) {
+                moons.remove(basicMoon);
+                moons.add(SolarBodyMapper.convertSolarBodyToMoonDTO(moonBody));
+            }
+        });
+        return read.dto();
+    }
+
+    /**
+     * Księżyce ciała jako projekcja (id, moon, originalName, rel) – pusta lista, jeśli ciała nie ma.
+     */
+    @Transactional(readOnly = true)
+    public List<MoonSummary> getMoonSummariesBySolarBodyName(String englishName) {
+        return solarBodiesRepository.findMoonSummariesByEnglishName(englishName);
     }
 
     /**
@@ -173,7 +513,9 @@ public class SolarBodiesService {
             solarBody.setMoons(new HashSet<>());
         }
         solarBody.setMoonCount(solarBody.getMoons().size());
-        return solarBodiesRepository.save(solarBody);
+        SolarBodies saved = solarBodiesRepository.save(solarBody);
+        forgetNotFound(saved);
+        return saved;
     }
 
     /**
@@ -273,11 +615,10 @@ public class SolarBodiesService {
 
     @Transactional
     public SolarBodies fetchAndSaveSolarBody(String englishName) {
-        SolarBodies existing = solarBodiesRepository.findByEnglishName(englishName);
+        SolarBodies existing = solarBodiesRepository.findByNaturalId(englishName);
         if (existing != null) return existing;
 
-        String encodedName = HttpClientService.encodeValue(englishName.toLowerCase());
-        String url = "https://api.le-systeme-solaire.net/rest/bodies/" + encodedName;
+        String url = solarApiEndpoints.bodyUrl(englishName);
         SolarBodies solarBodyDetails = httpClientService.getPlanetDetails(url, SolarBodies.class);
         if (solarBodyDetails != null) {
             if (solarBodyDetails.getMoons() == null) {
@@ -290,36 +631,138 @@ public class SolarBodiesService {
     }
 
     /**
-     * Metoda w stylu: "zwróć obiekt i dociągnij szczegóły księżyców (jeśli w bazie brak)".
-     * Czyli konwertuje do DTO, a dla każdego Moon w liście – sprawdza, czy mamy go w DB,
-     * jeśli nie – fetchByRel. Potem tworzy "pełny" MoonDTO.
+     * Niepodpięte księżyce są szukane w bazie jednym zapytaniem (po englishName albo po id z API zapisanym
+     * jako external_id – nazwa w "moons" bywa inna niż englishName, np. "Europe" vs "Europa")
+     * i podpinane jednym UPDATE-em po zakończeniu odczytu, żeby następnym razem wystarczył join.
+     * Braki są dociągane z API równolegle (pula solar.moons.expand.concurrency wątków):
+     * - domyślnie czekamy na nie maksymalnie solar.moons.expand.timeout-ms,
+     * - przy solar.moons.expand.background=true zostają "surowe" MoonDTO,
+     *   a braki uzupełniają się w tle (kolejne wywołanie dostanie już pełne dane).
      */
-    public SolarBodyDTO convertToDTOWithFullMoons(SolarBodies solarBody) {
-        SolarBodyDTO dto = SolarBodyMapper.convertToDTO(solarBody);
-
-        if (dto.getMoons() != null && !dto.getMoons().isEmpty()) {
-            Set<MoonDTO> expandedMoons = new HashSet<>();
-            for (MoonDTO basicMoon : dto.getMoons()) {
-                // spróbujmy znaleźć w bazie
-                SolarBodies moonBody = solarBodiesRepository.findByEnglishName(basicMoon.getEnglishName());
-                if (moonBody == null) {
-                    // Spróbujmy fetchByRel (jeśli mamy link w rel)
-                    if (basicMoon.getRel() != null) {
-                        moonBody = fetchAndSaveByRel(basicMoon.getRel());
-                    }
-                }
-                // Jeśli po fetchu mamy, konwertuj do "pełnego" MoonDTO
-                if (moonBody != null) {
-                    expandedMoons.add(SolarBodyMapper.convertSolarBodyToMoonDTO(moonBody));
-                } else {
-                    // Wstaw to co mieliśmy "surowe"
-                    expandedMoons.add(basicMoon);
+    private void resolveUnlinkedMoons(Map<MoonDTO, Long> unlinked, Map<MoonDTO, SolarBodies> resolved) {
+        // 1. Jedno zapytanie po nazwach i jedno po id z "rel" zamiast findByEnglishName na każdy księżyc
+        Set<String> names = new HashSet<>();
+        Set<String> externalIds = new HashSet<>();
+        for (MoonDTO basicMoon : unlinked.keySet()) {
+            if (basicMoon.getEnglishName() != null) {
+                names.add(basicMoon.getEnglishName());
+            }
+            String externalId = MoonLinkBackfill.externalIdFromRel(basicMoon.getRel());
+            if (externalId != null) {
+                externalIds.add(externalId);
+            }
+        }
+        Map<String, SolarBodies> byName = new HashMap<>();
+        Map<String, SolarBodies> byExternalId = new HashMap<>();
+        List<SolarBodies> found = new ArrayList<>();
+        if (!names.isEmpty()) {
+            found.addAll(solarBodiesRepository.findByEnglishNameIn(names));
+        }
+        if (!externalIds.isEmpty()) {
+            found.addAll(solarBodiesRepository.findByExternalIdIn(externalIds));
+        }
+        for (SolarBodies body : found) {
+            if (body.getEnglishName() != null) {
+                byName.putIfAbsent(body.getEnglishName().toLowerCase(Locale.ROOT), body);
+            }
+            if (body.getExternalId() != null) {
+                byExternalId.putIfAbsent(body.getExternalId().toLowerCase(Locale.ROOT), body);
+            }
+        }
+
+        // 2. Dopasowanie (trafienia podpinamy razem, po commicie odczytu); braki z rel idą do API
+        List<MoonDTO> misses = new ArrayList<>();
+        Map<Long, Long> links = new LinkedHashMap<>();
+        unlinked.forEach((basicMoon, moonId) -> {
+            SolarBodies moonBody = lookupMoon(basicMoon, byName, byExternalId);
+            resolved.put(basicMoon, moonBody);
+            if (moonBody != null) {
+                if (moonId != null) {
+                    links.put(moonId, moonBody.getIdNumber());
                 }
+            } else if (basicMoon.getRel() != null) {
+                misses.add(basicMoon);
             }
-            dto.setMoons(expandedMoons);
+        });
+        if (!links.isEmpty()) {
+            moonLinkBackfill.linkMoonsAfterCommit(links);
         }
 
-        return dto;
+        if (!misses.isEmpty()) {
+            if (moonExpandInBackground) {
+                misses.forEach(miss -> fillInBackground(miss.getRel()));
+            } else {
+                fetchMissingMoons(misses, resolved);
+            }
+        }
+    }
+
+    /**
+     * Równoległe (ale ograniczone pulą) dociągnięcie brakujących księżyców; czeka najwyżej moonExpandTimeoutMillis.
+     * Co nie zdąży – zostaje jako "surowe" MoonDTO, a pobieranie i tak dokończy się w tle.
+     */
+    private void fetchMissingMoons(List<MoonDTO> misses, Map<MoonDTO, SolarBodies> resolved) {
+        Map<MoonDTO, CompletableFuture<SolarBodies>> futures = new LinkedHashMap<>();
+        for (MoonDTO miss : misses) {
+            try {
+                futures.put(miss, CompletableFuture.supplyAsync(() -> fetchAndSaveByRel(miss.getRel()), moonExpansionExecutor));
+            } catch (RejectedExecutionException e) {
+                // pełna kolejka – ten i kolejne księżyce zostają "surowe" (jak po timeoucie), bez 500 dla GET
+                logger.warning("Moon expansion queue rejected " + (misses.size() - futures.size()) + " misses: " + e.getMessage());
+                break;
+            }
+        }
+        if (futures.isEmpty()) {
+            return;
+        }
+        try {
+            CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+                    .get(moonExpandTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warning("Moon expansion: " + misses.size() + " misses not resolved within " + moonExpandTimeoutMillis + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // pojedyncze błędy obsługuje fetchAndSaveByRel (zwraca null)
+        }
+        futures.forEach((miss, future) -> {
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                resolved.put(miss, future.join());
+            }
+        });
+    }
+
+    private void fillInBackground(String rel) {
+        String key = normalizeFlightKey(rel);
+        if (!pendingFillIns.add(key)) {
+            return;
+        }
+        try {
+            moonExpansionExecutor.execute(() -> {
+                try {
+                    fetchAndSaveByRel(rel);
+                } finally {
+                    pendingFillIns.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingFillIns.remove(key);
+            logger.warning("Moon expansion queue rejected " + rel + ": " + e.getMessage());
+        }
+    }
+
+    private static SolarBodies lookupMoon(MoonDTO basicMoon, Map<String, SolarBodies> byName,
+                                          Map<String, SolarBodies> byExternalId) {
+        String externalId = MoonLinkBackfill.externalIdFromRel(basicMoon.getRel());
+        if (externalId != null) {
+            SolarBodies byId = byExternalId.get(externalId.toLowerCase(Locale.ROOT));
+            if (byId != null) {
+                return byId;
+            }
+        }
+        return basicMoon.getEnglishName() != null
+                ? byName.get(basicMoon.getEnglishName().toLowerCase(Locale.ROOT))
+                : null;
     }
 
     /**
@@ -335,6 +778,7 @@ public class SolarBodiesService {
 
     /**
      * Szuka w bazie, jeśli brak, pobiera z API i zapisuje w bazie.
+     * Równoległe wywołania dla tej samej nazwy dzielą jedno zapytanie do API i jeden zapis (single flight).
      * Zwraca gotową encję lub null, jeśli się nie udało.
      */
     public SolarBodies findOrFetchByEnglishName(String englishName) {
@@ -343,53 +787,104 @@ public class SolarBodiesService {
             return null;
         }
 
-        // 1. Sprawdź w bazie
-        SolarBodies existing = solarBodiesRepository.findByEnglishName(englishName);
+        // 1. Sprawdź w bazie (przez cache natural-id i cache encji)
+        SolarBodies existing = solarBodiesRepository.findByNaturalId(englishName);
         if (existing != null) {
             return existing;
         }
 
-        // 2. Nie ma w bazie -> pobierz z API (korzystając z solarBodiesFetchService!)
-        //    Upewnij się, że klasa SolarBodiesFetchService istnieje i jest wstrzykiwana
-        SolarBodies fromApi = solarBodiesFetchService.fetchByEnglishName(englishName);
-        if (fromApi == null) {
+        // 2. Nie ma w bazie -> pobierz z API (wspólnie z innymi wątkami pytającymi o to samo)
+        SolarBodies saved = fetchAndSaveShared("name:" + normalizeFlightKey(englishName),
+                () -> solarBodiesFetchService.fetchByEnglishNameAsync(englishName));
+        if (saved == null) {
             logger.warning("findOrFetchByEnglishName - Could not fetch data for " + englishName);
             return null;
         }
-
-        // 3. Zainicjuj moony, oblicz moonCount
-        if (fromApi.getMoons() == null) {
-            fromApi.setMoons(new HashSet<>());
-        }
-        fromApi.setMoonCount(fromApi.getMoons().size());
-
-        // 4. Zapisz w bazie
-        SolarBodies saved = solarBodiesRepository.save(fromApi);
         logger.info("findOrFetchByEnglishName - saved: " + saved.getEnglishName() + ", ID=" + saved.getIdNumber());
         return saved;
     }
 
     /**
-     * Pobiera z API obiekt na podstawie "rel", jeśli to się uda – zapisuje w bazie.
+     * Pobiera z API obiekt na podstawie "rel", jeśli to się uda – zapisuje w bazie (albo aktualizuje istniejący).
+     * Równoległe wywołania dla tego samego rel dzielą jedno zapytanie do API.
      * Zwraca zapisany obiekt lub null, jeśli się nie udało.
      */
     public SolarBodies fetchAndSaveByRel(String rel) {
-        SolarBodies fromApi = solarBodiesFetchService.fetchByRel(rel);
-        if (fromApi == null) {
+        if (rel == null || rel.isBlank()) {
+            logger.warning("fetchAndSaveByRel - rel is null/blank.");
+            return null;
+        }
+        SolarBodies saved = fetchAndSaveShared("rel:" + normalizeFlightKey(rel),
+                () -> solarBodiesFetchService.fetchByRelAsync(rel));
+        if (saved == null) {
             logger.warning("fetchAndSaveByRel - no data from API for rel=" + rel);
             return null;
         }
-        // Inicjalizacja / moonCount
-        if (fromApi.getMoons() == null) {
-            fromApi.setMoons(new HashSet<>());
+        logger.info("fetchAndSaveByRel - saved entity: " + saved.getEnglishName() + ", ID=" + saved.getIdNumber());
+        return saved;
+    }
+
+    /**
+     * Wspólny "lot" do API: pierwszy wątek pobiera i zapisuje, pozostali czekają na ten sam wynik.
+     * Zapis idzie w osobnej transakcji (REQUIRES_NEW), zatwierdzonej zanim future się zakończy,
+     * więc nikt nie wstawi drugiego rekordu dla tego samego ciała. Wykonuje go upstreamSaveExecutor,
+     * a nie wątek HttpClient, który skończył pobieranie.
+     * Zwrócona encja jest odłączona, ale ma już zainicjalizowane księżyce (do konwersji na DTO).
+     */
+    private SolarBodies fetchAndSaveShared(String key, Supplier<CompletableFuture<SolarBodies>> fetcher) {
+        try {
+            return upstreamFetches.execute(key, () -> fetcher.get().thenApplyAsync(this::saveFetchedInNewTransaction, upstreamSaveExecutor)).join();
+        } catch (CompletionException e) {
+            logger.severe("Shared upstream fetch failed for " + key + ": "
+                    + (e.getCause() != null ? e.getCause().getMessage() : e.getMessage()));
+            return null;
         }
-        fromApi.setMoonCount(fromApi.getMoons().size());
+    }
 
-        SolarBodies saved = solarBodiesRepository.save(fromApi);
-        logger.info("fetchAndSaveByRel - saved entity: " + saved.getEnglishName() + ", ID=" + saved.getIdNumber());
+    private SolarBodies saveFetchedInNewTransaction(SolarBodies fromApi) {
+        if (fromApi == null) {
+            return null;
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        SolarBodies saved = transactionTemplate.execute(status -> {
+            SolarBodies upserted = upsertSolarBody(fromApi);
+            upserted.getMoons().size(); // zainicjalizuj kolekcję, zanim encja się odłączy
+            solarBodiesRepository.flush();
+            // księżyce, które wskazują na to ciało, dostają moon_body_id od razu (nie dopiero przy następnym sync)
+            moonLinkBackfill.linkBody(upserted.getIdNumber(), upserted.getEnglishName(), upserted.getExternalId());
+            return upserted;
+        });
+        forgetNotFound(saved);
         return saved;
     }
 
+    /**
+     * Ciało jest już w bazie (dodane ręcznie albo pobrane np. po rel) – wcześniejsze 404 dla jego nazwy
+     * w NegativeLookupCache nie może dalej blokować pobrania szczegółów.
+     */
+    private void forgetNotFound(SolarBodies saved) {
+        if (saved != null && saved.getEnglishName() != null) {
+            negativeLookupCache.invalidate(solarApiEndpoints.bodyUrl(saved.getEnglishName()));
+        }
+    }
+
+    /**
+     * Liczniki single-flight (do /api/diagnostics/upstream).
+     */
+    public Map<String, Object> upstreamFetchSnapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("inFlight", upstreamFetches.getInFlight());
+        snapshot.put("leaders", upstreamFetches.getLeaders());
+        snapshot.put("coalesced", upstreamFetches.getFollowers());
+        return snapshot;
+    }
+
+    private static String normalizeFlightKey(String value) {
+        String key = value.trim().toLowerCase(Locale.ROOT);
+        return key.endsWith("/") ? key.substring(0, key.length() - 1) : key;
+    }
+
     // ---------------------- PRZYKŁADOWE METODY POMOCNICZE (PRYWATNE) ----------------------
 
     /**
@@ -410,29 +905,17 @@ public class SolarBodiesService {
             return null;
         }
 
-        // (opcjonalnie) sprawdźmy, czy rel też nie w alreadyFailed:
-        if (alreadyFailedNames.contains(rel.toLowerCase())) {
-            logger.warning("Skipping fetchFromApiByRel(" + rel + ") because it was flagged as failed.");
-            return null;
-        }
-
+        // Nieudane adresy pamięta NegativeLookupCache (sprawdzany w HttpClientService.getPlanetDetailsAsync)
         try {
             SolarBodies solarBodyDetails = httpClientService.getPlanetDetails(rel, SolarBodies.class);
             if (solarBodyDetails != null && solarBodyDetails.getEnglishName() != null) {
-                SolarBodies saved = saveIfNotNull(solarBodyDetails.getEnglishName(), solarBodyDetails);
-                if (saved == null) {
-                    // Znów, jeżeli się nie udało – dopisz do alreadyFailed
-                    alreadyFailedNames.add(rel.toLowerCase());
-                }
-                return saved;
+                return saveIfNotNull(solarBodyDetails.getEnglishName(), solarBodyDetails);
             } else {
                 logger.warning("fetchFromApiByRel got null or missing englishName for rel=" + rel);
-                alreadyFailedNames.add(rel.toLowerCase());
                 return null;
             }
         } catch (Exception ex) {
             logger.severe("Error fetching from rel=" + rel + " : " + ex.getMessage());
-            alreadyFailedNames.add(rel.toLowerCase());
             return null;
         }
     }
@@ -0,0 +1,293 @@
+package org.example.solarapi.service;
+
+import org.example.solarapi.dto.SyncReport;
+import org.example.solarapi.model.Moon;
+import org.example.solarapi.model.SolarBodies;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Silnik synchronizacji z zewnętrznym API.
+ * Pobieranie idzie równolegle (HttpClient.sendAsync) z limitem jednoczesnych zapytań,
+ * a zapis do bazy odbywa się paczkami – jedna transakcja na paczkę zamiast jednej na ciało.
+ */
+@Service
+@Profile("!snapshot")
+public class SolarBodiesSyncService {
+
+    private static final Logger logger = Logger.getLogger(SolarBodiesSyncService.class.getName());
+
+    @Autowired
+    private SolarBodiesFetchService solarBodiesFetchService;
+
+    @Autowired
+    private HttpClientService<SolarBodies> httpClientService;
+
+    @Autowired
+    private SolarBodiesService solarBodiesService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SolarBodiesBulkWriter solarBodiesBulkWriter;
+
+    @Autowired
+    private MoonLinkBackfill moonLinkBackfill;
+
+    @Autowired
+    private SolarApiEndpoints solarApiEndpoints;
+
+    // Maksymalna liczba zapytań do API lecących jednocześnie
+    @Value("${solar.sync.concurrency:8}")
+    private int concurrency;
+
+    // Ile ciał zapisujemy w jednej transakcji
+    @Value("${solar.sync.batch-size:25}")
+    private int batchSize;
+
+    // Czy /sync ma dociągać szczegóły księżyców (fetchByRel) dla zsynchronizowanych ciał
+    @Value("${solar.sync.include-moons:true}")
+    private boolean includeMoons;
+
+    // Czy /sync2 ma parsować odpowiedź strumieniowo i zapisywać paczki w trakcie parsowania
+    @Value("${solar.sync.streaming:true}")
+    private boolean streaming;
+
+    // Tryb delta: zapis tylko ciał, których content_hash się zmienił (patrz SolarBodiesService.persistDelta)
+    @Value("${solar.sync.delta:true}")
+    private boolean delta;
+
+    // Zapis przez SolarBodiesBulkWriter (JDBC batch, INSERT ... ON DUPLICATE KEY UPDATE) zamiast encji JPA
+    @Value("${solar.sync.bulk.enabled:true}")
+    private boolean bulk;
+
+    /**
+     * Synchronizacja wskazanych ciał (np. planet dla /sync) + opcjonalnie szczegółów ich księżyców.
+     * force = true wymusza zapis w trybie delta, nawet jeśli skrót treści się nie zmienił.
+     */
+    public SyncReport syncBodies(List<String> englishNames, boolean force) {
+        SyncReport report = newReport("sync", force);
+        AtomicInteger failed = new AtomicInteger();
+        long start = System.nanoTime();
+
+        long phaseStart = System.nanoTime();
+        List<SolarBodies> bodies = fetchAll(englishNames, solarBodiesFetchService::fetchByEnglishNameAsync, failed);
+        report.addPhase("fetchBodies", phaseStart);
+        report.setRequested(englishNames.size());
+        report.setFetched(bodies.size());
+
+        phaseStart = System.nanoTime();
+        int persisted = persistInBatches(bodies, report, failed);
+        report.addPhase("persistBodies", phaseStart);
+
+        if (includeMoons) {
+            List<String> moonRels = bodies.stream()
+                    .filter(body -> body.getMoons() != null)
+                    .flatMap(body -> body.getMoons().stream())
+                    .map(Moon::getRel)
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .toList();
+
+            phaseStart = System.nanoTime();
+            List<SolarBodies> moons = fetchAll(moonRels, solarBodiesFetchService::fetchByRelAsync, failed);
+            report.addPhase("fetchMoons", phaseStart);
+            report.setRequested(report.getRequested() + moonRels.size());
+            report.setFetched(report.getFetched() + moons.size());
+
+            phaseStart = System.nanoTime();
+            persisted += persistInBatches(moons, report, failed);
+            report.addPhase("persistMoons", phaseStart);
+        }
+
+        linkMoons(report);
+        report.setPersisted(persisted);
+        report.setFailed(failed.get());
+        report.finish(start);
+        logger.info("syncBodies finished: " + report);
+        return report;
+    }
+
+    /**
+     * Synchronizacja całego katalogu (/sync2) – jedno zapytanie o /rest/bodies/, zapis paczkami.
+     * W trybie strumieniowym (solar.sync.streaming=true) paczki trafiają do bazy już w trakcie
+     * parsowania odpowiedzi, więc zużycie pamięci nie rośnie razem z rozmiarem katalogu.
+     * Zwraca null, jeśli nie udało się pobrać listy z API.
+     */
+    public SyncReport syncAll(boolean force) {
+        if (streaming) {
+            return syncAllStreaming(force);
+        }
+        SyncReport report = newReport("sync2", force);
+        AtomicInteger failed = new AtomicInteger();
+        long start = System.nanoTime();
+
+        long phaseStart = System.nanoTime();
+        List<SolarBodies> bodies = httpClientService.getAllSolarBodies(solarApiEndpoints.getBodiesUrl());
+        report.addPhase("fetchAll", phaseStart);
+        if (bodies == null) {
+            logger.warning("syncAll - failed to fetch bodies list from API");
+            return null;
+        }
+        report.setRequested(bodies.size());
+        report.setFetched(bodies.size());
+
+        phaseStart = System.nanoTime();
+        report.setPersisted(persistInBatches(bodies, report, failed));
+        report.addPhase("persistBodies", phaseStart);
+
+        linkMoons(report);
+        report.setFailed(failed.get());
+        report.finish(start);
+        logger.info("syncAll finished: " + report);
+        return report;
+    }
+
+    private SyncReport syncAllStreaming(boolean force) {
+        SyncReport report = newReport("sync2-stream", force);
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger persisted = new AtomicInteger();
+        AtomicLong persistNanos = new AtomicLong();
+        long start = System.nanoTime();
+
+        long parsed = httpClientService.streamAllSolarBodies(
+                solarApiEndpoints.getBodiesUrl(),
+                bulk ? solarBodiesBulkWriter.getChunkSize() : batchSize,
+                chunk -> {
+                    long chunkStart = System.nanoTime();
+                    persisted.addAndGet(persistInBatches(chunk, report, failed));
+                    persistNanos.addAndGet(System.nanoTime() - chunkStart);
+                });
+        if (parsed < 0) {
+            logger.warning("syncAll - failed to fetch bodies list from API");
+            return null;
+        }
+
+        // Pobieranie i zapis się przeplatają – faza "streamAndParse" to czas całości bez zapisu
+        long totalNanos = System.nanoTime() - start;
+        report.getPhaseMillis().put("streamAndParse", (totalNanos - persistNanos.get()) / 1_000_000);
+        report.getPhaseMillis().put("persistBodies", persistNanos.get() / 1_000_000);
+        linkMoons(report);
+        report.setRequested((int) parsed);
+        report.setFetched((int) parsed);
+        report.setPersisted(persisted.get());
+        report.setFailed(failed.get());
+        report.finish(start);
+        logger.info("syncAll (streaming) finished: " + report);
+        return report;
+    }
+
+    /**
+     * Po zapisie podpina księżyce pod ich własne rekordy (Moons.moon_body_id).
+     * Błąd nie psuje synchronizacji – niepodpięte księżyce rozwiną się po nazwie, jak wcześniej.
+     */
+    private void linkMoons(SyncReport report) {
+        long phaseStart = System.nanoTime();
+        try {
+            moonLinkBackfill.backfill();
+        } catch (DataAccessException e) {
+            logger.warning("Moon link backfill failed: " + e.getMessage());
+        }
+        report.addPhase("linkMoons", phaseStart);
+    }
+
+    /**
+     * Odpala zapytania asynchronicznie, ale nie więcej niż `concurrency` naraz.
+     * Semafor blokuje tylko wątek synchronizacji (nie wątki HttpClienta) – zwalniany jest
+     * w momencie zakończenia odpowiedzi.
+     */
+    private List<SolarBodies> fetchAll(List<String> keys,
+                                       Function<String, CompletableFuture<SolarBodies>> fetcher,
+                                       AtomicInteger failed) {
+        Semaphore permits = new Semaphore(Math.max(1, concurrency));
+        List<CompletableFuture<SolarBodies>> futures = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            permits.acquireUninterruptibly();
+            CompletableFuture<SolarBodies> future;
+            try {
+                future = fetcher.apply(key);
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            futures.add(future
+                    .whenComplete((result, error) -> permits.release())
+                    .handle((result, error) -> {
+                        if (error != null) {
+                            logger.warning("Fetch failed for " + key + ": " + error.getMessage());
+                        }
+                        if (result == null) {
+                            failed.incrementAndGet();
+                        }
+                        return result;
+                    }));
+        }
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Zapisuje listę paczkami po `batchSize` – każda paczka w osobnej transakcji.
+     * W trybie bulk całość idzie przez SolarBodiesBulkWriter (własne paczki po solar.sync.bulk.chunk-size),
+     * w trybie delta paczka idzie przez persistDelta; liczniki inserted/updated/unchanged trafiają do raportu.
+     * Błąd w paczce nie przerywa całej synchronizacji. Zwraca liczbę zapisanych (przetworzonych) ciał.
+     */
+    private int persistInBatches(List<SolarBodies> bodies, SyncReport report, AtomicInteger failed) {
+        if (bulk) {
+            SolarBodiesBulkWriter.Result result = solarBodiesBulkWriter.write(bodies, report.isForce());
+            report.addDelta(result.inserted(), result.updated(), result.unchanged());
+            report.setWriteStatements(report.getWriteStatements() + result.statements());
+            failed.addAndGet(result.failed());
+            return bodies.size() - result.failed();
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int size = Math.max(1, batchSize);
+        int persisted = 0;
+        for (int from = 0; from < bodies.size(); from += size) {
+            List<SolarBodies> chunk = bodies.subList(from, Math.min(from + size, bodies.size()));
+            try {
+                if (report.isDelta()) {
+                    SolarBodiesService.DeltaCounts counts = transactionTemplate.execute(
+                            status -> solarBodiesService.persistDelta(chunk, report.isForce()));
+                    report.addDelta(counts.inserted(), counts.updated(), counts.unchanged());
+                } else {
+                    transactionTemplate.executeWithoutResult(status -> chunk.forEach(solarBodiesService::upsertSolarBody));
+                }
+                persisted += chunk.size();
+            } catch (Exception e) {
+                logger.severe("Error saving batch of " + chunk.size() + " bodies (starting at "
+                        + chunk.get(0).getEnglishName() + "): " + e.getMessage());
+                failed.addAndGet(chunk.size());
+            }
+        }
+        return persisted;
+    }
+
+    private SyncReport newReport(String mode, boolean force) {
+        SyncReport report = new SyncReport(mode);
+        report.setConcurrency(concurrency);
+        report.setBatchSize(batchSize);
+        // bulk zawsze porównuje content_hash, więc działa jak delta
+        report.setDelta(delta || bulk);
+        report.setForce((delta || bulk) && force);
+        report.setWriter(bulk ? "bulk" : "jpa");
+        return report;
+    }
+}
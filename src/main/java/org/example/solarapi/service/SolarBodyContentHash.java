@@ -0,0 +1,77 @@
+package org.example.solarapi.service;
+
+import org.example.solarapi.model.Moon;
+import org.example.solarapi.model.SolarBodies;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Skrót (SHA-256) treści ciała pochodzącej z API: wszystkie pola z odpowiedzi + księżyce
+ * posortowane po nazwie, więc kolejność w JSON-ie nie ma znaczenia.
+ * Pola lokalne (idNumber, externalId, moonCount, contentHash, lastFetchedAt) nie wchodzą do skrótu.
+ * Delta sync porównuje go z kolumną content_hash i pomija ciała, które się nie zmieniły.
+ */
+public final class SolarBodyContentHash {
+
+    private static final char SEPARATOR = '\u001F';
+
+    private SolarBodyContentHash() {
+    }
+
+    public static String of(SolarBodies body) {
+        StringBuilder content = new StringBuilder(512);
+        append(content, body.getEnglishName());
+        append(content, body.getBodyType());
+        append(content, body.isPlanet());
+        append(content, body.getSemimajorAxis());
+        append(content, body.getPerihelion());
+        append(content, body.getAphelion());
+        append(content, body.getEccentricity());
+        append(content, body.getInclination());
+        append(content, body.getMass() != null ? body.getMass().getMassValue() : null);
+        append(content, body.getMass() != null ? body.getMass().getMassExponent() : null);
+        append(content, body.getVol() != null ? body.getVol().getVolValue() : null);
+        append(content, body.getVol() != null ? body.getVol().getVolExponent() : null);
+        append(content, body.getGravity());
+        append(content, body.getEscape());
+        append(content, body.getMeanRadius());
+        append(content, body.getEquaRadius());
+        append(content, body.getPolarRadius());
+        append(content, body.getSideralOrbit());
+        append(content, body.getSideralRotation());
+        append(content, body.getDiscoveredBy());
+        append(content, body.getDiscoveryDate());
+        append(content, body.getAlternativeName());
+        append(content, body.getAxialTilt());
+        append(content, body.getAvgTemp());
+
+        if (body.getMoons() != null) {
+            List<Moon> moons = body.getMoons().stream()
+                    .sorted(Comparator.comparing(moon -> Objects.toString(moon.getMoon(), "")))
+                    .toList();
+            for (Moon moon : moons) {
+                append(content, moon.getMoon());
+                append(content, moon.getOriginalName());
+                append(content, moon.getRel());
+            }
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(content.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void append(StringBuilder content, Object value) {
+        // null musi różnić się od pustego napisu
+        content.append(value == null ? "\u0000" : value.toString()).append(SEPARATOR);
+    }
+}
@@ -0,0 +1,228 @@
+package org.example.solarapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.solarapi.dto.SolarBodyDTO;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Gotowe SolarBodyDTO dla GET /api/solarbodies/{englishName} (z rozwiniętymi księżycami, teksturami, modelami)
+ * razem z zakodowanym JSON-em (EncodedResponse: bajty, gzip, ETag), po englishName bez wielkości liter;
+ * osobno zakodowane listy z GET /{englishName}/moons. W stanie ustalonym odczyt = lookup w mapie i zapis bajtów,
+ * bez Jacksona; If-None-Match z pasującym ETagiem = 304 bez bazy.
+ * Unieważnienie całości po każdym zapisie katalogu: DTO ciała zawiera dane innych ciał (księżyce),
+ * więc pojedynczy klucz nie wystarcza, a katalog jest mały.
+ * - zapisy JPA (PUT/PATCH/DELETE, delta sync, fetchAndSave...) – listenery post-commit Hibernate,
+ * - zapisy JDBC (SolarBodiesBulkWriter, MoonLinkBackfill) – invalidateAllAfterCommit obok evictCatalogAfterCommit.
+ * Generacja chroni przed wyścigiem: DTO zbudowane przed zapisem, a wkładane po nim, nie trafia do cache.
+ */
+@Component
+@Profile("!snapshot")
+public class SolarBodyDtoCache {
+
+    private static final Logger logger = Logger.getLogger(SolarBodyDtoCache.class.getName());
+
+    // ttl-ms <= 0 = bez wygasania (tylko limit rozmiaru i unieważnianie przy zapisach)
+    private static final long NO_TTL_MILLIS = Long.MAX_VALUE / 4 / 1_000_000;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public record CachedBody(SolarBodyDTO dto, EncodedResponse response) {
+    }
+
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final BoundedTtlCache<String, CachedBody> cache;
+    private final BoundedTtlCache<String, EncodedResponse> moons;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public SolarBodyDtoCache(@Value("${solar.dto-cache.enabled:true}") boolean enabled,
+                             @Value("${solar.dto-cache.max-size:1000}") int maxSize,
+                             @Value("${solar.dto-cache.ttl-ms:3600000}") long ttlMillis) {
+        this.enabled = enabled;
+        this.ttlMillis = ttlMillis > 0 ? ttlMillis : NO_TTL_MILLIS;
+        this.cache = new BoundedTtlCache<>(maxSize);
+        this.moons = new BoundedTtlCache<>(maxSize);
+    }
+
+    @PostConstruct
+    void registerInvalidationListeners() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        CatalogWriteListener listener = new CatalogWriteListener();
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+
+    /**
+     * DTO z odpowiedzią z cache albo null. DTO jest współdzielone – tylko do odczytu.
+     */
+    public CachedBody get(String englishName) {
+        if (!enabled || englishName == null) {
+            return null;
+        }
+        return cache.get(key(englishName));
+    }
+
+    public EncodedResponse getMoons(String englishName) {
+        if (!enabled || englishName == null) {
+            return null;
+        }
+        return moons.get(key(englishName));
+    }
+
+    /**
+     * Generacja do przekazania w put – pobierać przed zbudowaniem DTO.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Koduje DTO i wkłada do cache (jeśli od builtAtGeneration nie było zapisu). Zwraca zakodowany wpis
+     * także wtedy, gdy do cache nie trafił; null, jeśli serializacja się nie udała.
+     */
+    public CachedBody put(String englishName, SolarBodyDTO dto, long builtAtGeneration) {
+        EncodedResponse response = encode(dto);
+        if (response == null) {
+            return null;
+        }
+        CachedBody body = new CachedBody(dto, response);
+        store(cache, englishName, body, builtAtGeneration);
+        return body;
+    }
+
+    public EncodedResponse putMoons(String englishName, Object moonList, long builtAtGeneration) {
+        EncodedResponse response = encode(moonList);
+        if (response != null) {
+            store(moons, englishName, response, builtAtGeneration);
+        }
+        return response;
+    }
+
+    private <V> void store(BoundedTtlCache<String, V> target, String englishName, V value, long builtAtGeneration) {
+        if (!enabled || englishName == null) {
+            return;
+        }
+        if (generation.get() == builtAtGeneration) {
+            target.put(key(englishName), value, ttlMillis);
+            // zapis mógł wejść między sprawdzeniem a put – wtedy wpis jest potencjalnie nieaktualny
+            if (generation.get() != builtAtGeneration) {
+                target.invalidate(key(englishName));
+            }
+        }
+    }
+
+    private EncodedResponse encode(Object value) {
+        try {
+            return EncodedResponse.of(objectMapper.writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            logger.log(Level.SEVERE, "Could not serialize response", e);
+            return null;
+        }
+    }
+
+    /**
+     * Unieważnia wszystko po commicie bieżącej transakcji (albo od razu, jeśli jej nie ma).
+     */
+    public void invalidateAllAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateAll();
+                }
+            });
+        } else {
+            invalidateAll();
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+        moons.invalidateAll();
+        logger.fine("SolarBodyDTO cache invalidated");
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.putAll(cache.snapshot());
+        snapshot.put("moonLists", moons.snapshot());
+        snapshot.put("invalidations", invalidations.get());
+        return snapshot;
+    }
+
+    private static String key(String englishName) {
+        return englishName.toLowerCase(Locale.ROOT);
+    }
+
+    private class CatalogWriteListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+            PostCommitDeleteEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            invalidateAll();
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            invalidateAll();
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            invalidateAll();
+        }
+
+        // nieudany commit nic nie zmienił w bazie – cache zostaje
+        @Override
+        public void onPostInsertCommitFailed(PostInsertEvent event) {
+        }
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        }
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return true;
+        }
+    }
+}
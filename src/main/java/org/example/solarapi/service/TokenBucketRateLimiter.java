@@ -0,0 +1,120 @@
+package org.example.solarapi.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket ograniczający łączną liczbę zapytań do API na sekundę.
+ * acquire() nie blokuje wątku: rezerwuje token (bucket może "pójść na minus")
+ * i zwraca future, który kończy się dopiero wtedy, gdy zarezerwowany token faktycznie się uzbiera.
+ * Dług jest ograniczony do maxWaitMillis: jeśli token byłby dostępny później, acquire() od razu zwraca
+ * future zakończony RejectedExecutionException (bez rezerwacji) – fala żądań nie usypia kolejnych w nieskończoność.
+ * qps <= 0 wyłącza limit.
+ */
+@Component
+public class TokenBucketRateLimiter {
+
+    private final double permitsPerSecond;
+    private final double capacity;
+    private final long maxWaitMillis;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    private final AtomicLong granted = new AtomicLong();
+    private final AtomicLong delayed = new AtomicLong();
+    private final AtomicLong totalDelayMillis = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public TokenBucketRateLimiter(@Value("${solar.upstream.rate-limit.qps:20}") double permitsPerSecond,
+                                  @Value("${solar.upstream.rate-limit.burst:20}") double capacity,
+                                  @Value("${solar.upstream.rate-limit.max-wait-ms:5000}") long maxWaitMillis) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = Math.max(1, capacity);
+        this.maxWaitMillis = Math.max(0, maxWaitMillis);
+        this.tokens = this.capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public CompletableFuture<Void> acquire() {
+        if (permitsPerSecond <= 0) {
+            granted.incrementAndGet();
+            return CompletableFuture.completedFuture(null);
+        }
+        long waitMillis = reserve();
+        if (waitMillis < 0) {
+            rejected.incrementAndGet();
+            return CompletableFuture.failedFuture(new RejectedExecutionException(
+                    "Upstream rate limit: no permit within " + maxWaitMillis + " ms"));
+        }
+        granted.incrementAndGet();
+        if (waitMillis == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        delayed.incrementAndGet();
+        totalDelayMillis.addAndGet(waitMillis);
+        return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(waitMillis, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Token tylko wtedy, gdy jest od razu – bez długu i bez czekania. Dla zapytań opcjonalnych (hedge),
+     * które po czasie nie mają już sensu.
+     */
+    public boolean tryAcquire() {
+        if (permitsPerSecond <= 0) {
+            granted.incrementAndGet();
+            return true;
+        }
+        synchronized (this) {
+            refill();
+            if (tokens < 1) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            tokens -= 1;
+        }
+        granted.incrementAndGet();
+        return true;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) / 1_000_000_000.0 * permitsPerSecond);
+        lastRefillNanos = now;
+    }
+
+    // czas oczekiwania na zarezerwowany token w ms; -1 = dłużej niż maxWaitMillis, nic nie zarezerwowano
+    private synchronized long reserve() {
+        refill();
+        double remaining = tokens - 1;
+        if (remaining >= 0) {
+            tokens = remaining;
+            return 0;
+        }
+        long waitMillis = (long) Math.ceil(-remaining / permitsPerSecond * 1000);
+        if (waitMillis > maxWaitMillis) {
+            return -1;
+        }
+        tokens = remaining;
+        return waitMillis;
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("permitsPerSecond", permitsPerSecond);
+        snapshot.put("burst", capacity);
+        snapshot.put("maxWaitMs", maxWaitMillis);
+        snapshot.put("granted", granted.get());
+        snapshot.put("delayed", delayed.get());
+        snapshot.put("rejected", rejected.get());
+        snapshot.put("totalDelayMillis", totalDelayMillis.get());
+        return snapshot;
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.solarapi.service;
+
+/**
+ * Błąd komunikacji z zewnętrznym API.
+ * transientFailure = true oznacza problem przejściowy (5xx, 429, timeout, otwarty circuit breaker),
+ * false – odpowiedź, której ponawianie nic nie da (np. 400, 403, za dużo przekierowań).
+ */
+public class UpstreamException extends RuntimeException {
+
+    private final String url;
+    private final int statusCode;
+    private final boolean transientFailure;
+
+    public UpstreamException(String url, int statusCode, boolean transientFailure, String message) {
+        super(message);
+        this.url = url;
+        this.statusCode = statusCode;
+        this.transientFailure = transientFailure;
+    }
+
+    public UpstreamException(String url, int statusCode, boolean transientFailure, String message, Throwable cause) {
+        super(message, cause);
+        this.url = url;
+        this.statusCode = statusCode;
+        this.transientFailure = transientFailure;
+    }
+
+    public static UpstreamException circuitOpen(String url, String host) {
+        return new UpstreamException(url, -1, true, "Circuit breaker open for " + host + ", failing fast: " + url);
+    }
+
+    public static UpstreamException rateLimited(String url) {
+        return new UpstreamException(url, -1, true, "Upstream rate limit exceeded, not sending: " + url);
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isTransientFailure() {
+        return transientFailure;
+    }
+}
@@ -0,0 +1,192 @@
+package org.example.solarapi.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Konfiguracja i stan warstwy odporności dla zapytań do API:
+ * backoff wykładniczy z jitterem, obsługa Retry-After, limit przekierowań,
+ * circuit breaker per host, zapytania "hedged" oraz liczniki do podglądu w /api/diagnostics.
+ */
+@Component
+public class UpstreamResilience {
+
+    @Value("${solar.upstream.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${solar.upstream.backoff.initial-ms:200}")
+    private long initialBackoffMillis;
+
+    @Value("${solar.upstream.backoff.max-ms:10000}")
+    private long maxBackoffMillis;
+
+    // Górna granica dla Retry-After – serwer nie może nam kazać czekać w nieskończoność
+    @Value("${solar.upstream.retry-after.max-ms:30000}")
+    private long maxRetryAfterMillis;
+
+    @Value("${solar.upstream.max-redirects:5}")
+    private int maxRedirects;
+
+    @Value("${solar.upstream.timeout-ms:10000}")
+    private long requestTimeoutMillis;
+
+    // Ile najdłużej czeka blokujący getPlanetDetails (wszystkie próby, backoff i kolejka do limitu QPS)
+    @Value("${solar.upstream.call-timeout-ms:30000}")
+    private long callTimeoutMillis;
+
+    @Value("${solar.upstream.circuit.failure-threshold:5}")
+    private int circuitFailureThreshold;
+
+    @Value("${solar.upstream.circuit.open-ms:30000}")
+    private long circuitOpenMillis;
+
+    @Value("${solar.upstream.hedge.enabled:false}")
+    private boolean hedgingEnabled;
+
+    @Value("${solar.upstream.hedge.delay-ms:500}")
+    private long hedgeDelayMillis;
+
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong redirects = new AtomicLong();
+    private final AtomicLong rejectedByCircuit = new AtomicLong();
+    private final AtomicLong hedgesSent = new AtomicLong();
+    private final AtomicLong hedgesWon = new AtomicLong();
+    private final AtomicLong hedgesSkipped = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public CircuitBreaker breakerFor(URI uri) {
+        String host = uri.getHost() != null ? uri.getHost().toLowerCase() : "unknown";
+        return breakers.computeIfAbsent(host, h -> new CircuitBreaker(h, circuitFailureThreshold, circuitOpenMillis));
+    }
+
+    /**
+     * Opóźnienie przed kolejną próbą: min(max, initial * 2^(attempt-1)) z jitterem ("equal jitter"),
+     * ale nie krócej niż każe nagłówek Retry-After (przyciętym do maxRetryAfterMillis).
+     */
+    public long backoffMillis(int attempt, HttpResponse<?> response) {
+        long exponential = Math.min(maxBackoffMillis, initialBackoffMillis * (1L << Math.min(attempt - 1, 20)));
+        long delay = exponential / 2 + ThreadLocalRandom.current().nextLong(exponential / 2 + 1);
+        if (response != null) {
+            Long retryAfter = parseRetryAfter(response.headers().firstValue("Retry-After").orElse(null));
+            if (retryAfter != null) {
+                delay = Math.max(delay, Math.min(retryAfter, maxRetryAfterMillis));
+            }
+        }
+        return delay;
+    }
+
+    /**
+     * Retry-After może być liczbą sekund albo datą HTTP (RFC 1123).
+     */
+    static Long parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        if (trimmed.chars().allMatch(Character::isDigit)) {
+            return Long.parseLong(trimmed) * 1000;
+        }
+        try {
+            ZonedDateTime at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, Duration.between(ZonedDateTime.now(at.getZone()), at).toMillis());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    public static boolean isRetryable(int statusCode) {
+        return statusCode == 429 || statusCode >= 500;
+    }
+
+    public static boolean isRedirect(int statusCode) {
+        return statusCode == 301 || statusCode == 302 || statusCode == 303 || statusCode == 307 || statusCode == 308;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public int getMaxRedirects() {
+        return maxRedirects;
+    }
+
+    public Duration getRequestTimeout() {
+        return Duration.ofMillis(requestTimeoutMillis);
+    }
+
+    public long getCallTimeoutMillis() {
+        return callTimeoutMillis;
+    }
+
+    public boolean isHedgingEnabled() {
+        return hedgingEnabled;
+    }
+
+    public long getHedgeDelayMillis() {
+        return hedgeDelayMillis;
+    }
+
+    public void recordRequest() {
+        requests.incrementAndGet();
+    }
+
+    public void recordRetry() {
+        retries.incrementAndGet();
+    }
+
+    public void recordRedirect() {
+        redirects.incrementAndGet();
+    }
+
+    public void recordRejected() {
+        rejectedByCircuit.incrementAndGet();
+    }
+
+    public void recordHedgeSent() {
+        hedgesSent.incrementAndGet();
+    }
+
+    public void recordHedgeWon() {
+        hedgesWon.incrementAndGet();
+    }
+
+    public void recordHedgeSkipped() {
+        hedgesSkipped.incrementAndGet();
+    }
+
+    public void recordFailure() {
+        failures.incrementAndGet();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("requests", requests.get());
+        snapshot.put("retries", retries.get());
+        snapshot.put("redirects", redirects.get());
+        snapshot.put("failures", failures.get());
+        snapshot.put("rejectedByCircuit", rejectedByCircuit.get());
+        snapshot.put("hedgingEnabled", hedgingEnabled);
+        snapshot.put("hedgesSent", hedgesSent.get());
+        snapshot.put("hedgesWon", hedgesWon.get());
+        snapshot.put("hedgesSkipped", hedgesSkipped.get());
+        List<Map<String, Object>> circuits = breakers.values().stream().map(CircuitBreaker::snapshot).toList();
+        snapshot.put("circuits", circuits);
+        return snapshot;
+    }
+}
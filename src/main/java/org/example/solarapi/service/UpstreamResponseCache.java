@@ -0,0 +1,334 @@
+package org.example.solarapi.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Trwały (na dysku) cache odpowiedzi z api.le-systeme-solaire.net, kluczowany adresem URL.
+ * Dla każdego URL trzymamy surowe bajty odpowiedzi (.body) oraz metadane (.meta) z ETag
+ * i Last-Modified, żeby kolejne zapytania mogły być warunkowe (If-None-Match / If-Modified-Since),
+ * a przy 304 – odpowiedź brana jest z dysku.
+ * W trybie offline (solar.http.offline=true) nie ma żadnego ruchu sieciowego – wszystko idzie z cache.
+ */
+@Component
+public class UpstreamResponseCache {
+
+    private static final Logger logger = Logger.getLogger(UpstreamResponseCache.class.getName());
+
+    private final Path directory;
+    private final boolean enabled;
+    private final boolean offline;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong revalidated = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stored = new AtomicLong();
+
+    public UpstreamResponseCache(@Value("${solar.http.cache.dir:${user.home}/.solar-api/http-cache}") String directory,
+                                 @Value("${solar.http.cache.enabled:true}") boolean enabled,
+                                 @Value("${solar.http.offline:false}") boolean offline) {
+        this.directory = Paths.get(directory);
+        this.enabled = enabled || offline;
+        this.offline = offline;
+        if (this.enabled) {
+            try {
+                Files.createDirectories(this.directory);
+            } catch (IOException e) {
+                logger.severe("Cannot create HTTP cache directory " + this.directory + ": " + e.getMessage());
+            }
+        }
+        if (offline) {
+            logger.warning("Upstream offline mode: all responses are served from " + this.directory);
+        }
+    }
+
+    public record CachedResponse(String url, Path bodyFile, String etag, String lastModified) {
+
+        public byte[] body() throws IOException {
+            return Files.readAllBytes(bodyFile);
+        }
+
+        public InputStream openBody() throws IOException {
+            return Files.newInputStream(bodyFile);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isOffline() {
+        return offline;
+    }
+
+    /**
+     * Zwraca wpis z cache albo null, jeśli nie mamy zapisanej odpowiedzi dla tego URL.
+     * Trafienie liczy dopiero markRevalidated / markServedOffline – wpis użyty tylko do zapytania
+     * warunkowego, na które API odpowie 200, nie jest trafieniem.
+     */
+    public CachedResponse get(String url) {
+        if (!enabled) {
+            return null;
+        }
+        String key = keyFor(url);
+        Path meta = directory.resolve(key + ".meta");
+        Path body = directory.resolve(key + ".body");
+        if (!Files.exists(meta) || !Files.exists(body)) {
+            misses.incrementAndGet();
+            return null;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(meta, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            logger.warning("Cannot read HTTP cache metadata for " + url + ": " + e.getMessage());
+            misses.incrementAndGet();
+            return null;
+        }
+        return new CachedResponse(url, body, properties.getProperty("etag"), properties.getProperty("lastModified"));
+    }
+
+    /**
+     * Zapisuje odpowiedź 200 razem z walidatorami. Zapis jest atomowy (plik tymczasowy + move),
+     * więc równoległe odczyty nie zobaczą połowy pliku.
+     */
+    public void put(String url, byte[] body, String etag, String lastModified) {
+        if (!enabled || body == null) {
+            return;
+        }
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(directory, "body", ".tmp");
+            Files.write(tmp, body);
+            commit(url, tmp, etag, lastModified);
+        } catch (IOException e) {
+            logger.warning("Cannot store HTTP cache entry for " + url + ": " + e.getMessage());
+            deleteQuietly(tmp);
+        }
+    }
+
+    /**
+     * Owija strumień odpowiedzi tak, żeby przeczytane bajty równolegle lądowały w pliku tymczasowym.
+     * Wpis jest zatwierdzany dopiero po przeczytaniu strumienia do końca i jego zamknięciu –
+     * przerwane parsowanie niczego nie zapisze (close() niczego nie doczytuje, plik tymczasowy jest usuwany).
+     * Błąd zapisu kopii nie przerywa czytania odpowiedzi – wpis jest wtedy po prostu pomijany.
+     */
+    public InputStream teeToCache(String url, InputStream body, String etag, String lastModified) {
+        if (!enabled) {
+            return body;
+        }
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(directory, "body", ".tmp");
+            return new TeeInputStream(url, body, tmp, Files.newOutputStream(tmp), etag, lastModified);
+        } catch (IOException e) {
+            logger.warning("Cannot open HTTP cache entry for " + url + ": " + e.getMessage());
+            deleteQuietly(tmp);
+            return body;
+        }
+    }
+
+    /**
+     * 304 – odpowiedź wzięta z dysku po rewalidacji; liczy się też jako trafienie.
+     */
+    public void markRevalidated() {
+        revalidated.incrementAndGet();
+        hits.incrementAndGet();
+    }
+
+    /**
+     * Odpowiedź podana z dysku bez pytania API (tryb offline).
+     */
+    public void markServedOffline() {
+        hits.incrementAndGet();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getRevalidated() {
+        return revalidated.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getStored() {
+        return stored.get();
+    }
+
+    private void commit(String url, Path tmpBody, String etag, String lastModified) throws IOException {
+        String key = keyFor(url);
+        Properties properties = new Properties();
+        properties.setProperty("url", url);
+        if (etag != null) {
+            properties.setProperty("etag", etag);
+        }
+        if (lastModified != null) {
+            properties.setProperty("lastModified", lastModified);
+        }
+        properties.setProperty("storedAt", String.valueOf(System.currentTimeMillis()));
+
+        Path tmpMeta = Files.createTempFile(directory, "meta", ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(tmpMeta, StandardCharsets.UTF_8)) {
+                properties.store(writer, null);
+            }
+            Files.move(tmpBody, directory.resolve(key + ".body"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(tmpMeta, directory.resolve(key + ".meta"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            deleteQuietly(tmpMeta);
+        }
+        stored.incrementAndGet();
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warning("Cannot delete HTTP cache temp file " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Strumień z teeToCache: kopiuje przeczytane bajty do pliku tymczasowego, a przy close()
+     * zatwierdza wpis (doczytany do końca) albo usuwa plik (przerwany / błąd zapisu kopii).
+     */
+    private final class TeeInputStream extends FilterInputStream {
+
+        private final String url;
+        private final Path tmp;
+        private final String etag;
+        private final String lastModified;
+        private OutputStream copy;
+        private boolean eof;
+        private boolean closed;
+
+        TeeInputStream(String url, InputStream body, Path tmp, OutputStream copy, String etag, String lastModified) {
+            super(body);
+            this.url = url;
+            this.tmp = tmp;
+            this.copy = copy;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0) {
+                eof = true;
+            } else if (copy != null) {
+                try {
+                    copy.write(b);
+                } catch (IOException e) {
+                    abandon(e);
+                }
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n < 0) {
+                eof = true;
+            } else if (copy != null) {
+                try {
+                    copy.write(buffer, offset, n);
+                } catch (IOException e) {
+                    abandon(e);
+                }
+            }
+            return n;
+        }
+
+        // reset() czytałby te same bajty drugi raz do kopii
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        // FilterInputStream.skip pomija bajty bez read() – kopia miałaby dziurę
+        @Override
+        public long skip(long n) throws IOException {
+            if (copy != null) {
+                abandon(new IOException("skip() on a cached response stream"));
+            }
+            return super.skip(n);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                super.close();
+            } finally {
+                finish();
+            }
+        }
+
+        private void finish() {
+            if (copy == null) {
+                return;
+            }
+            try {
+                copy.close();
+                copy = null;
+                if (eof) {
+                    commit(url, tmp, etag, lastModified);
+                }
+            } catch (IOException e) {
+                logger.warning("Cannot store HTTP cache entry for " + url + ": " + e.getMessage());
+            } finally {
+                deleteQuietly(tmp);
+            }
+        }
+
+        private void abandon(IOException cause) {
+            logger.warning("Cannot store HTTP cache entry for " + url + ": " + cause.getMessage());
+            try {
+                copy.close();
+            } catch (IOException e) {
+                // plik i tak jest usuwany
+            }
+            copy = null;
+            deleteQuietly(tmp);
+        }
+    }
+
+    private static String keyFor(String url) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(url.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
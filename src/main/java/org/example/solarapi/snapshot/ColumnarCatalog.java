@@ -0,0 +1,227 @@
+package org.example.solarapi.snapshot;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Filtry i statystyki po pliku kolumnowym (solar.columnar.path), w obu trybach – z bazą i "snapshot".
+ * Plik jest mapowany na starcie i ponownie tylko po podmianie: eksport (POST /api/analytics/export) woła reload(),
+ * a WatchService na katalogu pliku łapie podmiany z zewnątrz (np. plik skopiowany z innej instancji).
+ * Czytnik siedzi w polu volatile – zapytania go tylko odczytują, bez blokady i bez stat() pliku na każde żądanie.
+ */
+@Component
+public class ColumnarCatalog {
+
+    private static final Logger logger = Logger.getLogger(ColumnarCatalog.class.getName());
+
+    private static final long DEBOUNCE_MS = 250;
+
+    @Value("${solar.columnar.path:${user.home}/.solar-api/catalog.cols}")
+    private Path path;
+
+    @Value("${solar.columnar.watch:true}")
+    private boolean watch;
+
+    private volatile ColumnarCatalogFile.Reader reader;
+
+    private WatchService watchService;
+
+    /**
+     * Filtr wierszy: bodyType (bez wielkości liter), isPlanet i zakres [min, max] wartości kolumny; null = bez warunku.
+     */
+    public record Filter(String bodyType, Boolean planet, Double min, Double max) {
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @PostConstruct
+    void start() {
+        reload();
+        Path directory = path.toAbsolutePath().getParent();
+        if (!watch || directory == null || !Files.isDirectory(directory)) {
+            // katalog powstanie przy pierwszym eksporcie, który sam woła reload()
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Could not watch " + directory + " – columnar catalog reloads only on export", e);
+            return;
+        }
+        Thread watcherThread = new Thread(this::watchLoop, "columnar-catalog-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.log(Level.FINE, "Closing columnar watch service failed", e);
+            }
+        }
+    }
+
+    /**
+     * Aktualny czytnik albo null, jeśli pliku nie ma (jeszcze nie było eksportu) lub jest nieczytelny.
+     */
+    public ColumnarCatalogFile.Reader reader() {
+        return reader;
+    }
+
+    /**
+     * Mapuje plik od nowa i publikuje nowy czytnik (stary zostaje ważny dla zapytań, które już go mają).
+     * Brak albo uszkodzony plik = null.
+     */
+    public synchronized void reload() {
+        if (!Files.exists(path)) {
+            reader = null;
+            return;
+        }
+        try {
+            ColumnarCatalogFile.Reader opened = ColumnarCatalogFile.open(path);
+            reader = opened;
+            logger.info("Mapped columnar catalog " + path + " (" + opened.rowCount() + " rows)");
+        } catch (IOException e) {
+            reader = null;
+            logger.log(Level.WARNING, "Could not map columnar catalog " + path, e);
+        }
+    }
+
+    // tylko zdarzenia dotyczące naszego pliku; seria zdarzeń (zapis, move) = jedno przemapowanie
+    private void watchLoop() {
+        Path fileName = path.getFileName();
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = drain(key, fileName);
+                WatchKey next;
+                while ((next = watchService.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(next, fileName);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // zamknięcie kontekstu
+        }
+    }
+
+    private static boolean drain(WatchKey key, Path fileName) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            changed |= event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context());
+        }
+        key.reset();
+        return changed;
+    }
+
+    public Map<String, Object> describe(ColumnarCatalogFile.Reader reader) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("path", path.toString());
+        result.put("formatVersion", ColumnarCatalogFile.FORMAT_VERSION);
+        result.put("createdAt", reader.createdAt().toString());
+        result.put("rows", reader.rowCount());
+        Map<String, String> columns = new LinkedHashMap<>();
+        reader.columns().forEach((name, column) -> columns.put(name, column.type().name()));
+        result.put("columns", columns);
+        return result;
+    }
+
+    /**
+     * Statystyki kolumny liczbowej po wierszach spełniających filtr; null, jeśli kolumna nie istnieje
+     * albo nie jest liczbowa.
+     */
+    public ColumnarCatalogFile.Stats stats(ColumnarCatalogFile.Reader reader, String columnName, Filter filter) {
+        ColumnarCatalogFile.Column column = numericColumn(reader, columnName);
+        if (column == null) {
+            return null;
+        }
+        return reader.stats(column, rowFilter(reader, column, filter));
+    }
+
+    /**
+     * Ciała spełniające filtr (englishName + wartość kolumny), w kolejności z pliku; null przy złej kolumnie.
+     */
+    public List<Map<String, Object>> filter(ColumnarCatalogFile.Reader reader, String columnName, Filter filter, int limit) {
+        ColumnarCatalogFile.Column column = numericColumn(reader, columnName);
+        if (column == null) {
+            return null;
+        }
+        ColumnarCatalogFile.Column names = reader.column("englishName");
+        IntPredicate rows = rowFilter(reader, column, filter);
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (int row = 0; row < reader.rowCount() && result.size() < limit; row++) {
+            if (rows.test(row)) {
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("englishName", reader.getString(names, row));
+                entry.put(columnName, reader.getValue(column, row));
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    private static ColumnarCatalogFile.Column numericColumn(ColumnarCatalogFile.Reader reader, String columnName) {
+        ColumnarCatalogFile.Column column = reader.column(columnName);
+        return column != null && column.type().isNumeric() ? column : null;
+    }
+
+    // warunki na kodach słownika i prymitywach – bez dekodowania napisów w pętli
+    private static IntPredicate rowFilter(ColumnarCatalogFile.Reader reader, ColumnarCatalogFile.Column column,
+                                          Filter filter) {
+        IntPredicate predicate = row -> true;
+        if (filter.bodyType() != null) {
+            ColumnarCatalogFile.Column bodyType = reader.column("bodyType");
+            BitSet codes = reader.codesEqualIgnoreCase(filter.bodyType());
+            predicate = predicate.and(row -> {
+                int code = reader.code(bodyType, row);
+                return code >= 0 && codes.get(code);
+            });
+        }
+        if (filter.planet() != null) {
+            ColumnarCatalogFile.Column planet = reader.column("isPlanet");
+            boolean expected = filter.planet();
+            predicate = predicate.and(row -> Boolean.valueOf(expected).equals(reader.getValue(planet, row)));
+        }
+        if (filter.min() != null) {
+            double min = filter.min();
+            predicate = predicate.and(row -> reader.getDouble(column, row) >= min);
+        }
+        if (filter.max() != null) {
+            double max = filter.max();
+            predicate = predicate.and(row -> reader.getDouble(column, row) <= max);
+        }
+        return predicate;
+    }
+}
@@ -0,0 +1,421 @@
+package org.example.solarapi.snapshot;
+
+import org.example.solarapi.model.SolarBodies;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+
+/**
+ * Kolumnowy plik katalogu do analityki: jedna kolumna prymitywów na pole liczbowe Solar_Bodies
+ * i słownik dla pól tekstowych (kolumna tekstowa = indeksy int do słownika, -1 = null).
+ * Czytany przez FileChannel.map – skany i agregaty chodzą po buforze, bez encji i bez bazy.
+ * Układ (little-endian, żeby plik dało się wprost zmapować np. w numpy):
+ * - nagłówek: MAGIC, FORMAT_VERSION, liczba wierszy, liczba kolumn, createdAt (epoch ms),
+ * - katalog kolumn: nazwa (int długość + UTF-8), typ (byte), offset danych, offset bitmapy null (long),
+ * - słownik: liczba wpisów, offsety (int, liczba+1), bajty UTF-8,
+ * - dane kolumn (wyrównane do 8 bajtów) i bitmapy null (bit = wartość jest null).
+ */
+public final class ColumnarCatalogFile {
+
+    public static final int MAGIC = 0x534F4C43; // "SOLC"
+    public static final int FORMAT_VERSION = 1;
+
+    public enum Type {
+        LONG(8), DOUBLE(8), INT(4), BOOLEAN(1), STRING(4);
+
+        private final int width;
+
+        Type(int width) {
+            this.width = width;
+        }
+
+        public boolean isNumeric() {
+            return this == LONG || this == DOUBLE || this == INT;
+        }
+    }
+
+    private record ColumnDef(String name, Type type, Function<SolarBodies, Object> getter) {
+    }
+
+    // Kolejność kolumn w pliku; nowa kolumna = nowa wersja formatu
+    private static final List<ColumnDef> COLUMNS = List.of(
+            new ColumnDef("idNumber", Type.LONG, SolarBodies::getIdNumber),
+            new ColumnDef("externalId", Type.STRING, SolarBodies::getExternalId),
+            new ColumnDef("englishName", Type.STRING, SolarBodies::getEnglishName),
+            new ColumnDef("bodyType", Type.STRING, SolarBodies::getBodyType),
+            new ColumnDef("isPlanet", Type.BOOLEAN, SolarBodies::isPlanet),
+            new ColumnDef("semimajorAxis", Type.LONG, SolarBodies::getSemimajorAxis),
+            new ColumnDef("perihelion", Type.LONG, SolarBodies::getPerihelion),
+            new ColumnDef("aphelion", Type.LONG, SolarBodies::getAphelion),
+            new ColumnDef("eccentricity", Type.DOUBLE, SolarBodies::getEccentricity),
+            new ColumnDef("inclination", Type.DOUBLE, SolarBodies::getInclination),
+            new ColumnDef("massValue", Type.DOUBLE, b -> b.getMass() != null ? b.getMass().getMassValue() : null),
+            new ColumnDef("massExponent", Type.INT, b -> b.getMass() != null ? b.getMass().getMassExponent() : null),
+            new ColumnDef("volValue", Type.DOUBLE, b -> b.getVol() != null ? b.getVol().getVolValue() : null),
+            new ColumnDef("volExponent", Type.INT, b -> b.getVol() != null ? b.getVol().getVolExponent() : null),
+            new ColumnDef("gravity", Type.DOUBLE, SolarBodies::getGravity),
+            new ColumnDef("escape", Type.DOUBLE, SolarBodies::getEscape),
+            new ColumnDef("meanRadius", Type.DOUBLE, SolarBodies::getMeanRadius),
+            new ColumnDef("equaRadius", Type.DOUBLE, SolarBodies::getEquaRadius),
+            new ColumnDef("polarRadius", Type.DOUBLE, SolarBodies::getPolarRadius),
+            new ColumnDef("sideralOrbit", Type.DOUBLE, SolarBodies::getSideralOrbit),
+            new ColumnDef("sideralRotation", Type.DOUBLE, SolarBodies::getSideralRotation),
+            new ColumnDef("discoveredBy", Type.STRING, SolarBodies::getDiscoveredBy),
+            new ColumnDef("discoveryDate", Type.STRING, SolarBodies::getDiscoveryDate),
+            new ColumnDef("alternativeName", Type.STRING, SolarBodies::getAlternativeName),
+            new ColumnDef("axialTilt", Type.DOUBLE, SolarBodies::getAxialTilt),
+            new ColumnDef("avgTemp", Type.DOUBLE, SolarBodies::getAvgTemp),
+            new ColumnDef("moonCount", Type.INT, SolarBodies::getMoonCount),
+            new ColumnDef("lastFetchedAt", Type.LONG,
+                    b -> b.getLastFetchedAt() != null ? b.getLastFetchedAt().toEpochMilli() : null)
+    );
+
+    private ColumnarCatalogFile() {
+    }
+
+    /**
+     * Zapis całego pliku naraz (katalog ma setki wierszy, więc bufor w pamięci jest tańszy niż pisanie kawałkami).
+     */
+    public static void write(List<SolarBodies> bodies, Instant createdAt, Path target) throws IOException {
+        int rows = bodies.size();
+        int nullBytes = (rows + 7) / 8;
+
+        List<String> dictionary = new ArrayList<>();
+        Map<String, Integer> codes = new HashMap<>();
+        Object[][] values = new Object[COLUMNS.size()][rows];
+        for (int c = 0; c < COLUMNS.size(); c++) {
+            ColumnDef column = COLUMNS.get(c);
+            for (int r = 0; r < rows; r++) {
+                Object value = column.getter().apply(bodies.get(r));
+                if (column.type() == Type.STRING && value != null) {
+                    value = codes.computeIfAbsent((String) value, s -> {
+                        dictionary.add(s);
+                        return dictionary.size() - 1;
+                    });
+                }
+                values[c][r] = value;
+            }
+        }
+
+        List<byte[]> names = new ArrayList<>();
+        int headerSize = 4 + 4 + 4 + 4 + 8;
+        for (ColumnDef column : COLUMNS) {
+            byte[] name = column.name().getBytes(StandardCharsets.UTF_8);
+            names.add(name);
+            headerSize += 4 + name.length + 1 + 8 + 8;
+        }
+        List<byte[]> dictionaryBytes = new ArrayList<>(dictionary.size());
+        int dictionarySize = 4 + 4 * (dictionary.size() + 1);
+        for (String entry : dictionary) {
+            byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+            dictionaryBytes.add(bytes);
+            dictionarySize += bytes.length;
+        }
+
+        long[] dataOffsets = new long[COLUMNS.size()];
+        long[] nullOffsets = new long[COLUMNS.size()];
+        long position = align(headerSize + dictionarySize);
+        for (int c = 0; c < COLUMNS.size(); c++) {
+            dataOffsets[c] = position;
+            position = align(position + (long) rows * COLUMNS.get(c).type().width);
+            nullOffsets[c] = position;
+            position = align(position + nullBytes);
+        }
+        if (position > Integer.MAX_VALUE) {
+            throw new IOException("Columnar catalog too large: " + position + " bytes");
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) position).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(rows).putInt(COLUMNS.size()).putLong(createdAt.toEpochMilli());
+        for (int c = 0; c < COLUMNS.size(); c++) {
+            buffer.putInt(names.get(c).length).put(names.get(c));
+            buffer.put((byte) COLUMNS.get(c).type().ordinal());
+            buffer.putLong(dataOffsets[c]).putLong(nullOffsets[c]);
+        }
+        buffer.putInt(dictionary.size());
+        int offset = 0;
+        for (byte[] bytes : dictionaryBytes) {
+            buffer.putInt(offset);
+            offset += bytes.length;
+        }
+        buffer.putInt(offset);
+        for (byte[] bytes : dictionaryBytes) {
+            buffer.put(bytes);
+        }
+
+        for (int c = 0; c < COLUMNS.size(); c++) {
+            Type type = COLUMNS.get(c).type();
+            int data = (int) dataOffsets[c];
+            int nulls = (int) nullOffsets[c];
+            for (int r = 0; r < rows; r++) {
+                Object value = values[c][r];
+                if (value == null) {
+                    buffer.put(nulls + r / 8, (byte) (buffer.get(nulls + r / 8) | (1 << (r % 8))));
+                    if (type == Type.STRING) {
+                        buffer.putInt(data + r * 4, -1);
+                    }
+                    continue;
+                }
+                switch (type) {
+                    case LONG -> buffer.putLong(data + r * 8, (Long) value);
+                    case DOUBLE -> buffer.putDouble(data + r * 8, (Double) value);
+                    case INT, STRING -> buffer.putInt(data + r * 4, (Integer) value);
+                    case BOOLEAN -> buffer.put(data + r, (byte) ((Boolean) value ? 1 : 0));
+                }
+            }
+        }
+
+        buffer.rewind();
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+    }
+
+    public static Reader open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // mapowanie zostaje ważne po zamknięciu kanału
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new Reader(mapped.order(ByteOrder.LITTLE_ENDIAN));
+        }
+    }
+
+    private static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+
+    public record Column(String name, Type type, int dataOffset, int nullOffset) {
+    }
+
+    public record Stats(long count, long nulls, Double min, Double max, Double sum, Double mean) {
+    }
+
+    /**
+     * Czytnik zmapowanego pliku. Tylko odczyty absolutne (get(index)), więc jedna instancja
+     * może być używana z wielu wątków naraz. Konstruktor sprawdza wszystkie offsety z pliku,
+     * więc gettery mogą już czytać bez sprawdzania granic.
+     */
+    public static final class Reader {
+
+        private final ByteBuffer buffer;
+        private final int rowCount;
+        private final Instant createdAt;
+        private final Map<String, Column> columns = new LinkedHashMap<>();
+        private final String[] dictionary;
+
+        private Reader(ByteBuffer buffer) throws IOException {
+            this.buffer = buffer;
+            int size = buffer.limit();
+            checkRange(0, 24, size, "header");
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a columnar solar catalog");
+            }
+            int version = buffer.getInt(4);
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported columnar format version " + version + " (expected " + FORMAT_VERSION + ")");
+            }
+            rowCount = buffer.getInt(8);
+            int columnCount = buffer.getInt(12);
+            if (rowCount < 0 || columnCount < 0) {
+                throw new IOException("Corrupted columnar catalog: " + rowCount + " rows, " + columnCount + " columns");
+            }
+            createdAt = Instant.ofEpochMilli(buffer.getLong(16));
+
+            // offsety i długości z pliku sprawdzamy względem rozmiaru mapowania – uszkodzony albo ucięty plik
+            // kończy się IOException tutaj, a nie IndexOutOfBoundsException w środku zapytania
+            int position = 24;
+            Type[] types = Type.values();
+            for (int c = 0; c < columnCount; c++) {
+                checkRange(position, 4, size, "column name length");
+                int nameLength = buffer.getInt(position);
+                checkRange(position + 4L, nameLength, size, "column name");
+                String name = readUtf8(position + 4, nameLength);
+                position += 4 + nameLength;
+                checkRange(position, 17, size, "column " + name);
+                int typeOrdinal = buffer.get(position);
+                if (typeOrdinal < 0 || typeOrdinal >= types.length) {
+                    throw new IOException("Corrupted columnar catalog: unknown type " + typeOrdinal + " of column " + name);
+                }
+                Type type = types[typeOrdinal];
+                long dataOffset = buffer.getLong(position + 1);
+                long nullOffset = buffer.getLong(position + 9);
+                checkRange(dataOffset, (long) rowCount * type.width, size, "data of column " + name);
+                checkRange(nullOffset, (rowCount + 7L) / 8, size, "null bitmap of column " + name);
+                position += 17;
+                columns.put(name, new Column(name, type, (int) dataOffset, (int) nullOffset));
+            }
+
+            // słownik jest mały (nazwy, typy, odkrywcy) – dekodujemy go raz
+            checkRange(position, 4, size, "dictionary size");
+            int entries = buffer.getInt(position);
+            if (entries < 0) {
+                throw new IOException("Corrupted columnar catalog: " + entries + " dictionary entries");
+            }
+            int offsets = position + 4;
+            checkRange(offsets, 4L * (entries + 1L), size, "dictionary offsets");
+            int bytes = offsets + 4 * (entries + 1);
+            dictionary = new String[entries];
+            for (int i = 0; i < entries; i++) {
+                int start = buffer.getInt(offsets + 4 * i);
+                int end = buffer.getInt(offsets + 4 * (i + 1));
+                checkRange(bytes + (long) start, (long) end - start, size, "dictionary entry " + i);
+                dictionary[i] = readUtf8(bytes + start, end - start);
+            }
+
+            // kody w kolumnach tekstowych muszą wskazywać w słownik (-1 = null)
+            for (Column column : columns.values()) {
+                if (column.type() != Type.STRING) {
+                    continue;
+                }
+                for (int row = 0; row < rowCount; row++) {
+                    int code = code(column, row);
+                    if (code < -1 || code >= entries) {
+                        throw new IOException("Corrupted columnar catalog: code " + code + " in column "
+                                + column.name() + " outside dictionary of " + entries);
+                    }
+                }
+            }
+        }
+
+        private static void checkRange(long offset, long length, int size, String what) throws IOException {
+            if (offset < 0 || length < 0 || offset + length > size) {
+                throw new IOException("Corrupted columnar catalog: " + what + " at " + offset + " (+" + length
+                        + " bytes) outside file of " + size + " bytes");
+            }
+        }
+
+        public int rowCount() {
+            return rowCount;
+        }
+
+        public Instant createdAt() {
+            return createdAt;
+        }
+
+        public Map<String, Column> columns() {
+            return Collections.unmodifiableMap(columns);
+        }
+
+        /**
+         * Kolumna po nazwie albo null, jeśli nie ma takiej w pliku.
+         */
+        public Column column(String name) {
+            return columns.get(name);
+        }
+
+        public boolean isNull(Column column, int row) {
+            return (buffer.get(column.nullOffset() + row / 8) & (1 << (row % 8))) != 0;
+        }
+
+        /**
+         * Wartość kolumny liczbowej jako double (LONG/INT rozszerzane); dla null – NaN.
+         */
+        public double getDouble(Column column, int row) {
+            if (isNull(column, row)) {
+                return Double.NaN;
+            }
+            return switch (column.type()) {
+                case DOUBLE -> buffer.getDouble(column.dataOffset() + row * 8);
+                case LONG -> buffer.getLong(column.dataOffset() + row * 8);
+                case INT -> buffer.getInt(column.dataOffset() + row * 4);
+                case BOOLEAN -> buffer.get(column.dataOffset() + row);
+                case STRING -> throw new IllegalArgumentException("Column " + column.name() + " is not numeric");
+            };
+        }
+
+        public Object getValue(Column column, int row) {
+            if (isNull(column, row)) {
+                return null;
+            }
+            return switch (column.type()) {
+                case DOUBLE -> buffer.getDouble(column.dataOffset() + row * 8);
+                case LONG -> buffer.getLong(column.dataOffset() + row * 8);
+                case INT -> buffer.getInt(column.dataOffset() + row * 4);
+                case BOOLEAN -> buffer.get(column.dataOffset() + row) != 0;
+                case STRING -> dictionary[code(column, row)];
+            };
+        }
+
+        /**
+         * Indeks słownika dla kolumny tekstowej (-1 = null) – filtry porównują kody, nie napisy.
+         */
+        public int code(Column column, int row) {
+            return buffer.getInt(column.dataOffset() + row * 4);
+        }
+
+        public String getString(Column column, int row) {
+            int code = code(column, row);
+            return code >= 0 ? dictionary[code] : null;
+        }
+
+        /**
+         * Kody słownika równe value bez wielkości liter (jak porównania w MySQL); pusty zbiór = nic nie pasuje.
+         */
+        public BitSet codesEqualIgnoreCase(String value) {
+            BitSet matches = new BitSet(dictionary.length);
+            for (int i = 0; i < dictionary.length; i++) {
+                if (dictionary[i].equalsIgnoreCase(value)) {
+                    matches.set(i);
+                }
+            }
+            return matches;
+        }
+
+        /**
+         * Agregaty kolumny liczbowej po wierszach spełniających filtr; wartości null liczone osobno.
+         */
+        public Stats stats(Column column, IntPredicate rowFilter) {
+            if (!column.type().isNumeric()) {
+                throw new IllegalArgumentException("Column " + column.name() + " is not numeric");
+            }
+            long count = 0;
+            long nulls = 0;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            double sum = 0;
+            for (int row = 0; row < rowCount; row++) {
+                if (!rowFilter.test(row)) {
+                    continue;
+                }
+                if (isNull(column, row)) {
+                    nulls++;
+                    continue;
+                }
+                double value = getDouble(column, row);
+                count++;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                sum += value;
+            }
+            if (count == 0) {
+                return new Stats(0, nulls, null, null, null, null);
+            }
+            return new Stats(count, nulls, min, max, sum, sum / count);
+        }
+
+        private String readUtf8(int position, int length) {
+            byte[] bytes = new byte[length];
+            buffer.get(position, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
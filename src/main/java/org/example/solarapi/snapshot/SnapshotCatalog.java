@@ -0,0 +1,238 @@
+package org.example.solarapi.snapshot;
+
+import jakarta.annotation.PostConstruct;
+import org.example.solarapi.dto.CatalogFilter;
+import org.example.solarapi.dto.CatalogPage;
+import org.example.solarapi.dto.MoonDTO;
+import org.example.solarapi.dto.SolarBodyDTO;
+import org.example.solarapi.dto.SolarBodySummary;
+import org.example.solarapi.mapper.SolarBodyMapper;
+import org.example.solarapi.model.Moon;
+import org.example.solarapi.model.SolarBodies;
+import org.example.solarapi.service.CatalogQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Katalog w pamięci dla profilu "snapshot": wczytywany raz na starcie z pliku SolarCatalogSnapshot
+ * (solar.snapshot.path), bez DataSource, JPA i Liquibase. DTO z rozwiniętymi księżycami są liczone od razu
+ * przy starcie, więc GET to tylko odczyt z mapy. Nazwy porównujemy bez wielkości liter – jak kolacja MySQL.
+ * Lista katalogu (list) filtruje i sortuje w pamięci z tymi samymi parametrami i kursorami co SolarBodiesCatalogService;
+ * DTO z tańszymi teksturami (?lod=) są liczone przy pierwszym żądaniu danego poziomu i trzymane obok pełnych.
+ * Brak albo uszkodzony plik = aplikacja nie wstaje (lepiej niż węzeł serwujący pusty katalog).
+ */
+@Component
+@Profile("snapshot")
+public class SnapshotCatalog {
+
+    private static final Logger logger = Logger.getLogger(SnapshotCatalog.class.getName());
+
+    @Value("${solar.snapshot.path:${user.home}/.solar-api/catalog.snap}")
+    private Path snapshotPath;
+
+    @Value("${solar.catalog.default-limit:50}")
+    private int defaultLimit;
+
+    @Value("${solar.catalog.max-limit:500}")
+    private int maxLimit;
+
+    private SolarCatalogSnapshot.Catalog catalog;
+    private final Map<String, SolarBodyDTO> dtosByName = new HashMap<>();
+    // "nazwa@lod" -> DTO z adresami pomniejszonych tekstur; najwyżej ciała × AssetManifest.TEXTURE_LODS
+    private final Map<String, SolarBodyDTO> lodDtos = new ConcurrentHashMap<>();
+    private final List<CatalogQuery.Row> summaries = new ArrayList<>();
+    private final Map<String, List<Moon>> moonsByName = new HashMap<>();
+    private final Map<Long, SolarBodies> byId = new HashMap<>();
+    private final Map<String, SolarBodies> byName = new HashMap<>();
+    private final Map<String, SolarBodies> byExternalId = new HashMap<>();
+
+    @PostConstruct
+    void load() {
+        long start = System.nanoTime();
+        try (InputStream in = Files.newInputStream(snapshotPath)) {
+            catalog = SolarCatalogSnapshot.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load catalog snapshot from " + snapshotPath, e);
+        }
+
+        for (SolarBodies body : catalog.bodies()) {
+            if (body.getIdNumber() != null) {
+                byId.put(body.getIdNumber(), body);
+                summaries.add(new CatalogQuery.Row(body.getIdNumber(), summary(body)));
+            }
+            if (body.getEnglishName() != null) {
+                byName.putIfAbsent(key(body.getEnglishName()), body);
+            }
+            if (body.getExternalId() != null) {
+                byExternalId.putIfAbsent(key(body.getExternalId()), body);
+            }
+        }
+
+        for (SolarBodies body : byName.values()) {
+            dtosByName.put(key(body.getEnglishName()), buildDto(body));
+
+            List<Moon> sortedMoons = new ArrayList<>(body.getMoons());
+            sortedMoons.sort(Comparator.comparing(moon -> moon.getId() != null ? moon.getId() : Long.MAX_VALUE));
+            moonsByName.put(key(body.getEnglishName()), List.copyOf(sortedMoons));
+        }
+        logger.info("Loaded catalog snapshot " + snapshotPath + " (" + catalog.bodies().size() + " bodies, created "
+                + catalog.createdAt() + ") in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * DTO jak z GET /api/solarbodies/{name} albo null, jeśli nie ma takiego ciała.
+     */
+    public SolarBodyDTO findDto(String englishName) {
+        return englishName != null ? dtosByName.get(key(englishName)) : null;
+    }
+
+    /**
+     * Jak findDto, ale z adresami tekstur na poziomie lod (null = pełna rozdzielczość). lod musi być z TEXTURE_LODS.
+     * applyTextureLod modyfikuje DTO, więc każdy poziom dostaje własne, zbudowane od nowa z ciała.
+     */
+    public SolarBodyDTO findDto(String englishName, String lod) {
+        if (lod == null || englishName == null) {
+            return findDto(englishName);
+        }
+        SolarBodies body = byName.get(key(englishName));
+        if (body == null) {
+            return null;
+        }
+        return lodDtos.computeIfAbsent(key(body.getEnglishName()) + "@" + lod, cacheKey -> {
+            SolarBodyDTO dto = buildDto(body);
+            SolarBodyMapper.applyTextureLod(dto, lod);
+            return dto;
+        });
+    }
+
+    /**
+     * Strona listy jak GET /api/solarbodies w SolarBodiesCatalogService: te same filtry (zakresy domknięte,
+     * bodyType bez wielkości liter), pomijane wiersze z pustą kolumną sortowania, ten sam format kursora.
+     */
+    public CatalogPage list(CatalogFilter filter) {
+        CatalogQuery query = CatalogQuery.parse(filter, defaultLimit, maxLimit);
+        CatalogQuery.SortKey sortKey = query.sortKey();
+        Comparator<CatalogQuery.Row> order = Comparator
+                .<CatalogQuery.Row, Object>comparing(row -> sortKey.value(row.summary()), sortKey::compare)
+                .thenComparingLong(CatalogQuery.Row::id);
+        List<CatalogQuery.Row> rows = summaries.stream()
+                .filter(row -> matches(row.summary(), filter))
+                .filter(row -> sortKey.value(row.summary()) != null)
+                .filter(row -> query.isAfterCursor(row.id(), sortKey.value(row.summary())))
+                .sorted(query.descending() ? order.reversed() : order)
+                .limit(query.limit() + 1L)
+                .toList();
+        return query.page(rows);
+    }
+
+    /**
+     * Księżyce ciała (puste, jeśli ciała nie ma) – jak GET /api/solarbodies/{name}/moons.
+     */
+    public List<Moon> findMoons(String englishName) {
+        return englishName != null ? moonsByName.getOrDefault(key(englishName), List.of()) : List.of();
+    }
+
+    public Map<String, Object> info() {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("path", snapshotPath.toString());
+        info.put("formatVersion", SolarCatalogSnapshot.FORMAT_VERSION);
+        info.put("createdAt", catalog.createdAt().toString());
+        info.put("source", catalog.source());
+        info.put("bodies", catalog.bodies().size());
+        return info;
+    }
+
+    private static boolean matches(SolarBodySummary summary, CatalogFilter filter) {
+        return (filter.getBodyType() == null || filter.getBodyType().equalsIgnoreCase(summary.getBodyType()))
+                && (filter.getIsPlanet() == null || filter.getIsPlanet() == summary.isPlanet())
+                && inRange(summary.getMeanRadius(), filter.getMinMeanRadius(), filter.getMaxMeanRadius())
+                && inRange(summary.getMassKg(), filter.getMinMass(), filter.getMaxMass())
+                && inRange(summary.getSemimajorAxis(), filter.getMinSemimajorAxis(), filter.getMaxSemimajorAxis())
+                && inRange(summary.getEccentricity(), filter.getMinEccentricity(), filter.getMaxEccentricity())
+                && inRange(summary.getAvgTemp(), filter.getMinAvgTemp(), filter.getMaxAvgTemp());
+    }
+
+    // jak "kolumna >= ? AND kolumna <= ?" w SQL: pusta wartość nie spełnia żadnego ograniczenia
+    private static <T extends Comparable<T>> boolean inRange(T value, T min, T max) {
+        if (min == null && max == null) {
+            return true;
+        }
+        return value != null && (min == null || value.compareTo(min) >= 0) && (max == null || value.compareTo(max) <= 0);
+    }
+
+    private static SolarBodySummary summary(SolarBodies body) {
+        SolarBodySummary summary = new SolarBodySummary();
+        summary.setEnglishName(body.getEnglishName());
+        summary.setBodyType(body.getBodyType());
+        summary.setPlanet(body.isPlanet());
+        summary.setMeanRadius(body.getMeanRadius());
+        summary.setMassKg(body.getMass() != null ? body.getMass().toKilograms() : null);
+        summary.setSemimajorAxis(body.getSemimajorAxis());
+        summary.setEccentricity(body.getEccentricity());
+        summary.setAvgTemp(body.getAvgTemp());
+        summary.setMoonCount(body.getMoonCount());
+        return summary;
+    }
+
+    // DTO z rozwiniętymi księżycami – jak SolarBodiesService.readSolarBody + expandUnlinkedMoons, bez API
+    private SolarBodyDTO buildDto(SolarBodies body) {
+        SolarBodyDTO dto = SolarBodyMapper.convertToDTO(body);
+        Set<MoonDTO> moons = new HashSet<>();
+        for (Moon moon : body.getMoons()) {
+            SolarBodies moonBody = resolveMoonBody(moon);
+            moons.add(moonBody != null ? SolarBodyMapper.convertSolarBodyToMoonDTO(moonBody)
+                    : SolarBodyMapper.convertMoonToDTO(moon));
+        }
+        dto.setMoons(moons);
+        return dto;
+    }
+
+    // jak przy odczycie z bazy: moon_body_id, potem id z "rel" (lookupMoon), na końcu nazwa
+    private SolarBodies resolveMoonBody(Moon moon) {
+        Long moonBodyId = moon.getId() != null ? catalog.moonBodyIds().get(moon.getId()) : null;
+        if (moonBodyId != null && byId.containsKey(moonBodyId)) {
+            return byId.get(moonBodyId);
+        }
+        String externalId = externalIdFromRel(moon.getRel());
+        if (externalId != null && byExternalId.containsKey(key(externalId))) {
+            return byExternalId.get(key(externalId));
+        }
+        return moon.getMoon() != null ? byName.get(key(moon.getMoon())) : null;
+    }
+
+    private static String externalIdFromRel(String rel) {
+        if (rel == null || rel.isBlank()) {
+            return null;
+        }
+        String path = rel.trim();
+        while (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        String id = path.substring(path.lastIndexOf('/') + 1);
+        return id.isEmpty() ? null : URLDecoder.decode(id, StandardCharsets.UTF_8);
+    }
+
+    private static String key(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
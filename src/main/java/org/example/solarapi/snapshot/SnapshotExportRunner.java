@@ -0,0 +1,35 @@
+package org.example.solarapi.snapshot;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/**
+ * Jednorazowy eksport zamiast serwera: java -jar solar-api.jar --solar.snapshot.export=/ścieżka/catalog.snap
+ * (podłączone do primary, tak jak zwykła instancja). SolarApiApplication uruchamia wtedy kontekst bez serwera WWW
+ * i po runnerach kończy proces: kod 0 po zapisaniu pliku, 1, gdy eksport rzucił wyjątek.
+ */
+@Component
+@Profile("!snapshot")
+@ConditionalOnProperty(name = "solar.snapshot.export")
+public class SnapshotExportRunner implements ApplicationRunner {
+
+    public static final String EXPORT_PROPERTY = "solar.snapshot.export";
+
+    @Autowired
+    private SnapshotExporter snapshotExporter;
+
+    @Value("${solar.snapshot.export}")
+    private Path target;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        snapshotExporter.export(target);
+    }
+}
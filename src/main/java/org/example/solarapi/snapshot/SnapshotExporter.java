@@ -0,0 +1,195 @@
+package org.example.solarapi.snapshot;
+
+import org.example.solarapi.model.Mass;
+import org.example.solarapi.model.Moon;
+import org.example.solarapi.model.SolarBodies;
+import org.example.solarapi.model.Vol;
+import jakarta.annotation.PostConstruct;
+import org.example.solarapi.configuration.ReadWriteRoutingDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Eksport katalogu z bazy (primary) do pliku SolarCatalogSnapshot dla węzłów w profilu "snapshot"
+ * albo do pliku kolumnowego ColumnarCatalogFile dla analityki.
+ * Czyta JDBC-em (bez encji) w jednej transakcji, żeby ciała i księżyce pochodziły z tego samego stanu bazy.
+ * Eksport ma być z primary (replika może być opóźniona), więc przy włączonym routingu czyta prosto z puli primary
+ * (ReadWriteRoutingDataSource.getPrimary) przez własny DataSourceTransactionManager – z pominięciem
+ * JpaTransactionManagera, który przy zwalnianiu połączeń po transakcji nie przyjmuje własnej izolacji.
+ * Spójny obraz daje REPEATABLE READ – InnoDB czyta z jednego snapshotu.
+ * Plik jest pisany obok docelowego i podmieniany atomowo – czytający nigdy nie zobaczy połowy pliku.
+ */
+@Component
+@Profile("!snapshot")
+public class SnapshotExporter {
+
+    private static final Logger logger = Logger.getLogger(SnapshotExporter.class.getName());
+
+    @Autowired
+    private DataSource dataSource;
+
+    // tylko przy solar.datasource.routing.enabled=true
+    @Autowired(required = false)
+    private ReadWriteRoutingDataSource readWriteRoutingDataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        DataSource primary = readWriteRoutingDataSource != null ? readWriteRoutingDataSource.getPrimary() : dataSource;
+        jdbcTemplate = new JdbcTemplate(primary);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(primary));
+        transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        transactionTemplate.setReadOnly(true);
+    }
+
+    public SolarCatalogSnapshot.Catalog export(Path target) throws IOException {
+        long start = System.nanoTime();
+        SolarCatalogSnapshot.Catalog catalog = transactionTemplate.execute(status -> readCatalog());
+        Path temp = tempFileNextTo(target);
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                SolarCatalogSnapshot.write(catalog, out);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        logger.info("Exported catalog snapshot " + target + ": " + catalog.bodies().size() + " bodies, "
+                + Files.size(target) + " bytes in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return catalog;
+    }
+
+    /**
+     * Eksport Solar_Bodies do pliku kolumnowego (ColumnarCatalogFile) dla analityki – bez księżyców.
+     */
+    public int exportColumnar(Path target) throws IOException {
+        long start = System.nanoTime();
+        SolarCatalogSnapshot.Catalog catalog = transactionTemplate.execute(status -> readCatalog());
+        Path temp = tempFileNextTo(target);
+        try {
+            ColumnarCatalogFile.write(catalog.bodies(), catalog.createdAt(), temp);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        logger.info("Exported columnar catalog " + target + ": " + catalog.bodies().size() + " rows, "
+                + Files.size(target) + " bytes in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return catalog.bodies().size();
+    }
+
+    private SolarCatalogSnapshot.Catalog readCatalog() {
+        Map<Long, SolarBodies> bodies = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT * FROM Solar_Bodies ORDER BY id_number", rs -> {
+            SolarBodies body = mapBody(rs);
+            bodies.put(body.getIdNumber(), body);
+        });
+
+        Map<Long, Long> moonBodyIds = new HashMap<>();
+        Map<Long, List<Moon>> moonsByBody = new HashMap<>();
+        jdbcTemplate.query("SELECT id, solar_bodies_id, moon, original_name, rel, moon_body_id FROM Moons ORDER BY id", rs -> {
+            Moon moon = new Moon();
+            moon.setId(rs.getLong("id"));
+            moon.setMoon(rs.getString("moon"));
+            moon.setOriginalName(rs.getString("original_name"));
+            moon.setRel(rs.getString("rel"));
+            long moonBodyId = rs.getLong("moon_body_id");
+            if (!rs.wasNull()) {
+                moonBodyIds.put(moon.getId(), moonBodyId);
+            }
+            moonsByBody.computeIfAbsent(rs.getLong("solar_bodies_id"), id -> new ArrayList<>()).add(moon);
+        });
+        for (SolarBodies body : bodies.values()) {
+            Integer moonCount = body.getMoonCount();
+            body.setMoons(new HashSet<>(moonsByBody.getOrDefault(body.getIdNumber(), List.of())));
+            body.setMoonCount(moonCount);
+        }
+
+        return new SolarCatalogSnapshot.Catalog(Instant.now(), jdbcUrl(), new ArrayList<>(bodies.values()), moonBodyIds);
+    }
+
+    // plik tymczasowy w tym samym katalogu, żeby move był atomowy (ten sam system plików)
+    private static Path tempFileNextTo(Path target) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        return Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+    }
+
+    private String jdbcUrl() {
+        return jdbcTemplate.execute((java.sql.Connection connection) -> connection.getMetaData().getURL());
+    }
+
+    private static SolarBodies mapBody(ResultSet rs) throws SQLException {
+        SolarBodies body = new SolarBodies();
+        body.setIdNumber(rs.getLong("id_number"));
+        body.setExternalId(rs.getString("external_id"));
+        body.setEnglishName(rs.getString("english_name"));
+        body.setBodyType(rs.getString("body_type"));
+        body.setPlanet(rs.getBoolean("is_planet"));
+        body.setSemimajorAxis(rs.getObject("semimajor_axis", Long.class));
+        body.setPerihelion(rs.getObject("perihelion", Long.class));
+        body.setAphelion(rs.getObject("aphelion", Long.class));
+        body.setEccentricity(rs.getObject("eccentricity", Double.class));
+        body.setInclination(rs.getObject("inclination", Double.class));
+        Double massValue = rs.getObject("mass_value", Double.class);
+        Integer massExponent = rs.getObject("mass_exponent", Integer.class);
+        if (massValue != null || massExponent != null) {
+            Mass mass = new Mass();
+            mass.setMassValue(massValue);
+            mass.setMassExponent(massExponent);
+            body.setMass(mass);
+        }
+        Double volValue = rs.getObject("vol_value", Double.class);
+        Integer volExponent = rs.getObject("vol_exponent", Integer.class);
+        if (volValue != null || volExponent != null) {
+            Vol vol = new Vol();
+            vol.setVolValue(volValue);
+            vol.setVolExponent(volExponent);
+            body.setVol(vol);
+        }
+        body.setGravity(rs.getObject("gravity", Double.class));
+        body.setEscape(rs.getObject("escape", Double.class));
+        body.setMeanRadius(rs.getObject("mean_radius", Double.class));
+        body.setEquaRadius(rs.getObject("equa_radius", Double.class));
+        body.setPolarRadius(rs.getObject("polar_radius", Double.class));
+        body.setSideralOrbit(rs.getObject("sideral_orbit", Double.class));
+        body.setSideralRotation(rs.getObject("sideral_rotation", Double.class));
+        body.setDiscoveredBy(rs.getString("discovered_by"));
+        body.setDiscoveryDate(rs.getString("discovery_date"));
+        body.setAlternativeName(rs.getString("alternative_name"));
+        body.setAxialTilt(rs.getObject("axial_tilt", Double.class));
+        body.setAvgTemp(rs.getObject("avg_temp", Double.class));
+        body.setMoonCount(rs.getObject("moon_count", Integer.class));
+        body.setContentHash(rs.getString("content_hash"));
+        Timestamp lastFetchedAt = rs.getTimestamp("last_fetched_at");
+        body.setLastFetchedAt(lastFetchedAt != null ? lastFetchedAt.toInstant() : null);
+        return body;
+    }
+}
@@ -0,0 +1,256 @@
+package org.example.solarapi.snapshot;
+
+import org.example.solarapi.model.Mass;
+import org.example.solarapi.model.Moon;
+import org.example.solarapi.model.SolarBodies;
+import org.example.solarapi.model.Vol;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binarny snapshot katalogu (Solar_Bodies + Moons) dla trybu bez bazy (profil "snapshot").
+ * Układ pliku (DataOutput, big-endian):
+ * - nagłówek: MAGIC, FORMAT_VERSION, createdAt (epoch ms), source (UTF), liczba ciał,
+ * - ciało: id_number, maska obecnych pól (bit = pole != null), wartości obecnych pól w kolejności BODY_FIELDS,
+ *   liczba księżyców, a dla każdego: id, maska (moon, original_name, rel, moon_body_id) i obecne wartości,
+ * - stopka: CRC32 wszystkich wcześniejszych bajtów.
+ * Nowe pole = nowa wersja formatu (FORMAT_VERSION); starszy czytnik odrzuci plik zamiast źle go zinterpretować.
+ */
+public final class SolarCatalogSnapshot {
+
+    public static final int MAGIC = 0x534F4C53; // "SOLS"
+    public static final int FORMAT_VERSION = 1;
+
+    /**
+     * Zawartość snapshotu. Moon.moonBody nie jest odtwarzane jako obiekt – id podpiętego ciała jest w moonBodyIds.
+     */
+    public record Catalog(Instant createdAt, String source, List<SolarBodies> bodies, Map<Long, Long> moonBodyIds) {
+    }
+
+    private enum Kind { STRING, DOUBLE, LONG, INT, BOOLEAN }
+
+    private record Field(Kind kind, Function<SolarBodies, Object> getter, BiConsumer<SolarBodies, Object> setter) {
+    }
+
+    // Kolejność = kolejność bitów w masce; tylko dopisywać na końcu (i podbić FORMAT_VERSION)
+    private static final List<Field> BODY_FIELDS = List.of(
+            new Field(Kind.STRING, SolarBodies::getExternalId, (b, v) -> b.setExternalId((String) v)),
+            new Field(Kind.STRING, SolarBodies::getEnglishName, (b, v) -> b.setEnglishName((String) v)),
+            new Field(Kind.STRING, SolarBodies::getBodyType, (b, v) -> b.setBodyType((String) v)),
+            new Field(Kind.BOOLEAN, SolarBodies::isPlanet, (b, v) -> b.setPlanet((Boolean) v)),
+            new Field(Kind.LONG, SolarBodies::getSemimajorAxis, (b, v) -> b.setSemimajorAxis((Long) v)),
+            new Field(Kind.LONG, SolarBodies::getPerihelion, (b, v) -> b.setPerihelion((Long) v)),
+            new Field(Kind.LONG, SolarBodies::getAphelion, (b, v) -> b.setAphelion((Long) v)),
+            new Field(Kind.DOUBLE, SolarBodies::getEccentricity, (b, v) -> b.setEccentricity((Double) v)),
+            new Field(Kind.DOUBLE, SolarBodies::getInclination, (b, v) -> b.setInclination((Double) v)),
+            new Field(Kind.DOUBLE, b -> b.getMass() != null ? b.getMass().getMassValue() : null,
+                    (b, v) -> mass(b).setMassValue((Double) v)),
+            new Field(Kind.INT, b -> b.getMass() != null ? b.getMass().getMassExponent() : null,
+                    (b, v) -> mass(b).setMassExponent((Integer) v)),
+            new Field(Kind.DOUBLE, b -> b.getVol() != null ? b.getVol().getVolValue() : null,
+                    (b, v) -> vol(b).setVolValue((Double) v)),
+            new Field(Kind.INT, b -> b.getVol() != null ? b.getVol().getVolExponent() : null,
+                    (b, v) -> vol(b).setVolExponent((Integer) v)),
+            new Field(Kind.DOUBLE, SolarBodies::getGravity, (b, v) -> b.setGravity((Double) v)),
+            new Field(Kind.DOUBLE, SolarBodies::getEscape, (b, v) -> b.setEscape((Double) v)),
+            new Field(Kind.DOUBLE, SolarBodies::getMeanRadius, (b, v) -> b.setMeanRadius((Double) v)),
+            new Field(Kind.DOUBLE, SolarBodies::getEquaRadius, (b, v) -> b.setEquaRadius((Double) v)),
+            new Field(Kind.DOUBLE, SolarBodies::getPolarRadius, (b, v) -> b.setPolarRadius((Double) v)),
+            new Field(Kind.DOUBLE, SolarBodies::getSideralOrbit, (b, v) -> b.setSideralOrbit((Double) v)),
+            new Field(Kind.DOUBLE, SolarBodies::getSideralRotation, (b, v) -> b.setSideralRotation((Double) v)),
+            new Field(Kind.STRING, SolarBodies::getDiscoveredBy, (b, v) -> b.setDiscoveredBy((String) v)),
+            new Field(Kind.STRING, SolarBodies::getDiscoveryDate, (b, v) -> b.setDiscoveryDate((String) v)),
+            new Field(Kind.STRING, SolarBodies::getAlternativeName, (b, v) -> b.setAlternativeName((String) v)),
+            new Field(Kind.DOUBLE, SolarBodies::getAxialTilt, (b, v) -> b.setAxialTilt((Double) v)),
+            new Field(Kind.DOUBLE, SolarBodies::getAvgTemp, (b, v) -> b.setAvgTemp((Double) v)),
+            new Field(Kind.INT, SolarBodies::getMoonCount, (b, v) -> b.setMoonCount((Integer) v)),
+            new Field(Kind.STRING, SolarBodies::getContentHash, (b, v) -> b.setContentHash((String) v)),
+            new Field(Kind.LONG, b -> b.getLastFetchedAt() != null ? b.getLastFetchedAt().toEpochMilli() : null,
+                    (b, v) -> b.setLastFetchedAt(Instant.ofEpochMilli((Long) v)))
+    );
+
+    private static final int MOON_NAME = 1;
+    private static final int MOON_ORIGINAL_NAME = 1 << 1;
+    private static final int MOON_REL = 1 << 2;
+    private static final int MOON_BODY_ID = 1 << 3;
+
+    private SolarCatalogSnapshot() {
+    }
+
+    public static void write(Catalog catalog, OutputStream target) throws IOException {
+        CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(target, 64 * 1024), new CRC32());
+        DataOutputStream out = new DataOutputStream(checked);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(catalog.createdAt().toEpochMilli());
+        out.writeUTF(catalog.source() != null ? catalog.source() : "");
+        out.writeInt(catalog.bodies().size());
+
+        for (SolarBodies body : catalog.bodies()) {
+            out.writeLong(body.getIdNumber() != null ? body.getIdNumber() : -1L);
+            long mask = 0;
+            Object[] values = new Object[BODY_FIELDS.size()];
+            for (int i = 0; i < BODY_FIELDS.size(); i++) {
+                values[i] = BODY_FIELDS.get(i).getter().apply(body);
+                if (values[i] != null) {
+                    mask |= 1L << i;
+                }
+            }
+            out.writeLong(mask);
+            for (int i = 0; i < BODY_FIELDS.size(); i++) {
+                if (values[i] != null) {
+                    writeValue(out, BODY_FIELDS.get(i).kind(), values[i]);
+                }
+            }
+
+            Set<Moon> moons = body.getMoons() != null ? body.getMoons() : Set.of();
+            out.writeInt(moons.size());
+            for (Moon moon : moons) {
+                Long moonBodyId = catalog.moonBodyIds().get(moon.getId());
+                out.writeLong(moon.getId() != null ? moon.getId() : -1L);
+                int moonMask = (moon.getMoon() != null ? MOON_NAME : 0)
+                        | (moon.getOriginalName() != null ? MOON_ORIGINAL_NAME : 0)
+                        | (moon.getRel() != null ? MOON_REL : 0)
+                        | (moonBodyId != null ? MOON_BODY_ID : 0);
+                out.writeByte(moonMask);
+                if (moon.getMoon() != null) {
+                    out.writeUTF(moon.getMoon());
+                }
+                if (moon.getOriginalName() != null) {
+                    out.writeUTF(moon.getOriginalName());
+                }
+                if (moon.getRel() != null) {
+                    out.writeUTF(moon.getRel());
+                }
+                if (moonBodyId != null) {
+                    out.writeLong(moonBodyId);
+                }
+            }
+        }
+        out.flush();
+        long crc = checked.getChecksum().getValue();
+        out.writeLong(crc);
+        out.flush();
+    }
+
+    public static Catalog read(InputStream source) throws IOException {
+        CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(source, 64 * 1024), new CRC32());
+        DataInputStream in = new DataInputStream(checked);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a solar catalog snapshot");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot format version " + version + " (expected " + FORMAT_VERSION + ")");
+        }
+        Instant createdAt = Instant.ofEpochMilli(in.readLong());
+        String origin = in.readUTF();
+        int bodyCount = in.readInt();
+
+        List<SolarBodies> bodies = new ArrayList<>(bodyCount);
+        Map<Long, Long> moonBodyIds = new HashMap<>();
+        for (int b = 0; b < bodyCount; b++) {
+            SolarBodies body = new SolarBodies();
+            long id = in.readLong();
+            body.setIdNumber(id >= 0 ? id : null);
+            body.setExternalId(null); // konstruktor losuje UUID – w snapshocie liczy się to, co zapisano
+            long mask = in.readLong();
+            for (int i = 0; i < BODY_FIELDS.size(); i++) {
+                if ((mask & (1L << i)) != 0) {
+                    Field field = BODY_FIELDS.get(i);
+                    field.setter().accept(body, readValue(in, field.kind()));
+                }
+            }
+
+            int moonCount = in.readInt();
+            Set<Moon> moons = new HashSet<>(Math.max(16, moonCount * 2));
+            for (int m = 0; m < moonCount; m++) {
+                Moon moon = new Moon();
+                long moonId = in.readLong();
+                moon.setId(moonId >= 0 ? moonId : null);
+                int moonMask = in.readUnsignedByte();
+                if ((moonMask & MOON_NAME) != 0) {
+                    moon.setMoon(in.readUTF());
+                }
+                if ((moonMask & MOON_ORIGINAL_NAME) != 0) {
+                    moon.setOriginalName(in.readUTF());
+                }
+                if ((moonMask & MOON_REL) != 0) {
+                    moon.setRel(in.readUTF());
+                }
+                if ((moonMask & MOON_BODY_ID) != 0) {
+                    long moonBodyId = in.readLong();
+                    if (moon.getId() != null) {
+                        moonBodyIds.put(moon.getId(), moonBodyId);
+                    }
+                }
+                moon.setSolarBodies(body);
+                moons.add(moon);
+            }
+            // setMoons nadpisałby moonCount zapisany w snapshocie
+            Integer storedMoonCount = body.getMoonCount();
+            body.setMoons(moons);
+            body.setMoonCount(storedMoonCount != null ? storedMoonCount : moons.size());
+            bodies.add(body);
+        }
+
+        long expected = checked.getChecksum().getValue();
+        long actual = in.readLong();
+        if (expected != actual) {
+            throw new IOException("Snapshot checksum mismatch – file is corrupted or truncated");
+        }
+        return new Catalog(createdAt, origin, bodies, moonBodyIds);
+    }
+
+    private static void writeValue(DataOutputStream out, Kind kind, Object value) throws IOException {
+        switch (kind) {
+            case STRING -> out.writeUTF((String) value);
+            case DOUBLE -> out.writeDouble((Double) value);
+            case LONG -> out.writeLong((Long) value);
+            case INT -> out.writeInt((Integer) value);
+            case BOOLEAN -> out.writeBoolean((Boolean) value);
+        }
+    }
+
+    private static Object readValue(DataInputStream in, Kind kind) throws IOException {
+        return switch (kind) {
+            case STRING -> in.readUTF();
+            case DOUBLE -> in.readDouble();
+            case LONG -> in.readLong();
+            case INT -> in.readInt();
+            case BOOLEAN -> in.readBoolean();
+        };
+    }
+
+    private static Mass mass(SolarBodies body) {
+        if (body.getMass() == null) {
+            body.setMass(new Mass());
+        }
+        return body.getMass();
+    }
+
+    private static Vol vol(SolarBodies body) {
+        if (body.getVol() == null) {
+            body.setVol(new Vol());
+        }
+        return body.getVol();
+    }
+}
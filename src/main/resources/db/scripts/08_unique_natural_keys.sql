@@ -0,0 +1,29 @@
+-- Przed założeniem unikalnych indeksów: usuń duplikaty, które mogły powstać przy równoległych zapisach.
+-- Najpierw księżyce podpięte pod zduplikowane ciała (FK), potem same ciała – zostaje najstarszy wiersz.
+DELETE FROM Moons
+WHERE solar_bodies_id NOT IN (
+    SELECT * FROM (
+                      SELECT MIN(id_number)
+                      FROM Solar_Bodies
+                      GROUP BY english_name
+                  ) AS temp_bodies
+);
+
+DELETE FROM Solar_Bodies
+WHERE id_number NOT IN (
+    SELECT * FROM (
+                      SELECT MIN(id_number)
+                      FROM Solar_Bodies
+                      GROUP BY english_name
+                  ) AS temp_bodies
+);
+
+-- Ten sam księżyc kilka razy przy tym samym ciele
+DELETE FROM Moons
+WHERE id NOT IN (
+    SELECT * FROM (
+                      SELECT MIN(id)
+                      FROM Moons
+                      GROUP BY solar_bodies_id, moon
+                  ) AS temp_moons
+);
@@ -0,0 +1,20 @@
+-- Powiązanie księżyca z jego własnym rekordem w Solar_Bodies, jak MoonLinkBackfill.backfill():
+-- najpierw po id z API (ostatni segment "rel" = external_id, równość po unikalnym indeksie),
+-- potem po nazwie (moon = english_name) dla księżyców, które zostały bez powiązania.
+UPDATE Moons
+SET moon_body_id = (
+    SELECT b.id_number
+    FROM Solar_Bodies b
+    WHERE b.external_id = REGEXP_REPLACE(TRIM(TRAILING '/' FROM Moons.rel), '^.*/', '')
+)
+WHERE moon_body_id IS NULL
+  AND rel IS NOT NULL;
+
+UPDATE Moons
+SET moon_body_id = (
+    SELECT MIN(b.id_number)
+    FROM Solar_Bodies b
+    WHERE b.english_name = Moons.moon
+)
+WHERE moon_body_id IS NULL
+  AND moon IS NOT NULL;
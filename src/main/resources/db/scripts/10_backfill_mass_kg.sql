@@ -0,0 +1,6 @@
+-- mass_kg = mass_value * 10^mass_exponent dla istniejących wierszy; nowe zapisy liczą ją same
+-- (SolarBodies @PrePersist/@PreUpdate, SolarBodiesBulkWriter).
+UPDATE Solar_Bodies
+SET mass_kg = mass_value * POWER(10, mass_exponent)
+WHERE mass_value IS NOT NULL
+  AND mass_exponent IS NOT NULL;
@@ -0,0 +1,192 @@
+package org.example.solarapi.bench;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.solarapi.dto.SyncReport;
+import org.example.solarapi.repository.SolarBodiesRepository;
+import org.example.solarapi.service.NegativeLookupCache;
+import org.example.solarapi.service.SolarBodiesSyncService;
+import org.example.solarapi.support.FakeSolarApiServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.example.solarapi.support.SolarBodiesFixtures.statistics;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test end-to-end ścieżek synchronizacji (/sync, /sync2) i dociągania księżyców (GET /api/solarbodies/{name})
+ * na atrapie API (FakeSolarApiServer) i H2 w trybie MySQL – bez sieci, więc działa w CI.
+ * Mierzy przepustowość synchronizacji, percentyle czasu odpowiedzi oraz liczbę zapisów do bazy
+ * (statystyki Hibernate) i loguje je (java.util.logging). Asercje pilnują poprawności i liczby zapisów/zapytań,
+ * nie czasów – te zależą od maszyny.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("bench")
+class IngestionBenchmarkTest {
+
+    private static final Logger logger = Logger.getLogger(IngestionBenchmarkTest.class.getName());
+
+    private static final FakeSolarApiServer upstream = FakeSolarApiServer.start("fixtures/bodies.json");
+
+    // 12 ciał w fixtures/bodies.json, z czego planety z listy /sync: Earth, Mars, Jupiter
+    private static final int FIXTURE_BODIES = 12;
+    private static final List<String> PLANETS = Arrays.asList(
+            "Mercury", "Venus", "Earth", "Mars", "Jupiter", "Saturn", "Uranus", "Neptune");
+    private static final int LATENCY_ROUNDS = 20;
+
+    @Autowired
+    private SolarBodiesSyncService solarBodiesSyncService;
+
+    @Autowired
+    private SolarBodiesRepository solarBodiesRepository;
+
+    @Autowired
+    private NegativeLookupCache negativeLookupCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("solar.api.base-url", upstream::baseUrl);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.close();
+    }
+
+    @BeforeEach
+    void reset() {
+        solarBodiesRepository.deleteAll();
+        negativeLookupCache.invalidateAll();
+        upstream.reset();
+        statistics(entityManagerFactory).clear();
+    }
+
+    @Test
+    void syncAllWritesOnlyChangedBodies() {
+        upstream.latencyMillis(20);
+
+        SyncReport first = solarBodiesSyncService.syncAll(false);
+        print("sync2 (empty db)", first);
+
+        assertEquals(1, upstream.getListRequests());
+        assertEquals(FIXTURE_BODIES, first.getFetched());
+        assertEquals(FIXTURE_BODIES, first.getInserted());
+        assertEquals(0, first.getFailed());
+        assertEquals(FIXTURE_BODIES, solarBodiesRepository.count());
+        // bulk writer: SELECT + upsert ciał + SELECT id + SELECT księżyców + upsert księżyców – niezależnie od liczby ciał
+        assertTrue(first.getWriteStatements() <= 6, "too many write statements: " + first.getWriteStatements());
+
+        statistics(entityManagerFactory).clear();
+        SyncReport second = solarBodiesSyncService.syncAll(false);
+        print("sync2 (unchanged)", second);
+
+        // nic się nie zmieniło w API -> żadnego INSERT/UPDATE/DELETE na encjach (tylko zbiorczy last_fetched_at)
+        assertEquals(FIXTURE_BODIES, second.getUnchanged());
+        assertEquals(0, second.getInserted());
+        assertEquals(0, second.getUpdated());
+        assertEquals(2, second.getWriteStatements());
+        assertEquals(0, statistics(entityManagerFactory).getEntityInsertCount());
+        assertEquals(0, statistics(entityManagerFactory).getEntityUpdateCount());
+        assertEquals(0, statistics(entityManagerFactory).getEntityDeleteCount());
+
+        statistics(entityManagerFactory).clear();
+        SyncReport forced = solarBodiesSyncService.syncAll(true);
+        print("sync2 (force)", forced);
+        assertEquals(FIXTURE_BODIES, forced.getUpdated());
+        assertEquals(0, statistics(entityManagerFactory).getEntityDeleteCount());
+    }
+
+    @Test
+    void syncPlanetsSurvivesErrorsAndRedirects() {
+        upstream.latencyMillis(20).errorRate(0.25).redirectDetails(true);
+
+        SyncReport report = solarBodiesSyncService.syncBodies(PLANETS, false);
+        print("sync (25% errors, redirects)", report);
+        logger.info(String.format("  upstream: requests=%d, errors=%d, redirects=%d, notFound=%d",
+                upstream.getRequests(), upstream.getErrors(), upstream.getRedirects(), upstream.getNotFound()));
+
+        assertEquals(PLANETS.size(), report.getRequested());
+        assertEquals(3, report.getFetched());
+        assertEquals(PLANETS.size() - 3, report.getFailed());
+        assertEquals(3, solarBodiesRepository.count());
+        assertTrue(upstream.getErrors() > 0, "fake upstream should have injected errors");
+        assertTrue(upstream.getRedirects() > 0, "fake upstream should have redirected detail requests");
+    }
+
+    @Test
+    void moonExpansionLatencyPercentiles() {
+        upstream.latencyMillis(20);
+        solarBodiesSyncService.syncBodies(PLANETS, false);
+        long detailRequestsAfterSync = upstream.getDetailRequests();
+        statistics(entityManagerFactory).clear();
+
+        // pierwsze wywołanie dociąga księżyce z API (rel), kolejne powinny iść już tylko z bazy
+        List<Long> cold = new ArrayList<>();
+        List<Long> warm = new ArrayList<>();
+        long entityLoadsAfterCold = 0;
+        for (int round = 0; round < LATENCY_ROUNDS; round++) {
+            if (round == 1) {
+                entityLoadsAfterCold = statistics(entityManagerFactory).getEntityLoadCount();
+            }
+            for (String planet : List.of("Earth", "Mars", "Jupiter")) {
+                long start = System.nanoTime();
+                ResponseEntity<String> response = restTemplate.getForEntity("/api/solarbodies/" + planet, String.class);
+                long micros = (System.nanoTime() - start) / 1_000;
+                assertEquals(HttpStatus.OK, response.getStatusCode());
+                (round == 0 ? cold : warm).add(micros);
+            }
+        }
+        logger.info(String.format("GET /api/solarbodies/{name}: cold p50=%d us, p95=%d us; warm p50=%d us, p95=%d us, p99=%d us",
+                percentile(cold, 0.50), percentile(cold, 0.95),
+                percentile(warm, 0.50), percentile(warm, 0.95), percentile(warm, 0.99)));
+        logger.info(String.format("  DB writes: inserts=%d, updates=%d, deletes=%d, statements=%d",
+                statistics(entityManagerFactory).getEntityInsertCount(), statistics(entityManagerFactory).getEntityUpdateCount(),
+                statistics(entityManagerFactory).getEntityDeleteCount(), statistics(entityManagerFactory).getPrepareStatementCount()));
+
+        // ciepłe odczyty idą na projekcjach – żadna encja nie trafia do kontekstu persystencji
+        assertEquals(entityLoadsAfterCold, statistics(entityManagerFactory).getEntityLoadCount());
+
+        long moonDetailRequests = upstream.getDetailRequests() - detailRequestsAfterSync;
+        logger.info("  upstream moon detail requests: " + moonDetailRequests);
+
+        // Earth: Moon, Mars: Phobos + Deimos, Jupiter: 4 galileuszowe – każdy pobrany i zapisany dokładnie raz,
+        // także te, których nazwa w "moons" różni się od englishName (Deïmos, Europe, Ganymède)
+        assertEquals(7, moonDetailRequests);
+        assertEquals(3 + 7, solarBodiesRepository.count());
+        ResponseEntity<String> jupiter = restTemplate.getForEntity("/api/solarbodies/Jupiter", String.class);
+        assertTrue(jupiter.getBody() != null && jupiter.getBody().contains("Ganymede"));
+    }
+
+    private static void print(String label, SyncReport report) {
+        logger.info(label + ": " + report);
+    }
+
+    private static long percentile(List<Long> samples, double p) {
+        if (samples.isEmpty()) {
+            return 0;
+        }
+        List<Long> sorted = samples.stream().sorted().toList();
+        int index = (int) Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.solarapi.codec;
+
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.example.solarapi.dto.SolarBodiesResponse;
+import org.example.solarapi.model.Moon;
+import org.example.solarapi.model.SolarBodies;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Porównanie kosztu deserializacji jednego ciała: stara ścieżka (nowy Gson na każde wywołanie
+ * + mapowanie refleksyjne) vs współdzielony SolarBodiesCodec. Wyniki idą do logu (java.util.logging),
+ * asercje sprawdzają tylko zgodność danych – czasy zależą od maszyny.
+ */
+class SolarBodiesCodecBenchmarkTest {
+
+    private static final Logger logger = Logger.getLogger(SolarBodiesCodecBenchmarkTest.class.getName());
+
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 1000;
+
+    @Test
+    void codecMatchesReflectiveMapping() throws IOException {
+        String fixture = loadFixture();
+
+        SolarBodiesResponse reflective = newReflectiveGson().fromJson(fixture, SolarBodiesResponse.class);
+        SolarBodiesResponse codec = SolarBodiesCodec.fromJson(fixture, SolarBodiesResponse.class);
+
+        assertEquals(reflective.getBodies().size(), codec.getBodies().size());
+        for (int i = 0; i < codec.getBodies().size(); i++) {
+            SolarBodies expected = reflective.getBodies().get(i);
+            SolarBodies actual = codec.getBodies().get(i);
+            assertEquals(expected.getEnglishName(), actual.getEnglishName());
+            assertEquals(expected.getBodyType(), actual.getBodyType());
+            assertEquals(expected.isPlanet(), actual.isPlanet());
+            assertEquals(expected.getSemimajorAxis(), actual.getSemimajorAxis());
+            assertEquals(expected.getEccentricity(), actual.getEccentricity());
+            assertEquals(expected.getMeanRadius(), actual.getMeanRadius());
+            assertEquals(expected.getAvgTemp(), actual.getAvgTemp());
+            assertEquals(expected.getDiscoveredBy(), actual.getDiscoveredBy());
+            assertEquals(String.valueOf(expected.getMass()), String.valueOf(actual.getMass()));
+            assertEquals(String.valueOf(expected.getVol()), String.valueOf(actual.getVol()));
+            assertEquals(moonNames(expected.getMoons()), moonNames(actual.getMoons()));
+        }
+
+        SolarBodies earth = codec.getBodies().get(0);
+        assertEquals(1, earth.getMoonCount());
+        Moon lune = earth.getMoons().iterator().next();
+        assertNotNull(lune.getSolarBodies(), "codec should link moons back to their body");
+    }
+
+    @Test
+    void benchmarkDeserializationPerBody() throws IOException {
+        List<String> singleBodies = splitIntoSingleBodies(loadFixture());
+
+        // "przed": jak w starym HttpClientService – nowy GsonBuilder/Gson przy każdym wywołaniu
+        double before = measureNanosPerBody(singleBodies,
+                json -> newReflectiveGson().fromJson(json, SolarBodies.class));
+        // "po": współdzielony Gson z ręcznymi adapterami
+        double after = measureNanosPerBody(singleBodies,
+                json -> SolarBodiesCodec.fromJson(json, SolarBodies.class));
+
+        logger.info(String.format("Deserialization cost per body: before=%.0f ns, after=%.0f ns, speedup=%.1fx",
+                before, after, before / after));
+        assertTrue(before > 0 && after > 0);
+    }
+
+    private static double measureNanosPerBody(List<String> bodies, java.util.function.Function<String, SolarBodies> parser) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            bodies.forEach(parser::apply);
+        }
+        long start = System.nanoTime();
+        int parsed = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            for (String json : bodies) {
+                if (parser.apply(json) != null) {
+                    parsed++;
+                }
+            }
+        }
+        return (System.nanoTime() - start) / (double) parsed;
+    }
+
+    private static Gson newReflectiveGson() {
+        return new GsonBuilder().setExclusionStrategies(new ExclusionStrategy() {
+            // kolumny księgowe synchronizacji (content_hash, last_fetched_at) – nie ma ich w JSON z API,
+            // a Instant nie daje się mapować refleksyjnie na JDK 17
+            @Override
+            public boolean shouldSkipField(FieldAttributes field) {
+                return field.getDeclaringClass() == SolarBodies.class
+                        && (field.getName().equals("contentHash") || field.getName().equals("lastFetchedAt"));
+            }
+
+            @Override
+            public boolean shouldSkipClass(Class<?> type) {
+                return false;
+            }
+        }).registerTypeAdapter(
+                LocalDateTime.class,
+                (JsonDeserializer<LocalDateTime>) (json, type, context) -> {
+                    var dateTimeJson = json.getAsJsonPrimitive().getAsLong();
+                    return LocalDateTime.ofInstant(Instant.ofEpochMilli(dateTimeJson), ZoneId.systemDefault());
+                }
+        ).create();
+    }
+
+    private static List<String> splitIntoSingleBodies(String fixture) {
+        JsonArray bodies = JsonParser.parseString(fixture).getAsJsonObject().getAsJsonArray("bodies");
+        List<String> result = new ArrayList<>();
+        for (JsonElement body : bodies) {
+            result.add(body.toString());
+        }
+        return result;
+    }
+
+    private static Set<String> moonNames(Set<Moon> moons) {
+        if (moons == null) {
+            return Set.of();
+        }
+        return moons.stream().map(moon -> moon.getMoon() + "|" + moon.getRel()).collect(Collectors.toSet());
+    }
+
+    private static String loadFixture() throws IOException {
+        try (InputStream in = SolarBodiesCodecBenchmarkTest.class.getResourceAsStream("/fixtures/bodies.json")) {
+            assertNotNull(in, "missing fixtures/bodies.json");
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package org.example.solarapi.configuration;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.example.solarapi.model.SolarBodies;
+import org.example.solarapi.repository.SolarBodiesRepository;
+import org.example.solarapi.service.SolarBodiesService;
+import org.example.solarapi.snapshot.SnapshotExporter;
+import org.example.solarapi.snapshot.SolarCatalogSnapshot;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.example.solarapi.support.SolarBodiesFixtures.body;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Routing odczyt/zapis na dwóch bazach H2 w pamięci (primary + "replika") – bez MySQL i bez replikacji.
+ * Obie bazy mają ten sam schemat, ale inne dane, więc widać, skąd przyszedł odczyt.
+ * Opóźnienie repliki symuluje tabela Replica_Lag (solar.datasource.replica.lag-query).
+ */
+@SpringBootTest
+@ActiveProfiles("bench")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:solar-routing-primary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "solar.datasource.routing.enabled=true",
+        "solar.datasource.replica.urls=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "solar.datasource.replica.username=sa",
+        "solar.datasource.replica.password=",
+        "solar.datasource.replica.max-lag-ms=1000",
+        "solar.datasource.replica.lag-check-interval-ms=3600000",
+        "solar.datasource.replica.lag-query=SELECT lag_ms FROM Replica_Lag",
+        // bazy mają celowo różne dane – cache drugiego poziomu zamazałby, skąd przyszedł odczyt
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:solar-routing-replica;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    // schemat repliki musi istnieć przed startem kontekstu (monitor sprawdza ją od razu)
+    private static final JdbcTemplate replica = createReplica();
+
+    @Autowired
+    private SolarBodiesService solarBodiesService;
+
+    @Autowired
+    private SolarBodiesRepository solarBodiesRepository;
+
+    @Autowired
+    private ReadWriteRoutingDataSource readWriteRoutingDataSource;
+
+    @Autowired
+    private SnapshotExporter snapshotExporter;
+
+    @BeforeEach
+    void reset() {
+        solarBodiesRepository.deleteAll();
+        replica.update("DELETE FROM Moons");
+        replica.update("DELETE FROM Solar_Bodies");
+        setReplicaLag(0);
+
+        solarBodiesService.saveSolarBody(body("Earth"));
+        replica.update("INSERT INTO Solar_Bodies (english_name, body_type, is_planet, moon_count) VALUES ('Vulcan', 'Planet', TRUE, 0)");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica() {
+        assertNotNull(solarBodiesService.getSolarBodyByName("Vulcan"));
+        assertNull(solarBodiesService.getSolarBodyByName("Earth"));
+
+        // transakcja read-write (findOrFetchByEnglishName może zapisywać) czyta z primary
+        SolarBodies earth = solarBodiesService.findOrFetchByEnglishName("Earth");
+        assertNotNull(earth);
+        assertEquals("Earth", earth.getEnglishName());
+
+        Map<String, Object> targets = targets();
+        assertTrue(routed(targets, "replica-0") > 0, targets.toString());
+        assertTrue(routed(targets, ReadWriteRoutingDataSource.PRIMARY) > 0, targets.toString());
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        setReplicaLag(60_000);
+        long fallbacksBefore = (Long) readWriteRoutingDataSource.snapshot().get("fallbacksToPrimary");
+
+        assertNotNull(solarBodiesService.getSolarBodyByName("Earth"));
+        assertNull(solarBodiesService.getSolarBodyByName("Vulcan"));
+        assertTrue((Long) readWriteRoutingDataSource.snapshot().get("fallbacksToPrimary") > fallbacksBefore);
+
+        setReplicaLag(0);
+        assertNotNull(solarBodiesService.getSolarBodyByName("Vulcan"));
+    }
+
+    @Test
+    void snapshotExportReadsFromPrimary() throws IOException {
+        Path target = Files.createTempFile("solar-routing", ".snap");
+        try {
+            SolarCatalogSnapshot.Catalog catalog = snapshotExporter.export(target);
+            assertEquals(List.of("Earth"), catalog.bodies().stream().map(SolarBodies::getEnglishName).toList());
+            assertTrue(catalog.source().contains("solar-routing-primary"), catalog.source());
+        } finally {
+            Files.deleteIfExists(target);
+        }
+    }
+
+    private void setReplicaLag(long lagMillis) {
+        replica.update("UPDATE Replica_Lag SET lag_ms = ?", lagMillis);
+        readWriteRoutingDataSource.getLagMonitor().refresh();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> targets() {
+        return (Map<String, Object>) readWriteRoutingDataSource.snapshot().get("targets");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static long routed(Map<String, Object> targets, String name) {
+        return (Long) ((Map<String, Object>) targets.get(name)).get("routedConnections");
+    }
+
+    private static JdbcTemplate createReplica() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(REPLICA_URL);
+        dataSource.setUser("sa");
+        try {
+            SpringLiquibase liquibase = new SpringLiquibase();
+            liquibase.setDataSource(dataSource);
+            liquibase.setChangeLog("classpath:db/liquibase-changelog.yaml");
+            liquibase.setResourceLoader(new DefaultResourceLoader());
+            liquibase.afterPropertiesSet();
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not create replica schema", e);
+        }
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS Replica_Lag (lag_ms BIGINT)");
+        jdbcTemplate.update("INSERT INTO Replica_Lag (lag_ms) VALUES (0)");
+        return jdbcTemplate;
+    }
+}
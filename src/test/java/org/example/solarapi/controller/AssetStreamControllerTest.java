@@ -0,0 +1,122 @@
+package org.example.solarapi.controller;
+
+import org.example.solarapi.service.AssetStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /stream/**: pełny plik, zakresy (pojedynczy, wiele, niespełnialny), If-Range po zmianie wersji, ścieżki spoza indeksu
+ * i 503 z Retry-After, gdy wszystkie pozwolenia na kopiowanie (solar.assets.stream.max-copies) są zajęte.
+ * MockMvc nie ma sendfile Tomcata, więc bajty idą ścieżką FileChannel.transferTo.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("bench")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:solar-assetstream;MODE=MySQL;DB_CLOSE_DELAY=-1")
+class AssetStreamControllerTest {
+
+    private static final String MODEL = "assets/models/3D_models/Deimos.glb";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AssetStore assetStore;
+
+    @Autowired
+    private AssetStreamController controller;
+
+    @Test
+    void servesFullFileAndSingleRange() throws Exception {
+        byte[] file = Files.readAllBytes(assetStore.resolve(MODEL));
+
+        MvcResult full = mockMvc.perform(get("/stream/" + MODEL))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "model/gltf-binary"))
+                .andReturn();
+        assertArrayEquals(file, full.getResponse().getContentAsByteArray());
+        String etag = full.getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult partial = mockMvc.perform(get("/stream/" + MODEL).header(HttpHeaders.RANGE, "bytes=100-199"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 100-199/" + file.length))
+                .andReturn();
+        assertArrayEquals(Arrays.copyOfRange(file, 100, 200), partial.getResponse().getContentAsByteArray());
+
+        mockMvc.perform(get("/stream/" + MODEL).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        // If-Range z innym ETagiem = plik się zmienił, zakres ignorowany
+        mockMvc.perform(get("/stream/" + MODEL).header(HttpHeaders.RANGE, "bytes=0-9")
+                        .header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/stream/" + MODEL).header(HttpHeaders.RANGE, "bytes=0-9")
+                        .header(HttpHeaders.IF_RANGE, etag))
+                .andExpect(status().isPartialContent());
+    }
+
+    @Test
+    void multipleAndUnsatisfiableRanges() throws Exception {
+        long size = Files.size(assetStore.resolve(MODEL));
+
+        MvcResult multipart = mockMvc.perform(get("/stream/" + MODEL).header(HttpHeaders.RANGE, "bytes=0-9,-10"))
+                .andExpect(status().isPartialContent())
+                .andReturn();
+        assertTrue(multipart.getResponse().getContentType().startsWith("multipart/byteranges; boundary="));
+        assertTrue(multipart.getResponse().getContentAsString()
+                .contains("Content-Range: bytes " + (size - 10) + "-" + (size - 1) + "/" + size));
+
+        mockMvc.perform(get("/stream/" + MODEL).header(HttpHeaders.RANGE, "bytes=" + size + "-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + size));
+        // zakres za końcem pliku pominięty, zostaje jeden spełnialny
+        mockMvc.perform(get("/stream/" + MODEL).header(HttpHeaders.RANGE, "bytes=0-9," + size + "-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-9/" + size));
+    }
+
+    @Test
+    void onlyIndexedAssets() throws Exception {
+        mockMvc.perform(get("/stream/assets/../application.properties")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/stream/assets/models/3D_models/vulcan.glb")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void busyCopySlotsGiveServiceUnavailable() throws Exception {
+        String etag = mockMvc.perform(get("/stream/" + MODEL)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        // wszystkie pozwolenia zajęte – jak przy max-copies wolnych transferach naraz
+        Semaphore permits = (Semaphore) ReflectionTestUtils.getField(controller, "copyPermits");
+        int taken = permits.drainPermits();
+        try {
+            mockMvc.perform(get("/stream/" + MODEL))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+            mockMvc.perform(get("/stream/" + MODEL).header(HttpHeaders.RANGE, "bytes=0-9,-10"))
+                    .andExpect(status().isServiceUnavailable());
+            // 304 nie kopiuje bajtów – nie potrzebuje pozwolenia
+            mockMvc.perform(get("/stream/" + MODEL).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified());
+        } finally {
+            permits.release(taken);
+        }
+        mockMvc.perform(get("/stream/" + MODEL)).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.solarapi.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.solarapi.repository.SolarBodiesRepository;
+import org.example.solarapi.service.SolarBodiesService;
+import org.example.solarapi.service.SolarBodyDtoCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import static org.example.solarapi.support.SolarBodiesFixtures.body;
+import static org.example.solarapi.support.SolarBodiesFixtures.statistics;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Odczyt wielu ciał naraz (GET ?names= i POST /batch): stała liczba zapytań niezależnie od liczby nazw,
+ * kolejność jak w żądaniu, If-None-Match także dla POST i limit liczby nazw sprawdzany przed deduplikacją.
+ */
+@SpringBootTest
+@ActiveProfiles("bench")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:solar-batch;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "solar.batch.max-names=5"
+})
+class SolarBodiesControllerBatchTest {
+
+    @Autowired
+    private SolarBodiesController controller;
+
+    @Autowired
+    private SolarBodiesService solarBodiesService;
+
+    @Autowired
+    private SolarBodiesRepository solarBodiesRepository;
+
+    @Autowired
+    private SolarBodyDtoCache solarBodyDtoCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void reset() {
+        solarBodiesRepository.deleteAll();
+        solarBodiesService.saveSolarBody(body("Earth", 9.8));
+        solarBodiesService.saveSolarBody(body("Mars", 3.7));
+        solarBodiesService.saveSolarBody(body("Venus", 8.9));
+        solarBodyDtoCache.invalidateAll();
+    }
+
+    @Test
+    void batchReadUsesConstantQueriesAndKeepsOrder() throws IOException {
+        long before = statistics(entityManagerFactory).getPrepareStatementCount();
+        ResponseEntity<byte[]> batch = controller.getSolarBodiesByNames(
+                List.of("Venus", "Earth", "Vulcan", "Mars", "EARTH"), null, null, null);
+        // ciała + księżyce – niezależnie od liczby nazw
+        assertEquals(2, statistics(entityManagerFactory).getPrepareStatementCount() - before);
+
+        JsonNode bodies = objectMapper.readTree(batch.getBody());
+        assertEquals(3, bodies.size());
+        assertEquals("Venus", bodies.get(0).get("englishName").asText());
+        assertEquals("Earth", bodies.get(1).get("englishName").asText());
+        assertEquals("Mars", bodies.get(2).get("englishName").asText());
+
+        // wpisy trafiły do cache – drugie żądanie (i pojedyncze GET) bez bazy
+        long cached = statistics(entityManagerFactory).getPrepareStatementCount();
+        assertArrayEquals(batch.getBody(), controller.getSolarBodiesByNamesPost(
+                List.of("Venus", "Earth", "Mars"), null, null, null).getBody());
+        JsonNode earth = objectMapper.readTree(controller.getSolarBodyByName("Earth", null, null, null).getBody());
+        assertEquals(9.8, earth.get("gravity").asDouble());
+        assertEquals(cached, statistics(entityManagerFactory).getPrepareStatementCount());
+    }
+
+    @Test
+    void postBatchHonoursIfNoneMatch() {
+        String etag = controller.getSolarBodiesByNamesPost(List.of("Earth", "Mars"), null, null, null)
+                .getHeaders().getETag();
+        assertNotNull(etag);
+
+        ResponseEntity<byte[]> revalidated = controller.getSolarBodiesByNamesPost(List.of("Earth", "Mars"), null, etag, null);
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getStatusCode());
+        assertNull(revalidated.getBody());
+    }
+
+    @Test
+    void tooManyNamesAreRejectedEvenWhenTheyRepeat() {
+        // 6 powtórzeń jednej nazwy > limit 5 – odrzucone, mimo że po deduplikacji zostałaby jedna
+        ResponseEntity<byte[]> response = controller.getSolarBodiesByNamesPost(
+                Collections.nCopies(6, "Earth"), null, null, null);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals(HttpStatus.OK, controller.getSolarBodiesByNames(
+                Collections.nCopies(5, "Earth"), null, null, null).getStatusCode());
+    }
+}
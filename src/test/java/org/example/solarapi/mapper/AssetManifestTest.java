@@ -0,0 +1,76 @@
+package org.example.solarapi.mapper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Indeks assetów: pliki z classpath:static/assets, lookup bez wielkości liter z prawdziwą ścieżką
+ * i powtarzalny wybór modelu zastępczego.
+ */
+class AssetManifestTest {
+
+    @Test
+    void scansClasspathAssets() {
+        AssetManifest manifest = AssetManifest.scanClasspath();
+        assertNotNull(manifest.find("assets/models/3D_models/Deimos.glb"));
+        assertEquals("assets/models/3D_models/Deimos.glb", manifest.find("assets/models/3D_models/deimos.glb"));
+        assertNull(manifest.find("assets/models/3D_models/vulcan.glb"));
+    }
+
+    @Test
+    void defaultModelIsDeterministic() {
+        AssetManifest manifest = new AssetManifest(Set.of(
+                "assets/models/3D_models/default1.glb",
+                "assets/models/3D_models/default2.glb",
+                "assets/models/3D_models/default10.glb",
+                "assets/textures/moon/Io_surface.jpg"));
+
+        String first = manifest.defaultModel("vulcan");
+        for (int i = 0; i < 20; i++) {
+            assertEquals(first, manifest.defaultModel("vulcan"));
+        }
+        assertNotNull(first);
+        assertNull(new AssetManifest(Set.of()).defaultModel("vulcan"));
+        assertEquals("assets/textures/moon/Io_surface.jpg", manifest.find("assets/textures/moon/io_surface.jpg"));
+    }
+
+    @Test
+    void urlCarriesContentFingerprint() throws IOException {
+        String fingerprint = AssetManifest.fingerprint(
+                new ByteArrayInputStream("io".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(AssetManifest.FINGERPRINT_LENGTH, fingerprint.length());
+
+        AssetManifest manifest = new AssetManifest(
+                Set.of("assets/textures/moon/Io_surface.jpg", "assets/textures/star/circle-red.webp"),
+                Map.of("assets/textures/moon/Io_surface.jpg", fingerprint));
+        assertEquals("assets/textures/moon/Io_surface-" + fingerprint + ".jpg",
+                manifest.url("assets/textures/moon/Io_surface.jpg"));
+        // bez odcisku (np. po przebudowie w trybie dev) – adres bez wersji
+        assertEquals("assets/textures/star/circle-red.webp", manifest.url("assets/textures/star/circle-red.webp"));
+        assertNull(manifest.url(null));
+    }
+
+    @Test
+    void lodUrlFallsBackToOriginal() {
+        AssetManifest manifest = new AssetManifest(
+                Set.of("assets/textures/earth/8k_earth_nightmap.jpg", "assets/textures/earth/8k_earth_nightmap@1k.jpg",
+                        "assets/textures/moon/Io_surface.jpg"),
+                Map.of("assets/textures/earth/8k_earth_nightmap.jpg", "0123456789abcdef",
+                        "assets/textures/earth/8k_earth_nightmap@1k.jpg", "fedcba9876543210"));
+
+        String full = manifest.url("assets/textures/earth/8k_earth_nightmap.jpg");
+        assertEquals("assets/textures/earth/8k_earth_nightmap@1k-fedcba9876543210.jpg", manifest.lodUrl(full, "1k"));
+        // brak wariantu (oryginał mniejszy niż poziom) – zostaje oryginał
+        assertEquals(full, manifest.lodUrl(full, "4k"));
+        assertEquals("assets/textures/moon/Io_surface.jpg", manifest.lodUrl("assets/textures/moon/Io_surface.jpg", "1k"));
+    }
+}
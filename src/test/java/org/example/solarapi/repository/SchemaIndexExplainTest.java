@@ -0,0 +1,167 @@
+package org.example.solarapi.repository;
+
+import liquibase.integration.spring.SpringLiquibase;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * EXPLAIN przed i po changesetach 09–11 (H2 w trybie MySQL):
+ * - "przed" – sam 01_create_table_solardb.sql: wyszukiwanie po english_name, body_type, is_planet i Moons.moon to pełne skany,
+ * - "po" – cały changelog Liquibase: te same zapytania idą po indeksach, a rozwinięcie księżyców
+ *   (ciało + księżyce + ich rekordy przez moon_body_id) to jeden join bez skanowania tabel,
+ *   a strony listy katalogu (keyset) idą po indeksie (kolumna, id_number), a z filtrem isPlanet / bodyType
+ *   po (is_planet | body_type, kolumna, id_number).
+ * Plan H2 zawiera nazwę użytego indeksu albo "tableScan", więc sprawdzamy tekst planu.
+ */
+class SchemaIndexExplainTest {
+
+    private static final String BY_ENGLISH_NAME = "SELECT * FROM Solar_Bodies WHERE english_name = 'Body 7'";
+    private static final String BY_BODY_TYPE = "SELECT * FROM Solar_Bodies WHERE body_type = 'Moon'";
+    private static final String BY_IS_PLANET = "SELECT * FROM Solar_Bodies WHERE is_planet = TRUE";
+    private static final String MOONS_BY_NAME = "SELECT * FROM Moons WHERE moon = 'Moon 7'";
+    private static final String MOONS_BY_BODY = "SELECT * FROM Moons WHERE moon_body_id = 7";
+    private static final String EXPAND_MOONS = """
+            SELECT b.id_number, m.id, mb.id_number
+            FROM Solar_Bodies b
+            LEFT JOIN Moons m ON m.solar_bodies_id = b.id_number
+            LEFT JOIN Solar_Bodies mb ON mb.id_number = m.moon_body_id
+            WHERE b.english_name = 'Body 7'""";
+    // druga strona listy katalogu (SolarBodiesCatalogService): zakres z filtra + kursor keyset + ORDER BY ... LIMIT
+    private static final String CATALOG_PAGE = """
+            SELECT id_number, english_name, mean_radius FROM Solar_Bodies
+            WHERE mean_radius >= 500 AND mean_radius IS NOT NULL
+              AND mean_radius >= 900 AND (mean_radius > 900 OR id_number > 90)
+            ORDER BY mean_radius ASC, id_number ASC
+            LIMIT 51""";
+    // to samo z filtrem isPlanet – indeks (is_planet, mean_radius, id_number) z changesetu 11
+    private static final String CATALOG_PAGE_PLANETS = """
+            SELECT id_number, english_name, mean_radius FROM Solar_Bodies
+            WHERE is_planet = TRUE AND mean_radius IS NOT NULL
+              AND mean_radius >= 900 AND (mean_radius > 900 OR id_number > 90)
+            ORDER BY mean_radius ASC, id_number ASC
+            LIMIT 51""";
+    // filtr bodyType, sortowanie malejące po eccentricity – indeks (body_type, eccentricity, id_number)
+    private static final String CATALOG_PAGE_BY_TYPE = """
+            SELECT id_number, english_name, eccentricity FROM Solar_Bodies
+            WHERE body_type = 'Planet' AND eccentricity IS NOT NULL
+              AND eccentricity <= 0.5 AND (eccentricity < 0.5 OR id_number < 100)
+            ORDER BY eccentricity DESC, id_number DESC
+            LIMIT 51""";
+    // bez filtra, inny klucz liczbowy niż mean_radius
+    private static final String CATALOG_PAGE_ECCENTRICITY = """
+            SELECT id_number, english_name, eccentricity FROM Solar_Bodies
+            WHERE eccentricity IS NOT NULL
+              AND eccentricity >= 0.5 AND (eccentricity > 0.5 OR id_number > 100)
+            ORDER BY eccentricity ASC, id_number ASC
+            LIMIT 51""";
+
+    private static final int ROWS = 200;
+
+    @Test
+    void baselineSchemaScansTables() {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource("explain-before"));
+        new ResourceDatabasePopulator(new ClassPathResource("db/scripts/01_create_table_solardb.sql")).execute(jdbc.getDataSource());
+        seed(jdbc, false);
+
+        assertTableScan(jdbc, BY_ENGLISH_NAME);
+        assertTableScan(jdbc, BY_BODY_TYPE);
+        assertTableScan(jdbc, BY_IS_PLANET);
+        assertTableScan(jdbc, MOONS_BY_NAME);
+    }
+
+    @Test
+    void upgradedSchemaUsesIndexes() throws Exception {
+        JdbcDataSource dataSource = dataSource("explain-after");
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:db/liquibase-changelog.yaml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        seed(jdbc, true);
+
+        assertUsesIndex(jdbc, BY_ENGLISH_NAME, "ux_solar_bodies_english_name");
+        assertUsesIndex(jdbc, BY_BODY_TYPE, "idx_solar_bodies_body_type");
+        assertUsesIndex(jdbc, BY_IS_PLANET, "idx_solar_bodies_is_planet");
+        assertUsesIndex(jdbc, MOONS_BY_NAME, "idx_moons_moon");
+        assertUsesIndex(jdbc, MOONS_BY_BODY, "idx_moons_moon_body_id");
+        assertUsesIndex(jdbc, CATALOG_PAGE, "idx_solar_bodies_mean_radius");
+        assertUsesIndex(jdbc, CATALOG_PAGE_PLANETS, "idx_solar_bodies_planet_mean_radius");
+        assertUsesIndex(jdbc, CATALOG_PAGE_BY_TYPE, "idx_solar_bodies_type_eccentricity");
+        assertUsesIndex(jdbc, CATALOG_PAGE_ECCENTRICITY, "idx_solar_bodies_eccentricity");
+
+        String expandPlan = explain(jdbc, EXPAND_MOONS);
+        assertFalse(expandPlan.toLowerCase(Locale.ROOT).contains("tablescan"), expandPlan);
+    }
+
+    @Test
+    void backfillLinksMoonsByRelAndName() throws Exception {
+        JdbcDataSource dataSource = dataSource("explain-backfill");
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:db/liquibase-changelog.yaml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        seed(jdbc, false);
+        new ResourceDatabasePopulator(new ClassPathResource("db/scripts/09_backfill_moon_body_id.sql")).execute(dataSource);
+
+        // każdy księżyc "Moon i" wskazuje przez rel na ciało o external_id "body-i"
+        assertEquals(ROWS, jdbc.queryForObject(
+                "SELECT COUNT(*) FROM Moons m JOIN Solar_Bodies b ON b.id_number = m.moon_body_id "
+                        + "WHERE m.rel = CONCAT('https://example.test/rest/bodies/', b.external_id)", Integer.class));
+    }
+
+    private static JdbcDataSource dataSource(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+
+    private static void seed(JdbcTemplate jdbc, boolean linkMoons) {
+        for (int i = 0; i < ROWS; i++) {
+            jdbc.update("INSERT INTO Solar_Bodies (external_id, english_name, body_type, is_planet, mean_radius, eccentricity) "
+                            + "VALUES (?, ?, ?, ?, ?, ?)",
+                    "body-" + i, "Body " + i, i % 10 == 0 ? "Planet" : "Moon", i % 10 == 0, i * 10.0, (double) i / ROWS);
+        }
+        Long firstId = jdbc.queryForObject("SELECT MIN(id_number) FROM Solar_Bodies", Long.class);
+        for (int i = 0; i < ROWS; i++) {
+            long parentId = firstId + (i / 10) * 10L;
+            String rel = "https://example.test/rest/bodies/body-" + i;
+            if (linkMoons) {
+                jdbc.update("INSERT INTO Moons (solar_bodies_id, moon, rel, moon_body_id) VALUES (?, ?, ?, ?)",
+                        parentId, "Moon " + i, rel, firstId + i);
+            } else {
+                jdbc.update("INSERT INTO Moons (solar_bodies_id, moon, rel) VALUES (?, ?, ?)", parentId, "Moon " + i, rel);
+            }
+        }
+        jdbc.execute("ANALYZE");
+    }
+
+    private static String explain(JdbcTemplate jdbc, String sql) {
+        return String.join("\n", jdbc.queryForList("EXPLAIN " + sql, String.class));
+    }
+
+    private static void assertTableScan(JdbcTemplate jdbc, String sql) {
+        String plan = explain(jdbc, sql);
+        assertTrue(plan.toLowerCase(Locale.ROOT).contains("tablescan"), () -> "expected table scan: " + sql + "\n" + plan);
+    }
+
+    private static void assertUsesIndex(JdbcTemplate jdbc, String sql, String indexName) {
+        String plan = explain(jdbc, sql);
+        assertTrue(plan.toLowerCase(Locale.ROOT).contains(indexName), () -> "expected " + indexName + ": " + sql + "\n" + plan);
+    }
+}
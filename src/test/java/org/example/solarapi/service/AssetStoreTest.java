@@ -0,0 +1,48 @@
+package org.example.solarapi.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Rozpakowanie static/assets do katalogu na dysku: kopiowane są tylko zmienione pliki, a pliki spoza
+ * bieżących zasobów (stare wersje, porzucone .tmp) i puste po nich katalogi znikają.
+ */
+class AssetStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void extractPrunesFilesMissingFromCurrentAssets() throws IOException {
+        Path oldModel = write("models/3D_models/Vulcan.glb");
+        Path oldTexture = write("textures/retired/vulcan_2k.jpg");
+        Path leftover = write("models/3D_models/Deimos.glb.tmp");
+
+        AssetStore store = new AssetStore();
+        assertTrue(store.extract(directory) > 0);
+
+        assertTrue(Files.isRegularFile(directory.resolve("models/3D_models/Deimos.glb")));
+        assertFalse(Files.exists(oldModel));
+        assertFalse(Files.exists(oldTexture));
+        assertFalse(Files.exists(oldTexture.getParent()));
+        assertFalse(Files.exists(leftover));
+
+        // drugi start: wszystko aktualne, nic do kopiowania ani usuwania
+        assertEquals(0, store.extract(directory));
+        assertTrue(Files.isRegularFile(directory.resolve("models/3D_models/Deimos.glb")));
+    }
+
+    private Path write(String relative) throws IOException {
+        Path file = directory.resolve(relative);
+        Files.createDirectories(file.getParent());
+        return Files.write(file, new byte[]{1, 2, 3});
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.solarapi.service;
+
+import org.example.solarapi.model.SolarBodies;
+import org.example.solarapi.support.FakeSolarApiServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Warstwa odporności na atrapie API: kopia "hedged" bierze token z limitu QPS (bez tokenu nie idzie),
+ * a blokujące getPlanetDetails czeka najwyżej solar.upstream.call-timeout-ms.
+ */
+@SpringBootTest
+@ActiveProfiles("bench")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:solar-httpclient;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "solar.upstream.rate-limit.qps=1",
+        "solar.upstream.rate-limit.burst=3",
+        "solar.upstream.hedge.enabled=true",
+        "solar.upstream.hedge.delay-ms=50",
+        "solar.upstream.call-timeout-ms=1000"
+})
+class HttpClientServiceTest {
+
+    private static final FakeSolarApiServer upstream = FakeSolarApiServer.start("fixtures/bodies.json");
+
+    @Autowired
+    private HttpClientService<SolarBodies> httpClientService;
+
+    @Autowired
+    private UpstreamResilience resilience;
+
+    @Autowired
+    private NegativeLookupCache negativeLookupCache;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("solar.api.base-url", upstream::baseUrl);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.close();
+    }
+
+    @BeforeEach
+    void reset() {
+        upstream.reset();
+        negativeLookupCache.invalidateAll();
+    }
+
+    @Test
+    void hedgedCopyIsSentOnlyWithAPermit() throws InterruptedException {
+        // pełny bucket niezależnie od kolejności testów
+        Thread.sleep(3000);
+        upstream.latencyMillis(300);
+        long sent = counter("hedgesSent");
+        long skipped = counter("hedgesSkipped");
+
+        // 3 tokeny: zapytanie + kopia, potem zapytanie bez kopii (zostaje < 1 token)
+        assertEquals("Earth", httpClientService.getPlanetDetails(upstream.baseUrl() + "terre", SolarBodies.class).getEnglishName());
+        assertEquals("Mars", httpClientService.getPlanetDetails(upstream.baseUrl() + "mars", SolarBodies.class).getEnglishName());
+
+        assertEquals(sent + 1, counter("hedgesSent"));
+        assertEquals(skipped + 1, counter("hedgesSkipped"));
+        assertEquals(3, upstream.getRequests());
+    }
+
+    @Test
+    void blockingCallGivesUpAfterCallTimeout() {
+        upstream.latencyMillis(3000);
+        long start = System.nanoTime();
+        UpstreamException error = assertThrows(UpstreamException.class,
+                () -> httpClientService.getPlanetDetails(upstream.baseUrl() + "jupiter", SolarBodies.class));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(error.isTransientFailure());
+        assertTrue(elapsedMillis < 2500, "waited " + elapsedMillis + " ms");
+    }
+
+    private long counter(String name) {
+        return (Long) resilience.snapshot().get(name);
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.solarapi.service;
+
+import org.example.solarapi.model.Moon;
+import org.example.solarapi.model.SolarBodies;
+import org.example.solarapi.repository.SolarBodiesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Set;
+
+import static org.example.solarapi.support.SolarBodiesFixtures.body;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * linkBody dopasowuje id z "rel" dosłownie – "_" w external_id nie działa jak wzorzec LIKE.
+ */
+@SpringBootTest
+@ActiveProfiles("bench")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:solar-moonlink;MODE=MySQL;DB_CLOSE_DELAY=-1")
+class MoonLinkBackfillTest {
+
+    private static final String BODIES = "https://api.le-systeme-solaire.net/rest/bodies/";
+
+    @Autowired
+    private MoonLinkBackfill moonLinkBackfill;
+
+    @Autowired
+    private SolarBodiesRepository solarBodiesRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void reset() {
+        jdbcTemplate.update("UPDATE Moons SET moon_body_id = NULL");
+        solarBodiesRepository.deleteAll();
+    }
+
+    @Test
+    void linkBodyMatchesRelIdLiterally() {
+        SolarBodies jupiter = body("Jupiter");
+        jupiter.setMoons(Set.of(moon("Io", BODIES + "i_o"), moon("Ixo", BODIES + "ixo")));
+        solarBodiesRepository.save(jupiter);
+
+        SolarBodies io = body("Io");
+        io.setExternalId("i_o");
+        io.setPlanet(false);
+        io = solarBodiesRepository.save(io);
+
+        assertEquals(1, moonLinkBackfill.linkBody(io.getIdNumber(), "Io", "i_o"));
+        assertEquals(io.getIdNumber(), moonBodyId("Io"));
+        assertNull(moonBodyId("Ixo"));
+    }
+
+    private Long moonBodyId(String moon) {
+        return jdbcTemplate.queryForObject("SELECT moon_body_id FROM Moons WHERE moon = ?", Long.class, moon);
+    }
+
+    private static Moon moon(String name, String rel) {
+        Moon moon = new Moon();
+        moon.setMoon(name);
+        moon.setRel(rel);
+        return moon;
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.solarapi.service;
+
+import org.example.solarapi.model.SolarBodies;
+import org.example.solarapi.repository.SolarBodiesRepository;
+import org.example.solarapi.support.FakeSolarApiServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.example.solarapi.support.SolarBodiesFixtures.body;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Zapamiętane 404 znika, gdy ciało o tej nazwie trafi do bazy – ręcznie (POST) albo pobrane z API inną drogą (rel).
+ */
+@SpringBootTest
+@ActiveProfiles("bench")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:solar-negative;MODE=MySQL;DB_CLOSE_DELAY=-1")
+class NegativeLookupCacheTest {
+
+    private static final FakeSolarApiServer upstream = FakeSolarApiServer.start("fixtures/bodies.json");
+
+    @Autowired
+    private HttpClientService<SolarBodies> httpClientService;
+
+    @Autowired
+    private SolarBodiesService solarBodiesService;
+
+    @Autowired
+    private SolarBodiesRepository solarBodiesRepository;
+
+    @Autowired
+    private SolarApiEndpoints solarApiEndpoints;
+
+    @Autowired
+    private NegativeLookupCache negativeLookupCache;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("solar.api.base-url", upstream::baseUrl);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.close();
+    }
+
+    @BeforeEach
+    void reset() {
+        solarBodiesRepository.deleteAll();
+        negativeLookupCache.invalidateAll();
+        upstream.reset();
+    }
+
+    @Test
+    void savingBodyForgetsNotFound() {
+        String url = solarApiEndpoints.bodyUrl("Vulcan");
+        assertNull(httpClientService.getPlanetDetails(url, SolarBodies.class));
+        assertEquals(NegativeLookupCache.Reason.NOT_FOUND, negativeLookupCache.check(url));
+
+        solarBodiesService.saveSolarBody(body("Vulcan"));
+        assertNull(negativeLookupCache.check(url));
+    }
+
+    @Test
+    void fetchingByRelForgetsNotFoundForEnglishName() {
+        String url = solarApiEndpoints.bodyUrl("Earth");
+        negativeLookupCache.recordNotFound(url);
+
+        SolarBodies earth = solarBodiesService.fetchAndSaveByRel(upstream.baseUrl() + "terre");
+        assertNotNull(earth);
+        assertEquals("Earth", earth.getEnglishName());
+        assertNull(negativeLookupCache.check(url));
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.solarapi.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.solarapi.repository.SolarBodiesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.example.solarapi.support.SolarBodiesFixtures.body;
+import static org.example.solarapi.support.SolarBodiesFixtures.statistics;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cache drugiego poziomu: powtarzany odczyt po englishName nie idzie do bazy, a każda ścieżka zapisu
+ * (PATCH, DELETE, zapis JDBC z synchronizacji) unieważnia cache – kolejny odczyt widzi nowe dane.
+ */
+@SpringBootTest
+@ActiveProfiles("bench")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:solar-l2cache;MODE=MySQL;DB_CLOSE_DELAY=-1")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private SolarBodiesService solarBodiesService;
+
+    @Autowired
+    private SolarBodiesRepository solarBodiesRepository;
+
+    @Autowired
+    private SolarBodiesBulkWriter solarBodiesBulkWriter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long earthId;
+
+    @BeforeEach
+    void reset() {
+        solarBodiesRepository.deleteAll();
+        earthId = solarBodiesService.saveSolarBody(body("Earth", 9.8)).getIdNumber();
+        statistics(entityManagerFactory).clear();
+    }
+
+    @Test
+    void repeatedLookupsAreServedFromCache() {
+        assertNotNull(solarBodiesService.getSolarBodyByName("Earth"));
+        long queriesAfterFirst = statistics(entityManagerFactory).getPrepareStatementCount();
+
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(solarBodiesService.getSolarBodyByName("Earth"));
+        }
+        assertEquals(queriesAfterFirst, statistics(entityManagerFactory).getPrepareStatementCount());
+        assertTrue(statistics(entityManagerFactory).getSecondLevelCacheHitCount() >= 10);
+        assertTrue(statistics(entityManagerFactory).getNaturalIdCacheHitCount() >= 10);
+    }
+
+    @Test
+    void patchAndDeleteEvictCachedEntries() {
+        assertNotNull(solarBodiesService.getSolarBodyByName("Earth"));
+
+        solarBodiesService.patchSolarBody(earthId, Map.of("englishName", "Terra"));
+        assertNull(solarBodiesService.getSolarBodyByName("Earth"));
+        assertNotNull(solarBodiesService.getSolarBodyByName("Terra"));
+
+        solarBodiesService.deleteSolarBody(earthId);
+        assertNull(solarBodiesService.getSolarBodyByName("Terra"));
+    }
+
+    @Test
+    void bulkSyncWriteEvictsCachedEntries() {
+        assertEquals(9.8, solarBodiesService.getSolarBodyByName("Earth").getGravity());
+
+        solarBodiesBulkWriter.write(List.of(body("Earth", 9.81)), false);
+
+        assertEquals(9.81, solarBodiesService.getSolarBodyByName("Earth").getGravity());
+    }
+}
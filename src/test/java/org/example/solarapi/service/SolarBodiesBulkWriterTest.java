@@ -0,0 +1,108 @@
+package org.example.solarapi.service;
+
+import org.example.solarapi.model.Moon;
+import org.example.solarapi.model.SolarBodies;
+import org.example.solarapi.repository.SolarBodiesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Błąd jednej paczki (nazwa dłuższa niż VARCHAR(255)) nie psuje pozostałych ani transakcji wołającego.
+ * IGNORECASE=TRUE – porównania nazw jak przy kolacji MySQL (bez rozróżniania wielkości liter).
+ */
+@SpringBootTest
+@ActiveProfiles("bench")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:solar-bulkwriter;MODE=MySQL;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+        "solar.sync.bulk.chunk-size=2"
+})
+class SolarBodiesBulkWriterTest {
+
+    private static final String TOO_LONG = "X".repeat(300);
+
+    @Autowired
+    private SolarBodiesBulkWriter solarBodiesBulkWriter;
+
+    @Autowired
+    private SolarBodiesService solarBodiesService;
+
+    @Autowired
+    private SolarBodiesRepository solarBodiesRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void reset() {
+        solarBodiesRepository.deleteAll();
+    }
+
+    @Test
+    void failedChunkDoesNotRollBackTheOthers() {
+        // paczki: [Mercury, Venus], [X...X, Mars], [Jupiter]
+        solarBodiesService.saveAllSolarBodiesData(bodies("Mercury", "Venus", TOO_LONG, "Mars", "Jupiter"));
+
+        assertNotNull(solarBodiesRepository.findByEnglishName("Mercury"));
+        assertNotNull(solarBodiesRepository.findByEnglishName("Venus"));
+        assertNull(solarBodiesRepository.findByEnglishName("Mars"));
+        assertNotNull(solarBodiesRepository.findByEnglishName("Jupiter"));
+    }
+
+    @Test
+    void failedChunkInsideCallerTransactionStillCommits() {
+        TransactionTemplate outer = new TransactionTemplate(transactionManager);
+        SolarBodiesBulkWriter.Result result = outer.execute(status ->
+                solarBodiesBulkWriter.write(bodies("Mercury", TOO_LONG, "Jupiter"), false));
+
+        // paczki: [Mercury, X...X] – błąd, [Jupiter]
+        assertEquals(1, result.inserted());
+        assertEquals(2, result.failed());
+        assertNull(solarBodiesRepository.findByEnglishName("Mercury"));
+        assertNotNull(solarBodiesRepository.findByEnglishName("Jupiter"));
+    }
+
+    @Test
+    void nameDifferingOnlyInCaseUpdatesStoredBody() {
+        solarBodiesBulkWriter.write(bodies("Earth"), false);
+
+        SolarBodies earth = bodies("EARTH").get(0);
+        Moon moon = new Moon();
+        moon.setMoon("La Lune");
+        moon.setRel("https://api.le-systeme-solaire.net/rest/bodies/lune");
+        earth.setMoons(Set.of(moon));
+        SolarBodiesBulkWriter.Result result = solarBodiesBulkWriter.write(List.of(earth), false);
+
+        assertEquals(0, result.inserted());
+        assertEquals(1, result.updated());
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM Moons m JOIN Solar_Bodies b ON b.id_number = m.solar_bodies_id "
+                        + "WHERE m.moon = 'La Lune' AND b.english_name = 'Earth'", Integer.class));
+    }
+
+    private static List<SolarBodies> bodies(String... names) {
+        return Arrays.stream(names).map(name -> {
+            SolarBodies body = new SolarBodies();
+            body.setEnglishName(name);
+            body.setBodyType("Planet");
+            return body;
+        }).toList();
+    }
+}
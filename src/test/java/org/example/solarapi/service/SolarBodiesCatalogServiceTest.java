@@ -0,0 +1,152 @@
+package org.example.solarapi.service;
+
+import org.example.solarapi.dto.CatalogFilter;
+import org.example.solarapi.dto.CatalogPage;
+import org.example.solarapi.dto.SolarBodySummary;
+import org.example.solarapi.model.Mass;
+import org.example.solarapi.model.SolarBodies;
+import org.example.solarapi.repository.SolarBodiesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Lista katalogu: przejście kursorem przez wszystkie strony (bez powtórzeń i dziur), także po nazwie
+ * z wierszem bez nazwy, filtry i mass_kg liczone przy zapisie przez JPA.
+ */
+@SpringBootTest
+@ActiveProfiles("bench")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:solar-catalog;MODE=MySQL;DB_CLOSE_DELAY=-1")
+class SolarBodiesCatalogServiceTest {
+
+    private static final int BODIES = 25;
+
+    @Autowired
+    private SolarBodiesCatalogService catalogService;
+
+    @Autowired
+    private SolarBodiesService solarBodiesService;
+
+    @Autowired
+    private SolarBodiesRepository solarBodiesRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        solarBodiesRepository.deleteAll();
+        for (int i = 0; i < BODIES; i++) {
+            SolarBodies body = new SolarBodies();
+            body.setEnglishName(String.format("Body %02d", i));
+            body.setBodyType(i % 5 == 0 ? "Planet" : "Asteroid");
+            body.setPlanet(i % 5 == 0);
+            // dwa ciała o tym samym promieniu – kolejność rozstrzyga id
+            body.setMeanRadius(i == 13 ? 120.0 : i * 10.0);
+            Mass mass = new Mass();
+            mass.setMassValue(1.5);
+            mass.setMassExponent(20 + i % 3);
+            body.setMass(mass);
+            solarBodiesService.saveSolarBody(body);
+        }
+    }
+
+    @Test
+    void cursorWalksAllPagesInOrder() {
+        CatalogFilter filter = new CatalogFilter();
+        filter.setSort("meanRadius,desc");
+        filter.setLimit(10);
+
+        List<String> names = new ArrayList<>();
+        List<Double> radii = new ArrayList<>();
+        int pages = 0;
+        do {
+            CatalogPage page = catalogService.list(filter);
+            page.getItems().forEach(item -> {
+                names.add(item.getEnglishName());
+                radii.add(item.getMeanRadius());
+            });
+            filter.setCursor(page.getNextCursor());
+            pages++;
+        } while (filter.getCursor() != null);
+
+        assertEquals(3, pages);
+        assertEquals(BODIES, names.size());
+        assertEquals(BODIES, names.stream().distinct().count());
+        for (int i = 1; i < radii.size(); i++) {
+            assertEquals(true, radii.get(i - 1) >= radii.get(i), radii.toString());
+        }
+    }
+
+    @Test
+    void nameSortSkipsRowsWithoutName() {
+        // wiersz bez nazwy (kolumna dopuszcza NULL) nie może wpaść do kursora jako "null"
+        jdbcTemplate.update("INSERT INTO Solar_Bodies (english_name, body_type, is_planet, moon_count) VALUES (NULL, 'Asteroid', FALSE, 0)");
+        CatalogFilter filter = new CatalogFilter();
+        filter.setSort("name,desc");
+        filter.setLimit(10);
+
+        List<String> names = new ArrayList<>();
+        do {
+            CatalogPage page = catalogService.list(filter);
+            page.getItems().forEach(item -> names.add(item.getEnglishName()));
+            filter.setCursor(page.getNextCursor());
+        } while (filter.getCursor() != null);
+
+        assertEquals(BODIES, names.size());
+        assertEquals("Body 24", names.get(0));
+        assertEquals("Body 00", names.get(BODIES - 1));
+    }
+
+    @Test
+    void filtersAndMassInKilograms() {
+        CatalogFilter filter = new CatalogFilter();
+        filter.setIsPlanet(true);
+        filter.setMinMeanRadius(50.0);
+        CatalogPage planets = catalogService.list(filter);
+        // i = 5, 10, 15, 20
+        assertEquals(List.of("Body 05", "Body 10", "Body 15", "Body 20"),
+                planets.getItems().stream().map(SolarBodySummary::getEnglishName).toList());
+        assertNull(planets.getNextCursor());
+
+        filter = new CatalogFilter();
+        filter.setMinMass(1e21);
+        filter.setMaxMass(2e21);
+        CatalogPage heavy = catalogService.list(filter);
+        assertEquals(8, heavy.getItems().size()); // i % 3 == 1
+        assertNotNull(heavy.getItems().get(0).getMassKg());
+        assertEquals(1.5e21, heavy.getItems().get(0).getMassKg(), 1e9);
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        CatalogFilter filter = new CatalogFilter();
+        filter.setSort("gravity");
+        assertThrows(IllegalArgumentException.class, () -> catalogService.list(filter));
+
+        CatalogFilter badCursor = new CatalogFilter();
+        badCursor.setCursor("not-a-cursor");
+        assertThrows(IllegalArgumentException.class, () -> catalogService.list(badCursor));
+
+        // kursor z innego sortowania
+        CatalogFilter byName = new CatalogFilter();
+        byName.setLimit(5);
+        String cursor = catalogService.list(byName).getNextCursor();
+        CatalogFilter byRadius = new CatalogFilter();
+        byRadius.setSort("meanRadius");
+        byRadius.setCursor(cursor);
+        assertThrows(IllegalArgumentException.class, () -> catalogService.list(byRadius));
+    }
+}
@@ -0,0 +1,127 @@
+package org.example.solarapi.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.solarapi.controller.SolarBodiesController;
+import org.example.solarapi.repository.SolarBodiesRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.example.solarapi.support.SolarBodiesFixtures.body;
+import static org.example.solarapi.support.SolarBodiesFixtures.statistics;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Cache gotowych DTO i bajtów odpowiedzi: powtarzany GET nie buduje DTO, nie serializuje i nie pyta bazy,
+ * If-None-Match daje 304, a każdy zapis (PATCH, DELETE, zapis JDBC z synchronizacji) unieważnia cache po commicie.
+ */
+@SpringBootTest
+@ActiveProfiles("bench")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:solar-dtocache;MODE=MySQL;DB_CLOSE_DELAY=-1")
+class SolarBodyDtoCacheTest {
+
+    @Autowired
+    private SolarBodiesController controller;
+
+    @Autowired
+    private SolarBodiesService solarBodiesService;
+
+    @Autowired
+    private SolarBodiesRepository solarBodiesRepository;
+
+    @Autowired
+    private SolarBodiesBulkWriter solarBodiesBulkWriter;
+
+    @Autowired
+    private SolarBodyDtoCache solarBodyDtoCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long earthId;
+
+    @BeforeEach
+    void reset() {
+        solarBodiesRepository.deleteAll();
+        earthId = solarBodiesService.saveSolarBody(body("Earth", 9.8)).getIdNumber();
+        solarBodyDtoCache.invalidateAll();
+    }
+
+    @Test
+    void repeatedReadsAreServedFromCache() {
+        byte[] first = get("Earth").getBody();
+        long statementsAfterFirst = statistics(entityManagerFactory).getPrepareStatementCount();
+
+        for (int i = 0; i < 10; i++) {
+            assertSame(first, get(i % 2 == 0 ? "Earth" : "EARTH").getBody());
+        }
+        assertEquals(statementsAfterFirst, statistics(entityManagerFactory).getPrepareStatementCount());
+    }
+
+    @Test
+    void matchingEtagGivesNotModified() throws IOException {
+        ResponseEntity<byte[]> first = get("Earth");
+        String etag = first.getHeaders().getETag();
+        assertNotNull(etag);
+
+        ResponseEntity<byte[]> revalidated = controller.getSolarBodyByName("Earth", null, etag, null);
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getStatusCode());
+        assertNull(revalidated.getBody());
+        assertEquals(HttpStatus.OK, controller.getSolarBodyByName("Earth", null, "\"stale\"", null).getStatusCode());
+
+        ResponseEntity<byte[]> gzip = controller.getSolarBodyByName("Earth", null, null, "gzip, deflate, br");
+        assertEquals("gzip", gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertNotEquals(etag, gzip.getHeaders().getETag());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip.getBody()))) {
+            assertArrayEquals(first.getBody(), in.readAllBytes());
+        }
+
+        solarBodiesService.patchSolarBody(earthId, Map.of("gravity", 9.7));
+        assertEquals(HttpStatus.OK, controller.getSolarBodyByName("Earth", null, etag, null).getStatusCode());
+    }
+
+    @Test
+    void writesInvalidateCachedDtos() throws IOException {
+        assertEquals(9.8, gravity("Earth"));
+
+        solarBodiesService.patchSolarBody(earthId, Map.of("gravity", 9.7));
+        assertEquals(9.7, gravity("Earth"));
+
+        solarBodiesBulkWriter.write(List.of(body("Earth", 9.81)), false);
+        assertEquals(9.81, gravity("Earth"));
+
+        solarBodiesService.deleteSolarBody(earthId);
+        assertEquals(HttpStatus.NOT_FOUND, get("Earth").getStatusCode());
+    }
+
+    private ResponseEntity<byte[]> get(String englishName) {
+        return controller.getSolarBodyByName(englishName, null, null, null);
+    }
+
+    private double gravity(String englishName) throws IOException {
+        JsonNode json = objectMapper.readTree(get(englishName).getBody());
+        return json.get("gravity").asDouble();
+    }
+}
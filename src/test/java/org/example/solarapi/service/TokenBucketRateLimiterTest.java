@@ -0,0 +1,65 @@
+package org.example.solarapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Token bucket: burst od razu, potem opóźnienie ~1/qps na token, a dług ponad max-wait jest odrzucany od razu.
+ */
+class TokenBucketRateLimiterTest {
+
+    @Test
+    void burstIsGrantedImmediatelyThenCallersWait() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 3, 5000);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.acquire().isDone());
+        }
+        long start = System.nanoTime();
+        CompletableFuture<Void> delayed = limiter.acquire();
+        assertFalse(delayed.isDone());
+        delayed.join();
+        long waitedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(waitedMillis >= 80, "waited " + waitedMillis + " ms");
+        assertEquals(1L, limiter.snapshot().get("delayed"));
+    }
+
+    @Test
+    void debtIsCappedByMaxWait() {
+        // 10 qps, burst 1, max 500 ms: 1 od razu, 5 z opóźnieniem 100..500 ms, reszta odrzucona
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 1, 500);
+        List<CompletableFuture<Void>> permits = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            permits.add(limiter.acquire());
+        }
+        long rejected = permits.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+        assertEquals(14, rejected);
+        assertEquals(14L, limiter.snapshot().get("rejected"));
+        CompletionException error = assertThrows(CompletionException.class, () -> permits.get(19).join());
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+
+        // odrzucone nie zwiększyły długu: granted czekają najwyżej max-wait
+        long start = System.nanoTime();
+        permits.stream().filter(permit -> !permit.isCompletedExceptionally()).forEach(CompletableFuture::join);
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 1500);
+    }
+
+    @Test
+    void zeroQpsDisablesTheLimit() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(0, 1, 0);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.acquire().isDone());
+        }
+        assertEquals(0L, limiter.snapshot().get("rejected"));
+    }
+}
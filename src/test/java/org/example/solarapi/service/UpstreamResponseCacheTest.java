@@ -0,0 +1,132 @@
+package org.example.solarapi.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Dyskowy cache odpowiedzi: teeToCache zapisuje tylko strumień przeczytany do końca, przerwany
+ * (albo zamknięty z błędem) nie zostawia plików .tmp, a trafienie liczy się dopiero przy odpowiedzi z dysku.
+ */
+class UpstreamResponseCacheTest {
+
+    private static final String URL = "https://api.le-systeme-solaire.net/rest/bodies/";
+    private static final byte[] BODY = "{\"bodies\":[{\"englishName\":\"Earth\"}]}\n".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void fullyReadStreamIsStored() throws IOException {
+        UpstreamResponseCache cache = cache();
+        try (InputStream in = cache.teeToCache(URL, new ByteArrayInputStream(BODY), "\"v1\"", null)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+
+        UpstreamResponseCache.CachedResponse cached = cache.get(URL);
+        assertNotNull(cached);
+        assertArrayEquals(BODY, cached.body());
+        assertEquals("\"v1\"", cached.etag());
+        assertEquals(1, cache.getStored());
+        assertEquals(List.of(), tmpFiles());
+    }
+
+    @Test
+    void abandonedStreamIsNotDrainedOrStored() throws IOException {
+        UpstreamResponseCache cache = cache();
+        CountingStream upstream = new CountingStream(BODY);
+        try (InputStream in = cache.teeToCache(URL, upstream, "\"v1\"", null)) {
+            assertEquals(8, in.read(new byte[8]));
+        }
+
+        // close() nie doczytuje reszty odpowiedzi
+        assertEquals(8, upstream.read);
+        assertTrue(upstream.closed);
+        assertNull(cache.get(URL));
+        assertEquals(0, cache.getStored());
+        assertEquals(List.of(), tmpFiles());
+    }
+
+    @Test
+    void failingCloseStillRemovesTempFile() throws IOException {
+        UpstreamResponseCache cache = cache();
+        InputStream upstream = new FilterInputStream(new ByteArrayInputStream(BODY)) {
+            @Override
+            public void close() throws IOException {
+                throw new IOException("connection reset");
+            }
+        };
+        InputStream in = cache.teeToCache(URL, upstream, null, null);
+        in.read(new byte[4]);
+
+        assertThrows(IOException.class, in::close);
+        assertNull(cache.get(URL));
+        assertEquals(List.of(), tmpFiles());
+    }
+
+    @Test
+    void hitsCountOnlyResponsesServedFromDisk() {
+        UpstreamResponseCache cache = cache();
+        assertNull(cache.get(URL));
+        assertEquals(1, cache.getMisses());
+
+        cache.put(URL, BODY, "\"v1\"", null);
+        // wpis użyty tylko do zapytania warunkowego – API mogło odpowiedzieć 200
+        assertNotNull(cache.get(URL));
+        assertEquals(0, cache.getHits());
+
+        cache.markRevalidated();
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getRevalidated());
+    }
+
+    private UpstreamResponseCache cache() {
+        return new UpstreamResponseCache(directory.toString(), true, false);
+    }
+
+    private List<Path> tmpFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".tmp")).toList();
+        }
+    }
+
+    private static final class CountingStream extends FilterInputStream {
+
+        int read;
+        boolean closed;
+
+        CountingStream(byte[] bytes) {
+            super(new ByteArrayInputStream(bytes));
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            read += Math.max(n, 0);
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+}
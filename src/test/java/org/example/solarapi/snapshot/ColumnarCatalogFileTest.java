@@ -0,0 +1,124 @@
+package org.example.solarapi.snapshot;
+
+import org.example.solarapi.codec.SolarBodiesCodec;
+import org.example.solarapi.dto.SolarBodiesResponse;
+import org.example.solarapi.model.SolarBodies;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plik kolumnowy z fixtures/bodies.json: wartości i null-e wracają z mapowania bez zmian,
+ * a agregaty po buforze zgadzają się z liczonymi na encjach. Ucięty albo uszkodzony plik = IOException przy otwarciu.
+ */
+class ColumnarCatalogFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsBackColumnsFromMappedFile() throws IOException {
+        List<SolarBodies> bodies = fixtureBodies();
+        Path file = tempDir.resolve("catalog.cols");
+        ColumnarCatalogFile.write(bodies, Instant.ofEpochMilli(1_700_000_000_000L), file);
+
+        ColumnarCatalogFile.Reader reader = ColumnarCatalogFile.open(file);
+        assertEquals(bodies.size(), reader.rowCount());
+        assertEquals(Instant.ofEpochMilli(1_700_000_000_000L), reader.createdAt());
+
+        ColumnarCatalogFile.Column names = reader.column("englishName");
+        ColumnarCatalogFile.Column axis = reader.column("semimajorAxis");
+        ColumnarCatalogFile.Column exponent = reader.column("massExponent");
+        ColumnarCatalogFile.Column planet = reader.column("isPlanet");
+        ColumnarCatalogFile.Column discoveredBy = reader.column("discoveredBy");
+        for (int row = 0; row < bodies.size(); row++) {
+            SolarBodies body = bodies.get(row);
+            assertEquals(body.getEnglishName(), reader.getString(names, row));
+            assertEquals(body.getSemimajorAxis(), reader.getValue(axis, row));
+            assertEquals(body.getMass() != null ? body.getMass().getMassExponent() : null, reader.getValue(exponent, row));
+            assertEquals(body.isPlanet(), reader.getValue(planet, row));
+            assertEquals(body.getDiscoveredBy(), reader.getString(discoveredBy, row));
+        }
+        assertNull(reader.column("noSuchColumn"));
+    }
+
+    @Test
+    void statsMatchEntityAggregates() throws IOException {
+        List<SolarBodies> bodies = fixtureBodies();
+        Path file = tempDir.resolve("catalog.cols");
+        ColumnarCatalogFile.write(bodies, Instant.now(), file);
+        ColumnarCatalogFile.Reader reader = ColumnarCatalogFile.open(file);
+
+        DoubleSummaryStatistics expected = bodies.stream()
+                .filter(body -> "Moon".equalsIgnoreCase(body.getBodyType()))
+                .map(SolarBodies::getMeanRadius)
+                .filter(Objects::nonNull)
+                .mapToDouble(Double::doubleValue)
+                .summaryStatistics();
+
+        ColumnarCatalogFile.Column bodyType = reader.column("bodyType");
+        BitSet moonCodes = reader.codesEqualIgnoreCase("moon");
+        ColumnarCatalogFile.Stats stats = reader.stats(reader.column("meanRadius"), row -> {
+            int code = reader.code(bodyType, row);
+            return code >= 0 && moonCodes.get(code);
+        });
+
+        assertEquals(expected.getCount(), stats.count());
+        assertNotNull(stats.mean());
+        assertEquals(expected.getMin(), stats.min());
+        assertEquals(expected.getMax(), stats.max());
+        assertEquals(expected.getAverage(), stats.mean(), 1e-9);
+        assertThrows(IllegalArgumentException.class, () -> reader.stats(bodyType, row -> true));
+    }
+
+    @Test
+    void rejectsTruncatedFile() throws IOException {
+        Path file = tempDir.resolve("catalog.cols");
+        ColumnarCatalogFile.write(fixtureBodies(), Instant.now(), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 16));
+
+        IOException e = assertThrows(IOException.class, () -> ColumnarCatalogFile.open(file));
+        assertTrue(e.getMessage().contains("outside file"), e.getMessage());
+    }
+
+    @Test
+    void rejectsColumnOffsetOutsideFile() throws IOException {
+        Path file = tempDir.resolve("catalog.cols");
+        ColumnarCatalogFile.write(fixtureBodies(), Instant.now(), file);
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        // offset danych pierwszej kolumny: nagłówek (24) + długość nazwy (4) + nazwa + typ (1)
+        int nameLength = bytes.getInt(24);
+        bytes.putLong(24 + 4 + nameLength + 1, bytes.capacity() + 8L);
+        Files.write(file, bytes.array());
+
+        assertThrows(IOException.class, () -> ColumnarCatalogFile.open(file));
+    }
+
+    private static List<SolarBodies> fixtureBodies() throws IOException {
+        try (InputStream in = ColumnarCatalogFileTest.class.getResourceAsStream("/fixtures/bodies.json")) {
+            assertNotNull(in, "missing fixtures/bodies.json");
+            String json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return SolarBodiesCodec.fromJson(json, SolarBodiesResponse.class).getBodies();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package org.example.solarapi.snapshot;
+
+import org.example.solarapi.codec.SolarBodiesCodec;
+import org.example.solarapi.controller.SnapshotSolarBodiesController;
+import org.example.solarapi.dto.CatalogFilter;
+import org.example.solarapi.dto.CatalogPage;
+import org.example.solarapi.dto.MoonDTO;
+import org.example.solarapi.dto.SolarBodiesResponse;
+import org.example.solarapi.dto.SolarBodyDTO;
+import org.example.solarapi.dto.SolarBodySummary;
+import org.example.solarapi.model.Moon;
+import org.example.solarapi.model.SolarBodies;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Profil "snapshot": kontekst bez DataSource/JPA, GET-y serwowane z pliku SolarCatalogSnapshot
+ * zbudowanego z fixtures/bodies.json. Do tego round-trip formatu i odrzucenie uszkodzonego pliku.
+ */
+@SpringBootTest
+@ActiveProfiles("snapshot")
+class SnapshotModeTest {
+
+    private static final Path SNAPSHOT = writeFixtureSnapshot();
+
+    @DynamicPropertySource
+    static void snapshotPath(DynamicPropertyRegistry registry) {
+        registry.add("solar.snapshot.path", SNAPSHOT::toString);
+    }
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private SnapshotSolarBodiesController controller;
+
+    @Test
+    void startsWithoutDatabase() {
+        assertEquals(0, context.getBeanNamesForType(DataSource.class).length);
+        assertEquals(HttpStatus.NOT_FOUND, controller.getSolarBodyByName("Vulcan", null).getStatusCode());
+    }
+
+    @Test
+    void servesBodiesAndMoonsFromSnapshot() {
+        SolarBodyDTO earth = controller.getSolarBodyByName("EARTH", null).getBody();
+        assertNotNull(earth);
+        assertEquals("Earth", earth.getEnglishName());
+
+        // "La Lune" z rel .../lune rozwija się do pełnego rekordu ciała Moon, jak w trybie z bazą
+        MoonDTO moon = earth.getMoons().iterator().next();
+        assertEquals("Moon", moon.getEnglishName());
+        assertNotNull(moon.getMeanRadius());
+
+        List<Moon> moons = controller.getMoonsBySolarBodyName("Earth");
+        assertEquals(1, moons.size());
+        assertEquals("La Lune", moons.get(0).getMoon());
+    }
+
+    @Test
+    void listsCatalogWithFiltersAndCursor() {
+        CatalogFilter filter = new CatalogFilter();
+        filter.setIsPlanet(true);
+        filter.setSort("meanRadius,desc");
+        filter.setLimit(2);
+        List<SolarBodySummary> planets = new ArrayList<>();
+        String firstCursor = null;
+        do {
+            CatalogPage page = controller.listSolarBodies(filter).getBody();
+            assertNotNull(page);
+            assertTrue(page.getItems().size() <= 2);
+            planets.addAll(page.getItems());
+            filter.setCursor(page.getNextCursor());
+            firstCursor = firstCursor != null ? firstCursor : page.getNextCursor();
+        } while (filter.getCursor() != null);
+
+        // fixtura: Ziemia, Mars, Jowisz
+        assertEquals(List.of("Jupiter", "Earth", "Mars"), planets.stream().map(SolarBodySummary::getEnglishName).toList());
+        assertTrue(planets.stream().allMatch(SolarBodySummary::isPlanet));
+
+        // kursor z innego sortowania = 400, jak w trybie z bazą
+        filter.setSort("name");
+        filter.setCursor(firstCursor);
+        assertEquals(HttpStatus.BAD_REQUEST, controller.listSolarBodies(filter).getStatusCode());
+    }
+
+    @Test
+    void texturesLodGetsItsOwnDto() {
+        SolarBodyDTO full = controller.getSolarBodyByName("Earth", null).getBody();
+        SolarBodyDTO lod = controller.getSolarBodyByName("Earth", "1k").getBody();
+        assertNotNull(lod);
+        assertNotSame(full, lod);
+        assertEquals(full.getEnglishName(), lod.getEnglishName());
+        assertEquals(HttpStatus.BAD_REQUEST, controller.getSolarBodyByName("Earth", "8k").getStatusCode());
+    }
+
+    @Test
+    void roundTripKeepsFieldsAndMoonLinks() throws IOException {
+        SolarCatalogSnapshot.Catalog original = fixtureCatalog();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SolarCatalogSnapshot.write(original, bytes);
+
+        SolarCatalogSnapshot.Catalog copy = SolarCatalogSnapshot.read(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(original.createdAt(), copy.createdAt());
+        assertEquals(original.bodies().size(), copy.bodies().size());
+        assertEquals(original.moonBodyIds(), copy.moonBodyIds());
+        for (int i = 0; i < original.bodies().size(); i++) {
+            SolarBodies expected = original.bodies().get(i);
+            SolarBodies actual = copy.bodies().get(i);
+            assertEquals(expected.getIdNumber(), actual.getIdNumber());
+            assertEquals(expected.getExternalId(), actual.getExternalId());
+            assertEquals(expected.getEnglishName(), actual.getEnglishName());
+            assertEquals(expected.isPlanet(), actual.isPlanet());
+            assertEquals(expected.getSemimajorAxis(), actual.getSemimajorAxis());
+            assertEquals(expected.getAvgTemp(), actual.getAvgTemp());
+            assertEquals(expected.getMoonCount(), actual.getMoonCount());
+            assertEquals(String.valueOf(expected.getMass()), String.valueOf(actual.getMass()));
+            assertEquals(String.valueOf(expected.getVol()), String.valueOf(actual.getVol()));
+            assertEquals(moonNames(expected.getMoons().stream().map(Moon::getMoon).toList()),
+                    moonNames(actual.getMoons().stream().map(Moon::getMoon).toList()));
+        }
+    }
+
+    @Test
+    void rejectsCorruptedSnapshot() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SolarCatalogSnapshot.write(fixtureCatalog(), bytes);
+        byte[] corrupted = bytes.toByteArray();
+        corrupted[corrupted.length / 2] ^= 0x5A;
+
+        assertThrows(IOException.class, () -> SolarCatalogSnapshot.read(new ByteArrayInputStream(corrupted)));
+    }
+
+    private static String moonNames(List<String> names) {
+        return names.stream().sorted().collect(Collectors.joining(","));
+    }
+
+    // id jak z bazy; co drugi księżyc, który sam jest ciałem w fixturze, ma ustawione moon_body_id
+    private static SolarCatalogSnapshot.Catalog fixtureCatalog() throws IOException {
+        List<SolarBodies> bodies = fixtureBodies();
+        Map<String, Long> idsByName = new HashMap<>();
+        long nextId = 1;
+        for (SolarBodies body : bodies) {
+            body.setIdNumber(nextId++);
+            idsByName.put(body.getEnglishName(), body.getIdNumber());
+        }
+        Map<Long, Long> moonBodyIds = new HashMap<>();
+        long nextMoonId = 1;
+        for (SolarBodies body : bodies) {
+            if (body.getMoons() == null) {
+                continue;
+            }
+            for (Moon moon : body.getMoons()) {
+                moon.setId(nextMoonId++);
+                Long moonBodyId = idsByName.get(moon.getMoon());
+                if (moonBodyId != null && moon.getId() % 2 == 0) {
+                    moonBodyIds.put(moon.getId(), moonBodyId);
+                }
+            }
+        }
+        return new SolarCatalogSnapshot.Catalog(Instant.ofEpochMilli(1_700_000_000_000L), "fixtures/bodies.json",
+                bodies, moonBodyIds);
+    }
+
+    private static List<SolarBodies> fixtureBodies() throws IOException {
+        try (InputStream in = SnapshotModeTest.class.getResourceAsStream("/fixtures/bodies.json")) {
+            assertNotNull(in, "missing fixtures/bodies.json");
+            String json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            return SolarBodiesCodec.fromJson(json, SolarBodiesResponse.class).getBodies();
+        }
+    }
+
+    private static Path writeFixtureSnapshot() {
+        try {
+            Path file = Files.createTempFile("solar-catalog", ".snap");
+            file.toFile().deleteOnExit();
+            try (OutputStream out = Files.newOutputStream(file)) {
+                SolarCatalogSnapshot.write(fixtureCatalog(), out);
+            }
+            assertTrue(Files.size(file) > 0);
+            return file;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write fixture snapshot", e);
+        }
+    }
+}
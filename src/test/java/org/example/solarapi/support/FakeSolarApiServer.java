@@ -0,0 +1,233 @@
+package org.example.solarapi.support;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wbudowana atrapa api.le-systeme-solaire.net (/rest/bodies/) na JDK HttpServer – do testów bez sieci.
+ * Serwuje nagrane odpowiedzi z fixtures (lista + szczegóły po id albo englishName), a linki "rel"
+ * są przepisywane na adres atrapy, więc ścieżka dociągania księżyców też zostaje lokalnie.
+ * Można ustawić:
+ * - latencyMillis – sztuczne opóźnienie każdej odpowiedzi,
+ * - errorRate – ułamek zapytań kończących się 503; rozkład jest deterministyczny
+ *   (co 1/errorRate-te zapytanie), żeby testy nie były losowo czerwone,
+ * - redirectDetails – szczegóły ciała odpowiadają 302 na /moved/bodies/{id}.
+ */
+public class FakeSolarApiServer implements AutoCloseable {
+
+    private static final String UPSTREAM_BASE = "https://api.le-systeme-solaire.net/rest/bodies/";
+    private static final String BODIES_PATH = "/rest/bodies/";
+    private static final String MOVED_PATH = "/moved/bodies/";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String baseUrl;
+    private final byte[] listResponse;
+    private final Map<String, byte[]> detailResponses = new HashMap<>();
+
+    private volatile long latencyMillis;
+    private volatile double errorRate;
+    private volatile boolean redirectDetails;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong listRequests = new AtomicLong();
+    private final AtomicLong detailRequests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong redirects = new AtomicLong();
+    private final AtomicLong notFound = new AtomicLong();
+
+    private FakeSolarApiServer(String fixtureResource) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.baseUrl = "http://localhost:" + server.getAddress().getPort() + BODIES_PATH;
+
+        String fixture = rewriteRels(loadFixture(fixtureResource));
+        this.listResponse = fixture.getBytes(StandardCharsets.UTF_8);
+        for (JsonElement element : JsonParser.parseString(fixture).getAsJsonObject().getAsJsonArray("bodies")) {
+            JsonObject body = element.getAsJsonObject();
+            byte[] json = body.toString().getBytes(StandardCharsets.UTF_8);
+            detailResponses.put(normalize(body.get("id").getAsString()), json);
+            if (body.has("englishName") && !body.get("englishName").isJsonNull()) {
+                detailResponses.putIfAbsent(normalize(body.get("englishName").getAsString()), json);
+            }
+        }
+
+        // wiele wątków, żeby sztuczne opóźnienie nie szeregowało równoległych zapytań
+        this.executor = Executors.newFixedThreadPool(32);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public static FakeSolarApiServer start(String fixtureResource) {
+        try {
+            return new FakeSolarApiServer(fixtureResource);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Adres odpowiadający https://api.le-systeme-solaire.net/rest/bodies/ (do solar.api.base-url).
+     */
+    public String baseUrl() {
+        return baseUrl;
+    }
+
+    public FakeSolarApiServer latencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    public FakeSolarApiServer errorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    public FakeSolarApiServer redirectDetails(boolean redirectDetails) {
+        this.redirectDetails = redirectDetails;
+        return this;
+    }
+
+    /**
+     * Przywraca ustawienia domyślne (bez opóźnień, błędów i przekierowań) i zeruje liczniki.
+     */
+    public void reset() {
+        latencyMillis = 0;
+        errorRate = 0;
+        redirectDetails = false;
+        requests.set(0);
+        listRequests.set(0);
+        detailRequests.set(0);
+        errors.set(0);
+        redirects.set(0);
+        notFound.set(0);
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getListRequests() {
+        return listRequests.get();
+    }
+
+    public long getDetailRequests() {
+        return detailRequests.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    public long getRedirects() {
+        return redirects.get();
+    }
+
+    public long getNotFound() {
+        return notFound.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            long n = requests.incrementAndGet();
+            if (latencyMillis > 0) {
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            if (shouldFail(n)) {
+                errors.incrementAndGet();
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals(BODIES_PATH) || path.equals(BODIES_PATH.substring(0, BODIES_PATH.length() - 1))) {
+                listRequests.incrementAndGet();
+                respondJson(exchange, listResponse);
+                return;
+            }
+            if (path.startsWith(BODIES_PATH) && redirectDetails) {
+                redirects.incrementAndGet();
+                exchange.getResponseHeaders().add("Location", MOVED_PATH + path.substring(BODIES_PATH.length()));
+                exchange.sendResponseHeaders(302, -1);
+                return;
+            }
+            String key = path.startsWith(BODIES_PATH) ? path.substring(BODIES_PATH.length())
+                    : path.startsWith(MOVED_PATH) ? path.substring(MOVED_PATH.length()) : null;
+            byte[] detail = key != null ? detailResponses.get(normalize(key)) : null;
+            if (detail == null) {
+                notFound.incrementAndGet();
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            detailRequests.incrementAndGet();
+            respondJson(exchange, detail);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // zapytanie n kończy się błędem, gdy floor(n * rate) "przeskakuje" – równomiernie errorRate wszystkich zapytań
+    private boolean shouldFail(long n) {
+        double rate = errorRate;
+        return rate > 0 && Math.floor(n * rate) > Math.floor((n - 1) * rate);
+    }
+
+    private static void respondJson(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private String rewriteRels(String fixture) {
+        return fixture.replace(UPSTREAM_BASE, baseUrl);
+    }
+
+    // URLEncoder w aplikacji koduje spację jako "+", a API nie rozróżnia wielkości liter
+    private static String normalize(String key) {
+        String normalized = key.replace('+', ' ').trim().toLowerCase(Locale.ROOT);
+        return normalized.endsWith("/") ? normalized.substring(0, normalized.length() - 1) : normalized;
+    }
+
+    private static String loadFixture(String resource) throws IOException {
+        try (InputStream in = FakeSolarApiServer.class.getResourceAsStream("/" + resource)) {
+            if (in == null) {
+                throw new IOException("Missing fixture " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.solarapi.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.solarapi.model.SolarBodies;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Wspólne fixtury testów: minimalne ciało (planeta) do zapisu i statystyki Hibernate do liczenia zapytań.
+ */
+public final class SolarBodiesFixtures {
+
+    private SolarBodiesFixtures() {
+    }
+
+    public static SolarBodies body(String englishName) {
+        SolarBodies body = new SolarBodies();
+        body.setEnglishName(englishName);
+        body.setBodyType("Planet");
+        body.setPlanet(true);
+        return body;
+    }
+
+    public static SolarBodies body(String englishName, double gravity) {
+        SolarBodies body = body(englishName);
+        body.setGravity(gravity);
+        return body;
+    }
+
+    public static Statistics statistics(EntityManagerFactory entityManagerFactory) {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}